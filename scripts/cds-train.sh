@@ -0,0 +1,41 @@
+#!/bin/sh
+# Produit l'archive AppCDS de l'application.
+#
+# Usage : scripts/cds-train.sh <jar> <dossier>
+#
+# Le jar est extrait dans <dossier> (jar léger + lib/, disposition attendue
+# par AppCDS), puis démarré une fois en mode AOT jusqu'à la fin de la création
+# des beans (spring.context.exit=onRefresh) : les classes chargées sont écrites
+# dans <dossier>/application.jsa.
+#
+# L'entraînement ne se connecte à aucune base : les écritures du démarrage
+# (migrations, données par défaut) sont des StartupTask, exécutées après ce
+# point d'arrêt. Les variables d'environnement ci-dessous ne sont que des
+# valeurs factices qui permettent de résoudre la configuration prod.
+#
+# L'archive n'est valable que pour la JVM qui l'a produite : la générer avec
+# celle qui exécutera l'application (voir Dockerfile).
+set -eu
+
+JAR=$1
+OUT=$2
+
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+cd "$OUT"
+SPRING_PROFILES_ACTIVE=prod \
+PGHOST=localhost PGPORT=1 PGDATABASE=cds PGUSER=cds PGPASSWORD=cds \
+JWT_SECRET=Y2RzLXRyYWluaW5nLXNlY3JldC1jZHMtdHJhaW5pbmctc2VjcmV0 \
+JWT_ACCESS_EXPIRATION=60000 JWT_REFRESH_EXPIRATION=60000 \
+java -XX:ArchiveClassesAtExit=application.jsa \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -Dspring.main.lazy-initialization=false \
+    -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -Dspring.sql.init.mode=never \
+    -Dspring.flyway.locations=classpath:db/migration,classpath:db/vendor/postgresql \
+    -jar "$(basename "$JAR")"
+
+echo "Archive AppCDS : $OUT/application.jsa"
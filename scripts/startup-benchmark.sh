@@ -0,0 +1,90 @@
+#!/bin/sh
+# Mesure le temps de démarrage jusqu'à la disponibilité
+# (/actuator/health/readiness répond UP, préchauffage compris).
+#
+# Usage : scripts/startup-benchmark.sh [nombre de démarrages par mode]
+#
+# Prérequis :
+#   - mvn -Pfast-startup package (jar dans target/, archive dans target/cds/) ;
+#   - une base PostgreSQL et les variables de la configuration prod
+#     (PGHOST, PGPORT, PGDATABASE, PGUSER, PGPASSWORD, JWT_SECRET,
+#     JWT_ACCESS_EXPIRATION, JWT_REFRESH_EXPIRATION).
+#
+# Modes comparés, sur le même jar :
+#   standard : java -jar, sans AOT ni CDS ;
+#   rapide   : jar extrait, code AOT (-Dspring.aot.enabled=true) et archive
+#              AppCDS (-XX:SharedArchiveFile).
+# JAVA_OPTS est transmis aux deux modes, PORT choisit le port (8099 par défaut).
+set -eu
+
+RUNS=${1:-5}
+PORT=${PORT:-8099}
+JAVA_OPTS=${JAVA_OPTS:-}
+TIMEOUT_S=${TIMEOUT_S:-180}
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR=$(ls "$ROOT"/target/*.jar | grep -v '\.original$' | head -n 1)
+CDS_DIR="$ROOT/target/cds"
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+if [ ! -f "$CDS_DIR/application.jsa" ]; then
+    echo "Archive absente : lancer d'abord mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# Démarre l'application ($1 : dossier, reste : arguments java), attend la
+# disponibilité puis l'arrête. Affiche « <ms jusqu'à UP> <ms du démarrage Spring> ».
+measure() {
+    dir=$1
+    shift
+    start=$(now_ms)
+    (cd "$dir" && SPRING_PROFILES_ACTIVE=prod exec java $JAVA_OPTS -Dserver.port="$PORT" "$@") > "$LOG" 2>&1 &
+    pid=$!
+
+    ready=""
+    while [ $(($(now_ms) - start)) -lt $((TIMEOUT_S * 1000)) ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        if curl -fs -o /dev/null "http://localhost:$PORT/actuator/health/readiness"; then
+            ready=$(($(now_ms) - start))
+            break
+        fi
+        sleep 0.05
+    done
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    if [ -z "$ready" ]; then
+        echo "Application non disponible après ${TIMEOUT_S} s, journal :" >&2
+        tail -n 40 "$LOG" >&2
+        exit 1
+    fi
+    started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' "$LOG" | head -n 1)
+    echo "$ready ${started:-?}"
+}
+
+run_mode() {
+    name=$1
+    shift
+    total=0
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        result=$(measure "$@")
+        ready=${result% *}
+        total=$((total + ready))
+        echo "$name #$i : disponible en $ready ms (Spring démarré en ${result#* } s)"
+        i=$((i + 1))
+    done
+    echo "$name : moyenne $((total / RUNS)) ms"
+}
+
+run_mode standard "$ROOT/target" -jar "$JAR"
+run_mode rapide "$CDS_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -jar "$(basename "$JAR")"
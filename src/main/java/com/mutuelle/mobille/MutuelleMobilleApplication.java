@@ -2,19 +2,12 @@ package com.mutuelle.mobille;
 
 import com.mutuelle.mobille.service.notifications.config.EmailService;
 import com.mutuelle.mobille.service.notifications.config.NotificationService;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 @EnableScheduling
 @SpringBootApplication
 @EnableAsync
@@ -83,29 +76,4 @@ public class MutuelleMobilleApplication {
 //			e.printStackTrace();
 //		}
 //	}
-
-	/**
-	 * Ping régulier vers l'API Render pour éviter la mise en veille (cold start)
-	 */
-	@PostConstruct
-	public void startKeepAlivePinger() {
-		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-		executor.scheduleAtFixedRate(() -> {
-			try {
-				URL url = new URL("https://mutuelle-mobile-api-2025.onrender.com/api/config/current");
-				HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-				conn.setRequestMethod("GET");
-				conn.setConnectTimeout(5000); // 5 secondes max
-				conn.setReadTimeout(5000);
-				conn.connect();
-
-				int code = conn.getResponseCode();
-				System.out.println("Ping Render → code: " + code + " | " + java.time.LocalDateTime.now());
-
-				conn.disconnect();
-			} catch (Exception e) {
-				System.err.println("Échec ping Render : " + e.getMessage());
-			}
-		}, 0, 12, TimeUnit.MINUTES); // Toutes les 12 minutes
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.mutuelle.mobille.config;
+
+import com.mutuelle.mobille.config.startup.StartupTask;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Migrations versionnées (index, contraintes...) appliquées par Flyway.
+ *
+ * Les tables sont encore créées par Hibernate (ddl-auto=update) : la migration
+ * lancée par Spring Boot avant l'EntityManagerFactory est donc neutralisée et
+ * rejouée une fois le schéma Hibernate en place, au démarrage du contexte
+ * (avant les données par défaut et le serveur web). Les bases existantes sont
+ * baselinées en version 0 pour que V1 s'y applique.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.flyway", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer flywayBaselineCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+    }
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        // Différée : voir flywayDeferredMigration
+        return flyway -> { };
+    }
+
+    @Bean
+    public StartupTask flywayDeferredMigration(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        // La dépendance sur l'EntityManagerFactory garantit que le schéma Hibernate existe
+        return new StartupTask("migrations Flyway", StartupTask.SCHEMA_PHASE, () -> {
+            MigrateResult result = flyway.migrate();
+            log.info("Flyway : {} migration(s) appliquée(s), version du schéma {}",
+                    result.migrationsExecuted, result.targetSchemaVersion);
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.mutuelle.mobille.config.security;
 
+import com.mutuelle.mobille.enums.Role;
 import com.mutuelle.mobille.models.auth.AuthUser;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -8,28 +9,56 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * Principal authentifié : copie immuable de l'{@link AuthUser} lu à
+ * l'authentification, ou construite depuis les claims signés du token en
+ * mode sans lecture du compte (sans mot de passe ni PIN). Il est mis en
+ * cache avec le token et partagé par les requêtes concurrentes qui le
+ * présentent ; il ne garde donc pas l'entité.
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final AuthUser authUser;
+    private final Long id;
+    private final String email;
+    private final String passwordHash;
+    private final Role role;
+    private final String pin;
+    private final Long userRefId;
+    private final List<GrantedAuthority> authorities;
 
     public CustomUserDetails(AuthUser authUser) {
-        this.authUser = authUser;
+        this(authUser.getId(), authUser.getEmail(), authUser.getPasswordHash(), authUser.getRole(),
+                authUser.getPin(), authUser.getUserRefId());
+    }
+
+    /** Principal issu des claims d'un token d'accès : ni mot de passe ni PIN. */
+    public CustomUserDetails(Long id, String email, Role role, Long userRefId) {
+        this(id, email, null, role, null, userRefId);
+    }
+
+    private CustomUserDetails(Long id, String email, String passwordHash, Role role, String pin, Long userRefId) {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.role = role;
+        this.pin = pin;
+        this.userRefId = userRefId;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        String authority = "ROLE_" + authUser.getRole().name();
-        return List.of(new SimpleGrantedAuthority(authority));
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return authUser.getPasswordHash();
+        return passwordHash;
     }
 
     @Override
     public String getUsername() {
-        return authUser.getEmail(); // ou authUser.getId().toString() si vous préférez
+        return email; // ou id.toString() si vous préférez
     }
 
     @Override
@@ -45,19 +74,25 @@ public class CustomUserDetails implements UserDetails {
     public boolean isEnabled() { return true; }
 
     // Méthodes utilitaires pour accéder aux données personnalisées
+
+    /** Nouvelle copie détachée à chaque appel : la modifier n'affecte pas le principal. */
     public AuthUser getAuthUser() {
-        return authUser;
+        return new AuthUser(id, email, passwordHash, role, pin, userRefId);
     }
 
     public Long getUserRefId() {
-        return authUser.getUserRefId();
+        return userRefId;
     }
 
     public Long getId() {
-        return authUser.getId();
+        return id;
     }
 
     public String getEmail() {
-        return authUser.getEmail();
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
 package com.mutuelle.mobille.config.security;
 
+import com.mutuelle.mobille.enums.Role;
 import com.mutuelle.mobille.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,11 +19,26 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final TokenRevocationRegistry revocationRegistry;
+    // Principal construit depuis les claims signés, sans lecture du compte en base
+    private final boolean claimsOnly;
+
+    public JwtAuthFilter(JwtUtils jwtUtils,
+                         UserDetailsService userDetailsService,
+                         JwtAuthenticationCache authenticationCache,
+                         TokenRevocationRegistry revocationRegistry,
+                         @Value("${mutuelle.security.claims-only-auth:false}") boolean claimsOnly) {
+        this.jwtUtils = jwtUtils;
+        this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.revocationRegistry = revocationRegistry;
+        this.claimsOnly = claimsOnly;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,31 +56,58 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Il y a un header Bearer → on essaie de valider le token
         String jwt = authHeader.substring(7);
 
-        try {
-            String email = jwtUtils.getEmailFromToken(jwt);
-
-            // Important : on vérifie que l'utilisateur n'est pas déjà authentifié
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtils.isTokenValid(jwt)) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        // Important : on vérifie que l'utilisateur n'est pas déjà authentifié
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                UserDetails userDetails = authenticate(jwt);
 
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // On authentifie l'utilisateur
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
-                // Si token invalide/expiré → on ne fait rien → SecurityContext reste vide → 401
+                // On authentifie l'utilisateur
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (Exception e) {
+                // Token invalide, expiré ou corrompu → on ne fait rien → SecurityContext vide → 401
             }
-        } catch (Exception e) {
-            // Token invalide ou corrompu → on ne fait rien → SecurityContext vide → 401
-            // Tu peux logger ici si tu veux
         }
 
         filterChain.doFilter(request, response);
     }
 
+    // Token déjà validé : principal lu dans le cache, sans parsing ni base.
+    // Sinon le token est parsé une seule fois (signature + expiration) avant de charger l'utilisateur.
+    private UserDetails authenticate(String jwt) {
+        CustomUserDetails cached = authenticationCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = authenticationCache.generation();
+        Claims claims = jwtUtils.parseClaims(jwt);
+        UserDetails userDetails = claimsOnly
+                ? fromClaims(claims)
+                : userDetailsService.loadUserByUsername(claims.getSubject());
+        if (userDetails instanceof CustomUserDetails user) {
+            authenticationCache.put(jwt, user, claims.getExpiration(), generation);
+        }
+        return userDetails;
+    }
+
+    private CustomUserDetails fromClaims(Claims claims) {
+        Long userId = claims.get("userId", Long.class);
+        String type = claims.get("type", String.class);
+        if (userId == null || type == null) {
+            throw new IllegalArgumentException("Token sans identité utilisateur");
+        }
+        // Tokens émis avant l'ajout du claim "ver" : version initiale
+        Long version = claims.get("ver", Long.class);
+        if (revocationRegistry.isRevoked(userId, version != null ? version : 0L)) {
+            throw new IllegalArgumentException("Token révoqué");
+        }
+        return new CustomUserDetails(userId, claims.getSubject(), Role.fromValue(type), claims.get("refId", Long.class));
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -0,0 +1,104 @@
+package com.mutuelle.mobille.config.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache borné (LRU) token d'accès validé → principal.
+ *
+ * Un token présent a déjà été vérifié (signature, expiration) et son
+ * utilisateur chargé : les requêtes suivantes qui le présentent ne refont ni
+ * l'un ni l'autre. Une entrée expire avec son token ; celles d'un
+ * utilisateur sont retirées à sa déconnexion et quand son mot de passe, son
+ * email ou son PIN change, pour que sa prochaine requête relise le compte.
+ * {@code jwt-cache-size=0} désactive le cache.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private record Entry(CustomUserDetails user, long expiresAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    // Incrémenté à chaque éviction : un utilisateur lu avant n'est pas mis en cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public JwtAuthenticationCache(@Value("${mutuelle.security.jwt-cache-size:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Principal du token s'il est en cache et pas encore expiré, {@code null} sinon. */
+    public CustomUserDetails get(String token) {
+        synchronized (entries) {
+            Entry entry = entries.get(token);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                entries.remove(token);
+                return null;
+            }
+            return entry.user();
+        }
+    }
+
+    /** À lire avant de charger l'utilisateur, puis à passer à {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String token, CustomUserDetails user, Date expiration, long loadGeneration) {
+        if (maxEntries <= 0 || expiration == null) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(token, new Entry(user, expiration.getTime()));
+            }
+        }
+    }
+
+    /**
+     * Retire les tokens de l'utilisateur, tout de suite et à nouveau après le
+     * commit de la transaction en cours : une requête qui relirait le compte
+     * entre-temps ne remet pas l'ancien état en cache.
+     */
+    public void evictUser(Long authUserId) {
+        evict(authUserId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(authUserId);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(Long authUserId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> entry.user().getId().equals(authUserId));
+        }
+    }
+}
@@ -29,8 +29,10 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
 
+    // Statique : la sécurité des méthodes l'utilise dès l'enregistrement des
+    // post-processeurs, sans créer cette configuration ni le filtre JWT
     @Bean
-    public RoleHierarchy roleHierarchy() {
+    public static RoleHierarchy roleHierarchy() {
         return RoleHierarchyImpl.fromHierarchy("""
             ROLE_SUPER_ADMIN > ROLE_ADMIN
             ROLE_ADMIN > ROLE_MEMBER
@@ -59,6 +61,7 @@ public class SecurityConfig {
                                 "/api/auth/**",
                                 "/api/public/**",
                                 "/actuator/health",
+                                "/actuator/health/**",
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
                                 "/swagger-resources/**",
@@ -0,0 +1,41 @@
+package com.mutuelle.mobille.config.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version des tokens d'accès de chaque utilisateur, en mémoire.
+ *
+ * Un token porte la version courante de son utilisateur à sa création
+ * (claim {@code ver}) ; la déconnexion, le changement de mot de passe ou
+ * d'email et la désactivation incrémentent cette version, ce qui révoque
+ * tous les tokens émis avant. Seuls les utilisateurs déjà révoqués ont une
+ * entrée. La liste est propre à l'instance et perdue au redémarrage : la
+ * durée de vie des tokens d'accès borne alors l'exposition.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final JwtAuthenticationCache authenticationCache;
+
+    public TokenRevocationRegistry(JwtAuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
+    public long currentVersion(Long authUserId) {
+        return versions.getOrDefault(authUserId, 0L);
+    }
+
+    public boolean isRevoked(Long authUserId, long tokenVersion) {
+        return tokenVersion < currentVersion(authUserId);
+    }
+
+    /** Révoque les tokens déjà émis pour l'utilisateur et retire son principal du cache. */
+    public void revoke(Long authUserId) {
+        versions.merge(authUserId, 1L, Long::sum);
+        authenticationCache.evictUser(authUserId);
+    }
+}
@@ -0,0 +1,27 @@
+package com.mutuelle.mobille.config.startup;
+
+import com.mutuelle.mobille.config.DataInitializer;
+import com.mutuelle.mobille.service.schedules.ScheduledJob;
+import com.mutuelle.mobille.service.schedules.ScheduledJobRunner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans créés au démarrage même avec {@code spring.main.lazy-initialization=true} :
+ * données initiales et tâches planifiées. Les {@link StartupTask} et les
+ * beans portant des méthodes {@code @Scheduled} sont déjà créés par Spring
+ * Boot, avec les services qu'ils utilisent ; les autres sont créés à leur
+ * première utilisation, ou par {@link StartupWarmup}.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter startupCriticalBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataInitializer.class,
+                ScheduledJobRunner.class,
+                ScheduledJob.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mutuelle.mobille.config.startup;
+
+import com.mutuelle.mobille.service.AccountService;
+import com.mutuelle.mobille.service.BorrowingCeilingService;
+import com.mutuelle.mobille.service.MutuelleConfigService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Données indispensables avant la première requête : compte global,
+ * configuration par défaut et intervalles des plafonds d'emprunt (écrits si
+ * absents, puis chargés en mémoire). Chaque service absent du contexte (tests
+ * JPA) est ignoré.
+ *
+ * Les comptes et membres initiaux restent créés par {@code DataInitializer},
+ * après le démarrage du serveur.
+ */
+@Configuration
+public class StartupDataConfig {
+
+    @Bean
+    public StartupTask defaultDataInitialization(ObjectProvider<AccountService> accountService,
+                                                 ObjectProvider<MutuelleConfigService> mutuelleConfigService,
+                                                 ObjectProvider<BorrowingCeilingService> borrowingCeilingService) {
+        return new StartupTask("données par défaut", StartupTask.DATA_PHASE, () -> {
+            accountService.ifAvailable(AccountService::initGlobalAccount);
+            mutuelleConfigService.ifAvailable(MutuelleConfigService::initDefaultConfig);
+            borrowingCeilingService.ifAvailable(BorrowingCeilingService::loadDefaultIntervals);
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.mutuelle.mobille.config.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tâche exécutée une fois au démarrage du contexte, après la création des
+ * beans et avant le serveur web : aucune requête n'arrive avant sa fin.
+ *
+ * Contrairement à un {@code @PostConstruct}, elle ne s'exécute pas pendant la
+ * création des beans : un entraînement AppCDS
+ * ({@code -Dspring.context.exit=onRefresh}) s'arrête avant et n'a donc pas
+ * besoin de base de données. Les phases basses démarrent en premier.
+ */
+@Slf4j
+public class StartupTask implements SmartLifecycle {
+
+    /** Migrations du schéma. */
+    public static final int SCHEMA_PHASE = -2000;
+
+    /** Données par défaut, sur le schéma migré. */
+    public static final int DATA_PHASE = -1000;
+
+    private final String name;
+    private final int phase;
+    private final Runnable action;
+
+    private volatile boolean running;
+
+    public StartupTask(String name, int phase, Runnable action) {
+        this.name = name;
+        this.phase = phase;
+        this.action = action;
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        action.run();
+        running = true;
+        log.debug("Démarrage : {} en {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+}
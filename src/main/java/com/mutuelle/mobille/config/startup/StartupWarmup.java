@@ -0,0 +1,209 @@
+package com.mutuelle.mobille.config.startup;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.mutuelle.mobille.service.BilanPdfService;
+import com.mutuelle.mobille.service.notifications.mail.EmailTemplateRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Préchauffage au démarrage : remplace le ping externe qui évitait la mise en
+ * veille. Dès que l'application est prête, un thread dédié :
+ * <ol>
+ *   <li>lit une ligne de chaque entité (métamodèle Hibernate, plans de
+ *       requête, connexions du pool) ;</li>
+ *   <li>crée {@link EmailTemplateRenderer}, qui précompile les modèles
+ *       Thymeleaf, et produit un PDF d'une page (polices et classes OpenPDF) ;</li>
+ *   <li>appelle les routes publiques les plus sollicitées sur le port local,
+ *       au moins {@code min-rounds} fois et jusqu'à ce qu'un tour complet
+ *       réponde en moins de {@code fast-request-ms}.</li>
+ * </ol>
+ * Le délai entre le lancement de la JVM et ce premier tour rapide est
+ * journalisé et publié dans Micrometer
+ * ({@code mutuelle.startup.time-to-fast-request}). La sonde
+ * {@code /actuator/health/readiness} attend la fin du préchauffage
+ * ({@link WarmupHealthIndicator}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup {
+
+    private static final List<String> WARM_PATHS = List.of("/api/context", "/api/config/current");
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<EmailTemplateRenderer> emailTemplateRenderer;
+    private final ObjectProvider<BilanPdfService> bilanPdfService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Environment environment;
+
+    @Value("${mutuelle.startup.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mutuelle.startup.warmup.min-rounds:20}")
+    private int minRounds;
+
+    @Value("${mutuelle.startup.warmup.max-rounds:300}")
+    private int maxRounds;
+
+    @Value("${mutuelle.startup.warmup.fast-request-ms:50}")
+    private long fastRequestMs;
+
+    private final AtomicLong timeToFastRequestMs = new AtomicLong(-1);
+    private volatile boolean complete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            step("métamodèle Hibernate", this::primeHibernate);
+            step("modèles Thymeleaf", emailTemplateRenderer::getIfAvailable);
+            step("polices OpenPDF", this::primePdf);
+            step("routes publiques", this::primeRequests);
+        } finally {
+            complete = true;
+            log.info("Préchauffage terminé en {} ms ({} ms après le lancement de la JVM)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), uptimeMs());
+        }
+    }
+
+    private void step(String name, Step step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+            log.debug("Préchauffage {} : {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Préchauffage {} interrompu : {}", name, e.getMessage());
+        }
+    }
+
+    private void primeHibernate() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            for (EntityType<?> entity : em.getMetamodel().getEntities()) {
+                try {
+                    em.createQuery("SELECT e FROM " + entity.getName() + " e", entity.getJavaType())
+                            .setMaxResults(1)
+                            .getResultList();
+                } catch (RuntimeException e) {
+                    log.debug("Préchauffage de l'entité {} impossible : {}", entity.getName(), e.getMessage());
+                }
+                em.clear();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private void primePdf() throws Exception {
+        // Les polices des bilans sont chargées à l'initialisation de la classe
+        bilanPdfService.getIfAvailable();
+
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, OutputStream.nullOutputStream());
+        document.open();
+        document.add(new Paragraph("Préchauffage", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12)));
+        PdfPTable table = new PdfPTable(2);
+        table.addCell("Libellé");
+        table.addCell("0");
+        document.add(table);
+        document.close();
+    }
+
+    private void primeRequests() throws Exception {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return; // pas de serveur web (tests)
+        }
+        String base = "http://localhost:" + port + environment.getProperty("server.servlet.context-path", "");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        long firstRoundMs = -1;
+        for (int round = 1; round <= maxRounds; round++) {
+            long start = System.nanoTime();
+            for (String path : WARM_PATHS) {
+                client.send(HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+            long roundMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (firstRoundMs < 0) {
+                firstRoundMs = roundMs;
+            }
+
+            boolean fast = roundMs <= fastRequestMs;
+            if (fast && timeToFastRequestMs.get() < 0) {
+                recordTimeToFastRequest(uptimeMs(), firstRoundMs, roundMs, round);
+            }
+            if (fast && round >= minRounds) {
+                return;
+            }
+        }
+        if (timeToFastRequestMs.get() < 0) {
+            log.warn("Préchauffage : aucune réponse sous {} ms après {} tours (premier tour : {} ms)",
+                    fastRequestMs, maxRounds, firstRoundMs);
+        }
+    }
+
+    private void recordTimeToFastRequest(long uptimeMs, long firstRoundMs, long roundMs, int round) {
+        timeToFastRequestMs.set(uptimeMs);
+        log.info("Première requête rapide {} ms après le lancement de la JVM : {} ms au tour {} (premier tour : {} ms)",
+                uptimeMs, roundMs, round, firstRoundMs);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            TimeGauge.builder("mutuelle.startup.time-to-fast-request", timeToFastRequestMs, TimeUnit.MILLISECONDS, AtomicLong::get)
+                    .register(registry);
+        }
+    }
+
+    private static long uptimeMs() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,26 @@
+package com.mutuelle.mobille.config.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indicateur {@code warmup}, inclus dans le groupe {@code readiness} :
+ * {@code /actuator/health/readiness} reste OUT_OF_SERVICE tant que le
+ * préchauffage n'est pas terminé.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmup warmup;
+
+    @Override
+    public Health health() {
+        if (warmup.isComplete()) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("raison", "préchauffage en cours").build();
+    }
+}
@@ -75,7 +75,7 @@ public class AccountController {
     @GetMapping("/mutuelle")
     @Operation(summary = "Récupérer l'état de la caisse mutuelle (compte central)")
     public ResponseEntity<ApiResponseDto<AccountMutuelle>> getMutuelleAccount() {
-        AccountMutuelle account = accountService.getMutuelleGlobalAccount();
+        AccountMutuelle account = accountService.getMutuelleGlobalAccountSnapshot();
         return ResponseEntity.ok(
                 ApiResponseDto.ok(account, "État de la caisse mutuelle récupéré")
         );
@@ -51,8 +51,8 @@ public class AuthController {
     @PostMapping("/refresh")
     @Operation(summary = "Rafraîchir le token d'accès")
     public ResponseEntity<ApiResponseDto<TokenResponseDto>> refresh(@Valid @RequestBody RefreshRequestDto request) {
-        String newAccessToken = authService.refresh(request.getRefreshToken());
-        return ResponseEntity.ok(ApiResponseDto.ok(new TokenResponseDto(newAccessToken), "Token rafraîchi avec succès"));
+        TokenResponseDto tokens = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponseDto.ok(tokens, "Token rafraîchi avec succès"));
     }
 
     @PostMapping("/logout")
@@ -7,16 +7,26 @@ import com.mutuelle.mobille.dto.exercice.ExerciceHistoryDto;
 import com.mutuelle.mobille.dto.sessionHistory.SessionHistoryResponseDTO;
 import com.mutuelle.mobille.service.BilanPdfService;
 import com.mutuelle.mobille.service.BilanService;
+import com.mutuelle.mobille.service.BilanZipExportService;
+import com.mutuelle.mobille.service.bilan.BilanPdfCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/bilan")
@@ -26,6 +36,8 @@ public class BilanController {
 
     private final BilanService bilanService;
     private final BilanPdfService bilanPdfService;
+    private final BilanPdfCache bilanPdfCache;
+    private final BilanZipExportService bilanZipExportService;
 
     // ─────────────────────────────────────────────────────────────────────────
     //  BILAN MEMBRE PAR SESSION
@@ -50,9 +62,11 @@ public class BilanController {
     @Operation(summary = "Télécharger le bilan d'un membre pour une session (PDF)")
     public ResponseEntity<byte[]> getMemberSessionBilanPdf(
             @PathVariable Long memberId,
-            @PathVariable Long sessionId) {
-        byte[] pdf = bilanPdfService.generateMemberSessionBilanPdf(memberId, sessionId);
-        return pdfResponse(pdf, "bilan-membre-session-" + memberId + "-" + sessionId + ".pdf");
+            @PathVariable Long sessionId,
+            WebRequest request) {
+        return cachedPdf(bilanPdfCache.sessionKey(sessionId, BilanPdfCache.Report.MEMBER, memberId), request,
+                () -> bilanPdfService.generateMemberSessionBilanPdf(memberId, sessionId),
+                "bilan-membre-session-" + memberId + "-" + sessionId + ".pdf");
     }
 
     @GetMapping("/session/{sessionId}/membres")
@@ -68,9 +82,25 @@ public class BilanController {
     @GetMapping("/session/{sessionId}/membres/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
     @Operation(summary = "Télécharger la synthèse de tous les membres pour une session (PDF)")
-    public ResponseEntity<byte[]> getAllMembersSessionPdf(@PathVariable Long sessionId) {
-        byte[] pdf = bilanPdfService.generateAllMembersSessionPdf(sessionId);
-        return pdfResponse(pdf, "synthese-membres-session-" + sessionId + ".pdf");
+    public ResponseEntity<StreamingResponseBody> getAllMembersSessionPdf(@PathVariable Long sessionId,
+                                                                         WebRequest request) {
+        if (!bilanService.hasMemberBilansForSession(sessionId)) {
+            throw new RuntimeException("Aucun bilan disponible pour cette session");
+        }
+        return cachedPdfStream(bilanPdfCache.sessionKey(sessionId, BilanPdfCache.Report.ALL_MEMBERS, null), request,
+                out -> bilanPdfService.writeAllMembersSessionPdf(sessionId, out),
+                "synthese-membres-session-" + sessionId + ".pdf");
+    }
+
+    @GetMapping("/session/{sessionId}/membres/zip")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
+    @Operation(summary = "Télécharger les bilans PDF de tous les membres pour une session (ZIP)")
+    public ResponseEntity<StreamingResponseBody> getAllMembersSessionZip(@PathVariable Long sessionId) {
+        if (!bilanService.hasMemberBilansForSession(sessionId)) {
+            throw new RuntimeException("Aucun bilan disponible pour cette session");
+        }
+        return zipHeaders("bilans-membres-session-" + sessionId + ".zip")
+                .body(out -> bilanZipExportService.writeMemberSessionBilansZip(sessionId, out));
     }
 
     @GetMapping("/membre/{memberId}/sessions")
@@ -105,9 +135,11 @@ public class BilanController {
     @Operation(summary = "Télécharger le bilan d'un membre pour un exercice (PDF)")
     public ResponseEntity<byte[]> getMemberExerciceBilanPdf(
             @PathVariable Long memberId,
-            @PathVariable Long exerciceId) {
-        byte[] pdf = bilanPdfService.generateMemberExerciceBilanPdf(memberId, exerciceId);
-        return pdfResponse(pdf, "bilan-membre-exercice-" + memberId + "-" + exerciceId + ".pdf");
+            @PathVariable Long exerciceId,
+            WebRequest request) {
+        return cachedPdf(bilanPdfCache.exerciceKey(exerciceId, BilanPdfCache.Report.MEMBER, memberId), request,
+                () -> bilanPdfService.generateMemberExerciceBilanPdf(memberId, exerciceId),
+                "bilan-membre-exercice-" + memberId + "-" + exerciceId + ".pdf");
     }
 
     @GetMapping("/exercice/{exerciceId}/membres")
@@ -123,9 +155,25 @@ public class BilanController {
     @GetMapping("/exercice/{exerciceId}/membres/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
     @Operation(summary = "Télécharger la synthèse de tous les membres pour un exercice (PDF)")
-    public ResponseEntity<byte[]> getAllMembersExercicePdf(@PathVariable Long exerciceId) {
-        byte[] pdf = bilanPdfService.generateAllMembersExercicePdf(exerciceId);
-        return pdfResponse(pdf, "synthese-membres-exercice-" + exerciceId + ".pdf");
+    public ResponseEntity<StreamingResponseBody> getAllMembersExercicePdf(@PathVariable Long exerciceId,
+                                                                          WebRequest request) {
+        if (!bilanService.hasMemberBilansForExercice(exerciceId)) {
+            throw new RuntimeException("Aucun bilan disponible pour cet exercice");
+        }
+        return cachedPdfStream(bilanPdfCache.exerciceKey(exerciceId, BilanPdfCache.Report.ALL_MEMBERS, null), request,
+                out -> bilanPdfService.writeAllMembersExercicePdf(exerciceId, out),
+                "synthese-membres-exercice-" + exerciceId + ".pdf");
+    }
+
+    @GetMapping("/exercice/{exerciceId}/membres/zip")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
+    @Operation(summary = "Télécharger les bilans PDF de tous les membres pour un exercice (ZIP)")
+    public ResponseEntity<StreamingResponseBody> getAllMembersExerciceZip(@PathVariable Long exerciceId) {
+        if (!bilanService.hasMemberBilansForExercice(exerciceId)) {
+            throw new RuntimeException("Aucun bilan disponible pour cet exercice");
+        }
+        return zipHeaders("bilans-membres-exercice-" + exerciceId + ".zip")
+                .body(out -> bilanZipExportService.writeMemberExerciceBilansZip(exerciceId, out));
     }
 
     @GetMapping("/membre/{memberId}/exercices")
@@ -157,9 +205,10 @@ public class BilanController {
     @GetMapping("/mutuelle/session/{sessionId}/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
     @Operation(summary = "Télécharger le bilan de la mutuelle pour une session (PDF)")
-    public ResponseEntity<byte[]> getMutuelleSessionBilanPdf(@PathVariable Long sessionId) {
-        byte[] pdf = bilanPdfService.generateMutuelleSessionBilanPdf(sessionId);
-        return pdfResponse(pdf, "bilan-mutuelle-session-" + sessionId + ".pdf");
+    public ResponseEntity<byte[]> getMutuelleSessionBilanPdf(@PathVariable Long sessionId, WebRequest request) {
+        return cachedPdf(bilanPdfCache.sessionKey(sessionId, BilanPdfCache.Report.MUTUELLE, null), request,
+                () -> bilanPdfService.generateMutuelleSessionBilanPdf(sessionId),
+                "bilan-mutuelle-session-" + sessionId + ".pdf");
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -182,19 +231,60 @@ public class BilanController {
     @GetMapping("/mutuelle/exercice/{exerciceId}/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRESIDENT', 'TRESORIER')")
     @Operation(summary = "Télécharger le bilan de la mutuelle pour un exercice (PDF)")
-    public ResponseEntity<byte[]> getMutuelleExerciceBilanPdf(@PathVariable Long exerciceId) {
-        byte[] pdf = bilanPdfService.generateMutuelleExerciceBilanPdf(exerciceId);
-        return pdfResponse(pdf, "bilan-mutuelle-exercice-" + exerciceId + ".pdf");
+    public ResponseEntity<byte[]> getMutuelleExerciceBilanPdf(@PathVariable Long exerciceId, WebRequest request) {
+        return cachedPdf(bilanPdfCache.exerciceKey(exerciceId, BilanPdfCache.Report.MUTUELLE, null), request,
+                () -> bilanPdfService.generateMutuelleExerciceBilanPdf(exerciceId),
+                "bilan-mutuelle-exercice-" + exerciceId + ".pdf");
     }
 
     // ─────────────────────────────────────────────────────────────────────────
-    //  Helper
+    //  Helpers
     // ─────────────────────────────────────────────────────────────────────────
 
-    private ResponseEntity<byte[]> pdfResponse(byte[] pdf, String filename) {
+    // Session ou exercice clôturé : PDF servi depuis le cache disque, ou 304 si le
+    // client a déjà cette version (If-None-Match). Sinon, généré à chaque appel.
+    private ResponseEntity<byte[]> cachedPdf(Optional<BilanPdfCache.Key> key, WebRequest request,
+                                             Supplier<byte[]> generator, String filename) {
+        if (key.isEmpty()) {
+            return pdfHeaders(filename, null).body(generator.get());
+        }
+        String etag = key.get().etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return pdfHeaders(filename, etag).body(bilanPdfCache.getBytes(key.get(), generator));
+    }
+
+    // PDF écrit directement dans la réponse pendant sa génération, ou copié depuis le
+    // cache disque. Les cas d'erreur connus sont vérifiés avant : une fois l'écriture
+    // commencée, la réponse ne peut plus devenir une erreur JSON.
+    private ResponseEntity<StreamingResponseBody> cachedPdfStream(Optional<BilanPdfCache.Key> key, WebRequest request,
+                                                                  BilanPdfCache.PdfSource source, String filename) {
+        if (key.isEmpty()) {
+            return pdfHeaders(filename, null).body(source::writeTo);
+        }
+        String etag = key.get().etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Path file = bilanPdfCache.getFile(key.get(), source);
+        return pdfHeaders(filename, etag).body(out -> Files.copy(file, out));
+    }
+
+    private ResponseEntity.BodyBuilder pdfHeaders(String filename, String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_PDF_VALUE);
+        if (etag != null) {
+            // Conservé par le client mais revalidé à chaque fois : la réouverture change la version
+            builder.eTag(etag).cacheControl(CacheControl.noCache().cachePrivate());
+        }
+        return builder;
+    }
+
+    private ResponseEntity.BodyBuilder zipHeaders(String filename) {
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_PDF_VALUE)
-                .body(pdf);
+                .header(HttpHeaders.CONTENT_TYPE, "application/zip");
     }
 }
@@ -1,11 +1,10 @@
 package com.mutuelle.mobille.controller;
 
 import com.mutuelle.mobille.dto.ApiResponseDto;
-import com.mutuelle.mobille.enums.StatusSession;
-import com.mutuelle.mobille.models.Session;
-import com.mutuelle.mobille.repository.SessionRepository;
-import com.mutuelle.mobille.service.SessionService;
-import com.mutuelle.mobille.service.schedules.FinancialSchedules;
+import com.mutuelle.mobille.dto.schedule.ScheduledJobRunDTO;
+import com.mutuelle.mobille.dto.schedule.ScheduledJobStatusDTO;
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.service.schedules.ScheduledJobRunner;
 import com.mutuelle.mobille.service.schedules.StatusSchedules;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,128 +13,99 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
-import static java.time.LocalDateTime.now;
-
+/**
+ * Déclenchement manuel des tâches planifiées. Les exécutions passent par
+ * {@link ScheduledJobRunner}, comme les déclenchements automatiques : même
+ * verrou (pas d'exécution en parallèle d'une autre instance), même
+ * enregistrement et mêmes métriques.
+ */
 @RestController
 @RequestMapping("/api/shedules")
 @RequiredArgsConstructor
 @Tag(name = "Shedules manuels", description = "Déclenchement manuel des tâches planifiées (pour tests, debug, urgence)")
 public class ManualScheduleController {
 
-    private final StatusSchedules statusSchedules;
-    private final FinancialSchedules financialSchedules;
-    private final SessionRepository sessionRepository;
+    private static final String TRIMESTRIAL_INTERESTS = "trimestrial-interests";
+
+    private final ScheduledJobRunner jobRunner;
+
+    // -------------------------------------------------------------------------
+    //                  TÂCHES
+    // -------------------------------------------------------------------------
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Liste les tâches planifiées",
+            description = "Expression cron, déclenchement automatique actif ou non, dernière exécution"
+    )
+    public ResponseEntity<ApiResponseDto<List<ScheduledJobStatusDTO>>> listJobs() {
+        return ResponseEntity.ok(ApiResponseDto.ok(jobRunner.listJobs(), "Tâches planifiées"));
+    }
+
+    @PostMapping("/jobs/{name}/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Exécute manuellement une tâche planifiée",
+            description = "Ignorée si elle tourne déjà sur une instance ou si elle a déjà réussi pour sa clé"
+    )
+    public ResponseEntity<ApiResponseDto<ScheduledJobRunDTO>> triggerJob(@PathVariable String name) {
+        return respond(jobRunner.runNow(name));
+    }
 
     // -------------------------------------------------------------------------
     //                  STATUTS (sessions + exercices)
     // -------------------------------------------------------------------------
 
-//    @PostMapping("/status/synchronize-all")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    @Operation(
-//            summary = "Exécute manuellement la synchronisation complète des statuts",
-//            description = "Lance synchronizeAllStatuses() → termine les sessions/exercices expirés + démarre les suivants si possible"
-//    )
-//    public ResponseEntity<ApiResponseDto<String>> triggerSynchronizeAllStatuses() {
-//        try {
-//            statusSchedules.synchronizeAllStatuses();
-//            return ResponseEntity.ok(
-//                    ApiResponseDto.ok("Synchronisation des statuts terminée avec succès", "Opération manuelle effectuée")
-//            );
-//        } catch (Exception e) {
-//            return ResponseEntity.internalServerError().body(
-//                    ApiResponseDto.error("Échec de la synchronisation manuelle des statuts: "+ e.getMessage())
-//            );
-//        }
-//    }
-//    /*
-//    @PostMapping("/status/sessions/terminate-expired")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    @Operation(
-//            summary = "Termine manuellement toutes les sessions expirées sans renfoulement etc ...",
-//            description = "Exécute uniquement la partie 'clôture des sessions dépassées'"
-//    )
-//    public ResponseEntity<ApiResponseDto<String>> triggerTerminateExpiredSessions() {
-//        try {
-//            // On passe un fake now() très lointain pour forcer la détection de toutes les expirées
-//            statusSchedules.synchronizeSessions(now().plusYears(10));
-//            return ResponseEntity.ok(
-//                    ApiResponseDto.ok("Vérification et clôture des sessions expirées terminée", "Opération manuelle effectuée")
-//            );
-//        } catch (Exception e) {
-//            return ResponseEntity.internalServerError().body(
-//                    ApiResponseDto.error("Échec lors de la clôture manuelle des sessions: "+ e.getMessage())
-//            );
-//        }
-//    }*/
-//    /*
-//    @PostMapping("/status/sessions/start-pending")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    @Operation(
-//            summary = "Démarre manuellement les sessions dues (si aucune en cours)",
-//            description = "Exécute uniquement la partie démarrage des sessions planifiées et dues"
-//    )
-//    public ResponseEntity<ApiResponseDto<String>> triggerStartPendingSessions() {
-//        try {
-//            // On force la vérification avec la date actuelle
-//            statusSchedules.synchronizeSessions(now());
-//            return ResponseEntity.ok(
-//                    ApiResponseDto.ok("Tentative de démarrage des sessions dues terminée", "Opération manuelle effectuée")
-//            );
-//        } catch (Exception e) {
-//            return ResponseEntity.internalServerError().body(
-//                    ApiResponseDto.error("Échec lors du démarrage manuel des sessions: "+ e.getMessage())
-//            );
-//        }
-//    }*/
-//
-//    // -------------------------------------------------------------------------
-//    //                  INTÉRÊTS TRIMESTRIELS EMPRUNTS
-//    // -------------------------------------------------------------------------
-//
-//    @PostMapping("/financial/interests/trimestrial")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    @Operation(
-//            summary = "Exécute manuellement le calcul et la redistribution des intérêts trimestriels",
-//            description = "Lance processTrimestrialInterests() → utile pour tests ou rattrapage"
-//    )
-//    public ResponseEntity<ApiResponseDto<String>> triggerTrimestrialInterests() {
-//        try {
-//            financialSchedules.processTrimestrialInterests();
-//            return ResponseEntity.ok(
-//                    ApiResponseDto.ok("Calcul et redistribution des intérêts trimestriels terminés", "Opération manuelle effectuée")
-//            );
-//        } catch (Exception e) {
-//            return ResponseEntity.internalServerError().body(
-//                    ApiResponseDto.error("Échec du traitement manuel des intérêts trimestriels: "+ e.getMessage())
-//            );
-//        }
-//    }
-//
-//    // -------------------------------------------------------------------------
-//    //                  Exemple de point d'entrée "tout lancer" (optionnel)
-//    // -------------------------------------------------------------------------
-//
-//    @PostMapping("/trigger-all")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    @Operation(
-//            summary = "Exécute TOUTES les tâches planifiées manuellement (attention !)",
-//            description = "Lance la synchro statuts + intérêts trimestriels"
-//    )
-//    public ResponseEntity<ApiResponseDto<String>> triggerAllManual() {
-//        try {
-//            statusSchedules.synchronizeAllStatuses();
-//            financialSchedules.processTrimestrialInterests();
-//            return ResponseEntity.ok(
-//                    ApiResponseDto.ok("Toutes les tâches planifiées ont été exécutées manuellement", "Opération complète terminée")
-//            );
-//        } catch (Exception e) {
-//            return ResponseEntity.internalServerError().body(
-//                    ApiResponseDto.error("Échec lors de l'exécution complète manuelle : "+ e.getMessage())
-//            );
-//        }
-//    }
-}
\ No newline at end of file
+    @PostMapping("/status/synchronize-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Exécute manuellement la synchronisation complète des statuts",
+            description = "Termine les sessions/exercices expirés + démarre l'exercice suivant si possible"
+    )
+    public ResponseEntity<ApiResponseDto<ScheduledJobRunDTO>> triggerSynchronizeAllStatuses() {
+        return respond(jobRunner.runNow(StatusSchedules.JOB_NAME));
+    }
+
+    // -------------------------------------------------------------------------
+    //                  INTÉRÊTS TRIMESTRIELS EMPRUNTS
+    // -------------------------------------------------------------------------
+
+    @PostMapping("/financial/interests/trimestrial")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Exécute manuellement le calcul et la redistribution des intérêts trimestriels",
+            description = "Au plus une fois par session en cours → utile pour tests ou rattrapage"
+    )
+    public ResponseEntity<ApiResponseDto<ScheduledJobRunDTO>> triggerTrimestrialInterests() {
+        return respond(jobRunner.runNow(TRIMESTRIAL_INTERESTS));
+    }
+
+    // -------------------------------------------------------------------------
+    //                  Point d'entrée "tout lancer"
+    // -------------------------------------------------------------------------
+
+    @PostMapping("/trigger-all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Exécute TOUTES les tâches planifiées manuellement (attention !)",
+            description = "Lance la synchro statuts + intérêts trimestriels"
+    )
+    public ResponseEntity<ApiResponseDto<List<ScheduledJobRunDTO>>> triggerAllManual() {
+        List<ScheduledJobRunDTO> runs = List.of(
+                jobRunner.runNow(StatusSchedules.JOB_NAME),
+                jobRunner.runNow(TRIMESTRIAL_INTERESTS));
+        return ResponseEntity.ok(ApiResponseDto.ok(runs, "Opération complète terminée"));
+    }
+
+    private static ResponseEntity<ApiResponseDto<ScheduledJobRunDTO>> respond(ScheduledJobRunDTO run) {
+        if (run.getStatus() == ScheduledJobRunStatus.FAILED) {
+            return ResponseEntity.internalServerError().body(
+                    ApiResponseDto.error("Échec de la tâche " + run.getJobName() + " : " + run.getMessage())
+            );
+        }
+        return ResponseEntity.ok(ApiResponseDto.ok(run, "Opération manuelle effectuée"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.mutuelle.mobille.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compte global lu en une requête : ligne consolidée + variations pas encore reportées.
+ */
+@Data
+@AllArgsConstructor
+public class AccountMutuelleBalanceDTO {
+
+    private Long id;
+    private BigDecimal savingAmount;
+    private BigDecimal solidarityAmount;
+    private BigDecimal registrationAmount;
+    private BigDecimal borrowAmount;
+    private boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -9,4 +9,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class TokenResponseDto {
     private String accessToken;
+    // Remplace celui envoyé au rafraîchissement, révoqué
+    private String refreshToken;
 }
\ No newline at end of file
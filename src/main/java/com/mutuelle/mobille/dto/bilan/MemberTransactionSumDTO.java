@@ -0,0 +1,21 @@
+package com.mutuelle.mobille.dto.bilan;
+
+import com.mutuelle.mobille.enums.TransactionDirection;
+import com.mutuelle.mobille.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Ligne d'agrégation (compte membre, type, direction) → somme des montants.
+ * Construite directement par les requêtes GROUP BY de TransactionRepository.
+ */
+@Data
+@AllArgsConstructor
+public class MemberTransactionSumDTO {
+    private Long accountMemberId;
+    private TransactionType transactionType;
+    private TransactionDirection transactionDirection;
+    private BigDecimal total;
+}
@@ -0,0 +1,19 @@
+package com.mutuelle.mobille.dto.notifications;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Destinataire d'une notification de masse : membre, email de son compte
+ * d'authentification et présence d'au moins un token push, lus en une requête.
+ */
+@Data
+@AllArgsConstructor
+public class NotificationRecipientDTO {
+
+    private Long memberId;
+    private String email;
+    private String firstname;
+    private String lastname;
+    private boolean hasPushToken;
+}
@@ -0,0 +1,17 @@
+package com.mutuelle.mobille.dto.notifications;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Compte d'authentification et l'un de ses tokens push ({@code null} si
+ * aucun appareil n'est enregistré) : une ligne par appareil.
+ */
+@Data
+@AllArgsConstructor
+public class PushTargetDTO {
+
+    private Long userId;
+    private String email;
+    private String token;
+}
@@ -0,0 +1,27 @@
+package com.mutuelle.mobille.dto.schedule;
+
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.enums.ScheduledJobTrigger;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobRunDTO {
+    private String jobName;
+    private String runKey;
+    private ScheduledJobTrigger trigger;
+    private ScheduledJobRunStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private int processedCount;
+    private int failedCount;
+    private String message;
+}
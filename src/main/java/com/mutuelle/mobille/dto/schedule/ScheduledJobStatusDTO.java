@@ -0,0 +1,17 @@
+package com.mutuelle.mobille.dto.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobStatusDTO {
+    private String name;
+    private String cron;
+    private boolean enabled;
+    private ScheduledJobRunDTO lastRun;
+}
@@ -0,0 +1,25 @@
+package com.mutuelle.mobille.dto.transaction;
+
+import com.mutuelle.mobille.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Ligne d'agrégation (session ou compte, type) → nombre et somme des
+ * transactions. Construite par les requêtes GROUP BY de TransactionRepository
+ * et LedgerCounterRepository ; {@code scopeId} vaut 0 pour les totaux globaux.
+ */
+@Data
+@AllArgsConstructor
+public class LedgerTotalDTO {
+    private Long scopeId;
+    private TransactionType transactionType;
+    private Long count;
+    private BigDecimal amount;
+
+    public LedgerTotalDTO(TransactionType transactionType, Long count, BigDecimal amount) {
+        this(0L, transactionType, count, amount);
+    }
+}
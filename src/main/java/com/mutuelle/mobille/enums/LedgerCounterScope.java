@@ -0,0 +1,8 @@
+package com.mutuelle.mobille.enums;
+
+public enum LedgerCounterScope {
+    GLOBAL,
+    SESSION,
+    // Compte membre (accounts_member)
+    ACCOUNT
+}
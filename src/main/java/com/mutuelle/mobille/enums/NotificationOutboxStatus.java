@@ -0,0 +1,8 @@
+package com.mutuelle.mobille.enums;
+
+public enum NotificationOutboxStatus {
+    PENDING,     // en attente d'envoi (ou de nouvel essai)
+    PROCESSING,  // réservée par un worker
+    SENT,
+    DEAD         // abandonnée après le nombre maximal d'essais
+}
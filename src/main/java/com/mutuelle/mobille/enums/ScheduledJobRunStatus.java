@@ -0,0 +1,9 @@
+package com.mutuelle.mobille.enums;
+
+public enum ScheduledJobRunStatus {
+    RUNNING,
+    SUCCEEDED,
+    PARTIAL,     // terminée avec des éléments en échec
+    FAILED,
+    SKIPPED      // non exécutée (verrou pris, déjà réussie, rien à faire) ; jamais enregistrée
+}
@@ -0,0 +1,7 @@
+package com.mutuelle.mobille.enums;
+
+public enum ScheduledJobTrigger {
+    SCHEDULED,   // créneau cron
+    CATCH_UP,    // créneau manqué pendant un arrêt, rattrapé au démarrage
+    MANUAL       // déclenchée par un administrateur
+}
@@ -3,6 +3,7 @@ package com.mutuelle.mobille.exception;
 import com.mutuelle.mobille.dto.ApiResponseDto;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -65,6 +66,13 @@ public class GlobalExceptionHandler {
                 .body(ApiResponseDto.unauthorized("Compte désactivé, bloqué ou introuvable"));
     }
 
+    // Compte modifié en parallèle (@Version) : le client doit recharger et réessayer
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponseDto<?>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponseDto.errorCustom("Ce compte a été modifié par une autre opération. Veuillez réessayer.", 409));
+    }
+
     // 5. Tes RuntimeException personnalisées (ex: refresh token expiré)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponseDto<?>> handleRuntimeException(RuntimeException ex) {
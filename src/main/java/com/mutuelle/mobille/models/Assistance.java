@@ -1,5 +1,6 @@
 package com.mutuelle.mobille.models;
 
+import com.mutuelle.mobille.service.context.ContextChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "assistances")
+@EntityListeners(ContextChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
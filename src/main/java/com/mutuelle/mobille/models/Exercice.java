@@ -1,6 +1,7 @@
 package com.mutuelle.mobille.models;
 
 import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.service.context.ContextChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -11,6 +12,7 @@ import  com.mutuelle.mobille.enums.StatusExercice;
 
 @Entity
 @Table(name = "exercices")
+@EntityListeners(ContextChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
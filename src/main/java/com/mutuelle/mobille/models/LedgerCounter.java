@@ -0,0 +1,48 @@
+package com.mutuelle.mobille.models;
+
+import com.mutuelle.mobille.enums.LedgerCounterScope;
+import com.mutuelle.mobille.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Compteur des transactions par portée (globale, session, compte membre) et
+ * par type. Chaque transaction métier insère une ligne par compteur touché
+ * (jamais de mise à jour) ; le total d'un compteur est la somme de ses
+ * lignes, regroupées périodiquement en une seule.
+ */
+@Entity
+@Table(name = "ledger_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_counters_seq")
+    @SequenceGenerator(name = "ledger_counters_seq", sequenceName = "ledger_counters_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 16)
+    private LedgerCounterScope scope;
+
+    // Identifiant de la session ou du compte membre, 0 pour la portée globale
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 32)
+    private TransactionType transactionType;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+
+    @Builder.Default
+    @Column(name = "amount_total", precision = 16, scale = 2, nullable = false)
+    private BigDecimal amountTotal = BigDecimal.ZERO;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.mutuelle.mobille.models.account.AccountMember;
 import com.mutuelle.mobille.enums.MemberStatus;
+import com.mutuelle.mobille.service.context.ContextChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "members")
+@EntityListeners(ContextChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,6 +2,7 @@ package com.mutuelle.mobille.models;
 
 import com.mutuelle.mobille.enums.StatusExercice;
 import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.service.context.ContextChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import lombok.*;
@@ -12,6 +13,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "sessions")
+@EntityListeners(ContextChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
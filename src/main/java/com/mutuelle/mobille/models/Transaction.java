@@ -3,6 +3,8 @@ package com.mutuelle.mobille.models;
 import com.mutuelle.mobille.enums.TransactionDirection;
 import com.mutuelle.mobille.enums.TransactionType;
 import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.service.LedgerCounterListener;
+import com.mutuelle.mobille.service.context.ContextChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "transactions")
+@EntityListeners({ContextChangeListener.class, LedgerCounterListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +24,9 @@ import java.util.List;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Séquence par blocs (et non IDENTITY) pour permettre le batching JDBC des inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "amount", precision = 12, scale = 2)
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class AccountMember {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_member_seq")
+    @SequenceGenerator(name = "accounts_member_seq", sequenceName = "accounts_member_seq", allocationSize = 50)
     private Long id;
 
     // Frais d'inscription impayés
@@ -74,6 +75,11 @@ public class AccountMember {
     @JoinColumn(name = "member_id", nullable = false)
     private Member member;
 
+    // Verrouillage optimiste : deux mises à jour concurrentes du même compte ne s'écrasent pas
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,51 @@
+package com.mutuelle.mobille.models.account;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Variation en attente sur les caisses du compte global.
+ * Chaque opération financière insère une ligne (jamais de mise à jour) ;
+ * les lignes sont ensuite reportées dans {@link AccountMutuelle} puis supprimées.
+ */
+@Entity
+@Table(name = "accounts_mutuelle_deltas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountMutuelleDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_mutuelle_deltas_seq")
+    @SequenceGenerator(name = "accounts_mutuelle_deltas_seq", sequenceName = "accounts_mutuelle_deltas_seq", allocationSize = 50)
+    private Long id;
+
+    @Builder.Default
+    @Column(name = "saving_delta", precision = 12, scale = 2, nullable = false)
+    private BigDecimal savingDelta = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "solidarity_delta", precision = 12, scale = 2, nullable = false)
+    private BigDecimal solidarityDelta = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "registration_delta", precision = 12, scale = 2, nullable = false)
+    private BigDecimal registrationDelta = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "borrow_delta", precision = 12, scale = 2, nullable = false)
+    private BigDecimal borrowDelta = BigDecimal.ZERO;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -8,6 +8,11 @@ import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
+/**
+ * Refresh token : seule son empreinte SHA-256 est stockée, la valeur n'est
+ * connue que du client. Chaque rafraîchissement révoque le token présenté
+ * et en émet un nouveau dans la même famille (chaîne de rotation).
+ */
 @Entity
 @Table(name = "refresh_tokens")
 @Data
@@ -19,8 +24,18 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
-    private String token;
+    // Colonnes nullables en base : ajoutées par Hibernate à une table déjà remplie,
+    // puis renseignées par la migration V5
+    @Column(name = "token_hash", unique = true, length = 64)
+    private String tokenHash;
+
+    // Connexion d'origine, partagée par tous les tokens issus de ses rotations
+    @Column(name = "family_id", length = 36)
+    private String familyId;
+
+    // Token remplacé par celui-ci (null pour le premier de la famille)
+    @Column(name = "parent_id")
+    private Long parentId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "auth_user_id", nullable = false)
@@ -31,4 +46,4 @@ public class RefreshToken {
 
     @Column(nullable = false)
     private boolean revoked = false;
-}
\ No newline at end of file
+}
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class MemberExerciceBilan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_exercice_bilans_seq")
+    @SequenceGenerator(name = "member_exercice_bilans_seq", sequenceName = "member_exercice_bilans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
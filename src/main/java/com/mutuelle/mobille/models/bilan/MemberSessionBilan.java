@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class MemberSessionBilan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_session_bilans_seq")
+    @SequenceGenerator(name = "member_session_bilans_seq", sequenceName = "member_session_bilans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,87 @@
+package com.mutuelle.mobille.models.notification;
+
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.enums.NotificationOutboxStatus;
+import com.mutuelle.mobille.enums.TemplateMailsName;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification à envoyer sur un canal, écrite dans la même transaction que
+ * l'opération métier qui la déclenche et envoyée ensuite par
+ * {@code NotificationOutboxWorker}. Une ligne par canal : chaque canal a ses
+ * propres essais. L'index de relève des lignes dues est créé par la
+ * migration V7 (db/vendor).
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 20)
+    private NotificationChannel channel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private NotificationOutboxStatus status = NotificationOutboxStatus.PENDING;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "message", length = 4000)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "template_name", length = 50)
+    private TemplateMailsName templateName;
+
+    // Variables Thymeleaf et données push, sérialisées (voir NotificationPayloadCodec)
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "payload", length = 1_000_000)
+    private byte[] payload;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mutuelle.mobille.models.schedule;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Verrou d'une tâche planifiée, partagé par toutes les instances : une ligne
+ * par tâche, prise par une mise à jour conditionnelle tant que
+ * {@code lockedUntil} est dépassé. C'est un bail : une instance arrêtée en
+ * cours d'exécution ne bloque la tâche que jusqu'à son expiration.
+ */
+@Entity
+@Table(name = "scheduled_job_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJobLock {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by", length = 150)
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    // Nul tant que la ligne n'est pas écrite : save() l'insère au lieu d'écraser celle d'une autre instance
+    @Version
+    private Long version;
+}
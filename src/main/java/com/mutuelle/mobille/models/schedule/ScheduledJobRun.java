@@ -0,0 +1,63 @@
+package com.mutuelle.mobille.models.schedule;
+
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.enums.ScheduledJobTrigger;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exécution d'une tâche planifiée. {@code runKey} identifie ce que
+ * l'exécution traite (un créneau cron, une session…) : une clé déjà
+ * exécutée avec succès n'est pas rejouée.
+ */
+@Entity
+@Table(name = "scheduled_job_runs",
+        indexes = @Index(name = "idx_scheduled_job_runs_key", columnList = "job_name, run_key"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledJobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false, length = 100)
+    private String runKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "run_trigger", nullable = false, length = 20)
+    private ScheduledJobTrigger trigger;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ScheduledJobRunStatus status;
+
+    @Column(name = "instance", length = 150)
+    private String instance;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "processed_count")
+    private int processedCount;
+
+    @Column(name = "failed_count")
+    private int failedCount;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+}
@@ -2,6 +2,8 @@ package com.mutuelle.mobille.repository;
 
 import com.mutuelle.mobille.models.account.AccountMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -13,7 +15,14 @@ import java.util.Optional;
 public interface AccountMemberRepository extends JpaRepository<AccountMember, Long> {
     Optional<AccountMember> findByMemberId(Long memberId);
     List<AccountMember> findByBorrowAmountGreaterThan(BigDecimal zero);
+
+    @Query("SELECT a FROM AccountMember a JOIN FETCH a.member WHERE a.borrowAmount > :amount")
+    List<AccountMember> findByBorrowAmountGreaterThanWithMember(@Param("amount") BigDecimal amount);
+    List<AccountMember> findBySavingAmountGreaterThanOrderByIdAsc(BigDecimal zero);
     List<AccountMember> findByLastInterestDateBefore(LocalDateTime date);
     List<AccountMember> findAllByIsActive(boolean isActive);
+
+    @Query("SELECT a FROM AccountMember a JOIN FETCH a.member WHERE a.isActive = :isActive")
+    List<AccountMember> findAllByIsActiveWithMember(@Param("isActive") boolean isActive);
     List<AccountMember> findByUnpaidRenfoulementGreaterThan(BigDecimal amount);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.models.account.AccountMutuelleDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountMutuelleDeltaRepository extends JpaRepository<AccountMutuelleDelta, Long> {
+
+    @Query("SELECT MAX(d.id) FROM AccountMutuelleDelta d")
+    Long findMaxId();
+
+    // Lecture simple, sans verrou : les variations ne sont jamais modifiées et les inserts concurrents ne sont pas bloqués
+    @Query("SELECT d FROM AccountMutuelleDelta d WHERE d.id <= :maxId ORDER BY d.id")
+    List<AccountMutuelleDelta> findAllForRollup(@Param("maxId") Long maxId);
+}
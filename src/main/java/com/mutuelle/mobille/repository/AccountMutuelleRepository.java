@@ -1,10 +1,38 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.dto.account.AccountMutuelleBalanceDTO;
 import com.mutuelle.mobille.models.account.AccountMutuelle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface AccountMutuelleRepository extends JpaRepository<AccountMutuelle, Long> {
     boolean existsById(Long id); // ou simplement utiliser count() > 0
-}
\ No newline at end of file
+
+    @Query("SELECT MIN(a.id) FROM AccountMutuelle a")
+    Optional<Long> findFirstId();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountMutuelle a WHERE a.id = :id")
+    Optional<AccountMutuelle> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Soldes courants = ligne consolidée + somme des variations en attente.
+     * Une seule requête : ligne et variations sont lues dans le même instantané,
+     * un report concurrent ne peut donc ni doubler ni perdre un montant.
+     */
+    @Query("SELECT new com.mutuelle.mobille.dto.account.AccountMutuelleBalanceDTO(a.id, " +
+            "COALESCE(a.savingAmount, 0) + (SELECT COALESCE(SUM(d.savingDelta), 0) FROM AccountMutuelleDelta d), " +
+            "COALESCE(a.solidarityAmount, 0) + (SELECT COALESCE(SUM(d.solidarityDelta), 0) FROM AccountMutuelleDelta d), " +
+            "COALESCE(a.registrationAmount, 0) + (SELECT COALESCE(SUM(d.registrationDelta), 0) FROM AccountMutuelleDelta d), " +
+            "COALESCE(a.borrowAmount, 0) + (SELECT COALESCE(SUM(d.borrowDelta), 0) FROM AccountMutuelleDelta d), " +
+            "a.isActive, a.createdAt, a.updatedAt) " +
+            "FROM AccountMutuelle a WHERE a.id = :id")
+    Optional<AccountMutuelleBalanceDTO> findBalanceWithPendingDeltas(@Param("id") Long id);
+}
@@ -5,6 +5,7 @@ import com.mutuelle.mobille.models.auth.AuthUser;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,8 @@ public interface AuthUserRepository extends JpaRepository<AuthUser, Long> {
     // Pour les admins uniquement
     Optional<AuthUser> findByUserRefIdAndRole(Long userRefId, Role role);
 
+    List<AuthUser> findByUserRefIdInAndRole(Collection<Long> userRefIds, Role role);
+
     // Tous les utilisateurs d’un certain type
     long countByRole(Role role);
 
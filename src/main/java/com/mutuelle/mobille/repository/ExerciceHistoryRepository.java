@@ -1,7 +1,10 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.enums.StatusExercice;
 import com.mutuelle.mobille.models.ExerciceHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,8 @@ import java.util.Optional;
 public interface ExerciceHistoryRepository extends JpaRepository<ExerciceHistory, Long> {
     boolean existsByExerciceId(Long exerciceId);
     Optional<ExerciceHistory> findByExerciceId(Long exerciceId);
+
+    @Query("SELECT eh.id FROM ExerciceHistory eh WHERE eh.exercice.id = :exerciceId AND eh.exercice.status = :status")
+    Optional<Long> findIdByExerciceIdAndExerciceStatus(@Param("exerciceId") Long exerciceId,
+                                                       @Param("status") StatusExercice status);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.dto.transaction.LedgerTotalDTO;
+import com.mutuelle.mobille.enums.LedgerCounterScope;
+import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.LedgerCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface LedgerCounterRepository extends JpaRepository<LedgerCounter, Long> {
+
+    @Query("SELECT COALESCE(SUM(c.txCount), 0) FROM LedgerCounter c " +
+           "WHERE c.scope = :scope AND c.scopeId = :scopeId AND c.transactionType = :type")
+    long countOf(@Param("scope") LedgerCounterScope scope,
+                 @Param("scopeId") Long scopeId,
+                 @Param("type") TransactionType type);
+
+    @Query("SELECT COALESCE(SUM(c.txCount), 0) FROM LedgerCounter c WHERE c.scope = :scope AND c.scopeId = :scopeId")
+    long countAllTypesOf(@Param("scope") LedgerCounterScope scope, @Param("scopeId") Long scopeId);
+
+    @Query("SELECT COALESCE(SUM(c.amountTotal), 0) FROM LedgerCounter c " +
+           "WHERE c.scope = :scope AND c.scopeId = :scopeId AND c.transactionType = :type")
+    BigDecimal amountOf(@Param("scope") LedgerCounterScope scope,
+                        @Param("scopeId") Long scopeId,
+                        @Param("type") TransactionType type);
+
+    // Compteurs du compte d'un membre, sans passer par son identifiant de compte
+    @Query("SELECT COALESCE(SUM(c.txCount), 0) FROM LedgerCounter c, AccountMember a " +
+           "WHERE c.scope = com.mutuelle.mobille.enums.LedgerCounterScope.ACCOUNT " +
+           "AND c.scopeId = a.id AND a.member.id = :memberId")
+    long countAllTypesOfMember(@Param("memberId") Long memberId);
+
+    @Query("SELECT new com.mutuelle.mobille.dto.transaction.LedgerTotalDTO(" +
+           "c.scopeId, c.transactionType, SUM(c.txCount), SUM(c.amountTotal)) " +
+           "FROM LedgerCounter c WHERE c.scope = :scope " +
+           "GROUP BY c.scopeId, c.transactionType")
+    List<LedgerTotalDTO> sumByScope(@Param("scope") LedgerCounterScope scope);
+
+    // Lignes des compteurs qui en ont plusieurs, verrouillées : un second regroupement concurrent attend
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM LedgerCounter c WHERE EXISTS (" +
+           "SELECT o.id FROM LedgerCounter o WHERE o.scope = c.scope AND o.scopeId = c.scopeId " +
+           "AND o.transactionType = c.transactionType AND o.id <> c.id) " +
+           "ORDER BY c.id")
+    List<LedgerCounter> findAllForRollup();
+}
@@ -1,11 +1,15 @@
 package com.mutuelle.mobille.repository;
 
 import com.mutuelle.mobille.models.bilan.MemberExerciceBilan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface MemberExerciceBilanRepository extends JpaRepository<MemberExerciceBilan, Long> {
@@ -14,7 +18,19 @@ public interface MemberExerciceBilanRepository extends JpaRepository<MemberExerc
 
     boolean existsByMemberIdAndExerciceId(Long memberId, Long exerciceId);
 
+    @Query("SELECT b.member.id FROM MemberExerciceBilan b WHERE b.exercice.id = :exerciceId")
+    Set<Long> findMemberIdsByExerciceId(@Param("exerciceId") Long exerciceId);
+
     List<MemberExerciceBilan> findByMemberId(Long memberId);
 
     List<MemberExerciceBilan> findByExerciceId(Long exerciceId);
+
+    boolean existsByExerciceId(Long exerciceId);
+
+    // Page suivante par id croissant, membre (et son compte) et exercice joints : cf. findPageBySessionId
+    @Query("SELECT b FROM MemberExerciceBilan b JOIN FETCH b.member m JOIN FETCH m.accountMember JOIN FETCH b.exercice e " +
+            "WHERE e.id = :exerciceId AND b.id > :afterId ORDER BY b.id")
+    List<MemberExerciceBilan> findPageByExerciceId(@Param("exerciceId") Long exerciceId,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
 }
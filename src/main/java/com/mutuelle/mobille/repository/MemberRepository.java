@@ -1,5 +1,7 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.dto.notifications.NotificationRecipientDTO;
+import com.mutuelle.mobille.enums.Role;
 import com.mutuelle.mobille.models.Member;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +42,9 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     @Query("SELECT m FROM Member m LEFT JOIN FETCH m.accountMember WHERE m.isActive = true")
     List<Member> findAllActiveWithAccount();
 
+    @Query("SELECT m FROM Member m LEFT JOIN FETCH m.accountMember")
+    List<Member> findAllWithAccount();
+
     @Query("SELECT m FROM Member m LEFT JOIN FETCH m.accountMember WHERE m.phone = :phone")
     Optional<Member> findByPhoneWithAccount(@Param("phone") String phone);
 
@@ -48,4 +54,21 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
 
     @Query("SELECT m FROM Member m WHERE m.isActive = true")
     List<Member> findAllActiveMembers();
-}
\ No newline at end of file
+
+    // Destinataires des notifications de masse : membre + email + présence de token push
+    String NOTIFICATION_RECIPIENT_SELECT =
+            "SELECT DISTINCT new com.mutuelle.mobille.dto.notifications.NotificationRecipientDTO(" +
+            "m.id, u.email, m.firstname, m.lastname, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM PushToken pt WHERE pt.user = u) THEN true ELSE false END) " +
+            "FROM Member m, AuthUser u " +
+            "WHERE u.userRefId = m.id AND u.role = :role AND m.isActive = true " +
+            "AND u.email IS NOT NULL AND TRIM(u.email) <> '' ";
+
+    @Query(NOTIFICATION_RECIPIENT_SELECT +
+            "AND EXISTS (SELECT 1 FROM AccountMember a WHERE a.member = m AND a.isActive = true)")
+    List<NotificationRecipientDTO> findActiveNotificationRecipients(@Param("role") Role role);
+
+    @Query(NOTIFICATION_RECIPIENT_SELECT + "AND m.id IN :memberIds")
+    List<NotificationRecipientDTO> findNotificationRecipientsByIds(@Param("memberIds") Collection<Long> memberIds,
+                                                                   @Param("role") Role role);
+}
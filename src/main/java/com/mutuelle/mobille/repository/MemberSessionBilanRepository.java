@@ -1,6 +1,7 @@
 package com.mutuelle.mobille.repository;
 
 import com.mutuelle.mobille.models.bilan.MemberSessionBilan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface MemberSessionBilanRepository extends JpaRepository<MemberSessionBilan, Long> {
@@ -16,10 +18,23 @@ public interface MemberSessionBilanRepository extends JpaRepository<MemberSessio
 
     boolean existsByMemberIdAndSessionId(Long memberId, Long sessionId);
 
+    @Query("SELECT b.member.id FROM MemberSessionBilan b WHERE b.session.id = :sessionId")
+    Set<Long> findMemberIdsBySessionId(@Param("sessionId") Long sessionId);
+
     List<MemberSessionBilan> findByMemberId(Long memberId);
 
     List<MemberSessionBilan> findBySessionId(Long sessionId);
 
+    boolean existsBySessionId(Long sessionId);
+
+    // Page suivante (par id croissant, après afterId) avec membre, session et exercice dans la même requête ;
+    // le compte du membre est joint aussi, sans quoi Hibernate le lirait membre par membre (OneToOne inverse)
+    @Query("SELECT b FROM MemberSessionBilan b JOIN FETCH b.member m JOIN FETCH m.accountMember JOIN FETCH b.session s JOIN FETCH s.exercice " +
+            "WHERE s.id = :sessionId AND b.id > :afterId ORDER BY b.id")
+    List<MemberSessionBilan> findPageBySessionId(@Param("sessionId") Long sessionId,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
     @Query("SELECT b FROM MemberSessionBilan b WHERE b.session.exercice.id = :exerciceId")
     List<MemberSessionBilan> findBySessionExerciceId(@Param("exerciceId") Long exerciceId);
 
@@ -0,0 +1,57 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.enums.NotificationOutboxStatus;
+import com.mutuelle.mobille.models.notification.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Lignes à envoyer, verrouillées ; timeout -2 = SKIP LOCKED là où le SGBD le permet,
+    // deux instances ne réservent donc pas les mêmes lignes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o " +
+            "WHERE o.status = :status AND o.channel = :channel AND o.nextAttemptAt <= :now " +
+            "ORDER BY o.id")
+    List<NotificationOutbox> findDueForUpdate(@Param("channel") NotificationChannel channel,
+                                              @Param("status") NotificationOutboxStatus status,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+
+    // Lignes réservées par un worker arrêté avant la fin de l'envoi
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.lockedAt = null " +
+            "WHERE o.status = :processing AND o.lockedAt < :before")
+    int releaseStale(@Param("pending") NotificationOutboxStatus pending,
+                     @Param("processing") NotificationOutboxStatus processing,
+                     @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :sent, o.sentAt = :now, o.lockedAt = null, o.lastError = null " +
+            "WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("sent") NotificationOutboxStatus sent,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = :status AND o.sentAt < :before")
+    int deleteSentBefore(@Param("status") NotificationOutboxStatus status,
+                         @Param("before") LocalDateTime before);
+
+    long countByStatus(NotificationOutboxStatus status);
+}
@@ -1,10 +1,16 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.dto.notifications.PushTargetDTO;
 import com.mutuelle.mobille.models.PushToken;
 import com.mutuelle.mobille.models.auth.AuthUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +22,15 @@ public interface PushTokenRepository extends JpaRepository<PushToken, Long> {
     Optional<PushToken> findByToken(String token);
 
     void deleteByToken(String token);
+
+    // Comptes et tokens de plusieurs destinataires en une requête (envois push groupés) ;
+    // un compte sans appareil donne une ligne avec un token null
+    @Query("SELECT new com.mutuelle.mobille.dto.notifications.PushTargetDTO(u.id, u.email, pt.token) " +
+            "FROM AuthUser u LEFT JOIN PushToken pt ON pt.user = u WHERE u.email IN :emails")
+    List<PushTargetDTO> findPushTargetsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PushToken pt WHERE pt.token IN :tokens")
+    int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
 }
\ No newline at end of file
@@ -1,41 +1,61 @@
 package com.mutuelle.mobille.repository;
 
-import com.mutuelle.mobille.models.auth.AuthUser;
 import com.mutuelle.mobille.models.auth.RefreshToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    // Trouver un token valide (non révoqué et non expiré)
-    Optional<RefreshToken> findByTokenAndRevokedFalse(String token);
+    // Recherche par empreinte (index unique), avec l'utilisateur pour émettre le token d'accès
+    @Query("SELECT r FROM RefreshToken r JOIN FETCH r.authUser WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
 
-    // Tous les tokens expirés (pour nettoyage périodique)
-    Stream<RefreshToken> findAllByExpiryDateBeforeAndRevokedFalse(Instant now);
-
-    // Révoquer tous les tokens d’un utilisateur (logout de tous les appareils)
+    // Révocation atomique : 0 si le token était déjà révoqué (rejeu ou rafraîchissement concurrent)
     @Modifying
-    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.authUser = :authUser AND r.revoked = false")
-    void revokeAllByAuthUser(AuthUser authUser);
-
-    Optional<RefreshToken> findByToken(String token);
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.id = :id AND r.revoked = false")
+    int revokeById(@Param("id") Long id);
 
-    // Méthode magique pour le logout global
-    List<RefreshToken> findAllByAuthUserAndRevokedFalse(AuthUser authUser);
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.tokenHash = :tokenHash AND r.revoked = false")
+    int revokeByTokenHash(@Param("tokenHash") String tokenHash);
 
-    // Optionnel : nettoyer les anciens
-    void deleteByExpiryDateBeforeAndRevokedTrue(Instant date);
+    // Rejeu d'un token déjà remplacé : toute la chaîne de rotation est révoquée
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
 
-    // Nettoyage des tokens expirés
+    // Révoquer tous les tokens d'un utilisateur (logout de tous les appareils)
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.authUser.id = :authUserId AND r.revoked = false")
+    int revokeAllByAuthUserId(@Param("authUserId") Long authUserId);
+
+    /**
+     * Tokens à purger : expirés, ou révoqués dans une famille sans token actif
+     * (déconnexion). Les tokens remplacés d'une famille active sont gardés
+     * jusqu'à leur expiration pour détecter leur rejeu.
+     */
+    @Query("""
+            SELECT r.id FROM RefreshToken r
+            WHERE r.expiryDate < :now
+               OR (r.revoked = true AND NOT EXISTS (
+                       SELECT a.id FROM RefreshToken a WHERE a.familyId = r.familyId AND a.revoked = false))
+            ORDER BY r.id
+            """)
+    List<Long> findPurgeableIds(@Param("now") Instant now, Pageable pageable);
+
+    @Transactional
     @Modifying
-    @Query("DELETE FROM RefreshToken r WHERE r.expiryDate < :now")
-    void deleteAllByExpiryDateBefore(Instant now);
-}
\ No newline at end of file
+    @Query("DELETE FROM RefreshToken r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
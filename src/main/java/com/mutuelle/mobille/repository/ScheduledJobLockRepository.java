@@ -0,0 +1,42 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.models.schedule.ScheduledJobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ScheduledJobLockRepository extends JpaRepository<ScheduledJobLock, String> {
+
+    // 1 = verrou pris ; la condition est évaluée par le SGBD, une seule instance peut l'obtenir
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobLock l SET l.lockedUntil = :until, l.lockedBy = :owner, l.lockedAt = :now " +
+            "WHERE l.jobName = :name AND l.lockedUntil <= :now")
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until);
+
+    // 1 = bail prolongé ; 0 = verrou expiré ou repris par une autre instance
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobLock l SET l.lockedUntil = :until " +
+            "WHERE l.jobName = :name AND l.lockedBy = :owner AND l.lockedUntil > :now")
+    int extend(@Param("name") String name,
+               @Param("owner") String owner,
+               @Param("now") LocalDateTime now,
+               @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobLock l SET l.lockedUntil = :now WHERE l.jobName = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,37 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.models.schedule.ScheduledJobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledJobRunRepository extends JpaRepository<ScheduledJobRun, Long> {
+
+    boolean existsByJobNameAndRunKeyAndStatus(String jobName, String runKey, ScheduledJobRunStatus status);
+
+    Optional<ScheduledJobRun> findFirstByJobNameOrderByStartedAtDesc(String jobName);
+
+    // Exécutions laissées RUNNING par une instance arrêtée avant la fin
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobRun r SET r.status = :failed, r.finishedAt = :now, r.message = :message " +
+            "WHERE r.jobName = :name AND r.status = :running")
+    int markInterrupted(@Param("name") String name,
+                        @Param("running") ScheduledJobRunStatus running,
+                        @Param("failed") ScheduledJobRunStatus failed,
+                        @Param("now") LocalDateTime now,
+                        @Param("message") String message);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ScheduledJobRun r WHERE r.jobName = :name AND r.startedAt < :before")
+    int deleteStartedBefore(@Param("name") String name, @Param("before") LocalDateTime before);
+}
@@ -1,5 +1,6 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.enums.StatusSession;
 import com.mutuelle.mobille.models.SessionHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -25,4 +26,9 @@ public interface SessionHistoryRepository extends JpaRepository<SessionHistory,
 
     // Pour récupérer par session
     Optional<SessionHistory> findBySessionId(Long sessionId);
+
+    // Version des bilans d'une session : l'historique est supprimé à la réouverture et recréé à la clôture
+    @Query("SELECT sh.id FROM SessionHistory sh WHERE sh.session.id = :sessionId AND sh.session.status = :status")
+    Optional<Long> findIdBySessionIdAndSessionStatus(@Param("sessionId") Long sessionId,
+                                                     @Param("status") StatusSession status);
 }
\ No newline at end of file
@@ -148,6 +148,10 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     @Query("SELECT COUNT(s) FROM Session s WHERE s.status = 'COMPLETED' AND s.startDate > :afterDate")
     long countCompletedSessionsAfter(@Param("afterDate") LocalDateTime afterDate);
 
+    // Dates de début de toutes les sessions d'un statut, triées (frise chargée une fois pour tous les emprunteurs)
+    @Query("SELECT s.startDate FROM Session s WHERE s.status = :status AND s.startDate IS NOT NULL ORDER BY s.startDate")
+    List<LocalDateTime> findStartDatesByStatus(@Param("status") StatusSession status);
+
 
     // Pour retrouver une session encore ouverte 24h apres son demarrage
     @Query("""
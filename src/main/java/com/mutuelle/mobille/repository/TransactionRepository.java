@@ -1,5 +1,7 @@
 package com.mutuelle.mobille.repository;
 
+import com.mutuelle.mobille.dto.bilan.MemberTransactionSumDTO;
+import com.mutuelle.mobille.dto.transaction.LedgerTotalDTO;
 import com.mutuelle.mobille.enums.TransactionDirection;
 import com.mutuelle.mobille.enums.TransactionType;
 import com.mutuelle.mobille.models.Session;
@@ -111,6 +113,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
             @Param("type") TransactionType type,
             @Param("direction") TransactionDirection direction);
 
+    // ── Agrégation groupée par member + type + direction sur une session (pour MemberSessionBilan) ──
+
+    @Query("SELECT new com.mutuelle.mobille.dto.bilan.MemberTransactionSumDTO(" +
+           "t.accountMember.id, t.transactionType, t.transactionDirection, SUM(t.amount)) " +
+           "FROM Transaction t " +
+           "WHERE t.session.id = :sessionId AND t.accountMember IS NOT NULL " +
+           "GROUP BY t.accountMember.id, t.transactionType, t.transactionDirection")
+    List<MemberTransactionSumDTO> sumBySessionGroupByAccountMemberAndTypeAndDirection(
+            @Param("sessionId") Long sessionId);
+
     // ── Agrégation par exercice + type + direction (pour ExerciceHistory) ─────
 
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
@@ -131,6 +143,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
             @Param("type") TransactionType type,
             @Param("direction") TransactionDirection direction);
 
+    // ── Agrégation groupée par member + type + direction sur un exercice (pour MemberExerciceBilan) ──
+
+    @Query("SELECT new com.mutuelle.mobille.dto.bilan.MemberTransactionSumDTO(" +
+           "t.accountMember.id, t.transactionType, t.transactionDirection, SUM(t.amount)) " +
+           "FROM Transaction t " +
+           "WHERE t.session.exercice.id = :exerciceId AND t.accountMember IS NOT NULL " +
+           "GROUP BY t.accountMember.id, t.transactionType, t.transactionDirection")
+    List<MemberTransactionSumDTO> sumByExerciceGroupByAccountMemberAndTypeAndDirection(
+            @Param("exerciceId") Long exerciceId);
+
     // ── Méthodes temporelles globales ─────────────────────────────────────────
 
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.createdAt >= :from AND t.createdAt <= :to AND t.transactionType = :type")
@@ -148,6 +170,24 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.transactionType = :type")
     BigDecimal sumAmountByType(@Param("type") TransactionType type);
 
+    // ── Totaux du grand livre (vérification des compteurs, voir LedgerCounterService) ──
+
+    @Query("SELECT new com.mutuelle.mobille.dto.transaction.LedgerTotalDTO(" +
+           "t.transactionType, COUNT(t), COALESCE(SUM(t.amount), 0)) " +
+           "FROM Transaction t GROUP BY t.transactionType")
+    List<LedgerTotalDTO> sumGroupByType();
+
+    @Query("SELECT new com.mutuelle.mobille.dto.transaction.LedgerTotalDTO(" +
+           "t.session.id, t.transactionType, COUNT(t), COALESCE(SUM(t.amount), 0)) " +
+           "FROM Transaction t GROUP BY t.session.id, t.transactionType")
+    List<LedgerTotalDTO> sumGroupBySessionAndType();
+
+    @Query("SELECT new com.mutuelle.mobille.dto.transaction.LedgerTotalDTO(" +
+           "t.accountMember.id, t.transactionType, COUNT(t), COALESCE(SUM(t.amount), 0)) " +
+           "FROM Transaction t WHERE t.accountMember IS NOT NULL " +
+           "GROUP BY t.accountMember.id, t.transactionType")
+    List<LedgerTotalDTO> sumGroupByAccountMemberAndType();
+
     // ── Requêtes pour rollback de réouverture de session ─────────────────────
 
     @Query("SELECT t FROM Transaction t WHERE t.session.id = :sessionId " +
@@ -6,13 +6,13 @@
     import com.mutuelle.mobille.repository.AccountMemberRepository;
     import com.mutuelle.mobille.repository.AccountMutuelleRepository;
     import com.mutuelle.mobille.repository.RenfoulementRepository;
-    import jakarta.annotation.PostConstruct;
     import jakarta.transaction.Transactional;
     import lombok.RequiredArgsConstructor;
     import org.springframework.stereotype.Service;
 
     import java.time.LocalDateTime;
     import java.util.List;
+    import java.util.Map;
 
     import java.math.BigDecimal;
 
@@ -25,8 +25,8 @@
         private final AuthService authService;
         private final AccountMemberRepository accountMemberRepository;
         private final RenfoulementRepository renfoulementRepository;
+        private final GlobalAccountLedgerService ledger;
 
-        @PostConstruct
         @Transactional
         public void initGlobalAccount() {
             if (globalRepo.count() == 0) {
@@ -38,13 +38,19 @@
                         .build();
                 globalRepo.save(global);
             }
+            // Résolution unique de l'identifiant : les lectures suivantes passent par la clé primaire
+            ledger.globalAccountId();
         }
 
-        // Récupérer le compte global (unique)
+        // Récupérer le compte global (unique), variations en attente comprises.
+        // Copie en lecture : les mouvements passent par le journal (GlobalAccountLedgerService).
         public AccountMutuelle getMutuelleGlobalAccount() {
-            return globalRepo.findAll().stream()
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Compte global mutuelle introuvable"));
+            return ledger.current();
+        }
+
+        // Dernier état validé du compte global, servi depuis la mémoire entre deux mouvements (affichage uniquement)
+        public AccountMutuelle getMutuelleGlobalAccountSnapshot() {
+            return ledger.snapshot();
         }
 
         // Récupérer le compte d'un membre
@@ -57,7 +63,14 @@
          * Récupère tous les membres ayant un emprunt en cours (> 0)
          */
         public List<AccountMember> findMembersWithBorrowGreaterThanZero() {
-            return memberRepo.findByBorrowAmountGreaterThan(BigDecimal.ZERO);
+            return memberRepo.findByBorrowAmountGreaterThanWithMember(BigDecimal.ZERO);
+        }
+
+        /**
+         * Récupère tous les membres ayant une épargne (> 0), en une requête
+         */
+        public List<AccountMember> findMembersWithSavingGreaterThanZero() {
+            return memberRepo.findBySavingAmountGreaterThanOrderByIdAsc(BigDecimal.ZERO);
         }
 
         /**
@@ -83,8 +96,6 @@
                 throw new IllegalArgumentException("Le a ajouter doit être positif");
             }
 
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
-
             BigDecimal currentAmount = accountMember.getBorrowAmount();
             if (currentAmount == null) {
                 currentAmount = BigDecimal.ZERO;
@@ -94,13 +105,34 @@
             accountMember.setBorrowAmount(currentAmount.add(amount));
 
             // Mise à jour compte global
-            globalAccount.setBorrowAmount(currentAmount.add(amount));
+            ledger.record(null, null, null, amount);
 
             memberRepo.save(accountMember);
-            globalRepo.save(globalAccount);
         }
 
 
+        /**
+         * augmenter la dette de plusieurs membres en une fois :
+         * une mise à jour groupée des comptes et une seule variation du compte global
+         */
+        @Transactional
+        public void addBorrowAmounts(Map<AccountMember, BigDecimal> montants) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<AccountMember, BigDecimal> e : montants.entrySet()) {
+                BigDecimal amount = e.getValue();
+                if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new IllegalArgumentException("Le a ajouter doit être positif");
+                }
+                AccountMember accountMember = e.getKey();
+                BigDecimal currentAmount = accountMember.getBorrowAmount() != null ? accountMember.getBorrowAmount() : BigDecimal.ZERO;
+                accountMember.setBorrowAmount(currentAmount.add(amount));
+                total = total.add(amount);
+            }
+
+            memberRepo.saveAll(montants.keySet());
+            ledger.record(null, null, null, total);
+        }
+
         /**
          * Un membre fait une épargne
          */
@@ -111,7 +143,6 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             BigDecimal currentAmount = memberAccount.getSavingAmount();
             if (currentAmount == null) {
@@ -122,10 +153,9 @@
             memberAccount.setSavingAmount(currentAmount.add(amount));
 
             // Mise à jour compte global (la mutuelle reçoit aussi cette épargne)
-            globalAccount.setSavingAmount(globalAccount.getSavingAmount().add(amount));
+            ledger.record(amount, null, null, null);
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
         /**
@@ -138,7 +168,6 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             BigDecimal currentAmount = memberAccount.getSavingAmount();
             if (currentAmount == null) {
@@ -155,11 +184,10 @@
             memberAccount.setSavingAmount(currentAmount.subtract(amount));
 
             // Mise à jour du compte global
-            globalAccount.setSavingAmount(globalAccount.getSavingAmount().subtract(amount));
+            ledger.record(amount.negate(), null, null, null);
 
             // Sauvegarde
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
         /**
@@ -172,7 +200,6 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             BigDecimal currentUnpaid = memberAccount.getUnpaidRegistrationAmount();
 
@@ -188,10 +215,9 @@
             memberAccount.setUnpaidRegistrationAmount(currentUnpaid.subtract(amount));
 
             // La mutuelle reçoit l'argent payé → augmente son épargne globale
-            globalAccount.setRegistrationAmount(globalAccount.getRegistrationAmount().add(amount));
+            ledger.record(null, null, amount, null);
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
         /**
@@ -202,7 +228,7 @@
         }
 
         public List<AccountMember> getAllMemberAccountsWithActive(boolean isActive) {
-            return memberRepo.findAllByIsActive(isActive);
+            return memberRepo.findAllByIsActiveWithMember(isActive);
         }
 
         /**
@@ -212,6 +238,13 @@
             memberRepo.save(account);
         }
 
+        /**
+         * Sauvegarde plusieurs comptes membres en une fois (mises à jour groupées par lots JDBC)
+         */
+        public void saveAllMemberAccounts(List<AccountMember> accounts) {
+            memberRepo.saveAll(accounts);
+        }
+
         /**
          * Ajoute un montant à la caisse de la mutuelle
          */
@@ -221,9 +254,19 @@
                 return;
             }
 
-            AccountMutuelle global = getMutuelleGlobalAccount();
-            global.setSavingAmount(global.getSavingAmount().add(amount));
-            globalRepo.save(global);
+            ledger.record(amount, null, null, null);
+        }
+
+        /**
+         * Ajoute un montant à la caisse solidarité de la mutuelle
+         */
+        @Transactional
+        public void addToSolidarityMutuelleCaisse(BigDecimal amount) {
+            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                return;
+            }
+
+            ledger.record(null, amount, null, null);
         }
 
         /**
@@ -235,9 +278,7 @@
                 return;
             }
 
-            AccountMutuelle global = getMutuelleGlobalAccount();
-            global.setSolidarityAmount(global.getSolidarityAmount().subtract(amount));
-            globalRepo.save(global);
+            ledger.record(null, amount.negate(), null, null);
         }
 
         /**
@@ -249,9 +290,7 @@
                 return;
             }
 
-            AccountMutuelle global = getMutuelleGlobalAccount();
-            global.setRegistrationAmount(global.getRegistrationAmount().subtract(amount));
-            globalRepo.save(global);
+            ledger.record(null, null, amount.negate(), null);
         }
 
         // ──────────────────────────────────────────────────────────────
@@ -261,9 +300,7 @@
         @Transactional
         public void addToRegistrationMutuelleCaisse(BigDecimal amount) {
             if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) return;
-            AccountMutuelle global = getMutuelleGlobalAccount();
-            global.setRegistrationAmount(global.getRegistrationAmount().add(amount));
-            globalRepo.save(global);
+            ledger.record(null, null, amount, null);
         }
 
         @Transactional
@@ -272,10 +309,9 @@
             AccountMutuelle global = getMutuelleGlobalAccount();
             BigDecimal newMemberBorrow = accountMember.getBorrowAmount().subtract(amount);
             accountMember.setBorrowAmount(newMemberBorrow.max(BigDecimal.ZERO));
-            BigDecimal newGlobalBorrow = global.getBorrowAmount().subtract(amount);
-            global.setBorrowAmount(newGlobalBorrow.max(BigDecimal.ZERO));
+            // Le solde global ne descend pas sous zéro : on ne retire que ce qui reste
+            ledger.record(null, null, null, amount.min(global.getBorrowAmount().max(BigDecimal.ZERO)).negate());
             memberRepo.save(accountMember);
-            globalRepo.save(global);
         }
 
         @Transactional
@@ -284,19 +320,15 @@
             AccountMutuelle global = getMutuelleGlobalAccount();
             BigDecimal newMemberSaving = accountMember.getSavingAmount().subtract(amount);
             accountMember.setSavingAmount(newMemberSaving.max(BigDecimal.ZERO));
-            BigDecimal newGlobalSaving = global.getSavingAmount().subtract(amount);
-            global.setSavingAmount(newGlobalSaving.max(BigDecimal.ZERO));
+            ledger.record(amount.min(global.getSavingAmount().max(BigDecimal.ZERO)).negate(), null, null, null);
             memberRepo.save(accountMember);
-            globalRepo.save(global);
         }
 
         @Transactional
         public void subtractFromGlobalSaving(BigDecimal amount) {
             if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) return;
             AccountMutuelle global = getMutuelleGlobalAccount();
-            BigDecimal newSaving = global.getSavingAmount().subtract(amount);
-            global.setSavingAmount(newSaving.max(BigDecimal.ZERO));
-            globalRepo.save(global);
+            ledger.record(amount.min(global.getSavingAmount().max(BigDecimal.ZERO)).negate(), null, null, null);
         }
 
         /**
@@ -322,11 +354,9 @@
             memberAccount.setBorrowSessionId(sessionId);
 
             memberAccount.setBorrowAmount(memberAccount.getBorrowAmount().add(amount));
-            globalAccount.setBorrowAmount(globalAccount.getBorrowAmount().add(amount));
-            globalAccount.setSavingAmount(globalAccount.getSavingAmount().subtract(amount));
+            ledger.record(amount.negate(), null, null, amount);
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
         /**
@@ -339,15 +369,13 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             if (memberAccount.getBorrowAmount().compareTo(amount) < 0) {
                 throw new IllegalArgumentException("Le remboursement dépasse l'emprunt en cours");
             }
 
             memberAccount.setBorrowAmount(memberAccount.getBorrowAmount().subtract(amount));
-            globalAccount.setSavingAmount(globalAccount.getSavingAmount().add(amount));
-            globalAccount.setBorrowAmount(globalAccount.getBorrowAmount().subtract(amount));
+            ledger.record(amount, null, null, amount.negate());
 
             // Emprunt soldé - réinitialiser la session d'origine
             if (memberAccount.getBorrowAmount().compareTo(BigDecimal.ZERO) == 0) {
@@ -355,7 +383,6 @@
             }
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
 
@@ -369,7 +396,6 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             BigDecimal unpaid = memberAccount.getUnpaidRegistrationAmount();
 
@@ -385,10 +411,9 @@
             memberAccount.setUnpaidRegistrationAmount(unpaid.subtract(amount));
 
             // L'argent entre dans la caisse inscription de la mutuelle (  )
-            globalAccount.setRegistrationAmount(globalAccount.getRegistrationAmount().add(amount));
+            ledger.record(null, null, amount, null);
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
         }
 
         /**
@@ -405,7 +430,6 @@
             }
 
             AccountMember memberAccount = getMemberAccount(memberId);
-            AccountMutuelle globalAccount = getMutuelleGlobalAccount();
 
             BigDecimal unpaid = memberAccount.getUnpaidRenfoulement();
 
@@ -448,15 +472,9 @@
             BigDecimal partInscription = totalInscription;
             BigDecimal partSolidarite = restant;
 
-            if (partInscription.compareTo(BigDecimal.ZERO) > 0) {
-                globalAccount.setRegistrationAmount(globalAccount.getRegistrationAmount().add(partInscription));
-            }
-            if (partSolidarite.compareTo(BigDecimal.ZERO) > 0) {
-                globalAccount.setSolidarityAmount(globalAccount.getSolidarityAmount().add(partSolidarite));
-            }
+            ledger.record(null, partSolidarite, partInscription, null);
 
             memberRepo.save(memberAccount);
-            globalRepo.save(globalAccount);
 
             return new RenfoulementSplit(partInscription, partSolidarite);
         }
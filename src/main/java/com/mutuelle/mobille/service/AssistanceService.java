@@ -36,9 +36,9 @@ public class AssistanceService {
     private final TransactionRepository transactionRepository;
     private final MemberRepository memberRepository;
     private final AccountService accountService;
-    private final AccountMutuelleRepository accountMutuelleRepository;
     private final AssistanceMapper assistanceMapper;
     private final SessionNotificationHelper notificationHelper;
+    private final LedgerCounterService ledgerCounterService;
 
     // Récupérer tous les types d'assistance
     @Transactional(readOnly = true)
@@ -106,9 +106,7 @@ public class AssistanceService {
         }
 
         // Débit du compte global de la mutuelle
-        globalAccount.setSolidarityAmount(globalAccount.getSolidarityAmount().subtract(requiredAmount));
-        // Pas besoin de save ici si AccountMutuelle est géré par cascade ou si le service le fait, sinon ajouter un save si nécessaire
-        accountMutuelleRepository.save(globalAccount);
+        accountService.removeToSolidarityMutuelleCaisse(requiredAmount);
 
         // Créer la transaction associée (type ASSISTANCE)
         Transaction transaction = Transaction.builder()
@@ -162,14 +160,14 @@ public class AssistanceService {
         return assistanceRepository.countByMemberId(memberId);
     }
 
-    // Nombre total d'assistances global (toutes sessions, tous membres)
+    // Nombre total d'assistances global : une transaction ASSISTANCE par assistance
     public Long countAllAssistances() {
-        return assistanceRepository.count();
+        return ledgerCounterService.countGlobal(TransactionType.ASSISTANCE);
     }
 
     // Somme totale des montants d'assistances global
     public BigDecimal sumAllAssistanceAmounts() {
-        return transactionRepository.sumAmountByType(TransactionType.ASSISTANCE);
+        return ledgerCounterService.amountGlobal(TransactionType.ASSISTANCE);
     }
 
     public Page<AssistanceResponseDto> getAssistancesFiltered(
@@ -1,13 +1,15 @@
 package com.mutuelle.mobille.service;
 
+import com.mutuelle.mobille.config.security.CustomUserDetails;
+import com.mutuelle.mobille.config.security.TokenRevocationRegistry;
 import com.mutuelle.mobille.dto.auth.LoginResponseDto;
+import com.mutuelle.mobille.dto.auth.TokenResponseDto;
 import com.mutuelle.mobille.dto.member.MemberResponseDTO;
 import com.mutuelle.mobille.mapper.AdminMapper;
 import com.mutuelle.mobille.mapper.MemberMapper;
 import com.mutuelle.mobille.models.Admin;
 import com.mutuelle.mobille.models.Member;
 import com.mutuelle.mobille.models.auth.AuthUser;
-import com.mutuelle.mobille.models.auth.RefreshToken;
 import com.mutuelle.mobille.repository.*;
 import com.mutuelle.mobille.utils.JwtUtils;
 import com.mutuelle.mobille.utils.SecurityUtil;
@@ -26,10 +28,7 @@ import com.mutuelle.mobille.exception.AccountInactiveException;
 import com.mutuelle.mobille.service.MutuelleConfigService;
 import java.math.BigDecimal;
 
-import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -38,12 +37,13 @@ public class AuthService {
     private final AuthUserRepository authUserRepo;
     private final MemberRepository memberRepo;
     private final AdminRepository adminRepo;
-    private final RefreshTokenRepository refreshTokenRepo;
+    private final RefreshTokenService refreshTokenService;
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final MemberMapper memberMapper;
     private final AdminMapper adminMapper;
     private final MutuelleConfigService mutuelleConfigService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     public LoginResponseDto login(String email, String password) {
         AuthUser authUser = authUserRepo.findByEmail(email)
@@ -71,15 +71,7 @@ public class AuthService {
         }
 
         String accessToken = jwtUtils.generateAccessToken(authUser);
-        String refreshTokenValue = UUID.randomUUID().toString();
-
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(refreshTokenValue)
-                .authUser(authUser)
-                .expiryDate(Instant.now().plusMillis(jwtUtils.getRefreshExpirationMs()))
-                .revoked(false)
-                .build();
-        refreshTokenRepo.save(refreshToken);
+        String refreshTokenValue = refreshTokenService.issue(authUser);
 
         Object profile = switch (authUser.getRole()) {
             case MEMBER -> {
@@ -106,48 +98,27 @@ public class AuthService {
                 .build();
     }
 
-    public String refresh(String refreshTokenValue) {
-        RefreshToken rt = refreshTokenRepo.findByToken(refreshTokenValue)
-                .orElseThrow(() -> new RuntimeException("Refresh token invalide ou inconnu"));
-
-        if (rt.isRevoked()) {
-            throw new RuntimeException("Refresh token déjà révoqué");
-        }
-        if (rt.getExpiryDate().isBefore(Instant.now())) {
-            rt.setRevoked(true);
-            refreshTokenRepo.save(rt);
-            throw new RuntimeException("Refresh token expiré");
-        }
-
-        // Optionnel : politique "single-use" (recommandé)
-        rt.setRevoked(true);
-        refreshTokenRepo.save(rt);
-
-        return jwtUtils.generateAccessToken(rt.getAuthUser());
+    /** Nouveau token d'accès et nouveau refresh token ; celui présenté est révoqué (rotation). */
+    public TokenResponseDto refresh(String refreshTokenValue) {
+        RefreshTokenService.IssuedToken next = refreshTokenService.rotate(refreshTokenValue);
+        return new TokenResponseDto(jwtUtils.generateAccessToken(next.authUser()), next.value());
     }
 
     public void logout(String refreshTokenValue) {
-        refreshTokenRepo.findByToken(refreshTokenValue).ifPresent(rt -> {
-            rt.setRevoked(true);
-            refreshTokenRepo.save(rt);
-        });
+        refreshTokenService.revoke(refreshTokenValue);
     }
 
     public void logoutCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !(authentication.getPrincipal() instanceof AuthUser user)) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails user)) {
             // Si on arrive ici sans être authentifié - rien à faire (ou loguer)
             return;
         }
 
-        // Révoque TOUS les refresh tokens actifs de cet utilisateur
-        List<RefreshToken> activeTokens = refreshTokenRepo.findAllByAuthUserAndRevokedFalse(user);
-
-        if (!activeTokens.isEmpty()) {
-            activeTokens.forEach(rt -> rt.setRevoked(true));
-            refreshTokenRepo.saveAll(activeTokens);
-        }
+        // Révoque TOUS les refresh tokens actifs de cet utilisateur, en une requête
+        refreshTokenService.revokeAll(user.getId());
+        tokenRevocationRegistry.revoke(user.getId());
     }
 
     public Optional<AuthUser> getCurrentUser() {
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -23,6 +24,9 @@ public class BilanPdfService {
 
     private final BilanService bilanService;
 
+    /** Bilans lus, mis en page et écrits à la fois dans les synthèses tous membres. */
+    private static final int SUMMARY_PAGE_SIZE = 200;
+
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     private static final DateTimeFormatter DATE_SHORT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final Color COLOR_HEADER    = new Color(30, 64, 110);
@@ -31,6 +35,31 @@ public class BilanPdfService {
     private static final Color COLOR_TOTAL_BG  = new Color(220, 235, 250);
     private static final Color COLOR_POSITIVE  = new Color(22, 120, 60);
     private static final Color COLOR_NEGATIVE  = new Color(180, 30, 30);
+    private static final Color COLOR_BORDER    = new Color(200, 215, 235);
+    private static final Color COLOR_ROW_LINE  = new Color(220, 230, 245);
+    private static final Color COLOR_NET_POSITIVE_BG = new Color(210, 240, 220);
+    private static final Color COLOR_NET_NEGATIVE_BG = new Color(250, 215, 215);
+
+    // Polices créées une fois et partagées par tous les documents, y compris
+    // générés en parallèle : elles ne sont jamais modifiées après création.
+    private static final Font FONT_TITLE          = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, Color.WHITE);
+    private static final Font FONT_SUBTITLE       = FontFactory.getFont(FontFactory.HELVETICA, 9, new Color(180, 200, 230));
+    private static final Font FONT_INFO_LABEL     = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, COLOR_SECTION);
+    private static final Font FONT_TEXT           = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
+    private static final Font FONT_SECTION        = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, Color.WHITE);
+    private static final Font FONT_TABLE_HEADER   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8.5f, Color.WHITE);
+    private static final Font FONT_CREDIT         = FontFactory.getFont(FontFactory.HELVETICA, 9, COLOR_POSITIVE);
+    private static final Font FONT_DEBIT          = FontFactory.getFont(FontFactory.HELVETICA, 9, COLOR_NEGATIVE);
+    private static final Font FONT_TOTAL          = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, Color.BLACK);
+    private static final Font FONT_TOTAL_CREDIT   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, COLOR_POSITIVE);
+    private static final Font FONT_TOTAL_DEBIT    = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, COLOR_NEGATIVE);
+    private static final Font FONT_NET_POSITIVE   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, COLOR_POSITIVE);
+    private static final Font FONT_NET_NEGATIVE   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, COLOR_NEGATIVE);
+    private static final Font FONT_SUMMARY_HEADER = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.WHITE);
+    private static final Font FONT_SUMMARY_CELL   = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, Color.BLACK);
+    private static final Font FONT_SUMMARY_DEBT   = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, COLOR_NEGATIVE);
+    private static final Font FONT_FOOTER         = FontFactory.getFont(FontFactory.HELVETICA_OBLIQUE, 7.5f, new Color(120, 130, 150));
+    private static final Font FONT_PAGE_NUMBER    = FontFactory.getFont(FontFactory.HELVETICA, 7, new Color(150, 160, 175));
 
     // ─────────────────────────────────────────────────────────────────────────
     //  BILAN MEMBRE PAR SESSION
@@ -325,65 +354,65 @@ public class BilanPdfService {
     // ─────────────────────────────────────────────────────────────────────────
 
     public byte[] generateAllMembersExercicePdf(Long exerciceId) {
-        List<MemberExerciceBilanDTO> bilans = bilanService.getAllMemberBilansByExercice(exerciceId);
-        if (bilans.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cet exercice");
-
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeAllMembersExercicePdf(exerciceId, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Écrit la synthèse dans {@code out} au fil de la lecture : les bilans
+     * sont lus par pages de {@value #SUMMARY_PAGE_SIZE} et chaque page est
+     * envoyée dans le flux avant la lecture de la suivante. Le flux n'est
+     * pas fermé. Si l'exercice n'a aucun bilan, l'erreur est levée avant
+     * d'écrire quoi que ce soit.
+     */
+    public void writeAllMembersExercicePdf(Long exerciceId, OutputStream out) {
+        List<MemberExerciceBilanDTO> page = bilanService.getMemberBilanPageByExercice(exerciceId, 0L, SUMMARY_PAGE_SIZE);
+        if (page.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cet exercice");
+
         Document doc = new Document(PageSize.A4.rotate(), 30, 30, 50, 40);
         try {
-            PdfWriter writer = PdfWriter.getInstance(doc, baos);
+            PdfWriter writer = PdfWriter.getInstance(doc, out);
+            writer.setCloseStream(false);
             addPageDecorator(writer);
             doc.open();
 
-            MemberExerciceBilanDTO first = bilans.get(0);
-            addHeader(doc, "SYNTHÈSE MEMBRES - EXERCICE : " + first.getExerciceName());
-
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.WHITE);
-            Font cellFont   = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, Color.BLACK);
-            Font totalFont  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 7.5f, Color.BLACK);
-
-            PdfPTable table = new PdfPTable(new float[]{2.5f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f});
-            table.setWidthPercentage(100);
-
-            String[] headers = {"Membre", "Solidarité", "Solid. impayée", "Épargne (net)",
-                    "Inscription", "Inscr. impayée", "Renfoul. payé", "Renfoul. impayé",
-                    "Remboursement", "Emprunt", "Intérêts", "Assistance"};
-            for (String h : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(h, headerFont));
-                cell.setBackgroundColor(COLOR_HEADER);
-                cell.setPadding(5);
-                cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cell);
-            }
+            addHeader(doc, "SYNTHÈSE MEMBRES - EXERCICE : " + page.get(0).getExerciceName());
+
+            PdfPTable table = buildSummaryTable();
 
-            Font debtFont = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, COLOR_NEGATIVE);
             boolean alt = false;
-            for (MemberExerciceBilanDTO b : bilans) {
-                Color rowColor = alt ? COLOR_ROW_ALT : Color.WHITE;
-                alt = !alt;
-                BigDecimal epargneNet = b.getTotalEpargneDeposited().subtract(b.getTotalEpargneWithdrawn());
-
-                addSummaryCell(table, b.getMemberLastname() + " " + b.getMemberFirstname(), cellFont,  rowColor, Element.ALIGN_LEFT);
-                addSummaryCell(table, fmt(b.getTotalSolidaritePaid()),         cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidSolidarity()),    debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(epargneNet),                         cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalRegistrationPaid()),       cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidRegistration()),  debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalRenfoulementPaid()),       cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidRenfoulement()),  debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalRemboursementAmount()),    cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalEmpruntAmount()),          cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalInteretAmount()),          cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getTotalAssistanceReceived()),     cellFont,  rowColor, Element.ALIGN_RIGHT);
-            }
-            doc.add(table);
+            List<MemberExerciceBilanDTO> next;
+            do {
+                for (MemberExerciceBilanDTO b : page) {
+                    Color rowColor = alt ? COLOR_ROW_ALT : Color.WHITE;
+                    alt = !alt;
+                    BigDecimal epargneNet = b.getTotalEpargneDeposited().subtract(b.getTotalEpargneWithdrawn());
+
+                    addSummaryCell(table, b.getMemberLastname() + " " + b.getMemberFirstname(), FONT_SUMMARY_CELL, rowColor, Element.ALIGN_LEFT);
+                    addSummaryCell(table, fmt(b.getTotalSolidaritePaid()),         FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidSolidarity()),    FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(epargneNet),                         FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalRegistrationPaid()),       FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidRegistration()),  FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalRenfoulementPaid()),       FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidRenfoulement()),  FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalRemboursementAmount()),    FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalEmpruntAmount()),          FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalInteretAmount()),          FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getTotalAssistanceReceived()),     FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                }
+                next = page.size() < SUMMARY_PAGE_SIZE ? List.of()
+                        : bilanService.getMemberBilanPageByExercice(exerciceId, page.get(page.size() - 1).getId(), SUMMARY_PAGE_SIZE);
+                flushSummaryRows(doc, table, next.isEmpty());
+                page = next;
+            } while (!page.isEmpty());
             addFooter(doc);
         } catch (DocumentException e) {
             throw new RuntimeException("Erreur génération PDF synthèse membres", e);
         } finally {
             doc.close();
         }
-        return baos.toByteArray();
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -391,64 +420,59 @@ public class BilanPdfService {
     // ─────────────────────────────────────────────────────────────────────────
 
     public byte[] generateAllMembersSessionPdf(Long sessionId) {
-        List<MemberSessionBilanDTO> bilans = bilanService.getAllMemberBilansBySession(sessionId);
-        if (bilans.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cette session");
-
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeAllMembersSessionPdf(sessionId, baos);
+        return baos.toByteArray();
+    }
+
+    /** Synthèse d'une session écrite page par page, comme {@link #writeAllMembersExercicePdf}. */
+    public void writeAllMembersSessionPdf(Long sessionId, OutputStream out) {
+        List<MemberSessionBilanDTO> page = bilanService.getMemberBilanPageBySession(sessionId, 0L, SUMMARY_PAGE_SIZE);
+        if (page.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cette session");
+
         Document doc = new Document(PageSize.A4.rotate(), 30, 30, 50, 40);
         try {
-            PdfWriter writer = PdfWriter.getInstance(doc, baos);
+            PdfWriter writer = PdfWriter.getInstance(doc, out);
+            writer.setCloseStream(false);
             addPageDecorator(writer);
             doc.open();
 
-            MemberSessionBilanDTO first = bilans.get(0);
-            addHeader(doc, "SYNTHÈSE MEMBRES - SESSION : " + first.getSessionName());
-
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.WHITE);
-            Font cellFont   = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, Color.BLACK);
-            Font debtFont   = FontFactory.getFont(FontFactory.HELVETICA, 7.5f, COLOR_NEGATIVE);
-
-            PdfPTable table = new PdfPTable(new float[]{2.5f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f});
-            table.setWidthPercentage(100);
-
-            String[] headers = {"Membre", "Solidarité", "Solid. impayée", "Épargne (net)",
-                    "Inscription", "Inscr. impayée", "Renfoul. payé", "Renfoul. impayé",
-                    "Remboursement", "Emprunt", "Intérêts", "Assistance"};
-            for (String h : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(h, headerFont));
-                cell.setBackgroundColor(COLOR_HEADER);
-                cell.setPadding(5);
-                cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cell);
-            }
+            addHeader(doc, "SYNTHÈSE MEMBRES - SESSION : " + page.get(0).getSessionName());
+
+            PdfPTable table = buildSummaryTable();
 
             boolean alt = false;
-            for (MemberSessionBilanDTO b : bilans) {
-                Color rowColor = alt ? COLOR_ROW_ALT : Color.WHITE;
-                alt = !alt;
-                BigDecimal epargneNet = b.getEpargneDeposited().subtract(b.getEpargneWithdrawn());
-
-                addSummaryCell(table, b.getMemberLastname() + " " + b.getMemberFirstname(), cellFont,  rowColor, Element.ALIGN_LEFT);
-                addSummaryCell(table, fmt(b.getSolidaritePaid()),              cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidSolidarity()),    debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(epargneNet),                         cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getRegistrationPaid()),            cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidRegistration()),  debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getRenfoulementPaid()),            cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getSnapshotUnpaidRenfoulement()),  debtFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getRemboursementAmount()),         cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getEmpruntAmount()),               cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getInteretAmount()),               cellFont,  rowColor, Element.ALIGN_RIGHT);
-                addSummaryCell(table, fmt(b.getAssistanceReceived()),          cellFont,  rowColor, Element.ALIGN_RIGHT);
-            }
-            doc.add(table);
+            List<MemberSessionBilanDTO> next;
+            do {
+                for (MemberSessionBilanDTO b : page) {
+                    Color rowColor = alt ? COLOR_ROW_ALT : Color.WHITE;
+                    alt = !alt;
+                    BigDecimal epargneNet = b.getEpargneDeposited().subtract(b.getEpargneWithdrawn());
+
+                    addSummaryCell(table, b.getMemberLastname() + " " + b.getMemberFirstname(), FONT_SUMMARY_CELL, rowColor, Element.ALIGN_LEFT);
+                    addSummaryCell(table, fmt(b.getSolidaritePaid()),              FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidSolidarity()),    FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(epargneNet),                         FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getRegistrationPaid()),            FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidRegistration()),  FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getRenfoulementPaid()),            FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getSnapshotUnpaidRenfoulement()),  FONT_SUMMARY_DEBT, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getRemboursementAmount()),         FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getEmpruntAmount()),               FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getInteretAmount()),               FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                    addSummaryCell(table, fmt(b.getAssistanceReceived()),          FONT_SUMMARY_CELL, rowColor, Element.ALIGN_RIGHT);
+                }
+                next = page.size() < SUMMARY_PAGE_SIZE ? List.of()
+                        : bilanService.getMemberBilanPageBySession(sessionId, page.get(page.size() - 1).getId(), SUMMARY_PAGE_SIZE);
+                flushSummaryRows(doc, table, next.isEmpty());
+                page = next;
+            } while (!page.isEmpty());
             addFooter(doc);
         } catch (DocumentException e) {
             throw new RuntimeException("Erreur génération PDF synthèse membres session", e);
         } finally {
             doc.close();
         }
-        return baos.toByteArray();
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -456,18 +480,15 @@ public class BilanPdfService {
     // ─────────────────────────────────────────────────────────────────────────
 
     private void addHeader(Document doc, String title) throws DocumentException {
-        Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, Color.WHITE);
-        Font subFont   = FontFactory.getFont(FontFactory.HELVETICA, 9, new Color(180, 200, 230));
-
         PdfPTable headerTable = new PdfPTable(1);
         headerTable.setWidthPercentage(100);
         PdfPCell headerCell = new PdfPCell();
         headerCell.setBackgroundColor(COLOR_HEADER);
         headerCell.setPadding(12);
         headerCell.setBorder(Rectangle.NO_BORDER);
-        headerCell.addElement(new Phrase("MUTUELLE MOBILE", subFont));
-        headerCell.addElement(new Phrase(title, titleFont));
-        headerCell.addElement(new Phrase("Généré le : " + LocalDateTime.now().format(DATE_FMT), subFont));
+        headerCell.addElement(new Phrase("MUTUELLE MOBILE", FONT_SUBTITLE));
+        headerCell.addElement(new Phrase(title, FONT_TITLE));
+        headerCell.addElement(new Phrase("Généré le : " + LocalDateTime.now().format(DATE_FMT), FONT_SUBTITLE));
         headerTable.addCell(headerCell);
         doc.add(headerTable);
         doc.add(Chunk.NEWLINE);
@@ -476,13 +497,10 @@ public class BilanPdfService {
     private void addMemberInfoTable(Document doc, String firstname, String lastname,
                                      String sessionName, String exerciceName,
                                      LocalDateTime start, LocalDateTime end) throws DocumentException {
-        Font labelFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, COLOR_SECTION);
-        Font valueFont = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-
         PdfPTable table = new PdfPTable(new float[]{1.5f, 3f, 1.5f, 3f});
         table.setWidthPercentage(100);
-        addInfoRow(table, "Membre :", lastname + " " + firstname, "Session :", sessionName, labelFont, valueFont);
-        addInfoRow(table, "Exercice :", exerciceName, "Période :", fmt(start) + " → " + fmt(end), labelFont, valueFont);
+        addInfoRow(table, "Membre :", lastname + " " + firstname, "Session :", sessionName, FONT_INFO_LABEL, FONT_TEXT);
+        addInfoRow(table, "Exercice :", exerciceName, "Période :", fmt(start) + " → " + fmt(end), FONT_INFO_LABEL, FONT_TEXT);
         doc.add(table);
         doc.add(Chunk.NEWLINE);
     }
@@ -490,39 +508,30 @@ public class BilanPdfService {
     private void addExerciceInfoTable(Document doc, String firstname, String lastname,
                                        String exerciceName, LocalDateTime start, LocalDateTime end,
                                        Integer sessionsCount) throws DocumentException {
-        Font labelFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, COLOR_SECTION);
-        Font valueFont = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-
         PdfPTable table = new PdfPTable(new float[]{1.5f, 3f, 1.5f, 3f});
         table.setWidthPercentage(100);
-        addInfoRow(table, "Membre :", lastname + " " + firstname, "Exercice :", exerciceName, labelFont, valueFont);
-        addInfoRow(table, "Période :", fmt(start) + " → " + fmt(end), "Sessions :", sessionsCount + " session(s)", labelFont, valueFont);
+        addInfoRow(table, "Membre :", lastname + " " + firstname, "Exercice :", exerciceName, FONT_INFO_LABEL, FONT_TEXT);
+        addInfoRow(table, "Période :", fmt(start) + " → " + fmt(end), "Sessions :", sessionsCount + " session(s)", FONT_INFO_LABEL, FONT_TEXT);
         doc.add(table);
         doc.add(Chunk.NEWLINE);
     }
 
     private void addSessionInfoTable(Document doc, String sessionName, String exerciceName,
                                       LocalDateTime start, LocalDateTime end, Long members) throws DocumentException {
-        Font labelFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, COLOR_SECTION);
-        Font valueFont = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-
         PdfPTable table = new PdfPTable(new float[]{1.5f, 3f, 1.5f, 3f});
         table.setWidthPercentage(100);
-        addInfoRow(table, "Session :", sessionName, "Exercice :", exerciceName, labelFont, valueFont);
-        addInfoRow(table, "Période :", fmt(start) + " → " + fmt(end), "Membres actifs :", members + " membre(s)", labelFont, valueFont);
+        addInfoRow(table, "Session :", sessionName, "Exercice :", exerciceName, FONT_INFO_LABEL, FONT_TEXT);
+        addInfoRow(table, "Période :", fmt(start) + " → " + fmt(end), "Membres actifs :", members + " membre(s)", FONT_INFO_LABEL, FONT_TEXT);
         doc.add(table);
         doc.add(Chunk.NEWLINE);
     }
 
     private void addExerciceGlobalInfoTable(Document doc, String exerciceName, LocalDateTime start,
                                              LocalDateTime end, Integer sessions, Long members) throws DocumentException {
-        Font labelFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, COLOR_SECTION);
-        Font valueFont = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-
         PdfPTable table = new PdfPTable(new float[]{1.5f, 3f, 1.5f, 3f});
         table.setWidthPercentage(100);
-        addInfoRow(table, "Exercice :", exerciceName, "Période :", fmt(start) + " → " + fmt(end), labelFont, valueFont);
-        addInfoRow(table, "Sessions :", sessions + " session(s)", "Membres actifs :", members + " membre(s)", labelFont, valueFont);
+        addInfoRow(table, "Exercice :", exerciceName, "Période :", fmt(start) + " → " + fmt(end), FONT_INFO_LABEL, FONT_TEXT);
+        addInfoRow(table, "Sessions :", sessions + " session(s)", "Membres actifs :", members + " membre(s)", FONT_INFO_LABEL, FONT_TEXT);
         doc.add(table);
         doc.add(Chunk.NEWLINE);
     }
@@ -537,17 +546,16 @@ public class BilanPdfService {
     private void addInfoCell(PdfPTable table, String text, Font font) {
         PdfPCell cell = new PdfPCell(new Phrase(text, font));
         cell.setBorder(Rectangle.BOTTOM);
-        cell.setBorderColor(new Color(200, 215, 235));
+        cell.setBorderColor(COLOR_BORDER);
         cell.setPadding(5);
         table.addCell(cell);
     }
 
     private void addSectionTitle(Document doc, String title) throws DocumentException {
-        Font f = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, Color.WHITE);
         PdfPTable t = new PdfPTable(1);
         t.setWidthPercentage(100);
         t.setSpacingBefore(12f);
-        PdfPCell cell = new PdfPCell(new Phrase("  " + title, f));
+        PdfPCell cell = new PdfPCell(new Phrase("  " + title, FONT_SECTION));
         cell.setBackgroundColor(COLOR_SECTION);
         cell.setPadding(5);
         cell.setBorder(Rectangle.NO_BORDER);
@@ -562,15 +570,13 @@ public class BilanPdfService {
     }
 
     private PdfPTable buildThreeColumnTable() throws DocumentException {
-        Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8.5f, Color.WHITE);
-
         PdfPTable table = new PdfPTable(new float[]{4f, 2f, 2f});
         table.setWidthPercentage(100);
 
         String[] headers = {"Libellé", "Entrée", "Sortie"};
         int[] aligns = {Element.ALIGN_LEFT, Element.ALIGN_RIGHT, Element.ALIGN_RIGHT};
         for (int i = 0; i < headers.length; i++) {
-            PdfPCell cell = new PdfPCell(new Phrase(headers[i], headerFont));
+            PdfPCell cell = new PdfPCell(new Phrase(headers[i], FONT_TABLE_HEADER));
             cell.setBackgroundColor(COLOR_SECTION);
             cell.setPadding(5);
             cell.setHorizontalAlignment(aligns[i]);
@@ -581,74 +587,62 @@ public class BilanPdfService {
     }
 
     private void addTresorerieEntreeRow(PdfPTable table, String label, BigDecimal entree) {
-        Font labelFont  = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-        Font entreeFont = FontFactory.getFont(FontFactory.HELVETICA, 9, COLOR_POSITIVE);
-        Font emptyFont  = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, FONT_TEXT));
         labelCell.setBorder(Rectangle.BOTTOM);
-        labelCell.setBorderColor(new Color(220, 230, 245));
+        labelCell.setBorderColor(COLOR_ROW_LINE);
         labelCell.setPadding(5);
         table.addCell(labelCell);
 
-        PdfPCell entreeCell = new PdfPCell(new Phrase(fmt(entree) + " Fcfa", entreeFont));
+        PdfPCell entreeCell = new PdfPCell(new Phrase(fmt(entree) + " Fcfa", FONT_CREDIT));
         entreeCell.setBorder(Rectangle.BOTTOM);
-        entreeCell.setBorderColor(new Color(220, 230, 245));
+        entreeCell.setBorderColor(COLOR_ROW_LINE);
         entreeCell.setPadding(5);
         entreeCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(entreeCell);
 
-        PdfPCell emptyCell = new PdfPCell(new Phrase("—", emptyFont));
+        PdfPCell emptyCell = new PdfPCell(new Phrase("—", FONT_TEXT));
         emptyCell.setBorder(Rectangle.BOTTOM);
-        emptyCell.setBorderColor(new Color(220, 230, 245));
+        emptyCell.setBorderColor(COLOR_ROW_LINE);
         emptyCell.setPadding(5);
         emptyCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(emptyCell);
     }
 
     private void addTresoreerieSortieRow(PdfPTable table, String label, BigDecimal sortie) {
-        Font labelFont  = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-        Font emptyFont  = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-        Font sortieFont = FontFactory.getFont(FontFactory.HELVETICA, 9, COLOR_NEGATIVE);
-
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, FONT_TEXT));
         labelCell.setBorder(Rectangle.BOTTOM);
-        labelCell.setBorderColor(new Color(220, 230, 245));
+        labelCell.setBorderColor(COLOR_ROW_LINE);
         labelCell.setPadding(5);
         table.addCell(labelCell);
 
-        PdfPCell emptyCell = new PdfPCell(new Phrase("—", emptyFont));
+        PdfPCell emptyCell = new PdfPCell(new Phrase("—", FONT_TEXT));
         emptyCell.setBorder(Rectangle.BOTTOM);
-        emptyCell.setBorderColor(new Color(220, 230, 245));
+        emptyCell.setBorderColor(COLOR_ROW_LINE);
         emptyCell.setPadding(5);
         emptyCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(emptyCell);
 
-        PdfPCell sortieCell = new PdfPCell(new Phrase(fmt(sortie) + " Fcfa", sortieFont));
+        PdfPCell sortieCell = new PdfPCell(new Phrase(fmt(sortie) + " Fcfa", FONT_DEBIT));
         sortieCell.setBorder(Rectangle.BOTTOM);
-        sortieCell.setBorderColor(new Color(220, 230, 245));
+        sortieCell.setBorderColor(COLOR_ROW_LINE);
         sortieCell.setPadding(5);
         sortieCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(sortieCell);
     }
 
     private void addTotalRowThreeCol(PdfPTable table, String label, BigDecimal entreeTotal, BigDecimal sortieTotal) {
-        Font f       = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, Color.BLACK);
-        Font fEntree = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, COLOR_POSITIVE);
-        Font fSortie = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, COLOR_NEGATIVE);
-
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, f));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, FONT_TOTAL));
         labelCell.setBackgroundColor(COLOR_TOTAL_BG);
         labelCell.setPadding(6);
         table.addCell(labelCell);
 
-        PdfPCell entreeCell = new PdfPCell(new Phrase(fmt(entreeTotal) + " Fcfa", fEntree));
+        PdfPCell entreeCell = new PdfPCell(new Phrase(fmt(entreeTotal) + " Fcfa", FONT_TOTAL_CREDIT));
         entreeCell.setBackgroundColor(COLOR_TOTAL_BG);
         entreeCell.setPadding(6);
         entreeCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(entreeCell);
 
-        PdfPCell sortieCell = new PdfPCell(new Phrase(fmt(sortieTotal) + " Fcfa", fSortie));
+        PdfPCell sortieCell = new PdfPCell(new Phrase(fmt(sortieTotal) + " Fcfa", FONT_TOTAL_DEBIT));
         sortieCell.setBackgroundColor(COLOR_TOTAL_BG);
         sortieCell.setPadding(6);
         sortieCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
@@ -660,33 +654,29 @@ public class BilanPdfService {
     }
 
     private void addRow(PdfPTable table, String label, BigDecimal value, boolean isHeader, boolean debit, String unit ) {
-        Font labelFont = FontFactory.getFont(FontFactory.HELVETICA, 9, Color.BLACK);
-        Color amountColor = debit ? COLOR_NEGATIVE : COLOR_POSITIVE;
-        Font amountFont = FontFactory.getFont(FontFactory.HELVETICA, 9, amountColor);
+        Font amountFont = debit ? FONT_DEBIT : FONT_CREDIT;
 
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, FONT_TEXT));
         labelCell.setBorder(Rectangle.BOTTOM);
-        labelCell.setBorderColor(new Color(220, 230, 245));
+        labelCell.setBorderColor(COLOR_ROW_LINE);
         labelCell.setPadding(5);
         table.addCell(labelCell);
 
         PdfPCell valueCell = new PdfPCell(new Phrase(fmt(value) + " "+unit, amountFont));
         valueCell.setBorder(Rectangle.BOTTOM);
-        valueCell.setBorderColor(new Color(220, 230, 245));
+        valueCell.setBorderColor(COLOR_ROW_LINE);
         valueCell.setPadding(5);
         valueCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         table.addCell(valueCell);
     }
 
     private void addTotalRow(PdfPTable table, String label, BigDecimal value) {
-        Font f = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9.5f, Color.BLACK);
-
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, f));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, FONT_TOTAL));
         labelCell.setBackgroundColor(COLOR_TOTAL_BG);
         labelCell.setPadding(6);
         table.addCell(labelCell);
 
-        PdfPCell valueCell = new PdfPCell(new Phrase(fmt(value) + " Fcfa", f));
+        PdfPCell valueCell = new PdfPCell(new Phrase(fmt(value) + " Fcfa", FONT_TOTAL));
         valueCell.setBackgroundColor(COLOR_TOTAL_BG);
         valueCell.setPadding(6);
         valueCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
@@ -695,9 +685,8 @@ public class BilanPdfService {
 
     private void addNetRow(PdfPTable table, String label, BigDecimal value) {
         boolean positive = value.compareTo(BigDecimal.ZERO) >= 0;
-        Color bg  = positive ? new Color(210, 240, 220) : new Color(250, 215, 215);
-        Color fg  = positive ? COLOR_POSITIVE : COLOR_NEGATIVE;
-        Font  f   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, fg);
+        Color bg  = positive ? COLOR_NET_POSITIVE_BG : COLOR_NET_NEGATIVE_BG;
+        Font  f   = positive ? FONT_NET_POSITIVE : FONT_NET_NEGATIVE;
 
         PdfPCell labelCell = new PdfPCell(new Phrase(label, f));
         labelCell.setBackgroundColor(bg);
@@ -711,20 +700,44 @@ public class BilanPdfService {
         table.addCell(valueCell);
     }
 
+    // Tableau de synthèse en mode "grande table" : les lignes ajoutées au document en sont retirées
+    private PdfPTable buildSummaryTable() {
+        PdfPTable table = new PdfPTable(new float[]{2.5f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f, 1f});
+        table.setWidthPercentage(100);
+        table.setComplete(false);
+        table.setHeaderRows(1);
+
+        String[] headers = {"Membre", "Solidarité", "Solid. impayée", "Épargne (net)",
+                "Inscription", "Inscr. impayée", "Renfoul. payé", "Renfoul. impayé",
+                "Remboursement", "Emprunt", "Intérêts", "Assistance"};
+        for (String h : headers) {
+            PdfPCell cell = new PdfPCell(new Phrase(h, FONT_SUMMARY_HEADER));
+            cell.setBackgroundColor(COLOR_HEADER);
+            cell.setPadding(5);
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            table.addCell(cell);
+        }
+        return table;
+    }
+
+    private void flushSummaryRows(Document doc, PdfPTable table, boolean last) throws DocumentException {
+        table.setComplete(last);
+        doc.add(table);
+    }
+
     private void addSummaryCell(PdfPTable table, String text, Font font, Color bg, int align) {
         PdfPCell cell = new PdfPCell(new Phrase(text, font));
         cell.setBackgroundColor(bg);
         cell.setPadding(4);
         cell.setHorizontalAlignment(align);
-        cell.setBorderColor(new Color(200, 215, 235));
+        cell.setBorderColor(COLOR_BORDER);
         table.addCell(cell);
     }
 
     private void addFooter(Document doc) throws DocumentException {
         doc.add(Chunk.NEWLINE);
-        Font f = FontFactory.getFont(FontFactory.HELVETICA_OBLIQUE, 7.5f, new Color(120, 130, 150));
         Paragraph footer = new Paragraph("Document généré automatiquement par le système Mutuelle Mobile. " +
-                "Ce document est un état financier officiel.", f);
+                "Ce document est un état financier officiel.", FONT_FOOTER);
         footer.setAlignment(Element.ALIGN_CENTER);
         doc.add(footer);
     }
@@ -734,9 +747,8 @@ public class BilanPdfService {
             @Override
             public void onEndPage(PdfWriter w, Document d) {
                 PdfContentByte cb = w.getDirectContent();
-                Font f = FontFactory.getFont(FontFactory.HELVETICA, 7, new Color(150, 160, 175));
                 ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
-                        new Phrase("Page " + w.getPageNumber(), f),
+                        new Phrase("Page " + w.getPageNumber(), FONT_PAGE_NUMBER),
                         (d.right() - d.left()) / 2 + d.leftMargin(), d.bottom() - 15, 0);
             }
         });
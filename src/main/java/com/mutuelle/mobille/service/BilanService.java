@@ -19,13 +19,18 @@ import com.mutuelle.mobille.repository.MemberExerciceBilanRepository;
 import com.mutuelle.mobille.repository.MemberSessionBilanRepository;
 import com.mutuelle.mobille.repository.SessionHistoryRepository;
 import com.mutuelle.mobille.repository.TransactionRepository;
+import com.mutuelle.mobille.service.bilan.MemberBilanAccumulator;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -38,6 +43,7 @@ public class BilanService {
     private final TransactionRepository transactionRepository;
     private final SessionHistoryRepository sessionHistoryRepository;
     private final ExerciceHistoryRepository exerciceHistoryRepository;
+    private final EntityManager entityManager;
 
     // ─────────────────────────────────────────────────────────────────────────
     //  CRÉATION (appelée depuis SessionService et ExerciceService)
@@ -47,22 +53,29 @@ public class BilanService {
     public void createMemberSessionBilans(Session session, List<AccountMember> activeAccounts) {
         Long sessionId = session.getId();
 
+        // Une seule requête : membres déjà bilanés + une seule agrégation GROUP BY pour toute la session
+        Set<Long> alreadyBuilt = memberSessionBilanRepository.findMemberIdsBySessionId(sessionId);
+        MemberBilanAccumulator totals = MemberBilanAccumulator.of(
+                transactionRepository.sumBySessionGroupByAccountMemberAndTypeAndDirection(sessionId));
+
+        List<MemberSessionBilan> bilans = new ArrayList<>(activeAccounts.size());
+
         for (AccountMember compte : activeAccounts) {
             Member member = compte.getMember();
             if (member == null) continue;
-            if (memberSessionBilanRepository.existsByMemberIdAndSessionId(member.getId(), sessionId)) continue;
+            if (alreadyBuilt.contains(member.getId())) continue;
 
             Long accountMemberId = compte.getId();
 
-            BigDecimal solidaritePaid      = sum(sessionId, accountMemberId, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT);
-            BigDecimal epargneDeposited    = sum(sessionId, accountMemberId, TransactionType.EPARGNE,        TransactionDirection.CREDIT);
-            BigDecimal epargneWithdrawn    = sum(sessionId, accountMemberId, TransactionType.EPARGNE,        TransactionDirection.DEBIT);
-            BigDecimal registrationPaid    = sum(sessionId, accountMemberId, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT);
-            BigDecimal renfoulementPaid    = sum(sessionId, accountMemberId, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT);
-            BigDecimal remboursement       = sum(sessionId, accountMemberId, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT);
-            BigDecimal empruntAmount       = sum(sessionId, accountMemberId, TransactionType.EMPRUNT,        TransactionDirection.DEBIT);
-            BigDecimal interetAmount       = sum(sessionId, accountMemberId, TransactionType.INTERET,        TransactionDirection.DEBIT);
-            BigDecimal assistanceReceived  = sum(sessionId, accountMemberId, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT);
+            BigDecimal solidaritePaid      = totals.get(accountMemberId, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT);
+            BigDecimal epargneDeposited    = totals.get(accountMemberId, TransactionType.EPARGNE,        TransactionDirection.CREDIT);
+            BigDecimal epargneWithdrawn    = totals.get(accountMemberId, TransactionType.EPARGNE,        TransactionDirection.DEBIT);
+            BigDecimal registrationPaid    = totals.get(accountMemberId, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT);
+            BigDecimal renfoulementPaid    = totals.get(accountMemberId, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT);
+            BigDecimal remboursement       = totals.get(accountMemberId, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT);
+            BigDecimal empruntAmount       = totals.get(accountMemberId, TransactionType.EMPRUNT,        TransactionDirection.DEBIT);
+            BigDecimal interetAmount       = totals.get(accountMemberId, TransactionType.INTERET,        TransactionDirection.DEBIT);
+            BigDecimal assistanceReceived  = totals.get(accountMemberId, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT);
             BigDecimal agapeShare          = BigDecimal.ZERO;
 
             MemberSessionBilan bilan = MemberSessionBilan.builder()
@@ -85,10 +98,12 @@ public class BilanService {
                     .snapshotUnpaidRenfoulement(orZero(compte.getUnpaidRenfoulement()))
                     .build();
 
-            memberSessionBilanRepository.save(bilan);
+            bilans.add(bilan);
         }
 
-        log.info("MemberSessionBilan créés pour session {} ({} membres)", sessionId, activeAccounts.size());
+        memberSessionBilanRepository.saveAll(bilans);
+
+        log.info("MemberSessionBilan créés pour session {} ({} membres)", sessionId, bilans.size());
     }
 
     @Transactional
@@ -101,22 +116,29 @@ public class BilanService {
 
         BigDecimal totalAgapeShareBase = BigDecimal.ZERO;
 
+        // Un seul parcours groupé des transactions de l'exercice pour tous les membres
+        Set<Long> alreadyBuilt = memberExerciceBilanRepository.findMemberIdsByExerciceId(exerciceId);
+        MemberBilanAccumulator totals = MemberBilanAccumulator.of(
+                transactionRepository.sumByExerciceGroupByAccountMemberAndTypeAndDirection(exerciceId));
+
+        List<MemberExerciceBilan> bilans = new ArrayList<>(activeMembers.size());
+
         for (Member member : activeMembers) {
             AccountMember compte = member.getAccountMember();
             if (compte == null) continue;
-            if (memberExerciceBilanRepository.existsByMemberIdAndExerciceId(member.getId(), exerciceId)) continue;
+            if (alreadyBuilt.contains(member.getId())) continue;
 
             Long accountMemberId = compte.getId();
 
-            BigDecimal totalSolidaritePaid    = sumEx(exerciceId, accountMemberId, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT);
-            BigDecimal totalEpargneDeposited  = sumEx(exerciceId, accountMemberId, TransactionType.EPARGNE,        TransactionDirection.CREDIT);
-            BigDecimal totalEpargneWithdrawn  = sumEx(exerciceId, accountMemberId, TransactionType.EPARGNE,        TransactionDirection.DEBIT);
-            BigDecimal totalRegistrationPaid  = sumEx(exerciceId, accountMemberId, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT);
-            BigDecimal totalRenfoulementPaid  = sumEx(exerciceId, accountMemberId, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT);
-            BigDecimal totalRemboursement     = sumEx(exerciceId, accountMemberId, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT);
-            BigDecimal totalEmpruntAmount     = sumEx(exerciceId, accountMemberId, TransactionType.EMPRUNT,        TransactionDirection.DEBIT);
-            BigDecimal totalInteretAmount     = sumEx(exerciceId, accountMemberId, TransactionType.INTERET,        TransactionDirection.DEBIT);
-            BigDecimal totalAssistance        = sumEx(exerciceId, accountMemberId, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT);
+            BigDecimal totalSolidaritePaid    = totals.get(accountMemberId, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT);
+            BigDecimal totalEpargneDeposited  = totals.get(accountMemberId, TransactionType.EPARGNE,        TransactionDirection.CREDIT);
+            BigDecimal totalEpargneWithdrawn  = totals.get(accountMemberId, TransactionType.EPARGNE,        TransactionDirection.DEBIT);
+            BigDecimal totalRegistrationPaid  = totals.get(accountMemberId, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT);
+            BigDecimal totalRenfoulementPaid  = totals.get(accountMemberId, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT);
+            BigDecimal totalRemboursement     = totals.get(accountMemberId, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT);
+            BigDecimal totalEmpruntAmount     = totals.get(accountMemberId, TransactionType.EMPRUNT,        TransactionDirection.DEBIT);
+            BigDecimal totalInteretAmount     = totals.get(accountMemberId, TransactionType.INTERET,        TransactionDirection.DEBIT);
+            BigDecimal totalAssistance        = totals.get(accountMemberId, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT);
 
             MemberExerciceBilan bilan = MemberExerciceBilan.builder()
                     .member(member)
@@ -140,10 +162,12 @@ public class BilanService {
                     .snapshotUnpaidRenfoulement(orZero(compte.getUnpaidRenfoulement()))
                     .build();
 
-            memberExerciceBilanRepository.save(bilan);
+            bilans.add(bilan);
         }
 
-        log.info("MemberExerciceBilan créés pour exercice {} ({} membres)", exerciceId, activeMembers.size());
+        memberExerciceBilanRepository.saveAll(bilans);
+
+        log.info("MemberExerciceBilan créés pour exercice {} ({} membres)", exerciceId, bilans.size());
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -182,6 +206,44 @@ public class BilanService {
         return memberExerciceBilanRepository.findByExerciceId(exerciceId).stream().map(this::toDTO).toList();
     }
 
+    public boolean hasMemberBilansForSession(Long sessionId) {
+        return memberSessionBilanRepository.existsBySessionId(sessionId);
+    }
+
+    public boolean hasMemberBilansForExercice(Long exerciceId) {
+        return memberExerciceBilanRepository.existsByExerciceId(exerciceId);
+    }
+
+    /**
+     * Page de bilans d'une session, triés par id, dont l'id est supérieur à
+     * {@code afterId} (0 pour la première page). Pour les exports qui
+     * parcourent tous les membres sans tout charger : les bilans et membres
+     * lus sont détachés, le contexte de persistance ne grossit pas d'une
+     * page à l'autre.
+     */
+    public List<MemberSessionBilanDTO> getMemberBilanPageBySession(Long sessionId, Long afterId, int pageSize) {
+        List<MemberSessionBilan> page = memberSessionBilanRepository
+                .findPageBySessionId(sessionId, afterId, PageRequest.of(0, pageSize));
+        List<MemberSessionBilanDTO> dtos = page.stream().map(this::toDTO).toList();
+        page.forEach(b -> {
+            entityManager.detach(b);
+            entityManager.detach(b.getMember());
+        });
+        return dtos;
+    }
+
+    /** Équivalent de {@link #getMemberBilanPageBySession} pour un exercice. */
+    public List<MemberExerciceBilanDTO> getMemberBilanPageByExercice(Long exerciceId, Long afterId, int pageSize) {
+        List<MemberExerciceBilan> page = memberExerciceBilanRepository
+                .findPageByExerciceId(exerciceId, afterId, PageRequest.of(0, pageSize));
+        List<MemberExerciceBilanDTO> dtos = page.stream().map(this::toDTO).toList();
+        page.forEach(b -> {
+            entityManager.detach(b);
+            entityManager.detach(b.getMember());
+        });
+        return dtos;
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     //  LECTURE - Bilan mutuelle
     // ─────────────────────────────────────────────────────────────────────────
@@ -358,14 +420,6 @@ public class BilanService {
     //  Helpers privés
     // ─────────────────────────────────────────────────────────────────────────
 
-    private BigDecimal sum(Long sessionId, Long accountMemberId, TransactionType type, TransactionDirection direction) {
-        return transactionRepository.sumBySessionAndAccountMemberAndTypeAndDirection(sessionId, accountMemberId, type, direction);
-    }
-
-    private BigDecimal sumEx(Long exerciceId, Long accountMemberId, TransactionType type, TransactionDirection direction) {
-        return transactionRepository.sumByExerciceAndAccountMemberAndTypeAndDirection(exerciceId, accountMemberId, type, direction);
-    }
-
     private BigDecimal orZero(BigDecimal value) {
         return value != null ? value : BigDecimal.ZERO;
     }
@@ -0,0 +1,136 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.dto.bilan.MemberExerciceBilanDTO;
+import com.mutuelle.mobille.dto.bilan.MemberSessionBilanDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export en une archive ZIP des bilans PDF de tous les membres d'une
+ * session ou d'un exercice.
+ *
+ * Les bilans sont lus par pages ; les PDF d'une page sont rendus en
+ * parallèle sur un pool borné, partagé par tous les exports, pendant que
+ * ceux de la page précédente sont écrits dans l'archive, dans l'ordre des
+ * bilans. Ni l'archive ni l'ensemble des PDF ne sont gardés en mémoire.
+ */
+@Slf4j
+@Service
+public class BilanZipExportService {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final BilanService bilanService;
+    private final BilanPdfService bilanPdfService;
+    private final ForkJoinPool renderPool;
+
+    public BilanZipExportService(BilanService bilanService,
+                                 BilanPdfService bilanPdfService,
+                                 @Value("${mutuelle.bilan.export-parallelism:0}") int parallelism) {
+        this.bilanService = bilanService;
+        this.bilanPdfService = bilanPdfService;
+        // 0 : un thread de rendu par processeur
+        this.renderPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public void writeMemberSessionBilansZip(Long sessionId, OutputStream out) throws IOException {
+        List<MemberSessionBilanDTO> first = bilanService.getMemberBilanPageBySession(sessionId, 0L, PAGE_SIZE);
+        if (first.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cette session");
+
+        int count = writeZip(out, first,
+                afterId -> bilanService.getMemberBilanPageBySession(sessionId, afterId, PAGE_SIZE),
+                MemberSessionBilanDTO::getId,
+                bilanPdfService::buildMemberSessionPdf,
+                b -> entryName(b.getMemberId(), b.getMemberLastname(), b.getMemberFirstname()));
+        log.info("Export ZIP session {} : {} bilan(s)", sessionId, count);
+    }
+
+    public void writeMemberExerciceBilansZip(Long exerciceId, OutputStream out) throws IOException {
+        List<MemberExerciceBilanDTO> first = bilanService.getMemberBilanPageByExercice(exerciceId, 0L, PAGE_SIZE);
+        if (first.isEmpty()) throw new RuntimeException("Aucun bilan disponible pour cet exercice");
+
+        int count = writeZip(out, first,
+                afterId -> bilanService.getMemberBilanPageByExercice(exerciceId, afterId, PAGE_SIZE),
+                MemberExerciceBilanDTO::getId,
+                bilanPdfService::buildMemberExercicePdf,
+                b -> entryName(b.getMemberId(), b.getMemberLastname(), b.getMemberFirstname()));
+        log.info("Export ZIP exercice {} : {} bilan(s)", exerciceId, count);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    boolean awaitRenderingIdle(long timeoutMs) {
+        return renderPool.awaitQuiescence(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Le flux n'est pas fermé : l'archive est terminée (finish) et laissée à l'appelant
+    private <T> int writeZip(OutputStream out, List<T> first, Function<Long, List<T>> nextPage,
+                             Function<T, Long> id, Function<T, byte[]> render,
+                             Function<T, String> entryName) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Les PDF sont déjà compressés : compresser davantage coûterait du temps pour rien
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        List<T> page = first;
+        List<ForkJoinTask<byte[]>> rendering = submit(page, render);
+        List<ForkJoinTask<byte[]>> nextRendering = List.of();
+        int count = 0;
+        try {
+            while (!page.isEmpty()) {
+                List<T> next = page.size() < PAGE_SIZE ? List.of() : nextPage.apply(id.apply(page.get(page.size() - 1)));
+                nextRendering = submit(next, render);
+
+                for (int i = 0; i < page.size(); i++) {
+                    byte[] pdf = rendering.get(i).join();
+                    zip.putNextEntry(new ZipEntry(entryName.apply(page.get(i))));
+                    zip.write(pdf);
+                    zip.closeEntry();
+                    count++;
+                }
+                page = next;
+                rendering = nextRendering;
+            }
+        } finally {
+            // Export interrompu (client parti, erreur de rendu) : les rendus restants sont abandonnés,
+            // page en cours comme page suivante déjà lancée
+            rendering.forEach(task -> task.cancel(true));
+            nextRendering.forEach(task -> task.cancel(true));
+        }
+        zip.finish();
+        zip.flush();
+        return count;
+    }
+
+    private <T> List<ForkJoinTask<byte[]>> submit(List<T> page, Function<T, byte[]> render) {
+        List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(page.size());
+        for (T bilan : page) {
+            tasks.add(renderPool.submit(() -> render.apply(bilan)));
+        }
+        return tasks;
+    }
+
+    private static String entryName(Long memberId, String lastname, String firstname) {
+        String name = Normalizer.normalize(lastname + "-" + firstname, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9-]+", "_");
+        return "bilan-" + memberId + "-" + name + ".pdf";
+    }
+}
@@ -3,23 +3,38 @@ package com.mutuelle.mobille.service;
 
 import com.mutuelle.mobille.models.BorrowingCeilingInterval;
 import com.mutuelle.mobille.repository.BorrowingCeilingIntervalRepository;
-import jakarta.annotation.PostConstruct;
+import com.mutuelle.mobille.service.emprunt.BorrowingCeilingTable;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
 
+/**
+ * Plafonds d'emprunt par tranche d'épargne.
+ *
+ * Les intervalles sont lus une fois et gardés en mémoire dans une
+ * {@link BorrowingCeilingTable} immuable. Toute modification passe par
+ * {@link #replaceIntervals(List)} : la table est reconstruite après le commit
+ * puis publiée d'un seul coup, les lecteurs voient soit l'ancienne soit la
+ * nouvelle, jamais un état intermédiaire.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BorrowingCeilingService {
 
     private final BorrowingCeilingIntervalRepository repository;
 
+    private volatile BorrowingCeilingTable table = BorrowingCeilingTable.EMPTY;
+
     /**
      * Charge automatiquement les valeurs par défaut si la table est vide.
      */
-    @PostConstruct
     public void loadDefaultIntervals() {
         if (repository.count() == 0) {
             // Intervalle 1: 0 à 500_000, multiplicateur 5, plafond max 2_000_000
@@ -62,34 +77,66 @@ public class BorrowingCeilingService {
                     .maxPlafond(null)
                     .build());
         }
+        reload();
+    }
+
+    /**
+     * Relit les intervalles en base et publie une nouvelle table.
+     */
+    public void reload() {
+        BorrowingCeilingTable rebuilt = BorrowingCeilingTable.of(repository.findAllByOrderByMinEpargneAsc());
+        table = rebuilt;
+        log.info("Table des plafonds d'emprunt chargée : {} intervalle(s)", rebuilt.size());
+    }
+
+    /**
+     * Remplace l'ensemble des intervalles. La table en mémoire est reconstruite
+     * après le commit ; en cas de rollback l'ancienne reste en place.
+     */
+    @Transactional
+    public List<BorrowingCeilingInterval> replaceIntervals(List<BorrowingCeilingInterval> intervals) {
+        repository.deleteAllInBatch();
+        List<BorrowingCeilingInterval> saved = repository.saveAll(intervals);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    private void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
     }
 
     /**
-     * Calcule le plafond d'emprunt basé sur l'épargne en utilisant les intervalles stockés.
-     * Les intervalles sont supposés non-chevauchants et triés par min_epargne.
+     * Calcule le plafond d'emprunt basé sur l'épargne, à partir de la table en mémoire.
      *
      * @param epargne L'épargne du membre.
-     * @return Le plafond calculé.
+     * @return Le plafond calculé (0 si aucun intervalle ne correspond).
      */
     public BigDecimal calculerPlafond(BigDecimal epargne) {
-        List<BorrowingCeilingInterval> intervals = repository.findAllByOrderByMinEpargneAsc();
-
-        for (BorrowingCeilingInterval interval : intervals) {
-            if (epargne.compareTo(interval.getMinEpargne()) >= 0 &&
-                    (interval.getMaxEpargne() == null || epargne.compareTo(interval.getMaxEpargne()) <= 0)) {
-                BigDecimal plafond = epargne.multiply(interval.getMultiplier());
-                if (interval.getMaxPlafond() != null) {
-                    plafond = plafond.min(interval.getMaxPlafond());
-                }
-                return plafond;
-            }
-        }
+        return table.plafond(epargne);
+    }
+
+    /**
+     * Plafonds pour une liste d'épargnes, dans le même ordre, sur une même
+     * version de la table.
+     */
+    public List<BigDecimal> calculerPlafonds(List<BigDecimal> epargnes) {
+        return table.plafonds(epargnes);
+    }
 
-        // Si aucun intervalle ne correspond (cas edge improbable si defaults chargés), retour 0
-        return BigDecimal.ZERO;
+    public BorrowingCeilingTable getTable() {
+        return table;
     }
 
     public List<BorrowingCeilingInterval> getAllIntervalsOrdered() {
-        return repository.findAllByOrderByMinEpargneAsc();
+        return table.intervals();
     }
-}
\ No newline at end of file
+}
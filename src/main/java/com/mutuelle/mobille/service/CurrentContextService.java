@@ -6,32 +6,47 @@ import com.mutuelle.mobille.dto.assistance.TypeAssistanceResponseDto;
 import com.mutuelle.mobille.dto.exercice.ExerciceResponseDTO;
 import com.mutuelle.mobille.dto.member.MemberResponseDTO;
 import com.mutuelle.mobille.dto.profile.AdminProfileDTO;
-import com.mutuelle.mobille.dto.profile.MemberProfileDTO;
 import com.mutuelle.mobille.dto.session.SessionResponseDTO;
 import com.mutuelle.mobille.enums.Role;
 import com.mutuelle.mobille.mapper.AdminMapper;
-import com.mutuelle.mobille.models.BorrowingCeilingInterval;
-import com.mutuelle.mobille.models.Member;
 import com.mutuelle.mobille.models.MutuelleConfig;
 import com.mutuelle.mobille.models.Session;
-import com.mutuelle.mobille.models.auth.AuthUser;
 import com.mutuelle.mobille.repository.AdminRepository;
 import com.mutuelle.mobille.repository.MemberRepository;
-import com.mutuelle.mobille.repository.TransactionRepository;
+import com.mutuelle.mobille.service.context.ContextSection;
+import com.mutuelle.mobille.service.context.ContextSectionCache;
 import com.mutuelle.mobille.utils.SecurityUtil;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Contexte renvoyé par {@code /api/context} à chaque ouverture de l'application.
+ *
+ * Les sections communes à tous les utilisateurs sont lues dans le
+ * {@link ContextSectionCache} ; les sections propres à l'utilisateur
+ * (profil, statistiques) sont calculées en parallèle sur un pool borné
+ * ({@code mutuelle.context.parallelism}). Les plafonds d'emprunt sont déjà
+ * servis depuis la mémoire par {@link BorrowingCeilingService}.
+ */
 @Service
-@RequiredArgsConstructor
 public class CurrentContextService {
 
+    private record CurrentPeriod(SessionResponseDTO session, ExerciceResponseDTO exercice) {
+    }
+
+    private record GlobalCounters(Long totalAssistances, Long totalTransactions, BigDecimal totalAssistanceAmount) {
+    }
+
     private final SessionService sessionService;
     private final ExerciceService exerciceService;
     private final AssistanceService assistanceService;
@@ -40,71 +55,131 @@ public class CurrentContextService {
     private final MemberService memberService;
     private final AdminMapper adminMapper;
     private final AdminRepository adminRepository;
-    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
     private final AccountService accountService;
     private final MemberRepository memberRepository;
+    private final ContextSectionCache sectionCache;
+    private final ExecutorService userSectionPool;
+
+    public CurrentContextService(SessionService sessionService,
+                                 ExerciceService exerciceService,
+                                 AssistanceService assistanceService,
+                                 MutuelleConfigService mutuelleConfigService,
+                                 BorrowingCeilingService borrowingCeilingService,
+                                 MemberService memberService,
+                                 AdminMapper adminMapper,
+                                 AdminRepository adminRepository,
+                                 TransactionService transactionService,
+                                 AccountService accountService,
+                                 MemberRepository memberRepository,
+                                 ContextSectionCache sectionCache,
+                                 @Value("${mutuelle.context.parallelism:8}") int parallelism) {
+        this.sessionService = sessionService;
+        this.exerciceService = exerciceService;
+        this.assistanceService = assistanceService;
+        this.mutuelleConfigService = mutuelleConfigService;
+        this.borrowingCeilingService = borrowingCeilingService;
+        this.memberService = memberService;
+        this.adminMapper = adminMapper;
+        this.adminRepository = adminRepository;
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+        this.memberRepository = memberRepository;
+        this.sectionCache = sectionCache;
+        this.userSectionPool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        userSectionPool.shutdownNow();
+    }
 
     public CurrentContextResponseDTO buildCurrentContext() {
 
         // ───────────────────── Détection + récupération utilisateur ─────────────────────
-        boolean authenticated = false;
         CustomUserDetails userDetails = null;
         try {
             userDetails = SecurityUtil.getCurrentCustomUserDetails();
-            authenticated = true;
         } catch (IllegalStateException e) {
             // Pas connecté ou principal non compatible → on reste anonyme
-            authenticated = false;
         }
+        boolean authenticated = userDetails != null;
 
         // Builder de base
         CurrentContextResponseDTO.CurrentContextResponseDTOBuilder builder = CurrentContextResponseDTO.builder()
                 .authenticated(authenticated);
 
         // ───────────────────── Enrichissement si connecté ─────────────────────
-        if (authenticated && userDetails != null) {
-            AuthUser authUser = userDetails.getAuthUser();
-            Long userRefId = authUser.getUserRefId();
+        // Les requêtes propres à l'utilisateur partent en parallèle, puis les
+        // sections partagées sont lues pendant qu'elles s'exécutent
+        CompletableFuture<AdminProfileDTO> adminProfile = null;
+        CompletableFuture<MemberResponseDTO> memberProfile = null;
+        CompletableFuture<Long> memberAssistances = null;
+        CompletableFuture<Long> memberTransactions = null;
+
+        if (authenticated) {
+            Role role = userDetails.getRole();
+            Long userRefId = userDetails.getUserRefId();
 
             builder
                     .email(userDetails.getEmail())
                     .authUserId(userDetails.getId())
-                    .role(authUser.getRole())
+                    .role(role)
                     .userRefId(userRefId)
-                    .isAdmin(authUser.getRole() == Role.ADMIN)
-                    .isMember(authUser.getRole() == Role.MEMBER);
-
-            // Profil
-            if (authUser.getRole() == Role.ADMIN) {
-                adminRepository.findById(userRefId)
-                        .ifPresent(a -> builder.adminProfile(adminMapper.toProfileDTO(a)));
-                builder.accountMutuelle(accountService.getMutuelleGlobalAccount());
-            } else if (authUser.getRole() == Role.MEMBER) {
-                MemberResponseDTO memberResponseDTO= memberService.getCurrentMemberProfile();
-                builder.memberProfile(memberResponseDTO);
-
-                // Statistiques MEMBRE
-                Long memberId = memberResponseDTO.id();
-                Long accountMemberId = memberResponseDTO.idAccount();
+                    .isAdmin(role == Role.ADMIN)
+                    .isMember(role == Role.MEMBER);
 
-                builder
-                        .memberTotalAssistances(assistanceService.countAssistancesByMember(memberId))
-                        .memberTotalTransactions(transactionRepository.countByAccountMemberId(accountMemberId));
+            if (role == Role.ADMIN) {
+                adminProfile = async(() -> adminRepository.findById(userRefId)
+                        .map(adminMapper::toProfileDTO)
+                        .orElse(null));
+            } else if (role == Role.MEMBER) {
+                memberProfile = async(() -> memberService.getMemberById(userRefId));
+                memberAssistances = async(() -> assistanceService.countAssistancesByMember(userRefId));
+                memberTransactions = async(() -> transactionService.countTransactionsByMemberId(userRefId));
             }
 
             // Statistiques ADMIN (globales)
-            if (authUser.getRole() == Role.ADMIN) {
+            if (role == Role.ADMIN) {
+                GlobalCounters counters = sectionCache.get(ContextSection.GLOBAL_COUNTERS, this::loadGlobalCounters);
                 builder
-                        .globalTotalAssistances(assistanceService.countAllAssistances())
-                        .globalTotalTransactions(transactionRepository.countTotalTransactions())
-                        .globalTotalAssistanceAmount(assistanceService.sumAllAssistanceAmounts());
+                        .accountMutuelle(accountService.getMutuelleGlobalAccountSnapshot())
+                        .globalTotalAssistances(counters.totalAssistances())
+                        .globalTotalTransactions(counters.totalTransactions())
+                        .globalTotalAssistanceAmount(counters.totalAssistanceAmount());
+            }
+        }
 
-                // Optionnel : stats session courante
+        // ───────────────────── Données de base (partagées) ─────────────────────
+        CurrentPeriod period = sectionCache.get(ContextSection.CURRENT_PERIOD, this::loadCurrentPeriod);
+        MutuelleConfig config = sectionCache.get(ContextSection.CONFIG, mutuelleConfigService::getCurrentConfig);
+        List<TypeAssistanceResponseDto> typeAssistance = sectionCache.get(ContextSection.ASSISTANCE_TYPES,
+                () -> List.copyOf(assistanceService.getAllTypeAssistances()));
+        Long totalMembers = sectionCache.get(ContextSection.MEMBER_COUNT, memberRepository::count);
 
-            }
+        builder
+                .currentSession(period.session())
+                .currentExercice(period.exercice())
+                .config(config)
+                .typeAssistance(typeAssistance)
+                .borrowingCeilingIntervals(borrowingCeilingService.getAllIntervalsOrdered())
+                .totalMembers(totalMembers);
+
+        // ───────────────────── Sections utilisateur ─────────────────────
+        if (adminProfile != null) {
+            builder.adminProfile(join(adminProfile));
+        }
+        if (memberProfile != null) {
+            builder
+                    .memberProfile(join(memberProfile))
+                    .memberTotalAssistances(join(memberAssistances))
+                    .memberTotalTransactions(join(memberTransactions));
         }
 
-        // ───────────────────── Données de base (comme avant) ─────────────────────
+        return builder.build();
+    }
+
+    private CurrentPeriod loadCurrentPeriod() {
         Optional<Session> optionalSession = sessionService.findCurrentSession();
 
         SessionResponseDTO currentSessionDto = optionalSession
@@ -118,20 +193,29 @@ public class CurrentContextService {
                         .map(exerciceService::toResponseDTO)
                         .orElse(null));
 
-        MutuelleConfig config = mutuelleConfigService.getCurrentConfig();
-        List<TypeAssistanceResponseDto> typeAssistance = assistanceService.getAllTypeAssistances();
-        List<BorrowingCeilingInterval> borrowingCeilingIntervals = borrowingCeilingService.getAllIntervalsOrdered();
-        Long totalMembers = memberRepository.count();
+        return new CurrentPeriod(currentSessionDto, currentExerciceDto);
+    }
 
-        // Finalisation
-        return builder
-                .currentSession(currentSessionDto)
-                .currentExercice(currentExerciceDto)
-                .config(config)
-                .typeAssistance(typeAssistance)
-                .borrowingCeilingIntervals(borrowingCeilingIntervals)
-                .totalMembers(totalMembers)
-                .build();
+    private GlobalCounters loadGlobalCounters() {
+        return new GlobalCounters(
+                assistanceService.countAllAssistances(),
+                transactionService.countAllTransactions(),
+                assistanceService.sumAllAssistanceAmounts());
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, userSectionPool);
     }
 
-}
\ No newline at end of file
+    // Relance l'exception d'origine (ex. membre introuvable) plutôt que son enveloppe
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
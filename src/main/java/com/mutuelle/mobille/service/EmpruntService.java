@@ -5,6 +5,7 @@ import com.mutuelle.mobille.enums.StatusSession;
 import com.mutuelle.mobille.enums.TemplateMailsName;
 import com.mutuelle.mobille.enums.TransactionDirection;
 import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.Member;
 import com.mutuelle.mobille.models.MutuelleConfig;
 import com.mutuelle.mobille.models.Session;
 import com.mutuelle.mobille.models.Transaction;
@@ -13,6 +14,8 @@ import com.mutuelle.mobille.models.auth.AuthUser;
 import com.mutuelle.mobille.repository.MutuelleConfigRepository;
 import com.mutuelle.mobille.repository.SessionRepository;
 import com.mutuelle.mobille.repository.TransactionRepository;
+import com.mutuelle.mobille.service.emprunt.BorrowingCeilingTable;
+import com.mutuelle.mobille.service.emprunt.CompletedSessionTimeline;
 import com.mutuelle.mobille.service.notifications.config.NotificationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -156,80 +159,60 @@ public class EmpruntService {
                 ? session.getTotalInteretAmount()
                 : BigDecimal.ZERO;
 
+        // ── Chargements uniques (au lieu de requêtes par emprunteur) ──────────
         List<AccountMember> emprunteurs = accountService.findMembersWithBorrowGreaterThanZero();
 
+        Set<Long> borrowSessionIds = new HashSet<>();
+        for (AccountMember membreAcc : emprunteurs) {
+            if (membreAcc.getBorrowSessionId() != null) {
+                borrowSessionIds.add(membreAcc.getBorrowSessionId());
+            }
+        }
+        Map<Long, Session> borrowSessions = new HashMap<>();
+        for (Session s : sessionRepository.findAllById(borrowSessionIds)) {
+            borrowSessions.put(s.getId(), s);
+        }
+
+        CompletedSessionTimeline sessionsFermees = CompletedSessionTimeline.of(
+                sessionRepository.findStartDatesByStatus(StatusSession.COMPLETED));
+        BorrowingCeilingTable plafonds = borrowingCeilingService.getTable();
+
+        // ── Évaluation de tous les emprunteurs en une passe ──────────────────
+        Map<AccountMember, BigDecimal> hausseDettes = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        List<PlafondDepasse> depassements = new ArrayList<>();
+
         for (AccountMember membreAcc : emprunteurs) {
 
             Long borrowSessionId = membreAcc.getBorrowSessionId();
             if (borrowSessionId == null) continue;
 
-            Session borrowSession = sessionRepository.findById(borrowSessionId).orElse(null);
+            Session borrowSession = borrowSessions.get(borrowSessionId);
             if (borrowSession == null) continue;
 
-            long nbSessionsFermees = sessionRepository.countCompletedSessionsAfter(borrowSession.getStartDate());
+            long nbSessionsFermees = sessionsFermees.countStartedAfter(borrowSession.getStartDate());
             if (nbSessionsFermees < threshold) continue;
 
             BigDecimal soldeActuel = membreAcc.getBorrowAmount();
             if (soldeActuel == null || soldeActuel.compareTo(BigDecimal.ZERO) <= 0) continue;
 
-            BigDecimal interets = interetService.calculerInteret(soldeActuel);
+            BigDecimal interets = interetService.calculerInteret(soldeActuel, config);
             if (interets.compareTo(BigDecimal.ZERO) <= 0) continue;
 
-            BigDecimal montantEquivalent = interetService.calculMontantEmpruntEquivalent(soldeActuel);
+            BigDecimal montantEquivalent = interetService.calculMontantEmpruntEquivalent(soldeActuel, config);
             BigDecimal epargneActuelle = membreAcc.getSavingAmount() != null
                     ? membreAcc.getSavingAmount() : BigDecimal.ZERO;
-            BigDecimal plafondActuel = borrowingCeilingService.calculerPlafond(epargneActuelle);
+            BigDecimal plafondActuel = plafonds.plafond(epargneActuelle);
 
             if (montantEquivalent.compareTo(plafondActuel.add(penaliteFixe)) > 0) {
-
-                Optional<AuthUser> authOpt = memberService.getAuthMember(membreAcc.getMember());
-                if (authOpt.isEmpty()) continue;
-                AuthUser authUser = authOpt.get();
-
-                BigDecimal ecart = montantEquivalent.subtract(plafondActuel);
-
-                Map<String, Object> varsMembre = new HashMap<>();
-                varsMembre.put("memberName", membreAcc.getMember().getLastname());
-                varsMembre.put("soldeActuel", soldeActuel);
-                varsMembre.put("montantEquivalent", montantEquivalent);
-                varsMembre.put("plafondActuel", plafondActuel);
-
-                notificationService.sendNotification(NotificationRequestDto.builder()
-                        .email(authUser.getEmail())
-                        .title("Alerte : Plafond d'emprunt dépassé")
-                        .templateName(TemplateMailsName.PLAFOND_DEPASSE_MEMBER)
-                        .variables(varsMembre)
-                        .channels(Set.of(EMAIL))
-                        .build());
-
-                AuthUser authAdmin = adminService.getAuthAdmin();
-                if (authAdmin == null) continue;
-
-                Map<String, Object> varsAdmin = new HashMap<>();
-                varsAdmin.put("memberName", membreAcc.getMember().getLastname());
-                varsAdmin.put("memberId", membreAcc.getMember().getId());
-                varsAdmin.put("soldeActuel", soldeActuel);
-                varsAdmin.put("montantEquivalent", montantEquivalent);
-                varsAdmin.put("plafondActuel", plafondActuel);
-                varsAdmin.put("ecart", ecart);
-                varsAdmin.put("interets", interets);
-                varsAdmin.put("sessionName", session.getName());
-
-                notificationService.sendNotification(NotificationRequestDto.builder()
-                        .email(authAdmin.getEmail())
-                        .title("[ALERTE] Plafond dépassé – Membre " + membreAcc.getMember().getLastname())
-                        .templateName(TemplateMailsName.PLAFOND_DEPASSE_ADMIN)
-                        .variables(varsAdmin)
-                        .channels(Set.of(EMAIL))
-                        .build());
-
+                depassements.add(new PlafondDepasse(membreAcc, soldeActuel, montantEquivalent, plafondActuel, interets));
                 continue;
             }
 
-            accountService.addBorrowAmount(membreAcc, interets);
+            BigDecimal hausse = interets;
             totalInterets = totalInterets.add(interets);
 
-            transactionRepository.save(Transaction.builder()
+            transactions.add(Transaction.builder()
                     .accountMember(membreAcc)
                     .amount(interets)
                     .transactionType(TransactionType.INTERET)
@@ -239,10 +222,10 @@ public class EmpruntService {
                     .build());
 
             if (penaliteActive) {
-                accountService.addBorrowAmount(membreAcc, penaliteFixe);
+                hausse = hausse.add(penaliteFixe);
                 totalInterets = totalInterets.add(penaliteFixe);
 
-                transactionRepository.save(Transaction.builder()
+                transactions.add(Transaction.builder()
                         .accountMember(membreAcc)
                         .amount(penaliteFixe)
                         .transactionType(TransactionType.PENALITE)
@@ -251,8 +234,19 @@ public class EmpruntService {
                         .description("Pénalité de retard de remboursement")
                         .build());
             }
+
+            hausseDettes.put(membreAcc, hausse);
+        }
+
+        // ── Écritures groupées ───────────────────────────────────────────────
+        if (!hausseDettes.isEmpty()) {
+            accountService.addBorrowAmounts(hausseDettes);
+            transactionRepository.saveAll(transactions);
         }
 
+        // Alertes mises en file : envoyées après validation, pas pendant la clôture
+        notificationService.sendNotifications(buildAlertesPlafond(depassements, session));
+
         if (totalInterets.compareTo(BigDecimal.ZERO) <= 0) return;
 
         Transaction totalInteretTrans = transactionRepository.save(Transaction.builder()
@@ -266,6 +260,63 @@ public class EmpruntService {
 
         interetService.redistribuerInteret(totalInterets, totalInteretTrans, session);
     }
+
+    private record PlafondDepasse(AccountMember compte, BigDecimal soldeActuel, BigDecimal montantEquivalent,
+                                  BigDecimal plafondActuel, BigDecimal interets) {}
+
+    private List<NotificationRequestDto> buildAlertesPlafond(List<PlafondDepasse> depassements, Session session) {
+        if (depassements.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> memberIds = depassements.stream().map(d -> d.compte().getMember().getId()).toList();
+        Map<Long, AuthUser> authMembres = memberService.getAuthMembers(memberIds);
+        AuthUser authAdmin = null;
+
+        List<NotificationRequestDto> notifications = new ArrayList<>();
+        for (PlafondDepasse d : depassements) {
+            Member membre = d.compte().getMember();
+            AuthUser authUser = authMembres.get(membre.getId());
+            if (authUser == null) continue;
+
+            Map<String, Object> varsMembre = new HashMap<>();
+            varsMembre.put("memberName", membre.getLastname());
+            varsMembre.put("soldeActuel", d.soldeActuel());
+            varsMembre.put("montantEquivalent", d.montantEquivalent());
+            varsMembre.put("plafondActuel", d.plafondActuel());
+
+            notifications.add(NotificationRequestDto.builder()
+                    .email(authUser.getEmail())
+                    .title("Alerte : Plafond d'emprunt dépassé")
+                    .templateName(TemplateMailsName.PLAFOND_DEPASSE_MEMBER)
+                    .variables(varsMembre)
+                    .channels(Set.of(EMAIL))
+                    .build());
+
+            if (authAdmin == null) {
+                authAdmin = adminService.getAuthAdmin();
+            }
+
+            Map<String, Object> varsAdmin = new HashMap<>();
+            varsAdmin.put("memberName", membre.getLastname());
+            varsAdmin.put("memberId", membre.getId());
+            varsAdmin.put("soldeActuel", d.soldeActuel());
+            varsAdmin.put("montantEquivalent", d.montantEquivalent());
+            varsAdmin.put("plafondActuel", d.plafondActuel());
+            varsAdmin.put("ecart", d.montantEquivalent().subtract(d.plafondActuel()));
+            varsAdmin.put("interets", d.interets());
+            varsAdmin.put("sessionName", session.getName());
+
+            notifications.add(NotificationRequestDto.builder()
+                    .email(authAdmin.getEmail())
+                    .title("[ALERTE] Plafond dépassé – Membre " + membre.getLastname())
+                    .templateName(TemplateMailsName.PLAFOND_DEPASSE_ADMIN)
+                    .variables(varsAdmin)
+                    .channels(Set.of(EMAIL))
+                    .build());
+        }
+        return notifications;
+    }
 //    @Transactional
 //    public void appliquerPenalitesEmprunteurs(Session session) {
 //        MutuelleConfig config = mutuelleConfigRepository.findTopByOrderByUpdatedAtDesc()
@@ -21,6 +21,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -428,7 +429,7 @@ public class ExerciceService {
         }
 
         // ── Création des bilans membres par exercice ──────────────────────────
-        List<Member> activeMembers = memberRepository.findByIsActiveTrue();
+        List<Member> activeMembers = memberRepository.findAllActiveWithAccount();
         bilanService.createMemberExerciceBilans(exercice, activeMembers, sessions, renfoulementUnitaire);
     }
 
@@ -501,8 +502,8 @@ public class ExerciceService {
             return;
         }
 
-        // 4. Tous les membres actifs (ceux qui vont recevoir la dette)
-        List<Member> membresActifs = memberRepository.findByIsActiveTrue();
+        // 4. Tous les membres actifs (ceux qui vont recevoir la dette), comptes chargés en jointure
+        List<Member> membresActifs = memberRepository.findAllActiveWithAccount();
 
         if (membresActifs.isEmpty()) {
             log.info("Aucun membre actif pour assigner le renfoulement");
@@ -523,8 +524,9 @@ public class ExerciceService {
                 .orElse(null);
 
         BigDecimal totalAttribue=BigDecimal.ZERO;
+        List<Transaction> transactions = new ArrayList<>(membresActifs.size());
 
-        // 5. Création des transactions et mise à jour des comptes
+        // 5. Création des transactions et mise à jour des comptes (écrits par lots au flush)
         for (Member member : membresActifs) {
             AccountMember compte = member.getAccountMember();
             if (compte == null) {
@@ -550,10 +552,12 @@ public class ExerciceService {
                     .session(sessionRef)
                     .build();
 
-            transactionRepository.save(transaction);
+            transactions.add(transaction);
             totalAttribue = totalAttribue.add(renfoulementUnitaire);
         }
 
+        transactionRepository.saveAll(transactions);
+
         Renfoulement renfoulement=Renfoulement.builder()
                 .baseMembersCount(nbMembresAJour)
                 .distributedMembersCount(membresActifs.size())
@@ -0,0 +1,200 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.dto.account.AccountMutuelleBalanceDTO;
+import com.mutuelle.mobille.models.account.AccountMutuelle;
+import com.mutuelle.mobille.models.account.AccountMutuelleDelta;
+import com.mutuelle.mobille.repository.AccountMutuelleDeltaRepository;
+import com.mutuelle.mobille.repository.AccountMutuelleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Journal des variations du compte global de la mutuelle.
+ *
+ * Les opérations n'écrivent plus la ligne unique {@code accounts_mutuelle} :
+ * elles insèrent une variation dans {@code accounts_mutuelle_deltas}. Les
+ * inserts concurrents ne se bloquent pas entre eux, contrairement aux
+ * mises à jour de la même ligne. Les variations sont reportées dans la ligne
+ * consolidée par {@link #rollup()} (tâche planifiée) et prises en compte à la
+ * lecture par {@link #current()}.
+ *
+ * Le compte global est unique : son identifiant est résolu une seule fois,
+ * puis toutes les lectures se font par clé primaire. {@link #snapshot()} sert
+ * les tableaux de bord depuis la mémoire tant qu'aucune variation n'a été
+ * validée (instance unique : les écritures d'une autre instance ne l'invalident pas).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GlobalAccountLedgerService {
+
+    private final AccountMutuelleRepository globalRepo;
+    private final AccountMutuelleDeltaRepository deltaRepo;
+
+    private volatile Long globalAccountId;
+
+    // Incrémenté à chaque validation d'une variation : un instantané d'une génération antérieure est périmé
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedBalance cachedBalance;
+
+    private record CachedBalance(long generation, AccountMutuelleBalanceDTO balance) {}
+
+    /**
+     * Identifiant du compte global, résolu au premier appel puis conservé.
+     */
+    public Long globalAccountId() {
+        Long id = globalAccountId;
+        if (id == null) {
+            id = globalRepo.findFirstId()
+                    .orElseThrow(() -> new RuntimeException("Compte global mutuelle introuvable"));
+            globalAccountId = id;
+        }
+        return id;
+    }
+
+    /**
+     * Enregistre une variation des caisses globales dans la transaction de l'appelant.
+     * Les montants peuvent être négatifs (retrait) ; une variation nulle n'est pas écrite.
+     */
+    @Transactional
+    public void record(BigDecimal saving, BigDecimal solidarity, BigDecimal registration, BigDecimal borrow) {
+        AccountMutuelleDelta delta = AccountMutuelleDelta.builder()
+                .savingDelta(orZero(saving))
+                .solidarityDelta(orZero(solidarity))
+                .registrationDelta(orZero(registration))
+                .borrowDelta(orZero(borrow))
+                .build();
+
+        if (isEmpty(delta)) {
+            return;
+        }
+        deltaRepo.save(delta);
+        invalidateSnapshotAfterCommit();
+    }
+
+    /**
+     * Copie détachée du compte global avec les variations en attente appliquées,
+     * lue en une requête par clé primaire. Voit les variations non validées de
+     * la transaction courante. Aucune écriture : utilisable en lecture seule.
+     * Les modifications de la copie ne sont pas persistées.
+     */
+    @Transactional(readOnly = true)
+    public AccountMutuelle current() {
+        return toEntity(loadBalance());
+    }
+
+    /**
+     * Dernier état validé du compte global, pour l'affichage (tableaux de bord, contexte).
+     * Ne consulte la base qu'après une nouvelle variation validée.
+     * Ne pas utiliser pour un contrôle de solde avant écriture : voir {@link #current()}.
+     */
+    public AccountMutuelle snapshot() {
+        long gen = generation.get();
+        CachedBalance cached = cachedBalance;
+        if (cached == null || cached.generation() != gen) {
+            // Génération lue avant la requête : une validation concurrente rendra cette entrée périmée
+            cached = new CachedBalance(gen, loadBalance());
+            cachedBalance = cached;
+        }
+        return toEntity(cached.balance());
+    }
+
+    /**
+     * Reporte les variations en attente dans la ligne consolidée puis les supprime.
+     * La ligne globale est verrouillée pendant le report : deux reports concurrents
+     * (plusieurs instances) s'exécutent l'un après l'autre. Les variations, elles,
+     * sont lues sans verrou jusqu'au plus grand identifiant présent au départ, et
+     * seules les lignes lues sont supprimées : les inserts de {@link #record} ne
+     * sont jamais bloqués, et une variation validée pendant le report attend le suivant.
+     *
+     * @return le nombre de variations reportées
+     */
+    @Transactional
+    public int rollup() {
+        // L'identifiant seul : charger l'entité avant le verrou donnerait des soldes périmés
+        AccountMutuelle global = globalRepo.findByIdForUpdate(globalAccountId())
+                .orElseThrow(() -> new RuntimeException("Compte global mutuelle introuvable"));
+
+        Long maxId = deltaRepo.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        List<AccountMutuelleDelta> deltas = deltaRepo.findAllForRollup(maxId);
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        BigDecimal saving = BigDecimal.ZERO;
+        BigDecimal solidarity = BigDecimal.ZERO;
+        BigDecimal registration = BigDecimal.ZERO;
+        BigDecimal borrow = BigDecimal.ZERO;
+        for (AccountMutuelleDelta d : deltas) {
+            saving = saving.add(d.getSavingDelta());
+            solidarity = solidarity.add(d.getSolidarityDelta());
+            registration = registration.add(d.getRegistrationDelta());
+            borrow = borrow.add(d.getBorrowDelta());
+        }
+
+        global.setSavingAmount(orZero(global.getSavingAmount()).add(saving));
+        global.setSolidarityAmount(orZero(global.getSolidarityAmount()).add(solidarity));
+        global.setRegistrationAmount(orZero(global.getRegistrationAmount()).add(registration));
+        global.setBorrowAmount(orZero(global.getBorrowAmount()).add(borrow));
+        globalRepo.save(global);
+
+        deltaRepo.deleteAllInBatch(deltas);
+        invalidateSnapshotAfterCommit();
+
+        log.debug("Compte global : {} variation(s) reportée(s)", deltas.size());
+        return deltas.size();
+    }
+
+    private AccountMutuelleBalanceDTO loadBalance() {
+        return globalRepo.findBalanceWithPendingDeltas(globalAccountId())
+                .orElseThrow(() -> new RuntimeException("Compte global mutuelle introuvable"));
+    }
+
+    private void invalidateSnapshotAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private static AccountMutuelle toEntity(AccountMutuelleBalanceDTO balance) {
+        return AccountMutuelle.builder()
+                .id(balance.getId())
+                .savingAmount(balance.getSavingAmount())
+                .solidarityAmount(balance.getSolidarityAmount())
+                .registrationAmount(balance.getRegistrationAmount())
+                .borrowAmount(balance.getBorrowAmount())
+                .isActive(balance.isActive())
+                .createdAt(balance.getCreatedAt())
+                .updatedAt(balance.getUpdatedAt())
+                .build();
+    }
+
+    private static boolean isEmpty(AccountMutuelleDelta d) {
+        return d.getSavingDelta().signum() == 0
+                && d.getSolidarityDelta().signum() == 0
+                && d.getRegistrationDelta().signum() == 0
+                && d.getBorrowDelta().signum() == 0;
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+}
@@ -7,6 +7,7 @@ import com.mutuelle.mobille.models.Session;
 import com.mutuelle.mobille.models.Transaction;
 import com.mutuelle.mobille.models.account.AccountMember;
 import com.mutuelle.mobille.repository.TransactionRepository;
+import com.mutuelle.mobille.service.interet.InteretRepartition;
 import com.mutuelle.mobille.util.MoneyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -30,8 +32,17 @@ public class InteretService {
         if (montantEmprunte == null || montantEmprunte.compareTo(BigDecimal.ZERO) <= 0) {
             return BigDecimal.ZERO;
         }
+        return calculerInteret(montantEmprunte, mutuelleConfigService.getCurrentConfig());
+    }
+
+    /**
+     * Variante avec une configuration déjà chargée (traitement de tous les emprunteurs en une passe)
+     */
+    public BigDecimal calculerInteret(BigDecimal montantEmprunte, MutuelleConfig config) {
+        if (montantEmprunte == null || montantEmprunte.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
 
-        MutuelleConfig config = mutuelleConfigService.getCurrentConfig();
         BigDecimal taux = config.getLoanInterestRatePercent()
                 .divide(BigDecimal.valueOf(100), 4, BigDecimal.ROUND_HALF_UP);
 
@@ -47,8 +58,14 @@ public class InteretService {
         if (soldeRestant == null || soldeRestant.compareTo(BigDecimal.ZERO) <= 0) {
             return BigDecimal.ZERO;
         }
+        return calculMontantEmpruntEquivalent(soldeRestant, mutuelleConfigService.getCurrentConfig());
+    }
+
+    public BigDecimal calculMontantEmpruntEquivalent(BigDecimal soldeRestant, MutuelleConfig config) {
+        if (soldeRestant == null || soldeRestant.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
 
-        MutuelleConfig config = mutuelleConfigService.getCurrentConfig();
         BigDecimal taux = config.getLoanInterestRatePercent()
                 .divide(BigDecimal.valueOf(100), 8, BigDecimal.ROUND_HALF_UP);
 
@@ -73,9 +90,8 @@ public class InteretService {
             return;
         }
 
-        List<AccountMember> beneficiaires = accountService.getAllMemberAccounts().stream()
-                .filter(acc -> acc.getSavingAmount().compareTo(BigDecimal.ZERO) > 0)
-                .toList();
+        // Épargnants éligibles en une requête
+        List<AccountMember> beneficiaires = accountService.findMembersWithSavingGreaterThanZero();
 
         if (beneficiaires.isEmpty()) {
             log.info("Aucun bénéficiaire → tout en caisse");
@@ -84,51 +100,43 @@ public class InteretService {
             return;
         }
 
-        BigDecimal totalEpargne = beneficiaires.stream()
-                .map(AccountMember::getSavingAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Parts au prorata, arrondies à l'inférieur au multiple de 25, calculées en mémoire
+        InteretRepartition repartition = InteretRepartition.calculer(beneficiaires, interetTotal);
 
-        if (totalEpargne.compareTo(BigDecimal.ZERO) <= 0) {
+        if (repartition.getTotalEpargne().compareTo(BigDecimal.ZERO) <= 0) {
             log.warn("Total épargne nulle → redistribution en caisse");
             accountService.addToMutuelleCaisse(interetTotal);
             return;
         }
 
-        BigDecimal totalDistribue = BigDecimal.ZERO;
-
-        for (AccountMember beneficiaire : beneficiaires) {
-            BigDecimal partBrute = calculPartMembre(totalEpargne, beneficiaire.getSavingAmount(), interetTotal);
-
-            // ARRONDISSAGE À L'INFÉRIEUR AU MULTIPLE DE 25
-            BigDecimal interetPart = MoneyUtil.floorToNearest25(partBrute);
+        List<Transaction> transactions = new ArrayList<>(repartition.getParts().size() + 1);
+        for (InteretRepartition.Part part : repartition.getParts()) {
+            AccountMember beneficiaire = part.compte();
 
             // Crédit sur le compte
-            beneficiaire.setSavingAmount(beneficiaire.getSavingAmount().add(interetPart));
-            accountService.saveMemberAccount(beneficiaire);
-            accountService.addToMutuelleCaisse(interetPart);
+            beneficiaire.setSavingAmount(beneficiaire.getSavingAmount().add(part.montant()));
 
             // Transaction
-            saveTransaction(beneficiaire, interetPart, "Redistribution d'intérêt", session, parentTransaction);
-
-            totalDistribue = totalDistribue.add(interetPart);
+            transactions.add(buildTransaction(beneficiaire, part.montant(), "Redistribution d'intérêt", session, parentTransaction));
         }
 
         // Reliquat → caisse
-        BigDecimal reliquat = interetTotal.subtract(totalDistribue);
+        BigDecimal reliquat = repartition.getReliquat();
+        BigDecimal versementCaisse = repartition.getTotalDistribue();
         if (reliquat.compareTo(BigDecimal.ZERO) > 0) {
             log.info("Reliquat de {} FCFA envoyé à la caisse", reliquat);
-            accountService.addToMutuelleCaisse(reliquat);
-            saveCaisseTransaction(reliquat, "Reliquat d'intérêt (arrondi)", session, parentTransaction);
+            versementCaisse = versementCaisse.add(reliquat);
+            transactions.add(buildTransaction(null, reliquat, "Reliquat d'intérêt (arrondi)", session, parentTransaction));
         }
-    }
 
-    private BigDecimal calculPartMembre(BigDecimal totalEpargne, BigDecimal epargneMembre, BigDecimal interetTotal) {
-        if (totalEpargne.compareTo(BigDecimal.ZERO) <= 0) return BigDecimal.ZERO;
-        return interetTotal.multiply(epargneMembre).divide(totalEpargne, 4, BigDecimal.ROUND_HALF_UP);
+        // Une mise à jour groupée des épargnes, une variation du compte global, un insert groupé des transactions
+        accountService.saveAllMemberAccounts(beneficiaires);
+        accountService.addToMutuelleCaisse(versementCaisse);
+        transactionRepository.saveAll(transactions);
     }
 
-    private void saveTransaction(AccountMember account, BigDecimal montant, String desc, Session session, Transaction parent) {
-        Transaction tx = Transaction.builder()
+    private Transaction buildTransaction(AccountMember account, BigDecimal montant, String desc, Session session, Transaction parent) {
+        return Transaction.builder()
                 .accountMember(account)
                 .amount(montant)
                 .description(desc)
@@ -137,10 +145,9 @@ public class InteretService {
                 .session(session)
                 .parentTransaction(parent)
                 .build();
-        transactionRepository.save(tx);
     }
 
     private void saveCaisseTransaction(BigDecimal montant, String desc, Session session, Transaction parent) {
-        saveTransaction(null, montant, desc, session, parent);
+        transactionRepository.save(buildTransaction(null, montant, desc, session, parent));
     }
 }
\ No newline at end of file
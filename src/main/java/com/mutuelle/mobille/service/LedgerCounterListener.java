@@ -0,0 +1,38 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.models.Transaction;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Reporte chaque insertion ou suppression de transaction dans les compteurs
+ * du grand livre. Les rappels « Pre » sont appelés dès {@code persist} /
+ * {@code remove}, avant le commit qui écrit les compteurs ; sans
+ * {@link LedgerCounterService} dans le contexte (tests JPA), il ne fait rien.
+ */
+public class LedgerCounterListener {
+
+    private final ObjectProvider<LedgerCounterService> counterService;
+
+    public LedgerCounterListener(ObjectProvider<LedgerCounterService> counterService) {
+        this.counterService = counterService;
+    }
+
+    @PrePersist
+    void onInsert(Transaction tx) {
+        record(tx, 1);
+    }
+
+    @PreRemove
+    void onDelete(Transaction tx) {
+        record(tx, -1);
+    }
+
+    private void record(Transaction tx, int sign) {
+        LedgerCounterService service = counterService.getIfAvailable();
+        if (service != null) {
+            service.onTransactionWritten(tx, sign);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.dto.transaction.LedgerTotalDTO;
+import com.mutuelle.mobille.enums.LedgerCounterScope;
+import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.LedgerCounter;
+import com.mutuelle.mobille.models.Transaction;
+import com.mutuelle.mobille.repository.LedgerCounterRepository;
+import com.mutuelle.mobille.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totaux courants des transactions (nombre et somme) par type, globalement,
+ * par session et par compte membre, pour ne plus agréger toute la table
+ * {@code transactions} à chaque lecture.
+ *
+ * Les insertions et suppressions de transactions sont cumulées pendant la
+ * transaction Spring ({@link LedgerCounterListener}) puis écrites juste avant
+ * son commit, une ligne par compteur touché : elles sont validées ou annulées
+ * avec les transactions qu'elles comptent. Comme pour le compte global, ces
+ * lignes sont regroupées par {@link #rollup()} ; {@link #verifyAgainstLedger()}
+ * recalcule les totaux depuis le grand livre et corrige les écarts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerCounterService {
+
+    public static final Long GLOBAL_SCOPE_ID = 0L;
+
+    private record Key(LedgerCounterScope scope, Long scopeId, TransactionType type) {
+    }
+
+    private final LedgerCounterRepository counterRepo;
+    private final TransactionRepository transactionRepository;
+
+    // ── Lectures (totaux validés) ─────────────────────────────────────────────
+
+    public long countGlobal(TransactionType type) {
+        return counterRepo.countOf(LedgerCounterScope.GLOBAL, GLOBAL_SCOPE_ID, type);
+    }
+
+    public BigDecimal amountGlobal(TransactionType type) {
+        return counterRepo.amountOf(LedgerCounterScope.GLOBAL, GLOBAL_SCOPE_ID, type);
+    }
+
+    public long countAllGlobal() {
+        return counterRepo.countAllTypesOf(LedgerCounterScope.GLOBAL, GLOBAL_SCOPE_ID);
+    }
+
+    public long countOfSession(Long sessionId, TransactionType type) {
+        return counterRepo.countOf(LedgerCounterScope.SESSION, sessionId, type);
+    }
+
+    public long countAllOfAccount(Long accountMemberId) {
+        return counterRepo.countAllTypesOf(LedgerCounterScope.ACCOUNT, accountMemberId);
+    }
+
+    public long countAllOfMember(Long memberId) {
+        return counterRepo.countAllTypesOfMember(memberId);
+    }
+
+    // ── Écriture ──────────────────────────────────────────────────────────────
+
+    /**
+     * Transaction insérée ({@code sign = 1}) ou supprimée ({@code sign = -1}).
+     * Cumulé dans la transaction Spring en cours, écrit avant son commit.
+     */
+    public void onTransactionWritten(Transaction tx, int sign) {
+        if (tx.getTransactionType() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("Transaction {} écrite hors transaction Spring : compteurs corrigés à la prochaine vérification", tx.getId());
+            return;
+        }
+        pendingCounters().add(tx, sign);
+    }
+
+    /**
+     * Regroupe en une seule ligne les lignes de chaque compteur qui en a
+     * plusieurs. Les lignes sont verrouillées : deux regroupements concurrents
+     * (plusieurs instances) s'exécutent l'un après l'autre.
+     *
+     * @return le nombre de lignes regroupées
+     */
+    @Transactional
+    public int rollup() {
+        List<LedgerCounter> rows = counterRepo.findAllForRollup();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Key, LedgerCounter> merged = new LinkedHashMap<>();
+        for (LedgerCounter row : rows) {
+            Key key = new Key(row.getScope(), row.getScopeId(), row.getTransactionType());
+            add(merged, key, row.getTxCount(), row.getAmountTotal());
+        }
+
+        counterRepo.deleteAllInBatch(rows);
+        counterRepo.saveAll(nonZero(merged));
+
+        log.debug("Compteurs du grand livre : {} ligne(s) regroupée(s) en {}", rows.size(), merged.size());
+        return rows.size();
+    }
+
+    /**
+     * Recalcule tous les totaux depuis la table {@code transactions} et écrit
+     * une ligne de correction pour chaque compteur en écart. Lecture cohérente
+     * (REPEATABLE_READ) : une transaction validée pendant la vérification
+     * n'est vue ni dans le grand livre ni dans les compteurs. À exécuter sur
+     * une seule instance à la fois.
+     *
+     * @return le nombre de compteurs corrigés
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int verifyAgainstLedger() {
+        return reconcile();
+    }
+
+    /**
+     * Premier démarrage avec des transactions mais sans compteurs (base
+     * existante) : les compteurs sont initialisés depuis le grand livre.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void initializeIfEmpty() {
+        if (counterRepo.count() == 0 && transactionRepository.count() > 0) {
+            log.info("Compteurs du grand livre absents : initialisation depuis les transactions");
+            reconcile();
+        }
+    }
+
+    private int reconcile() {
+        Map<Key, LedgerCounter> expected = new HashMap<>();
+        collect(expected, LedgerCounterScope.GLOBAL, transactionRepository.sumGroupByType());
+        collect(expected, LedgerCounterScope.SESSION, transactionRepository.sumGroupBySessionAndType());
+        collect(expected, LedgerCounterScope.ACCOUNT, transactionRepository.sumGroupByAccountMemberAndType());
+
+        // Écart = attendu - compté, en soustrayant les totaux actuels des compteurs
+        for (LedgerCounterScope scope : LedgerCounterScope.values()) {
+            for (LedgerTotalDTO total : counterRepo.sumByScope(scope)) {
+                Key key = new Key(scope, total.getScopeId(), total.getTransactionType());
+                add(expected, key, -total.getCount(), total.getAmount().negate());
+            }
+        }
+
+        List<LedgerCounter> corrections = nonZero(expected);
+        if (!corrections.isEmpty()) {
+            counterRepo.saveAll(corrections);
+            log.warn("Compteurs du grand livre : {} compteur(s) corrigé(s) depuis les transactions", corrections.size());
+        }
+        return corrections.size();
+    }
+
+    private static void collect(Map<Key, LedgerCounter> totals, LedgerCounterScope scope, List<LedgerTotalDTO> rows) {
+        for (LedgerTotalDTO row : rows) {
+            add(totals, new Key(scope, row.getScopeId(), row.getTransactionType()), row.getCount(), row.getAmount());
+        }
+    }
+
+    private static void add(Map<Key, LedgerCounter> counters, Key key, long count, BigDecimal amount) {
+        LedgerCounter counter = counters.computeIfAbsent(key, k -> LedgerCounter.builder()
+                .scope(k.scope())
+                .scopeId(k.scopeId())
+                .transactionType(k.type())
+                .build());
+        counter.setTxCount(counter.getTxCount() + count);
+        counter.setAmountTotal(counter.getAmountTotal().add(amount == null ? BigDecimal.ZERO : amount));
+    }
+
+    private static List<LedgerCounter> nonZero(Map<Key, LedgerCounter> counters) {
+        List<LedgerCounter> rows = new ArrayList<>();
+        for (LedgerCounter counter : counters.values()) {
+            if (counter.getTxCount() != 0 || counter.getAmountTotal().signum() != 0) {
+                rows.add(counter);
+            }
+        }
+        return rows;
+    }
+
+    // Synchronisation de la transaction en cours ; une transaction imbriquée (REQUIRES_NEW) a la sienne
+    private PendingCounters pendingCounters() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingCounters pending) {
+                return pending;
+            }
+        }
+        PendingCounters pending = new PendingCounters();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private final class PendingCounters implements TransactionSynchronization {
+
+        private final Map<Key, LedgerCounter> counters = new LinkedHashMap<>();
+
+        void add(Transaction tx, int sign) {
+            BigDecimal amount = tx.getAmount() == null ? BigDecimal.ZERO : tx.getAmount();
+            BigDecimal signedAmount = sign < 0 ? amount.negate() : amount;
+            TransactionType type = tx.getTransactionType();
+
+            LedgerCounterService.add(counters, new Key(LedgerCounterScope.GLOBAL, GLOBAL_SCOPE_ID, type), sign, signedAmount);
+            // Identifiants lus sur les références : pas de chargement des entités liées
+            if (tx.getSession() != null && tx.getSession().getId() != null) {
+                LedgerCounterService.add(counters, new Key(LedgerCounterScope.SESSION, tx.getSession().getId(), type), sign, signedAmount);
+            }
+            if (tx.getAccountMember() != null && tx.getAccountMember().getId() != null) {
+                LedgerCounterService.add(counters, new Key(LedgerCounterScope.ACCOUNT, tx.getAccountMember().getId(), type), sign, signedAmount);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<LedgerCounter> rows = nonZero(counters);
+            if (!rows.isEmpty()) {
+                counterRepo.saveAll(rows);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.mutuelle.mobille.service;
 
+import com.mutuelle.mobille.config.security.JwtAuthenticationCache;
+import com.mutuelle.mobille.config.security.TokenRevocationRegistry;
 import com.mutuelle.mobille.dto.auth.EmailUpdateDTO;
 import com.mutuelle.mobille.dto.auth.PasswordUpdateDTO;
 import com.mutuelle.mobille.dto.auth.PinUpdateDTO;
@@ -28,8 +30,11 @@ import org.springframework.context.annotation.Lazy;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -39,6 +44,8 @@ public class MemberService {
     private final MemberRepository memberRepository;
     private final AuthUserRepository authUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     // ===========================================================================
     // INSCRIPTION MEMBRE → Crée Member + Account + AuthUser (comme le superadmin)
@@ -284,6 +291,7 @@ public class MemberService {
 
         authUserRepository.save(authUser);
         memberRepository.save(member);
+        jwtAuthenticationCache.evictUser(authUser.getId());
 
         return toResponseDTO(member);
     }
@@ -309,6 +317,7 @@ public class MemberService {
 
         authUser.setPasswordHash(passwordEncoder.encode(dto.getNewPassword()));
         authUserRepository.save(authUser);
+        tokenRevocationRegistry.revoke(authUser.getId());
     }
 
     @Transactional
@@ -328,6 +337,7 @@ public class MemberService {
         String oldEmail = authUser.getEmail();
         authUser.setEmail(dto.getNewEmail().toLowerCase().trim());
         authUserRepository.save(authUser);
+        tokenRevocationRegistry.revoke(authUser.getId());
 
         // Option : logger le changement ou envoyer notification à l'ancien email
 
@@ -357,6 +367,15 @@ public class MemberService {
         return authUserRepository.findByUserRefIdAndRole(member.getId(), Role.MEMBER);
     }
 
+    // Comptes d'authentification de plusieurs membres en une requête, indexés par ID membre
+    public Map<Long, AuthUser> getAuthMembers(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return Map.of();
+        }
+        return authUserRepository.findByUserRefIdInAndRole(memberIds, Role.MEMBER).stream()
+                .collect(Collectors.toMap(AuthUser::getUserRefId, u -> u, (a, b) -> a));
+    }
+
     @Transactional
     public MemberResponseDTO toggleMemberStatus(Long memberId, boolean active) {
 
@@ -373,6 +392,10 @@ public class MemberService {
 
         member.setActive(active);
         account.setActive(active);
+        if (!active) {
+            authUserRepository.findByUserRefIdAndRole(memberId, Role.MEMBER)
+                    .ifPresent(authUser -> tokenRevocationRegistry.revoke(authUser.getId()));
+        }
 
         // Option : si tu veux empêcher la désactivation d'un membre qui a un solde positif / dette / etc.
         // if (!active && account.getSavingAmount().compareTo(BigDecimal.ZERO) > 0) {
@@ -443,7 +466,8 @@ public class MemberService {
 
     @Transactional
     public void recalculateAllMemberStatuses() {
-        List<Member> allMembers = memberRepository.findAll(); // ou seulement les actifs
+        // Comptes chargés en jointure ; les changements de statut partent par lots au flush
+        List<Member> allMembers = memberRepository.findAllWithAccount(); // ou seulement les actifs
         for (Member member : allMembers) {
             AccountMember account = member.getAccountMember();
             if (account != null) {
@@ -2,14 +2,12 @@ package com.mutuelle.mobille.service;
 
 import com.mutuelle.mobille.models.MutuelleConfig;
 import com.mutuelle.mobille.repository.MutuelleConfigRepository;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.math.BigDecimal;
 
@@ -18,17 +16,9 @@ import java.math.BigDecimal;
 public class MutuelleConfigService {
 
     private final MutuelleConfigRepository configRepository;
-    private  MemberService memberService;
+    // Résolu à l'usage : MemberService dépend lui-même de ce service
+    private final ObjectProvider<MemberService> memberService;
 
-
-
-    @Autowired
-    @Lazy
-    public void setMemberService(MemberService memberService) {
-        this.memberService = memberService;
-    }
-
-    @PostConstruct
     @Transactional
     public void initDefaultConfig() {
         if (configRepository.count() == 0) {
@@ -75,7 +65,7 @@ public class MutuelleConfigService {
         config.setUpdatedBy(updatedBy);
         MutuelleConfig saved = configRepository.save(config);
         if (thresholdChanged) {
-            memberService.recalculateAllMemberStatuses();
+            memberService.getObject().recalculateAllMemberStatuses();
         }
 
         return saved;
@@ -0,0 +1,138 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.models.auth.RefreshToken;
+import com.mutuelle.mobille.repository.RefreshTokenRepository;
+import com.mutuelle.mobille.utils.JwtUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Émission, rotation, révocation et purge des refresh tokens.
+ *
+ * La valeur remise au client n'est jamais stockée : les recherches passent
+ * par son empreinte SHA-256. Le token présenté au rafraîchissement est
+ * révoqué et remplacé dans la même famille ; s'il avait déjà été remplacé,
+ * il a fuité ou été rejoué, et toute la famille est révoquée.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    /** Token émis : valeur à remettre au client et utilisateur associé. */
+    public record IssuedToken(String value, AuthUser authUser) {
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepo;
+    private final JwtUtils jwtUtils;
+    private final int purgeBatchSize;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepo,
+                               JwtUtils jwtUtils,
+                               @Value("${mutuelle.auth.refresh-token-purge-batch-size:1000}") int purgeBatchSize) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.jwtUtils = jwtUtils;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /** Premier token d'une nouvelle famille (connexion). */
+    @Transactional
+    public String issue(AuthUser authUser) {
+        return save(authUser, UUID.randomUUID().toString(), null);
+    }
+
+    /**
+     * Révoque le token présenté et en émet un nouveau dans sa famille.
+     * Le rejeu d'un token déjà révoqué révoque toute la famille.
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public IssuedToken rotate(String value) {
+        RefreshToken current = refreshTokenRepo.findByTokenHash(hash(value))
+                .orElseThrow(() -> new RuntimeException("Refresh token invalide ou inconnu"));
+
+        if (current.isRevoked() || refreshTokenRepo.revokeById(current.getId()) == 0) {
+            int revoked = current.getFamilyId() != null ? refreshTokenRepo.revokeFamily(current.getFamilyId()) : 0;
+            log.warn("Refresh token révoqué présenté pour l'utilisateur {} : {} token(s) de sa famille révoqué(s)",
+                    current.getAuthUser().getId(), revoked);
+            throw new RuntimeException("Refresh token déjà révoqué");
+        }
+        if (current.getExpiryDate().isBefore(Instant.now())) {
+            throw new RuntimeException("Refresh token expiré");
+        }
+
+        String familyId = current.getFamilyId() != null ? current.getFamilyId() : UUID.randomUUID().toString();
+        String next = save(current.getAuthUser(), familyId, current.getId());
+        return new IssuedToken(next, current.getAuthUser());
+    }
+
+    @Transactional
+    public void revoke(String value) {
+        refreshTokenRepo.revokeByTokenHash(hash(value));
+    }
+
+    @Transactional
+    public int revokeAll(Long authUserId) {
+        return refreshTokenRepo.revokeAllByAuthUserId(authUserId);
+    }
+
+    /**
+     * Supprime par lots les tokens expirés et ceux des familles entièrement
+     * révoquées ; chaque lot est une transaction courte.
+     */
+    public int purge() {
+        Instant now = Instant.now();
+        int deleted = 0;
+        List<Long> ids;
+        do {
+            ids = refreshTokenRepo.findPurgeableIds(now, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty()) {
+                deleted += refreshTokenRepo.deleteByIdIn(ids);
+            }
+        } while (ids.size() == purgeBatchSize);
+
+        if (deleted > 0) {
+            log.info("Purge des refresh tokens : {} supprimé(s)", deleted);
+        }
+        return deleted;
+    }
+
+    static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private String save(AuthUser authUser, String familyId, Long parentId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepo.save(RefreshToken.builder()
+                .tokenHash(hash(value))
+                .familyId(familyId)
+                .parentId(parentId)
+                .authUser(authUser)
+                .expiryDate(Instant.now().plusMillis(jwtUtils.getRefreshExpirationMs()))
+                .revoked(false)
+                .build());
+        return value;
+    }
+}
@@ -12,12 +12,12 @@ import com.mutuelle.mobille.models.Transaction;
 import com.mutuelle.mobille.models.account.AccountMember;
 import com.mutuelle.mobille.models.account.AccountMutuelle;
 import com.mutuelle.mobille.repository.*;
+import com.mutuelle.mobille.service.bilan.BilanPdfCache;
 import com.mutuelle.mobille.service.notifications.SessionNotificationHelper;
 import com.mutuelle.mobille.repository.MemberSessionBilanRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -44,10 +44,8 @@ public class SessionService {
     private final SessionNotificationHelper notificationHelper;
     private final InteretService interetService;
     private final BilanService bilanService;
-
-    @Lazy
-    @Autowired
-    private EmpruntService empruntService;
+    private final BilanPdfCache bilanPdfCache;
+    private final ObjectProvider<EmpruntService> empruntService;
 
 //    private final Clock clock;  // ← à injecter (configurable pour les tests)
 
@@ -432,37 +430,26 @@ public class SessionService {
         return toResponseDTO(session);
     }
 
-    //cloture automatique
-    {/*@Transactional
-    public void closeSessionIfExpired(Session session) {
-        if (session.getStatus() != StatusSession.IN_PROGRESS) return;
+    //cloture automatique (tâches planifiées : pas de contrôle de rôle, session relue dans la transaction)
+    @Transactional
+    public void closeSessionIfExpired(Long sessionId, LocalDateTime now) {
+        Session session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null || session.getStatus() != StatusSession.IN_PROGRESS) return;
 
-        LocalDateTime n = now();
-        if (session.getEndDate() != null && session.getEndDate().isBefore(n)) {
-//            session.setStatus(StatusSession.COMPLETED);
-//            sessionRepository.save(session);
-//            onSessionEnded(session);
-            try {
-                session.setStatus(StatusSession.COMPLETED);
-                onSessionEnded(session);
-
-                // Notification de fin de session
-                notificationHelper.notifySessionEnded(session);
-
-            } catch (IllegalArgumentException e) {
-                session.setStatus(StatusSession.IN_PROGRESS);
-                sessionRepository.save(session);
-
-                notificationHelper.notifyAdminCritical(
-                        "Échec clôture session " + session.getName(),
-                        "Impossible de clôturer - caisse solidarité insuffisante",
-                        e
-                );
+        if (session.getEndDate() != null && session.getEndDate().isBefore(now)) {
+            completeSession(session, session.getEndDate());
+        }
+    }
 
-                throw e; // on laisse remonter l'exception
-            }
+    @Transactional
+    public void closeSessionIfOpenSince(Long sessionId, LocalDateTime startedBefore) {
+        Session session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null || session.getStatus() != StatusSession.IN_PROGRESS) return;
+
+        if (session.getStartDate() != null && !session.getStartDate().isAfter(startedBefore)) {
+            completeSession(session, now());
         }
-    }*/}
+    }
 
     //Cloture manuelle
     @Transactional
@@ -473,14 +460,18 @@ public class SessionService {
 
         validateSessionForClose(session);
 
+        return toResponseDTO(completeSession(session, LocalDateTime.now()));
+    }
+
+    private Session completeSession(Session session, LocalDateTime endDate) {
         try {
             onSessionEnded(session); // risque d'exception caisse insuffisante
-            session.setEndDate(LocalDateTime.now());
+            session.setEndDate(endDate);
             session.setStatus(StatusSession.COMPLETED);
             session = sessionRepository.save(session);
             notificationHelper.notifySessionEnded(session);
 
-            return toResponseDTO(session);
+            return session;
         } catch (IllegalArgumentException e) {
             // Ici pas besoin de remettre IN_PROGRESS, transaction rollbackera
             notificationHelper.notifyAdminCritical(
@@ -530,7 +521,7 @@ public class SessionService {
     public void onSessionEnded(Session session) {
         if (session.getHistory() != null) return;
 
-        empruntService.calculerEtRedistribuerInteretsPenalites();
+        empruntService.getObject().calculerEtRedistribuerInteretsPenalites();
 
         AccountMutuelle mutuelleacc = accountService.getMutuelleGlobalAccount();
         Long sessionId = session.getId();
@@ -580,7 +571,8 @@ public class SessionService {
         BigDecimal totalInteretAmount        = transactionRepository.sumBySessionAndTypeAndDirection(sessionId, TransactionType.INTERET,         TransactionDirection.DEBIT);
         BigDecimal totalRenfoulementCollected= transactionRepository.sumBySessionAndTypeAndDirection(sessionId, TransactionType.RENFOULEMENT,    TransactionDirection.CREDIT);
         BigDecimal totalRegistrationCollected= transactionRepository.sumBySessionAndTypeAndDirection(sessionId, TransactionType.INSCRIPTION,     TransactionDirection.CREDIT);
-        long activeMembersCount              = accountService.getAllMemberAccountsWithActive(true).size();
+        List<AccountMember> activeAccounts   = accountService.getAllMemberAccountsWithActive(true);
+        long activeMembersCount              = activeAccounts.size();
 
         // Création de l'historique de session
         SessionHistory history = SessionHistory.builder()
@@ -611,7 +603,6 @@ public class SessionService {
         session.setHistory(history);
 
         // Création des bilans membres pour cette session
-        List<AccountMember> activeAccounts = accountService.getAllMemberAccountsWithActive(true);
         bilanService.createMemberSessionBilans(session, activeAccounts);
     }
 
@@ -686,6 +677,9 @@ public class SessionService {
         session.setEndDate(null);
         sessionRepository.save(session);
 
+        // 9. PDF de bilans en cache : la prochaine clôture crée un nouvel historique, donc une nouvelle version
+        bilanPdfCache.invalidateSession(sessionId);
+
         log.info("Session '{}' réouverte avec succès (rollback effectué)", session.getName());
     }
 
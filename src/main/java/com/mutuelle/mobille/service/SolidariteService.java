@@ -6,9 +6,7 @@ import com.mutuelle.mobille.enums.TransactionType;
 import com.mutuelle.mobille.models.Session;
 import com.mutuelle.mobille.models.Transaction;
 import com.mutuelle.mobille.models.account.AccountMember;
-import com.mutuelle.mobille.models.account.AccountMutuelle;
 import com.mutuelle.mobille.repository.AccountMemberRepository;
-import com.mutuelle.mobille.repository.AccountMutuelleRepository;
 import com.mutuelle.mobille.repository.SessionRepository;
 import com.mutuelle.mobille.repository.SolidariteRepository;
 
@@ -25,7 +23,6 @@ public class SolidariteService {
 
         // Dépendances identiques au style de AccountService
         private final AccountMemberRepository memberRepo;
-        private final AccountMutuelleRepository globalRepo;
         private final SessionRepository sessionRepo;
         private final SolidariteRepository solidariteRepo;
         private final AccountService accountService;
@@ -49,8 +46,6 @@ public class SolidariteService {
                 AccountMember memberAccount = memberRepo.findByMemberId(memberId)
                                 .orElseThrow(() -> new RuntimeException("Compte membre introuvable"));
 
-                AccountMutuelle globalAccount = accountService.getMutuelleGlobalAccount();
-
                 Session session = sessionRepo.findById(sessionId)
                                 .orElseThrow(() -> new RuntimeException("Session introuvable"));
 
@@ -89,13 +84,11 @@ public class SolidariteService {
                 memberAccount.setUnpaidSolidarityAmount(
                         memberAccount.getUnpaidSolidarityAmount().subtract(amount));
 
-                globalAccount.setSolidarityAmount(
-                                globalAccount.getSolidarityAmount().add(amount));
+                accountService.addToSolidarityMutuelleCaisse(amount);
 
                 // Persistance des nouvelles valeurs
                 memberRepo.save(memberAccount);
                 memberService.updateMemberStatus(memberAccount);
-                globalRepo.save(globalAccount);
 
                 // ─────────────────────────────────────────────
                 // 2. CRÉATION DE LA TRANSACTION (TRAÇABILITÉ)
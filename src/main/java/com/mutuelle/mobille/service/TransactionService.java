@@ -22,6 +22,7 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final LedgerCounterService ledgerCounterService;
 
     /**
      * LISTE DES TRANSACTIONS AVEC FILTRES
@@ -54,13 +55,18 @@ public class TransactionService {
         return TransactionMapper.toResponseDTO(tx);
     }
 
-    // Nombre total de transactions pour un membre
+    // Nombre total de transactions pour un compte membre
     public Long countTransactionsByMember(Long accountMemberId) {
-        return transactionRepository.countByAccountMemberId(accountMemberId);
+        return ledgerCounterService.countAllOfAccount(accountMemberId);
+    }
+
+    // Nombre total de transactions d'un membre, par son identifiant de membre
+    public Long countTransactionsByMemberId(Long memberId) {
+        return ledgerCounterService.countAllOfMember(memberId);
     }
 
     // Nombre total de transactions global
     public Long countAllTransactions() {
-        return transactionRepository.count();
+        return ledgerCounterService.countAllGlobal();
     }
 }
@@ -5,12 +5,14 @@ import com.mutuelle.mobille.models.auth.AuthUser;
 import com.mutuelle.mobille.repository.AuthUserRepository;
 import com.mutuelle.mobille.utils.JwtUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -20,7 +22,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String identifier) {
-        System.out.println("loadUserByUsername appelé avec : " + identifier);
+        log.debug("loadUserByUsername appelé avec : {}", identifier);
 
         AuthUser authUser = authUserRepository.findByEmail(identifier)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + identifier));
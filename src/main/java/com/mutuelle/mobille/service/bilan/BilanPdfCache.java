@@ -0,0 +1,167 @@
+package com.mutuelle.mobille.service.bilan;
+
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.repository.ExerciceHistoryRepository;
+import com.mutuelle.mobille.repository.SessionHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque des PDF de bilans des sessions et exercices clôturés.
+ *
+ * Un bilan clôturé ne change plus : la clé d'un PDF porte la version des
+ * bilans, c'est-à-dire l'id de l'historique de la session ou de
+ * l'exercice, supprimé à la réouverture et recréé à la clôture suivante.
+ * Un fichier n'est donc jamais servi pour une autre version que la sienne,
+ * et la clé sert aussi d'ETag. Les fichiers d'une session sont supprimés à
+ * sa réouverture pour libérer le disque.
+ */
+@Slf4j
+@Component
+public class BilanPdfCache {
+
+    public enum Report { MEMBER, ALL_MEMBERS, MUTUELLE }
+
+    /** PDF d'une version des bilans d'une session ou d'un exercice ; memberId pour {@link Report#MEMBER}. */
+    public record Key(String scope, Report report, Long memberId, long version) {
+
+        String fileName() {
+            String name = report.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            return (memberId != null ? name + "-" + memberId : name) + "-v" + version + ".pdf";
+        }
+
+        /** ETag faible : un PDF régénéré pour la même version a le même contenu, hors date de génération. */
+        public String etag() {
+            return "W/\"" + scope + "-" + fileName().replace(".pdf", "") + "\"";
+        }
+    }
+
+    @FunctionalInterface
+    public interface PdfSource {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final SessionHistoryRepository sessionHistoryRepository;
+    private final ExerciceHistoryRepository exerciceHistoryRepository;
+    private final Path root;
+
+    public BilanPdfCache(SessionHistoryRepository sessionHistoryRepository,
+                         ExerciceHistoryRepository exerciceHistoryRepository,
+                         @Value("${mutuelle.bilan.pdf-cache-dir:${java.io.tmpdir}/mutuelle-bilan-pdf}") String root) {
+        this.sessionHistoryRepository = sessionHistoryRepository;
+        this.exerciceHistoryRepository = exerciceHistoryRepository;
+        this.root = Paths.get(root);
+    }
+
+    /** Clé du PDF si la session est clôturée, vide sinon (PDF à générer à chaque fois). */
+    public Optional<Key> sessionKey(Long sessionId, Report report, Long memberId) {
+        return sessionHistoryRepository.findIdBySessionIdAndSessionStatus(sessionId, StatusSession.COMPLETED)
+                .map(version -> new Key(sessionScope(sessionId), report, memberId, version));
+    }
+
+    public Optional<Key> exerciceKey(Long exerciceId, Report report, Long memberId) {
+        return exerciceHistoryRepository.findIdByExerciceIdAndExerciceStatus(exerciceId, StatusExercice.COMPLETED)
+                .map(version -> new Key(exerciceScope(exerciceId), report, memberId, version));
+    }
+
+    /**
+     * Contenu du PDF, généré et enregistré s'il n'est pas sur le disque. Si
+     * l'écriture échoue, le PDF généré est renvoyé sans être mis en cache.
+     */
+    public byte[] getBytes(Key key, Supplier<byte[]> generator) {
+        Path file = path(key);
+        try {
+            if (Files.exists(file)) {
+                return Files.readAllBytes(file);
+            }
+        } catch (IOException e) {
+            log.warn("Lecture du PDF en cache {} impossible : {}", file, e.getMessage());
+        }
+
+        byte[] pdf = generator.get();
+        try {
+            store(file, out -> out.write(pdf));
+        } catch (IOException e) {
+            log.warn("Mise en cache du PDF {} impossible : {}", file, e.getMessage());
+        }
+        return pdf;
+    }
+
+    /** Fichier du PDF, écrit par {@code source} s'il n'est pas encore sur le disque. */
+    public Path getFile(Key key, PdfSource source) {
+        Path file = path(key);
+        if (Files.exists(file)) {
+            return file;
+        }
+        try {
+            store(file, source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Mise en cache du PDF " + file + " impossible", e);
+        }
+        return file;
+    }
+
+    public void invalidateSession(Long sessionId) {
+        deleteScope(sessionScope(sessionId));
+    }
+
+    private static String sessionScope(Long sessionId) {
+        return "session-" + sessionId;
+    }
+
+    private static String exerciceScope(Long exerciceId) {
+        return "exercice-" + exerciceId;
+    }
+
+    private Path path(Key key) {
+        return root.resolve(key.scope()).resolve(key.fileName());
+    }
+
+    // Écrit dans un fichier temporaire puis le renomme : un fichier visible est toujours complet
+    private void store(Path file, PdfSource source) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                source.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void deleteScope(String scope) {
+        Path dir = root.resolve(scope);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Suppression du PDF en cache {} impossible : {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Suppression des PDF en cache de {} impossible : {}", scope, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.mutuelle.mobille.service.bilan;
+
+import com.mutuelle.mobille.dto.bilan.MemberTransactionSumDTO;
+import com.mutuelle.mobille.enums.TransactionDirection;
+import com.mutuelle.mobille.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulateur en mémoire des sommes de transactions par compte membre,
+ * type et direction. Alimenté par une seule requête GROUP BY, il remplace
+ * les appels SUM unitaires (un par membre / type / direction).
+ */
+public class MemberBilanAccumulator {
+
+    private final Map<Long, EnumMap<TransactionType, BigDecimal[]>> totals = new HashMap<>();
+
+    public static MemberBilanAccumulator of(List<MemberTransactionSumDTO> rows) {
+        MemberBilanAccumulator acc = new MemberBilanAccumulator();
+        for (MemberTransactionSumDTO row : rows) {
+            acc.add(row.getAccountMemberId(), row.getTransactionType(), row.getTransactionDirection(), row.getTotal());
+        }
+        return acc;
+    }
+
+    public void add(Long accountMemberId, TransactionType type, TransactionDirection direction, BigDecimal amount) {
+        if (accountMemberId == null || type == null || direction == null || amount == null) return;
+        BigDecimal[] byDirection = totals
+                .computeIfAbsent(accountMemberId, id -> new EnumMap<>(TransactionType.class))
+                .computeIfAbsent(type, t -> new BigDecimal[TransactionDirection.values().length]);
+        int i = direction.ordinal();
+        byDirection[i] = byDirection[i] == null ? amount : byDirection[i].add(amount);
+    }
+
+    /**
+     * Somme pour (compte, type, direction), ou zéro si aucune transaction.
+     */
+    public BigDecimal get(Long accountMemberId, TransactionType type, TransactionDirection direction) {
+        EnumMap<TransactionType, BigDecimal[]> byType = totals.get(accountMemberId);
+        if (byType == null) return BigDecimal.ZERO;
+        BigDecimal[] byDirection = byType.get(type);
+        if (byDirection == null || byDirection[direction.ordinal()] == null) return BigDecimal.ZERO;
+        return byDirection[direction.ordinal()];
+    }
+}
@@ -0,0 +1,68 @@
+package com.mutuelle.mobille.service.context;
+
+import com.mutuelle.mobille.models.Assistance;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.MutuelleConfig;
+import com.mutuelle.mobille.models.Session;
+import com.mutuelle.mobille.models.Transaction;
+import com.mutuelle.mobille.models.TypeAssistance;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Invalide les sections du contexte qui dépendent de l'entité écrite.
+ * Instancié par Hibernate à travers le conteneur de beans Spring ; sans
+ * {@link ContextSectionCache} dans le contexte (tests JPA), il ne fait rien.
+ */
+public class ContextChangeListener {
+
+    private final ObjectProvider<ContextSectionCache> cacheProvider;
+
+    public ContextChangeListener(ObjectProvider<ContextSectionCache> cacheProvider) {
+        this.cacheProvider = cacheProvider;
+    }
+
+    @PostPersist
+    @PostRemove
+    void onInsertOrDelete(Object entity) {
+        invalidate(sectionOf(entity, true));
+    }
+
+    @PostUpdate
+    void onUpdate(Object entity) {
+        invalidate(sectionOf(entity, false));
+    }
+
+    private void invalidate(ContextSection section) {
+        if (section == null) {
+            return;
+        }
+        ContextSectionCache cache = cacheProvider.getIfAvailable();
+        if (cache != null) {
+            cache.invalidate(section);
+        }
+    }
+
+    private static ContextSection sectionOf(Object entity, boolean insertOrDelete) {
+        if (entity instanceof Session || entity instanceof Exercice) {
+            return ContextSection.CURRENT_PERIOD;
+        }
+        if (entity instanceof MutuelleConfig) {
+            return ContextSection.CONFIG;
+        }
+        if (entity instanceof TypeAssistance) {
+            return ContextSection.ASSISTANCE_TYPES;
+        }
+        if (entity instanceof Member) {
+            // Seul le nombre de membres est partagé : une mise à jour ne le change pas
+            return insertOrDelete ? ContextSection.MEMBER_COUNT : null;
+        }
+        if (entity instanceof Transaction || entity instanceof Assistance) {
+            return ContextSection.GLOBAL_COUNTERS;
+        }
+        return null;
+    }
+}
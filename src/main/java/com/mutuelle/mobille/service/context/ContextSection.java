@@ -0,0 +1,12 @@
+package com.mutuelle.mobille.service.context;
+
+/** Sections du contexte ({@code /api/context}) communes à tous les utilisateurs. */
+public enum ContextSection {
+    CONFIG,
+    ASSISTANCE_TYPES,
+    // Session et exercice en cours
+    CURRENT_PERIOD,
+    MEMBER_COUNT,
+    // Compteurs globaux des administrateurs (assistances, transactions)
+    GLOBAL_COUNTERS
+}
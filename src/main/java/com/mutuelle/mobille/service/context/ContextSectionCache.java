@@ -0,0 +1,105 @@
+package com.mutuelle.mobille.service.context;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cache des sections partagées du contexte.
+ *
+ * Une section est invalidée quand une entité dont elle dépend est écrite
+ * ({@link ContextChangeListener}) : tout de suite, puis à nouveau au commit
+ * de la transaction, pour qu'une lecture faite entre-temps ne remette pas
+ * l'ancien état en cache. La durée de vie ({@code mutuelle.context.cache-ttl-ms})
+ * borne le retard sur les écritures faites par une autre instance.
+ */
+@Component
+public class ContextSectionCache {
+
+    private record Entry(Object value, long loadedAtMillis) {
+    }
+
+    private final long ttlMillis;
+    private final Map<ContextSection, Entry> entries = new EnumMap<>(ContextSection.class);
+    // Incrémenté à chaque invalidation : une valeur lue avant n'est pas mise en cache
+    private final long[] generations = new long[ContextSection.values().length];
+
+    public ContextSectionCache(@Value("${mutuelle.context.cache-ttl-ms:60000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** Valeur en cache de la section, chargée par {@code loader} si absente ou périmée. */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextSection section, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(section);
+            if (entry != null && now - entry.loadedAtMillis() < ttlMillis) {
+                return (T) entry.value();
+            }
+            loadGeneration = generations[section.ordinal()];
+        }
+
+        T value = loader.get();
+        if (ttlMillis > 0) {
+            synchronized (entries) {
+                if (generations[section.ordinal()] == loadGeneration) {
+                    entries.put(section, new Entry(value, now));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalide la section ; dans une transaction, elle l'est à nouveau après
+     * le commit. Une seule synchronisation est enregistrée par transaction,
+     * quel que soit le nombre d'entités écrites.
+     */
+    public void invalidate(ContextSection section) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(section);
+            return;
+        }
+        if (pendingInvalidation().sections.add(section)) {
+            evict(section);
+        }
+    }
+
+    // Synchronisation de la transaction en cours ; une transaction imbriquée (REQUIRES_NEW) a la sienne
+    private PendingInvalidation pendingInvalidation() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingInvalidation pending) {
+                return pending;
+            }
+        }
+        PendingInvalidation pending = new PendingInvalidation();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void evict(ContextSection section) {
+        synchronized (entries) {
+            generations[section.ordinal()]++;
+            entries.remove(section);
+        }
+    }
+
+    private final class PendingInvalidation implements TransactionSynchronization {
+
+        private final Set<ContextSection> sections = EnumSet.noneOf(ContextSection.class);
+
+        @Override
+        public void afterCommit() {
+            sections.forEach(ContextSectionCache.this::evict);
+        }
+    }
+}
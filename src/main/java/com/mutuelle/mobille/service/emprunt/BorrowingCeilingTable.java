@@ -0,0 +1,101 @@
+package com.mutuelle.mobille.service.emprunt;
+
+import com.mutuelle.mobille.models.BorrowingCeilingInterval;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Copie immuable des intervalles de plafond d'emprunt, triés par min_epargne.
+ * Le calcul d'un plafond se fait par recherche dichotomique sur les bornes
+ * inférieures, sans accès base. Une nouvelle instance est construite à chaque
+ * modification des intervalles (voir {@code BorrowingCeilingService}).
+ */
+public final class BorrowingCeilingTable {
+
+    public static final BorrowingCeilingTable EMPTY = new BorrowingCeilingTable(List.of());
+
+    private final List<BorrowingCeilingInterval> intervals;
+    private final BigDecimal[] minEpargnes;
+    private final BigDecimal[] maxEpargnes;
+    private final BigDecimal[] multipliers;
+    private final BigDecimal[] maxPlafonds;
+
+    private BorrowingCeilingTable(List<BorrowingCeilingInterval> sorted) {
+        this.intervals = List.copyOf(sorted);
+        int n = sorted.size();
+        this.minEpargnes = new BigDecimal[n];
+        this.maxEpargnes = new BigDecimal[n];
+        this.multipliers = new BigDecimal[n];
+        this.maxPlafonds = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            BorrowingCeilingInterval interval = sorted.get(i);
+            minEpargnes[i] = interval.getMinEpargne();
+            maxEpargnes[i] = interval.getMaxEpargne();
+            multipliers[i] = interval.getMultiplier();
+            maxPlafonds[i] = interval.getMaxPlafond();
+        }
+    }
+
+    /**
+     * Les intervalles sont supposés non-chevauchants ; ils sont retriés par
+     * min_epargne par sécurité.
+     */
+    public static BorrowingCeilingTable of(List<BorrowingCeilingInterval> intervals) {
+        List<BorrowingCeilingInterval> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparing(BorrowingCeilingInterval::getMinEpargne));
+        return new BorrowingCeilingTable(sorted);
+    }
+
+    /**
+     * Plafond pour une épargne donnée : épargne × multiplicateur de l'intervalle,
+     * borné par son plafond max éventuel. Retourne 0 si aucun intervalle ne
+     * couvre l'épargne. Une épargne nulle est traitée comme 0.
+     */
+    public BigDecimal plafond(BigDecimal epargne) {
+        BigDecimal e = epargne != null ? epargne : BigDecimal.ZERO;
+
+        // Dernier intervalle dont min_epargne <= e
+        int lo = 0;
+        int hi = minEpargnes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (minEpargnes[mid].compareTo(e) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int idx = lo - 1;
+        if (idx < 0 || (maxEpargnes[idx] != null && e.compareTo(maxEpargnes[idx]) > 0)) {
+            return BigDecimal.ZERO;
+        }
+
+        BigDecimal plafond = e.multiply(multipliers[idx]);
+        if (maxPlafonds[idx] != null) {
+            plafond = plafond.min(maxPlafonds[idx]);
+        }
+        return plafond;
+    }
+
+    /**
+     * Plafonds pour une liste d'épargnes, dans le même ordre.
+     */
+    public List<BigDecimal> plafonds(List<BigDecimal> epargnes) {
+        List<BigDecimal> result = new ArrayList<>(epargnes.size());
+        for (BigDecimal epargne : epargnes) {
+            result.add(plafond(epargne));
+        }
+        return result;
+    }
+
+    public List<BorrowingCeilingInterval> intervals() {
+        return intervals;
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mutuelle.mobille.service.emprunt;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dates de début des sessions clôturées, triées, chargées une seule fois.
+ * Répond à « combien de sessions clôturées ont commencé après cette date ? »
+ * par recherche dichotomique, sans requête par emprunteur.
+ */
+public class CompletedSessionTimeline {
+
+    private final LocalDateTime[] startDates;
+
+    private CompletedSessionTimeline(LocalDateTime[] startDates) {
+        this.startDates = startDates;
+    }
+
+    public static CompletedSessionTimeline of(List<LocalDateTime> startDates) {
+        LocalDateTime[] sorted = startDates.stream()
+                .filter(d -> d != null)
+                .toArray(LocalDateTime[]::new);
+        Arrays.sort(sorted);
+        return new CompletedSessionTimeline(sorted);
+    }
+
+    /**
+     * Équivalent en mémoire de {@code SessionRepository.countCompletedSessionsAfter} :
+     * sessions dont la date de début est strictement postérieure à {@code date}.
+     */
+    public long countStartedAfter(LocalDateTime date) {
+        if (date == null) {
+            return 0;
+        }
+
+        // Premier index dont la date est > date (borne supérieure)
+        int lo = 0;
+        int hi = startDates.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startDates[mid].isAfter(date)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return startDates.length - lo;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mutuelle.mobille.service.interet;
+
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.util.MoneyUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Répartition en mémoire d'un intérêt entre les épargnants, au prorata de leur épargne.
+ * Chaque part est arrondie à l'inférieur au multiple de 25 ; la différence avec
+ * l'intérêt total forme le reliquat, versé en caisse par l'appelant.
+ */
+public class InteretRepartition {
+
+    public record Part(AccountMember compte, BigDecimal montant) {}
+
+    private final List<Part> parts;
+    private final BigDecimal totalEpargne;
+    private final BigDecimal totalDistribue;
+    private final BigDecimal reliquat;
+
+    private InteretRepartition(List<Part> parts, BigDecimal totalEpargne, BigDecimal totalDistribue, BigDecimal reliquat) {
+        this.parts = parts;
+        this.totalEpargne = totalEpargne;
+        this.totalDistribue = totalDistribue;
+        this.reliquat = reliquat;
+    }
+
+    public static InteretRepartition calculer(List<AccountMember> epargnants, BigDecimal interetTotal) {
+        BigDecimal totalEpargne = BigDecimal.ZERO;
+        for (AccountMember compte : epargnants) {
+            totalEpargne = totalEpargne.add(compte.getSavingAmount());
+        }
+
+        if (totalEpargne.compareTo(BigDecimal.ZERO) <= 0) {
+            return new InteretRepartition(Collections.emptyList(), totalEpargne, BigDecimal.ZERO, interetTotal);
+        }
+
+        List<Part> parts = new ArrayList<>(epargnants.size());
+        BigDecimal totalDistribue = BigDecimal.ZERO;
+        for (AccountMember compte : epargnants) {
+            BigDecimal partBrute = interetTotal.multiply(compte.getSavingAmount())
+                    .divide(totalEpargne, 4, RoundingMode.HALF_UP);
+            BigDecimal montant = MoneyUtil.floorToNearest25(partBrute);
+
+            parts.add(new Part(compte, montant));
+            totalDistribue = totalDistribue.add(montant);
+        }
+
+        return new InteretRepartition(parts, totalEpargne, totalDistribue, interetTotal.subtract(totalDistribue));
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    public BigDecimal getTotalEpargne() {
+        return totalEpargne;
+    }
+
+    public BigDecimal getTotalDistribue() {
+        return totalDistribue;
+    }
+
+    public BigDecimal getReliquat() {
+        return reliquat;
+    }
+}
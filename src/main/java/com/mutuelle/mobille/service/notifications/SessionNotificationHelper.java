@@ -1,5 +1,6 @@
 package com.mutuelle.mobille.service.notifications;
 
+import com.mutuelle.mobille.dto.notifications.NotificationRecipientDTO;
 import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
 import com.mutuelle.mobille.enums.NotificationChannel;
 import com.mutuelle.mobille.enums.TemplateMailsName;
@@ -10,8 +11,7 @@ import com.mutuelle.mobille.models.TypeAssistance;
 import com.mutuelle.mobille.models.account.AccountMember;
 import com.mutuelle.mobille.enums.Role;
 import com.mutuelle.mobille.models.auth.AuthUser;
-import com.mutuelle.mobille.repository.AuthUserRepository;
-import com.mutuelle.mobille.service.AccountService;
+import com.mutuelle.mobille.repository.MemberRepository;
 import com.mutuelle.mobille.service.AdminService;
 import com.mutuelle.mobille.service.notifications.config.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -27,8 +27,7 @@ import java.util.stream.Collectors;
 public class SessionNotificationHelper {
 
     private final NotificationService notificationService;
-    private final AccountService accountService;
-    private final AuthUserRepository authUserRepo;
+    private final MemberRepository memberRepository;
 
     private final AdminService adminService;
 
@@ -46,49 +45,13 @@ public class SessionNotificationHelper {
             return;
         }
 
-        // Récupération en une seule passe + filtrage
-        List<AuthUser> validUsers = members.stream()
+        Set<Long> memberIds = members.stream()
                 .filter(Objects::nonNull)
                 .filter(Member::isActive)
-                .map(m -> authUserRepo.findByUserRefIdAndRole(m.getId(), Role.MEMBER))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(u -> u.getEmail() != null && !u.getEmail().isBlank())
-                .distinct()
-                .collect(Collectors.toList());
-
-        if (validUsers.isEmpty()) {
-            return;
-        }
-
-        Map<String, Object> baseVars = variables != null ? new HashMap<>(variables) : new HashMap<>();
-
-        int success = 0;
-        for (AuthUser user : validUsers) {
-            Map<String, Object> userVars = new HashMap<>(baseVars);
-            userVars.putIfAbsent("memberId", user.getUserRefId());
-            // Vous pouvez ajouter plus tard : userVars.put("firstName", ...)
-
-            NotificationRequestDto request = NotificationRequestDto.builder()
-                    .email(user.getEmail())
-                    .title(title)
-                    .templateName(templateName)
-                    .variables(userVars)
-                    .channels(Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH))
-                    .message(fallbackMessage != null ? fallbackMessage : "Notification Mutuelle")
-                    .build();
-
-            try {
-                notificationService.sendNotification(request);
-                success++;
-            } catch (Exception e) {
-                log.error("Échec notification vers {} : {}", user.getEmail(), e.getMessage(), e);
-            }
-        }
+                .map(Member::getId)
+                .collect(Collectors.toSet());
 
-        if (success > 0) {
-            log.info("Notification '{}' envoyée à {} membres", title, success);
-        }
+        notifyMemberIds(memberIds, title, templateName, variables, fallbackMessage);
     }
 
     public void notifyAccountMembers(
@@ -98,13 +61,19 @@ public class SessionNotificationHelper {
             Map<String, Object> variables,
             String fallbackMessage) {
 
-        List<Member> members = accountMembers.stream()
+        if (accountMembers == null || accountMembers.isEmpty()) {
+            return;
+        }
+
+        // getMember().getId() ne charge pas le membre (proxy)
+        Set<Long> memberIds = accountMembers.stream()
                 .filter(Objects::nonNull)
                 .map(AccountMember::getMember)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+                .map(Member::getId)
+                .collect(Collectors.toSet());
 
-        notifyMembers(members, title, templateName, variables, fallbackMessage);
+        notifyMemberIds(memberIds, title, templateName, variables, fallbackMessage);
     }
 
     public void notifyAllActiveMembers(
@@ -113,11 +82,64 @@ public class SessionNotificationHelper {
             Map<String, Object> variables,
             String fallbackMessage) {
 
-        List<AccountMember> active = accountService.getAllMemberAccounts().stream()
-                .filter(AccountMember::isActive)
-                .collect(Collectors.toList());
+        notifyRecipients(memberRepository.findActiveNotificationRecipients(Role.MEMBER),
+                title, templateName, variables, fallbackMessage);
+    }
+
+    private void notifyMemberIds(
+            Set<Long> memberIds,
+            String title,
+            TemplateMailsName templateName,
+            Map<String, Object> variables,
+            String fallbackMessage) {
+
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        notifyRecipients(memberRepository.findNotificationRecipientsByIds(memberIds, Role.MEMBER),
+                title, templateName, variables, fallbackMessage);
+    }
+
+    /**
+     * Envoi aux destinataires déjà résolus (une seule requête en amont) :
+     * le canal PUSH n'est demandé que pour ceux qui ont un token enregistré.
+     */
+    private void notifyRecipients(
+            List<NotificationRecipientDTO> recipients,
+            String title,
+            TemplateMailsName templateName,
+            Map<String, Object> variables,
+            String fallbackMessage) {
+
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> baseVars = variables != null ? new HashMap<>(variables) : new HashMap<>();
+
+        List<NotificationRequestDto> requests = new ArrayList<>(recipients.size());
+        for (NotificationRecipientDTO recipient : recipients) {
+            Map<String, Object> userVars = new HashMap<>(baseVars);
+            userVars.putIfAbsent("memberId", recipient.getMemberId());
+            userVars.putIfAbsent("firstName", recipient.getFirstname());
+            userVars.putIfAbsent("lastName", recipient.getLastname());
+
+            requests.add(NotificationRequestDto.builder()
+                    .email(recipient.getEmail())
+                    .title(title)
+                    .templateName(templateName)
+                    .variables(userVars)
+                    .channels(recipient.isHasPushToken()
+                            ? Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH)
+                            : Set.of(NotificationChannel.EMAIL))
+                    .message(fallbackMessage != null ? fallbackMessage : "Notification Mutuelle")
+                    .build());
+        }
 
-        notifyAccountMembers(active, title, templateName, variables, fallbackMessage);
+        // Écrites dans la transaction de l'appelant, envoyées après validation
+        notificationService.sendNotifications(requests);
+        log.info("Notification '{}' mise en file pour {} membres", title, requests.size());
     }
 
     // -------------------------------------------------------------------------
@@ -188,7 +210,8 @@ public class SessionNotificationHelper {
                 .build();
 
         try {
-            notificationService.sendNotification(alert);
+            // Hors transaction courante : l'alerte accompagne souvent un rollback
+            notificationService.sendNotificationIndependently(alert);
         } catch (Exception e) {
             log.error("ÉCHEC ENVOI ALERTE ADMIN CRITIQUE ! {} → {}", title, e.getMessage());
         }
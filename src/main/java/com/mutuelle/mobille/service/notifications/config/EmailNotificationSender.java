@@ -2,65 +2,90 @@ package com.mutuelle.mobille.service.notifications.config;
 
 import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
 import com.mutuelle.mobille.enums.NotificationChannel;
-import lombok.RequiredArgsConstructor;
+import com.mutuelle.mobille.service.notifications.mail.EmailTemplateRenderer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-import org.thymeleaf.context.Context;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class EmailNotificationSender implements NotificationSender {
 
     private final EmailService emailService;
-    private final SpringTemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    private final int batchSize;
+
+    public EmailNotificationSender(EmailService emailService,
+                                   EmailTemplateRenderer templateRenderer,
+                                   @Value("${mutuelle.mail.batch-size:50}") int batchSize) {
+        this.emailService = emailService;
+        this.templateRenderer = templateRenderer;
+        this.batchSize = batchSize;
+    }
 
     @Override
     public NotificationChannel getChannel() {
         return NotificationChannel.EMAIL;
     }
 
+    @Override
+    public int maxBatchSize() {
+        return batchSize;
+    }
+
     @Override
     public void send(NotificationRequestDto req) {
-        if (req.getTemplateName() == null) {
-            emailService.sendSimpleEmail(
-                    req.getEmail(),
-                    req.getTitle(),
-                    req.getMessage()
-            );
-            return;
+        Exception error = sendAll(List.of(req)).get(0);
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
         }
+        if (error != null) {
+            throw new RuntimeException("Erreur envoi email", error);
+        }
+    }
 
-        // 1. Préparation du contexte Thymeleaf
-        Context context = new Context();
+    // Messages construits d'abord, puis envoyés à la suite sur une même connexion SMTP
+    @Override
+    public List<Exception> sendAll(List<NotificationRequestDto> requests) {
+        List<Exception> results = new ArrayList<>(requests.size());
+        List<MimeMessage> messages = new ArrayList<>(requests.size());
+        List<Integer> indexes = new ArrayList<>(requests.size());
 
-        // 2. Injection sécurisée des variables personnalisées
-        if (req.getVariables() != null) {
-            req.getVariables().forEach(context::setVariable);
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(null);
+            try {
+                messages.add(toMessage(requests.get(i)));
+                indexes.add(i);
+            } catch (Exception e) {
+                results.set(i, e);
+            }
         }
 
-        // 3. Injection automatique des champs de base (pratique pour le template)
-        // Cela permet d'utiliser [[${title}]] ou [[${message}]] directement dans le HTML
-        context.setVariable("title", req.getTitle());
-        context.setVariable("message", req.getMessage());
-
-        // 4. Variables globales (Marque, URLs, etc.)
-        Map<String, Object> globalVars = new HashMap<>();
-        globalVars.put("appName", "Mutuelle ENSPY");
-        globalVars.put("logoUrl", "https://api.dicebear.com/7.x/initials/svg?seed=Mutuelle+ENSPY&backgroundColor=0056b3&fontColor=ffffff&fontSize=35");
-        context.setVariables(globalVars);
+        List<Exception> sendResults = emailService.sendAll(messages);
+        for (int m = 0; m < indexes.size(); m++) {
+            results.set(indexes.get(m), sendResults.get(m));
+        }
+        return results;
+    }
 
-        // 5. Génération et envoi
-        String html = templateEngine.process("email/" + req.getTemplateName(), context);
+    private MimeMessage toMessage(NotificationRequestDto req) throws MessagingException {
+        if (req.getTemplateName() == null) {
+            return emailService.createSimpleMessage(req.getEmail(), req.getTitle(), req.getMessage());
+        }
 
-        emailService.sendHtmlEmail(
-                req.getEmail(),
-                req.getTitle(),
-                html,
-                null,
-                null
-        );
+        String html = templateRenderer.render(req.getTemplateName().name(),
+                req.getTitle(), req.getMessage(), req.getVariables());
+        if (html == null) {
+            // Modèle absent de templates/email : le message part en texte brut
+            log.debug("Modèle email {} introuvable, envoi en texte brut à {}", req.getTemplateName(), req.getEmail());
+            String text = req.getMessage() != null ? req.getMessage() : req.getTitle();
+            return emailService.createSimpleMessage(req.getEmail(), req.getTitle(), text);
+        }
+        return emailService.createHtmlMessage(req.getEmail(), req.getTitle(), html, null);
     }
-}
\ No newline at end of file
+}
@@ -1,70 +1,199 @@
 package com.mutuelle.mobille.service.notifications.config;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.mutuelle.mobille.service.notifications.mail.SmtpTransportPool;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
+// Envoi synchrone : appelé depuis les threads du worker de l'outbox des
+// notifications, qui a besoin de l'exception pour replanifier un essai.
+// Les messages passent par des connexions SMTP réutilisées (SmtpTransportPool)
+// quand l'expéditeur configuré est un JavaMailSenderImpl.
+@Slf4j
 @Service
 public class EmailService {
 
-    @Autowired
-    private JavaMailSender mailSender;
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+
+    public EmailService(JavaMailSender mailSender,
+                        @Value("${mutuelle.mail.pool-size:${mutuelle.notifications.outbox.email-concurrency:4}}") int poolSize,
+                        @Value("${mutuelle.mail.max-idle-ms:30000}") long maxIdleMs,
+                        @Value("${mutuelle.mail.max-messages-per-connection:100}") int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.transportPool = mailSender instanceof JavaMailSenderImpl impl
+                ? new SmtpTransportPool(impl, poolSize, maxIdleMs, maxMessagesPerConnection)
+                : null;
+    }
 
-    @Async
     public void sendSimpleEmail(String to, String subject, String text) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(text, false);
-
-            mailSender.send(message);
-        } catch (MessagingException e) {
+            send(createSimpleMessage(to, subject, text));
+        } catch (Exception e) {
             throw new RuntimeException("Erreur envoi email simple", e);
         }
     }
 
     // Envoi HTML avec pièces jointes et images inline
-    @Async
     public void sendHtmlEmail(String to, String subject, String htmlBody,
                               Map<String, Resource> inlineImages, // clé = contentId, valeur = image
                               Resource... attachments) { // pièces jointes
 
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            send(createHtmlMessage(to, subject, htmlBody, inlineImages, attachments));
+        } catch (Exception e) {
+            throw new RuntimeException("Erreur envoi email HTML", e);
+        }
+    }
 
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true); // true = HTML
+    public MimeMessage createSimpleMessage(String to, String subject, String text) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-            // Ajout images inline (ex: <img src="cid:logo"> dans le HTML)
-            if (inlineImages != null) {
-                for (Map.Entry<String, Resource> entry : inlineImages.entrySet()) {
-                    helper.addInline(entry.getKey(), entry.getValue());
-                }
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(text, false);
+        return message;
+    }
+
+    public MimeMessage createHtmlMessage(String to, String subject, String htmlBody,
+                                         Map<String, Resource> inlineImages,
+                                         Resource... attachments) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlBody, true); // true = HTML
+
+        // Ajout images inline (ex: <img src="cid:logo"> dans le HTML)
+        if (inlineImages != null) {
+            for (Map.Entry<String, Resource> entry : inlineImages.entrySet()) {
+                helper.addInline(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // Ajout pièces jointes
+        if (attachments != null) {
+            for (Resource attachment : attachments) {
+                helper.addAttachment(attachment.getFilename(), attachment);
             }
+        }
+        return message;
+    }
+
+    public void send(MimeMessage message) throws Exception {
+        Exception error = sendAll(List.of(message)).get(0);
+        if (error != null) {
+            throw error;
+        }
+    }
 
-            // Ajout pièces jointes
-            if (attachments != null) {
-                for (Resource attachment : attachments) {
-                    helper.addAttachment(attachment.getFilename(), attachment);
+    /**
+     * Envoie les messages à la suite sur une même connexion SMTP.
+     *
+     * @return pour chaque message, dans l'ordre : {@code null} si le serveur
+     * l'a accepté, sinon l'erreur rencontrée. Un destinataire refusé n'échoue
+     * que son message ; si aucune connexion ne peut être (r)ouverte, les
+     * messages restants échouent avec la même erreur.
+     */
+    public List<Exception> sendAll(List<MimeMessage> messages) {
+        Exception[] results = new Exception[messages.size()];
+        if (transportPool == null) {
+            sendWithoutPool(messages, results);
+            return Arrays.asList(results);
+        }
+
+        SmtpTransportPool.Connection connection = null;
+        int i = 0;
+        try {
+            for (; i < messages.size(); i++) {
+                if (connection != null && connection.exhausted()) {
+                    transportPool.release(connection, true);
+                    connection = null;
+                }
+                try {
+                    prepare(messages.get(i));
+                } catch (MessagingException e) {
+                    results[i] = e;
+                    continue;
+                }
+                if (connection == null) {
+                    connection = transportPool.borrow();
+                }
+                try {
+                    connection.send(messages.get(i));
+                } catch (SendFailedException e) {
+                    // Destinataire refusé : la connexion reste utilisable
+                    results[i] = e;
+                } catch (MessagingException e) {
+                    // Connexion dans un état inconnu : refermée, le message suivant en rouvre une
+                    results[i] = e;
+                    transportPool.release(connection, false);
+                    connection = null;
                 }
             }
+        } catch (MessagingException e) {
+            // Aucune connexion possible : les messages restants échouent tous
+            log.warn("Connexion SMTP impossible : {}", e.getMessage());
+            Arrays.fill(results, i, results.length, e);
+        } finally {
+            if (connection != null) {
+                transportPool.release(connection, true);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Nombre de connexions SMTP ouvertes depuis le démarrage (0 sans pool). */
+    public long openedConnections() {
+        return transportPool != null ? transportPool.openedConnections() : 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (transportPool != null) {
+            transportPool.close();
+        }
+    }
 
-            mailSender.send(message);
+    // Ce que fait JavaMailSenderImpl avant l'envoi : date, en-têtes calculés, Message-ID conservé
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private void sendWithoutPool(List<MimeMessage> messages, Exception[] results) {
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < results.length; i++) {
+                results[i] = failed.isEmpty() ? e : failed.get(messages.get(i));
+            }
         } catch (Exception e) {
-            throw new RuntimeException("Erreur envoi email HTML", e);
+            Arrays.fill(results, e);
         }
     }
-}
\ No newline at end of file
+}
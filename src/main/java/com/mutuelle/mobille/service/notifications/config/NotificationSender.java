@@ -3,9 +3,31 @@ package com.mutuelle.mobille.service.notifications.config;
 import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
 import com.mutuelle.mobille.enums.NotificationChannel;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface NotificationSender {
 
     NotificationChannel getChannel();
 
     void send(NotificationRequestDto request);
+
+    // Nombre maximal de notifications traitées par un appel à sendAll
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    // Envoi groupé : pour chaque demande, null si envoyée, sinon l'erreur rencontrée
+    default List<Exception> sendAll(List<NotificationRequestDto> requests) {
+        List<Exception> results = new ArrayList<>(requests.size());
+        for (NotificationRequestDto request : requests) {
+            try {
+                send(request);
+                results.add(null);
+            } catch (Exception e) {
+                results.add(e);
+            }
+        }
+        return results;
+    }
 }
\ No newline at end of file
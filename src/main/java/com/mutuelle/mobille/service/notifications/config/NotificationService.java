@@ -3,45 +3,70 @@ package com.mutuelle.mobille.service.notifications.config;
 import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
 import com.mutuelle.mobille.enums.NotificationChannel;
 import com.mutuelle.mobille.enums.TemplateMailsName;
-import lombok.RequiredArgsConstructor;
+import com.mutuelle.mobille.service.notifications.outbox.NotificationOutboxService;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
 
 @Service
-@RequiredArgsConstructor
 public class NotificationService {
 
-    private final List<NotificationSender> senders;  // toutes les implémentations auto-détectées
+    // Table canal → expéditeur, construite une fois à partir de toutes les implémentations auto-détectées
+    private final Map<NotificationChannel, NotificationSender> senders;
+    private final NotificationOutboxService outbox;
 
-    // Méthode la plus utilisée : envoi vers les canaux souhaités
+    public NotificationService(List<NotificationSender> senders, NotificationOutboxService outbox) {
+        Map<NotificationChannel, NotificationSender> byChannel = new EnumMap<>(NotificationChannel.class);
+        for (NotificationSender sender : senders) {
+            NotificationSender previous = byChannel.put(sender.getChannel(), sender);
+            if (previous != null) {
+                throw new IllegalStateException("Deux expéditeurs pour le canal " + sender.getChannel() + " : "
+                        + previous.getClass().getSimpleName() + " et " + sender.getClass().getSimpleName());
+            }
+        }
+        this.senders = Collections.unmodifiableMap(byChannel);
+        this.outbox = outbox;
+    }
+
+    // Méthode la plus utilisée : envoi vers les canaux souhaités.
+    // La notification est écrite dans l'outbox (transaction courante) puis
+    // envoyée par NotificationOutboxWorker ; rien ne part si la transaction est annulée.
     public void sendNotification(NotificationRequestDto request) {
-        Set<NotificationChannel> targetChannels = request.getChannels();
+        sendNotifications(List.of(request));
+    }
 
-        // Si aucun canal spécifié → règle par défaut (ex: email + push si disponible)
-        if (targetChannels == null || targetChannels.isEmpty()) {
-            targetChannels = Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH);
+    // Envoi de masse : toutes les lignes outbox sont écrites en un seul lot
+    public void sendNotifications(List<NotificationRequestDto> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return;
         }
+        outbox.enqueue(requests, senders.keySet());
+    }
 
-        Map<NotificationChannel, NotificationSender> senderMap = senders.stream()
-                .collect(Collectors.toMap(NotificationSender::getChannel, s -> s));
-
-        for (NotificationChannel channel : targetChannels) {
-            NotificationSender sender = senderMap.get(channel);
-            if (sender != null) {
-                try {
-                    sender.send(request);
-                } catch (Exception e) {
-                    // Log + éventuellement fallback vers un autre canal
-                    // ex: si PUSH échoue → fallback EMAIL
-                }
-            } else {
-                // Canal non implémenté → log warning
-            }
+    // Mise en file validée immédiatement, même si la transaction courante est annulée ensuite
+    // (alertes d'échec émises juste avant un rollback)
+    public void sendNotificationIndependently(NotificationRequestDto request) {
+        outbox.enqueueIndependently(List.of(request), senders.keySet());
+    }
+
+    // Envoi effectif sur un canal, appelé par le worker de l'outbox : pour chaque
+    // demande, null si envoyée, sinon l'erreur (le worker replanifie alors un essai)
+    public List<Exception> deliver(NotificationChannel channel, List<NotificationRequestDto> requests) {
+        return sender(channel).sendAll(requests);
+    }
+
+    // Taille des lots que le canal sait envoyer en un appel
+    public int maxBatchSize(NotificationChannel channel) {
+        NotificationSender sender = senders.get(channel);
+        return sender != null ? Math.max(1, sender.maxBatchSize()) : 1;
+    }
+
+    private NotificationSender sender(NotificationChannel channel) {
+        NotificationSender sender = senders.get(channel);
+        if (sender == null) {
+            throw new IllegalStateException("Aucun expéditeur pour le canal " + channel);
         }
+        return sender;
     }
 
     // Méthode de confort pour welcome (comme avant)
@@ -2,10 +2,13 @@ package com.mutuelle.mobille.service.notifications.config;
 
 import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
 import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.service.notifications.push.ExpoPushClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -18,14 +21,21 @@ public class PushNotificationSender implements NotificationSender {
         return NotificationChannel.PUSH;
     }
 
+    // Plusieurs destinataires par appel, regroupés en lots Expo
+    @Override
+    public int maxBatchSize() {
+        return ExpoPushClient.MAX_MESSAGES_PER_REQUEST;
+    }
+
+    @Override
+    public List<Exception> sendAll(List<NotificationRequestDto> requests) {
+        return pushNotificationService.sendPushBatch(requests);
+    }
+
     @Override
     public void send(NotificationRequestDto req) {
-        try {
-            pushNotificationService.sendPush(req);
-            log.info("PUSH envoyé à {}", req.getEmail());
-        } catch (Exception e) {
-            log.error("Erreur lors de l'envoi PUSH à {} : {}", req.getEmail(), e.getMessage());
-            // Option : fallback vers email si nécessaire
-        }
+        // Pas de try/catch : un échec remonte au worker de l'outbox qui replanifie l'envoi
+        pushNotificationService.sendPush(req);
+        log.info("PUSH envoyé à {}", req.getEmail());
     }
 }
\ No newline at end of file
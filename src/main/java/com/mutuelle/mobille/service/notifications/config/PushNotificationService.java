@@ -10,11 +10,11 @@ import com.mutuelle.mobille.models.PushToken;
 import com.mutuelle.mobille.repository.AuthUserRepository;
 import com.mutuelle.mobille.repository.PushTokenRepository;
 import com.mutuelle.mobille.service.AuthService;
+import com.mutuelle.mobille.service.notifications.push.PushDispatcher;
+import com.mutuelle.mobille.service.notifications.push.PushRecipientCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -26,10 +26,8 @@ public class PushNotificationService {
     private final PushTokenRepository pushTokenRepository;
     private final AuthUserRepository authUserRepository;
     private final AuthService authService;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    private static final String EXPO_PUSH_URL = "https://exp.host/--/api/v2/push/send";
+    private final PushDispatcher pushDispatcher;
+    private final PushRecipientCache recipientCache;
 
     /**
      * Enregistre ou met à jour le token pour l'utilisateur courant
@@ -56,12 +54,14 @@ public class PushNotificationService {
         pushToken.setToken(token);
         pushToken.setUser(currentUser);
         pushTokenRepository.save(pushToken);
+        recipientCache.invalidate(currentUser.getEmail());
 
         log.info("Nouveau token push enregistré pour {} → {}", currentUser.getEmail(), token);
     }
 
     /**
-     * Envoi réel vers Expo + nettoyage automatique des tokens invalides
+     * Envoi vers tous les appareils du destinataire (lots Expo, nettoyage
+     * automatique des tokens invalides : voir {@link PushDispatcher})
      */
     public void sendPush(NotificationRequestDto req) {
         if (req.getEmail() == null) {
@@ -69,107 +69,17 @@ public class PushNotificationService {
             return;
         }
 
-        AuthUser user = authUserRepository.findByEmail(req.getEmail())
-                .orElse(null);
-
-        if (user == null) {
-            log.warn("Utilisateur non trouvé pour email: {}", req.getEmail());
-            return;
-        }
-
-        List<PushToken> tokens = pushTokenRepository.findByUser(user);
-        if (tokens.isEmpty()) return;
-
-        List<Map<String, Object>> messages = new ArrayList<>();
-
-        for (PushToken pt : tokens) {
-            Map<String, Object> msg = new HashMap<>();
-            msg.put("to", pt.getToken());
-            msg.put("title", req.getTitle() != null ? req.getTitle() : "Notification");
-            msg.put("body", req.getMessage() != null ? req.getMessage() : "");
-            if (req.getVariables() != null && !req.getVariables().isEmpty()) {
-                msg.put("data", req.getVariables());
-            }
-
-            // Ajout très fortement recommandé pour iOS (meilleure délivrabilité)
-            msg.put("priority", "high");           // ou "default"
-            msg.put("sound", "default");           // ou nom de son custom
-            // msg.put("_displayInForeground", true); // utile en dev
-
-            messages.add(msg);
-        }
-
-        // ────────────────────────────────────────────────────────────────
-        // MODIFICATION IMPORTANTE : on segmente fortement sur iOS
-        // ────────────────────────────────────────────────────────────────
-        final int MAX_PER_REQUEST_IOS = 1;   // 1 = le plus sûr   —  2~5 = acceptable selon les retours
-        // Tu peux aussi faire 1 si tokens.size() > 1, et batch normal sur Android
-
-        List<List<Map<String, Object>>> chunks = new ArrayList<>();
-        for (int i = 0; i < messages.size(); i += MAX_PER_REQUEST_IOS) {
-            int end = Math.min(i + MAX_PER_REQUEST_IOS, messages.size());
-            chunks.add(messages.subList(i, end));
-        }
-
-        for (List<Map<String, Object>> chunk : chunks) {
-            if (chunk.isEmpty()) continue;
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<List<Map<String, Object>>> entity = new HttpEntity<>(chunk, headers);
-
-            try {
-                ResponseEntity<Map> response = restTemplate.exchange(
-                        EXPO_PUSH_URL, HttpMethod.POST, entity, Map.class);
-
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    Object dataObj = response.getBody().get("data");
-                    if (dataObj instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> results = (List<Map<String, Object>>) dataObj;
-                        handlePushResults(results, tokens.subList(
-                                chunks.indexOf(chunk) * MAX_PER_REQUEST_IOS,
-                                Math.min((chunks.indexOf(chunk) + 1) * MAX_PER_REQUEST_IOS, tokens.size())
-                        ));
-                    }
-                } else {
-                    log.error("Expo erreur HTTP {} → {}", response.getStatusCode(), response.getBody());
-                }
-            } catch (Exception e) {
-                log.error("Erreur appel Expo", e);
-            }
-
-            // Petite pause pour ne pas être trop agressif (optionnel mais conseillé)
-            try { Thread.sleep(300); } catch (InterruptedException ignored) {}
+        Exception error = pushDispatcher.dispatch(List.of(req)).get(0);
+        if (error != null) {
+            throw new IllegalStateException("Échec de l'envoi push à " + req.getEmail(), error);
         }
     }
 
     /**
-     * Analyse des résultats Expo et suppression automatique des tokens invalides
+     * Envoi groupé : une erreur par demande en échec, {@code null} sinon.
      */
-    @SuppressWarnings("unchecked")
-    private void handlePushResults(List<Map<String, Object>> results, List<PushToken> sentTokens) {
-        for (int i = 0; i < results.size() && i < sentTokens.size(); i++) {
-            Map<String, Object> result = results.get(i);
-            String status = (String) result.get("status");
-
-            if ("error".equals(status)) {
-                String errorCode = null;
-                Map<String, Object> details = (Map<String, Object>) result.get("details");
-                if (details != null) {
-                    errorCode = (String) details.get("error");
-                }
-
-                // Les cas où on supprime définitivement le token
-                if ("DeviceNotRegistered".equals(errorCode)) {
-                    String badToken = sentTokens.get(i).getToken();
-                    pushTokenRepository.deleteByToken(badToken);
-                    log.warn("Token supprimé (DeviceNotRegistered) → {}", badToken);
-                }
-                // Vous pouvez ajouter d'autres codes si besoin : "MessageRateExceeded", "InvalidCredentials", etc.
-                // Mais pour l'instant on se concentre sur DeviceNotRegistered
-            }
-        }
+    public List<Exception> sendPushBatch(List<NotificationRequestDto> requests) {
+        return pushDispatcher.dispatch(requests);
     }
 
     public void sendTestPush(PushTestDto dto) {
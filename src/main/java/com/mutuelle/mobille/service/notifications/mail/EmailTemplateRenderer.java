@@ -0,0 +1,174 @@
+package com.mutuelle.mobille.service.notifications.mail;
+
+import com.mutuelle.mobille.enums.TemplateMailsName;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rendu des emails à partir des modèles de {@code templates/email}.
+ *
+ * Au démarrage, chaque modèle est analysé une fois par Thymeleaf (l'arbre
+ * analysé reste ensuite dans le cache du moteur) et son source, layout et
+ * fragments inclus compris, est parcouru pour relever les noms qu'il peut
+ * lire. Le HTML produit est mis en cache par modèle et par valeur de ces
+ * seules variables : lors d'une diffusion, les variables propres à chaque
+ * membre que le modèle n'affiche pas ne provoquent pas un nouveau rendu.
+ * Un modèle qui accède au contexte de façon dynamique ({@code #ctx},
+ * {@code #vars}, appels statiques, date courante) est toujours rendu.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    private static final String TEMPLATE_DIR = "email/";
+    private static final String TEMPLATE_ROOT = "classpath:templates/";
+
+    /** Variables globales ajoutées à chaque email (marque, URLs...). */
+    private static final Map<String, Object> GLOBAL_VARIABLES = Map.of(
+            "appName", "Mutuelle ENSPY",
+            "logoUrl", "https://api.dicebear.com/7.x/initials/svg?seed=Mutuelle+ENSPY&backgroundColor=0056b3&fontColor=ffffff&fontSize=35");
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern FRAGMENT_INCLUDE = Pattern.compile("~\\{\\s*([\\w/.-]+)\\s*::");
+    private static final Pattern DYNAMIC_ACCESS = Pattern.compile("#ctx|#vars|#root|#execInfo|\\bT\\(|createNow|createToday");
+
+    private record TemplateInfo(Set<String> names, boolean cacheable) {
+    }
+
+    private record RenderKey(String template, Map<String, Object> values) {
+    }
+
+    private final SpringTemplateEngine templateEngine;
+    private final ResourcePatternResolver resources = new PathMatchingResourcePatternResolver();
+    private final Map<String, TemplateInfo> templates = new HashMap<>();
+    private final Map<RenderKey, String> rendered;
+    private final AtomicLong renderCount = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    public EmailTemplateRenderer(SpringTemplateEngine templateEngine,
+                                 @Value("${mutuelle.mail.render-cache-size:256}") int renderCacheSize) {
+        this.templateEngine = templateEngine;
+        this.rendered = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RenderKey, String> eldest) {
+                return size() > renderCacheSize;
+            }
+        });
+    }
+
+    @PostConstruct
+    public void precompile() throws IOException {
+        for (Resource resource : resources.getResources(TEMPLATE_ROOT + TEMPLATE_DIR + "*.html")) {
+            String name = Objects.requireNonNull(resource.getFilename()).replaceFirst("\\.html$", "");
+            StringBuilder source = new StringBuilder();
+            collectSource(TEMPLATE_DIR + name, source, new HashSet<>());
+
+            Set<String> names = new HashSet<>();
+            Matcher matcher = IDENTIFIER.matcher(source);
+            while (matcher.find()) {
+                names.add(matcher.group());
+            }
+            boolean cacheable = !DYNAMIC_ACCESS.matcher(source).find();
+            templates.put(name, new TemplateInfo(names, cacheable));
+        }
+        log.info("{} modèle(s) d'email chargé(s)", templates.size());
+
+        for (TemplateMailsName name : TemplateMailsName.values()) {
+            if (!templates.containsKey(name.name())) {
+                log.warn("Modèle email {} absent de templates/{} : ces emails partiront en texte brut", name, TEMPLATE_DIR);
+                continue;
+            }
+            // Premier rendu à vide : l'analyse du modèle et de son layout est mise en cache
+            try {
+                templateEngine.process(TEMPLATE_DIR + name, new Context(Locale.getDefault(), GLOBAL_VARIABLES));
+            } catch (Exception e) {
+                log.debug("Pré-rendu du modèle {} sans variables impossible : {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * HTML de l'email, ou {@code null} si le modèle n'existe pas dans
+     * {@code templates/email}.
+     */
+    public String render(String templateName, String title, String message, Map<String, Object> variables) {
+        TemplateInfo template = templates.get(templateName);
+        if (template == null) {
+            return null;
+        }
+
+        Map<String, Object> model = new HashMap<>();
+        if (variables != null) {
+            model.putAll(variables);
+        }
+        // Utilisables directement dans le HTML : [[${title}]], [[${message}]]
+        model.put("title", title);
+        model.put("message", message);
+        model.putAll(GLOBAL_VARIABLES);
+
+        if (!template.cacheable()) {
+            return process(templateName, model);
+        }
+
+        Map<String, Object> used = new HashMap<>();
+        model.forEach((name, value) -> {
+            if (template.names().contains(name)) {
+                used.put(name, value);
+            }
+        });
+        RenderKey key = new RenderKey(templateName, used);
+        String html = rendered.get(key);
+        if (html != null) {
+            cacheHits.incrementAndGet();
+            return html;
+        }
+        html = process(templateName, model);
+        rendered.put(key, html);
+        return html;
+    }
+
+    /** Nombre de rendus Thymeleaf effectués (hors pré-rendu au démarrage). */
+    public long renderCount() {
+        return renderCount.get();
+    }
+
+    public long cacheHits() {
+        return cacheHits.get();
+    }
+
+    private String process(String templateName, Map<String, Object> model) {
+        renderCount.incrementAndGet();
+        return templateEngine.process(TEMPLATE_DIR + templateName, new Context(Locale.getDefault(), model));
+    }
+
+    // Source du modèle suivi de celui des modèles qu'il inclut (~{email/layout/... :: ...})
+    private void collectSource(String template, StringBuilder source, Set<String> visited) throws IOException {
+        if (!visited.add(template)) {
+            return;
+        }
+        Resource resource = resources.getResource(TEMPLATE_ROOT + template + ".html");
+        if (!resource.exists()) {
+            return;
+        }
+        String content = resource.getContentAsString(StandardCharsets.UTF_8);
+        source.append(content).append('\n');
+        Matcher includes = FRAGMENT_INCLUDE.matcher(content);
+        while (includes.find()) {
+            collectSource(includes.group(1), source, visited);
+        }
+    }
+}
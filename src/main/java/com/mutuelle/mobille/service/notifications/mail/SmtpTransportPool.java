@@ -0,0 +1,164 @@
+package com.mutuelle.mobille.service.notifications.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connexions SMTP réutilisables, ouvertes avec la session et les paramètres
+ * d'un {@link JavaMailSenderImpl}.
+ *
+ * {@code JavaMailSenderImpl.send} ouvre une connexion (TCP, STARTTLS, AUTH)
+ * par appel ; ici une connexion empruntée envoie autant de messages que
+ * nécessaire puis retourne au pool. Le nombre de connexions simultanées est
+ * borné, une connexion inactive trop longtemps ou ayant atteint son quota de
+ * messages est refermée et remplacée.
+ */
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore slots;
+    private final long maxIdleMs;
+    private final int maxMessagesPerConnection;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+    private boolean closed;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, int maxConnections, long maxIdleMs,
+                             int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.slots = new Semaphore(Math.max(1, maxConnections));
+        this.maxIdleMs = maxIdleMs;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    /**
+     * Emprunte une connexion ouverte, en attendant qu'une place se libère si
+     * toutes sont utilisées. Doit être rendue avec {@link #release}.
+     */
+    public Connection borrow() throws MessagingException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Attente d'une connexion SMTP interrompue", e);
+        }
+        try {
+            Connection reused = pollIdle();
+            return reused != null ? reused : open();
+        } catch (MessagingException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Rend une connexion empruntée ; {@code reusable = false} après une erreur
+     * de transport, la connexion est alors refermée.
+     */
+    public void release(Connection connection, boolean reusable) {
+        try {
+            boolean keep = reusable && !connection.exhausted();
+            if (keep) {
+                synchronized (idle) {
+                    if (!closed) {
+                        connection.lastUsedAt = System.currentTimeMillis();
+                        idle.addFirst(connection);
+                        return;
+                    }
+                }
+            }
+            closeQuietly(connection);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /** Nombre de connexions ouvertes depuis la création du pool. */
+    public long openedConnections() {
+        return opened.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (idle) {
+            closed = true;
+            idle.forEach(SmtpTransportPool::closeQuietly);
+            idle.clear();
+        }
+    }
+
+    private Connection pollIdle() {
+        while (true) {
+            Connection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            // isConnected() envoie un NOOP : détecte les connexions fermées par le serveur
+            boolean fresh = System.currentTimeMillis() - candidate.lastUsedAt < maxIdleMs;
+            if (fresh && candidate.transport.isConnected()) {
+                return candidate;
+            }
+            closeQuietly(candidate);
+        }
+    }
+
+    private Connection open() throws MessagingException {
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            protocol = mailSender.getSession().getProperty("mail.transport.protocol");
+        }
+        Transport transport = mailSender.getSession().getTransport(protocol != null ? protocol : "smtp");
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        opened.incrementAndGet();
+        return new Connection(transport);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Fermeture de la connexion SMTP : {}", e.getMessage());
+        }
+    }
+
+    /** Connexion empruntée au pool. */
+    public final class Connection {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsedAt = System.currentTimeMillis();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+
+        public void send(MimeMessage message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+        }
+
+        public boolean exhausted() {
+            return maxMessagesPerConnection > 0 && sent >= maxMessagesPerConnection;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.mutuelle.mobille.service.notifications.outbox;
+
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.enums.NotificationOutboxStatus;
+import com.mutuelle.mobille.models.notification.NotificationOutbox;
+import com.mutuelle.mobille.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Écriture et cycle de vie des lignes de {@code notification_outbox}.
+ *
+ * {@link #enqueue} s'exécute dans la transaction de l'appelant : les
+ * notifications n'existent que si l'opération métier est validée. Le worker
+ * réserve ensuite les lignes dues ({@link #claim}), puis les marque envoyées
+ * ou replanifie un essai avec un délai exponentiel, jusqu'à l'abandon (DEAD).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    /** Publié après l'écriture de nouvelles lignes, pour réveiller le worker. */
+    public record Enqueued(int count) {
+    }
+
+    private final NotificationOutboxRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${mutuelle.notifications.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mutuelle.notifications.outbox.backoff-initial-ms:30000}")
+    private long backoffInitialMs;
+
+    @Value("${mutuelle.notifications.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Transactional
+    public void enqueue(Collection<NotificationRequestDto> requests, Set<NotificationChannel> availableChannels) {
+        write(requests, availableChannels);
+    }
+
+    /**
+     * Variante validée dans sa propre transaction : pour les alertes émises
+     * alors que la transaction de l'appelant va être annulée.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void enqueueIndependently(Collection<NotificationRequestDto> requests, Set<NotificationChannel> availableChannels) {
+        write(requests, availableChannels);
+    }
+
+    private void write(Collection<NotificationRequestDto> requests, Set<NotificationChannel> availableChannels) {
+        List<NotificationOutbox> rows = new ArrayList<>();
+        for (NotificationRequestDto request : requests) {
+            Set<NotificationChannel> channels = request.getChannels();
+            if (channels == null || channels.isEmpty()) {
+                channels = Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH);
+            }
+
+            byte[] payload = NotificationPayloadCodec.encode(request.getVariables(), request.getPushData());
+            for (NotificationChannel channel : channels) {
+                if (!availableChannels.contains(channel)) {
+                    log.warn("Canal {} non implémenté, notification '{}' ignorée pour ce canal", channel, request.getTitle());
+                    continue;
+                }
+                rows.add(NotificationOutbox.builder()
+                        .channel(channel)
+                        .email(request.getEmail())
+                        .title(request.getTitle())
+                        .message(request.getMessage() != null ? truncate(request.getMessage(), 4000) : null)
+                        .templateName(request.getTemplateName())
+                        .payload(payload)
+                        .build());
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+        repository.saveAll(rows);
+        eventPublisher.publishEvent(new Enqueued(rows.size()));
+    }
+
+    /**
+     * Réserve au plus {@code limit} lignes dues du canal (statut PROCESSING).
+     */
+    @Transactional
+    public List<NotificationOutbox> claim(NotificationChannel channel, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> rows = repository.findDueForUpdate(
+                channel, NotificationOutboxStatus.PENDING, now, PageRequest.of(0, limit));
+        for (NotificationOutbox row : rows) {
+            row.setStatus(NotificationOutboxStatus.PROCESSING);
+            row.setLockedAt(now);
+        }
+        return rows;
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            repository.markSent(ids, NotificationOutboxStatus.SENT, LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public void markFailed(Long id, Throwable error) {
+        repository.findById(id).ifPresent(row -> {
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            row.setLockedAt(null);
+            row.setLastError(truncate(error.getClass().getSimpleName() + " : " + error.getMessage(), 1000));
+
+            if (attempts >= maxAttempts) {
+                row.setStatus(NotificationOutboxStatus.DEAD);
+                log.error("Notification {} ({} → {}) abandonnée après {} essais : {}",
+                        id, row.getChannel(), row.getEmail(), attempts, row.getLastError());
+            } else {
+                row.setStatus(NotificationOutboxStatus.PENDING);
+                row.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                log.warn("Échec notification {} ({} → {}), essai {}/{} : {}",
+                        id, row.getChannel(), row.getEmail(), attempts, maxAttempts, row.getLastError());
+            }
+        });
+    }
+
+    @Transactional
+    public int releaseStale(Duration lockTimeout) {
+        return repository.releaseStale(NotificationOutboxStatus.PENDING, NotificationOutboxStatus.PROCESSING,
+                LocalDateTime.now().minus(lockTimeout));
+    }
+
+    @Transactional
+    public int purgeSent(Duration retention) {
+        return repository.deleteSentBefore(NotificationOutboxStatus.SENT, LocalDateTime.now().minus(retention));
+    }
+
+    public NotificationRequestDto toRequest(NotificationOutbox row) {
+        NotificationPayloadCodec.Payload payload = NotificationPayloadCodec.decode(row.getPayload());
+        return NotificationRequestDto.builder()
+                .email(row.getEmail())
+                .title(row.getTitle())
+                .message(row.getMessage())
+                .templateName(row.getTemplateName())
+                .variables(payload.variables())
+                .pushData(payload.pushData())
+                .channels(Set.of(row.getChannel()))
+                .build();
+    }
+
+    // Délai exponentiel (initial × 2^(essai-1)), plafonné, avec ±20 % d'aléa
+    // pour ne pas relancer ensemble toutes les lignes d'un même envoi de masse
+    Duration backoff(int attempts) {
+        long delay = backoffInitialMs << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, backoffMaxMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delay * jitter));
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+}
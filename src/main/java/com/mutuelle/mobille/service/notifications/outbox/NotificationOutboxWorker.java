@@ -0,0 +1,255 @@
+package com.mutuelle.mobille.service.notifications.outbox;
+
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.models.notification.NotificationOutbox;
+import com.mutuelle.mobille.service.notifications.config.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vide la table {@code notification_outbox} hors des threads de requête.
+ *
+ * Un thread unique interroge la table (à intervalle fixe, et dès qu'une
+ * transaction ayant écrit des notifications est validée) ; chaque canal a son
+ * propre pool de taille fixe, chaque thread envoie un lot à la taille que
+ * l'expéditeur accepte, et le canal ne réserve jamais plus de lignes que ses
+ * threads libres ne peuvent en envoyer. Une ligne restée PROCESSING trop
+ * longtemps (arrêt brutal) est remise en attente au tour suivant.
+ *
+ * Les pools sont exposés dans Micrometer ({@code executor.*}, tag
+ * {@code name=notifications.email|push}) quand un registre est disponible.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxWorker {
+
+    private final NotificationOutboxService outbox;
+    private final NotificationService notificationService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${mutuelle.notifications.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mutuelle.notifications.outbox.poll-delay-ms:2000}")
+    private long pollDelayMs;
+
+    @Value("${mutuelle.notifications.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${mutuelle.notifications.outbox.email-concurrency:4}")
+    private int emailConcurrency;
+
+    @Value("${mutuelle.notifications.outbox.push-concurrency:4}")
+    private int pushConcurrency;
+
+    @Value("${mutuelle.notifications.outbox.lock-timeout-ms:600000}")
+    private long lockTimeoutMs;
+
+    @Value("${mutuelle.notifications.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final Map<NotificationChannel, Lane> lanes = new EnumMap<>(NotificationChannel.class);
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private ScheduledExecutorService poller;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || poller != null) {
+            return;
+        }
+        initLanes();
+        poller = Executors.newSingleThreadScheduledExecutor(named("notif-outbox-poller"));
+        poller.scheduleWithFixedDelay(this::pollSafely, 0, pollDelayMs, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::purgeSafely, 1, 24, TimeUnit.HOURS);
+        log.info("Outbox des notifications démarrée (email : {} thread(s), push : {} thread(s))",
+                emailConcurrency, pushConcurrency);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        for (Lane lane : lanes.values()) {
+            lane.pool.shutdown();
+        }
+        for (Lane lane : lanes.values()) {
+            try {
+                if (!lane.pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    lane.pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lanes.clear();
+    }
+
+    /**
+     * Nouvelles notifications validées : interrogation immédiate sans attendre
+     * le prochain tour.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(NotificationOutboxService.Enqueued event) {
+        wakeUp();
+    }
+
+    /**
+     * Un tour d'interrogation : remise en attente des réservations expirées,
+     * puis réservation et envoi, canal par canal, dans la limite des threads libres.
+     */
+    public synchronized void pollOnce() {
+        initLanes();
+        int released = outbox.releaseStale(Duration.ofMillis(lockTimeoutMs));
+        if (released > 0) {
+            log.warn("{} notification(s) réservée(s) depuis plus de {} ms remise(s) en attente", released, lockTimeoutMs);
+        }
+        for (Lane lane : lanes.values()) {
+            drain(lane);
+        }
+    }
+
+    private void drain(Lane lane) {
+        // Un thread libre traite un lot complet (1 email, jusqu'à 100 push)
+        int chunkSize = notificationService.maxBatchSize(lane.channel);
+        int limit = Math.min(batchSize, lane.permits.availablePermits() * chunkSize);
+        if (limit == 0) {
+            lane.backlog = true;
+            return;
+        }
+
+        List<NotificationOutbox> rows = outbox.claim(lane.channel, limit);
+        lane.backlog = rows.size() == limit;
+
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<NotificationOutbox> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            lane.permits.acquireUninterruptibly();
+            lane.pool.execute(() -> {
+                try {
+                    deliver(lane.channel, chunk);
+                } finally {
+                    lane.permits.release();
+                    if (lane.backlog) {
+                        wakeUp();
+                    }
+                }
+            });
+        }
+    }
+
+    private void deliver(NotificationChannel channel, List<NotificationOutbox> rows) {
+        List<Exception> results;
+        try {
+            results = notificationService.deliver(channel, rows.stream().map(outbox::toRequest).toList());
+        } catch (Exception e) {
+            results = Collections.nCopies(rows.size(), e);
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Exception error = i < results.size() ? results.get(i) : null;
+            if (error == null) {
+                sent.add(rows.get(i).getId());
+                continue;
+            }
+            try {
+                outbox.markFailed(rows.get(i).getId(), error);
+            } catch (Exception markError) {
+                // La ligne reste PROCESSING et sera reprise après lock-timeout-ms
+                log.error("Impossible d'enregistrer l'échec de la notification {}", rows.get(i).getId(), markError);
+            }
+        }
+        try {
+            outbox.markSent(sent);
+        } catch (Exception e) {
+            log.error("Impossible de marquer {} notification(s) comme envoyée(s)", sent.size(), e);
+        }
+    }
+
+    private void wakeUp() {
+        ScheduledExecutorService current = poller;
+        if (current == null || !wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                wakeUpPending.set(false);
+                pollSafely();
+            });
+        } catch (RejectedExecutionException e) {
+            wakeUpPending.set(false);
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            pollOnce();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'interrogation de l'outbox des notifications", e);
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            int purged = outbox.purgeSent(Duration.ofDays(retentionDays));
+            if (purged > 0) {
+                log.info("{} notification(s) envoyée(s) purgée(s) de l'outbox", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge de l'outbox des notifications", e);
+        }
+    }
+
+    private void initLanes() {
+        if (lanes.isEmpty()) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            lanes.put(NotificationChannel.EMAIL, new Lane(NotificationChannel.EMAIL, emailConcurrency, registry));
+            lanes.put(NotificationChannel.PUSH, new Lane(NotificationChannel.PUSH, pushConcurrency, registry));
+        }
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Lane {
+        final NotificationChannel channel;
+        final ExecutorService pool;
+        final Semaphore permits;
+        volatile boolean backlog;
+
+        Lane(NotificationChannel channel, int concurrency, MeterRegistry registry) {
+            this.channel = channel;
+            String name = channel.name().toLowerCase();
+            // Jamais plus de tâches que de permis : la file ne peut pas déborder
+            ExecutorService executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(concurrency), named("notif-" + name));
+            this.pool = registry != null
+                    ? ExecutorServiceMetrics.monitor(registry, executor, "notifications." + name)
+                    : executor;
+            this.permits = new Semaphore(concurrency);
+        }
+    }
+}
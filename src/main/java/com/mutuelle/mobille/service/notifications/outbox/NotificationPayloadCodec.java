@@ -0,0 +1,83 @@
+package com.mutuelle.mobille.service.notifications.outbox;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Sérialise les variables Thymeleaf et les données push d'une notification
+ * pour la table outbox, en conservant leurs types (BigDecimal, LocalDateTime...)
+ * dont les templates ont besoin. Seules les classes du JDK sont acceptées à la
+ * relecture ; les autres valeurs sont converties en texte à l'écriture.
+ */
+public final class NotificationPayloadCodec {
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter("java.base/*;!*");
+
+    public record Payload(Map<String, Object> variables, Map<String, Object> pushData) {
+    }
+
+    private NotificationPayloadCodec() {
+    }
+
+    public static byte[] encode(Map<String, Object> variables, Map<String, Object> pushData) {
+        if (variables == null && pushData == null) {
+            return null;
+        }
+
+        HashMap<String, Object> root = new HashMap<>();
+        root.put("variables", sanitize(variables));
+        root.put("pushData", sanitize(pushData));
+
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(root);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sérialisation de la notification impossible", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Payload decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return new Payload(null, null);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            in.setObjectInputFilter(FILTER);
+            Map<String, Object> root = (Map<String, Object>) in.readObject();
+            return new Payload((Map<String, Object>) root.get("variables"),
+                    (Map<String, Object>) root.get("pushData"));
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Notification illisible dans l'outbox", e);
+        }
+    }
+
+    private static Object sanitize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map<?, ?> map) {
+            HashMap<String, Object> copy = new HashMap<>();
+            map.forEach((k, v) -> copy.put(String.valueOf(k), sanitize(v)));
+            return copy;
+        }
+        if (value instanceof Collection<?> collection) {
+            ArrayList<Object> copy = new ArrayList<>(collection.size());
+            collection.forEach(v -> copy.add(sanitize(v)));
+            return copy;
+        }
+        if (value instanceof Enum<?> e && !isJdk(e.getDeclaringClass())) {
+            return e.name();
+        }
+        if (value instanceof Serializable && isJdk(value.getClass())) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+    private static boolean isJdk(Class<?> type) {
+        return "java.base".equals(type.getModule().getName());
+    }
+}
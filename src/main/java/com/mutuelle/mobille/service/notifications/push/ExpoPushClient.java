@@ -0,0 +1,155 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client HTTP du service push d'Expo. Un seul {@link HttpClient} partagé
+ * (connexions réutilisées, HTTP/2 quand le serveur le permet), appels
+ * asynchrones : plusieurs lots partent en parallèle sans bloquer un thread
+ * par requête.
+ */
+@Component
+public class ExpoPushClient {
+
+    /** Limites imposées par Expo par requête. */
+    public static final int MAX_MESSAGES_PER_REQUEST = 100;
+    public static final int MAX_RECEIPT_IDS_PER_REQUEST = 1000;
+
+    public static final String DEVICE_NOT_REGISTERED = "DeviceNotRegistered";
+
+    /** Ticket renvoyé pour chaque message : {@code id} sert à relire le reçu plus tard. */
+    public record Ticket(String status, String id, String message, String error) {
+        public boolean ok() {
+            return "ok".equals(status);
+        }
+    }
+
+    public record Receipt(String status, String message, String error) {
+        public boolean ok() {
+            return "ok".equals(status);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService httpExecutor;
+    private final HttpClient http;
+    private final URI sendUri;
+    private final URI receiptsUri;
+    private final String accessToken;
+
+    public ExpoPushClient(ObjectMapper objectMapper,
+                          @Value("${mutuelle.push.expo-base-url:https://exp.host}") String baseUrl,
+                          @Value("${mutuelle.push.access-token:}") String accessToken,
+                          @Value("${mutuelle.push.http-threads:4}") int httpThreads) {
+        this.objectMapper = objectMapper;
+        this.sendUri = URI.create(baseUrl + "/--/api/v2/push/send");
+        this.receiptsUri = URI.create(baseUrl + "/--/api/v2/push/getReceipts");
+        this.accessToken = accessToken;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.httpExecutor = Executors.newFixedThreadPool(httpThreads, runnable -> {
+            Thread thread = new Thread(runnable, "expo-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+    }
+
+    /**
+     * Envoie un lot (au plus {@link #MAX_MESSAGES_PER_REQUEST} messages) ; les
+     * tickets sont dans l'ordre des messages. Échoue si Expo refuse la requête.
+     */
+    public CompletableFuture<List<Ticket>> send(List<Map<String, Object>> messages) {
+        if (messages.size() > MAX_MESSAGES_PER_REQUEST) {
+            throw new IllegalArgumentException("Lot Expo limité à " + MAX_MESSAGES_PER_REQUEST + " messages");
+        }
+        return post(sendUri, messages).thenApply(body -> {
+            JsonNode data = body.path("data");
+            List<Ticket> tickets = new ArrayList<>(messages.size());
+            for (JsonNode node : data) {
+                tickets.add(new Ticket(
+                        node.path("status").asText(null),
+                        node.path("id").asText(null),
+                        node.path("message").asText(null),
+                        node.path("details").path("error").asText(null)));
+            }
+            if (tickets.size() != messages.size()) {
+                throw new IllegalStateException("Réponse Expo incomplète : " + tickets.size()
+                        + " ticket(s) pour " + messages.size() + " message(s)");
+            }
+            return tickets;
+        });
+    }
+
+    public CompletableFuture<Map<String, Receipt>> getReceipts(Collection<String> ticketIds) {
+        return post(receiptsUri, Map.of("ids", ticketIds)).thenApply(body -> {
+            Map<String, Receipt> receipts = new HashMap<>();
+            body.path("data").fields().forEachRemaining(entry -> receipts.put(entry.getKey(), new Receipt(
+                    entry.getValue().path("status").asText(null),
+                    entry.getValue().path("message").asText(null),
+                    entry.getValue().path("details").path("error").asText(null))));
+            return receipts;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpExecutor.shutdownNow();
+    }
+
+    private CompletableFuture<JsonNode> post(URI uri, Object payload) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(write(payload)));
+        if (accessToken != null && !accessToken.isBlank()) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Expo erreur HTTP " + response.statusCode()
+                                + " → " + new String(response.body()));
+                    }
+                    try {
+                        JsonNode body = objectMapper.readTree(response.body());
+                        if (body.hasNonNull("errors")) {
+                            throw new IllegalStateException("Expo a refusé la requête : " + body.get("errors"));
+                        }
+                        return body;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Réponse Expo illisible", e);
+                    }
+                });
+    }
+
+    private byte[] write(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sérialisation du lot Expo impossible", e);
+        }
+    }
+}
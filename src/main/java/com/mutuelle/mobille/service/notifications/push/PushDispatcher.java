@@ -0,0 +1,240 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.repository.PushTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Envoi groupé des notifications push via Expo.
+ *
+ * Les tokens des destinataires viennent de {@link PushRecipientCache} (une
+ * requête au plus pour ceux qui n'y sont pas encore), les messages
+ * (un par appareil) sont regroupés en lots de 100 quel que soit l'utilisateur,
+ * et les lots partent en parallèle sur le client HTTP partagé, sous un débit
+ * maximal commun (seau à jetons). Les tickets DeviceNotRegistered suppriment
+ * le token aussitôt ; les autres tickets sont relus plus tard (reçus Expo)
+ * pour supprimer les tokens devenus invalides après coup.
+ *
+ * Les tickets en attente de reçu ne sont gardés qu'en mémoire, dans une file
+ * bornée : ils sont perdus au redémarrage, les plus anciens sont écartés quand
+ * la file est pleine, et ceux qui dépassent la conservation des reçus chez
+ * Expo (24 h) sont abandonnés. Un token ainsi manqué n'est supprimé qu'au
+ * prochain envoi, par son ticket DeviceNotRegistered.
+ */
+@Slf4j
+@Component
+public class PushDispatcher {
+
+    private record Target(int requestIndex, String token) {
+    }
+
+    private record PendingReceipt(String ticketId, String token, long sentAtMillis) {
+    }
+
+    private final PushTokenRepository pushTokenRepository;
+    private final PushRecipientCache recipientCache;
+    private final ExpoPushClient expoClient;
+    private final TokenBucket rateLimiter;
+    private final long receiptDelayMs;
+    private final long receiptRetentionMs;
+    private final BlockingQueue<PendingReceipt> pendingReceipts;
+
+    public PushDispatcher(PushTokenRepository pushTokenRepository,
+                          PushRecipientCache recipientCache,
+                          ExpoPushClient expoClient,
+                          @Value("${mutuelle.push.rate-per-second:600}") double ratePerSecond,
+                          @Value("${mutuelle.push.receipt-delay-ms:900000}") long receiptDelayMs,
+                          @Value("${mutuelle.push.receipt-retention-ms:86400000}") long receiptRetentionMs,
+                          @Value("${mutuelle.push.max-pending-receipts:100000}") int maxPendingReceipts) {
+        this.pushTokenRepository = pushTokenRepository;
+        this.recipientCache = recipientCache;
+        this.expoClient = expoClient;
+        this.rateLimiter = new TokenBucket(ratePerSecond, Math.max(ratePerSecond, ExpoPushClient.MAX_MESSAGES_PER_REQUEST));
+        this.receiptDelayMs = receiptDelayMs;
+        this.receiptRetentionMs = receiptRetentionMs;
+        this.pendingReceipts = new LinkedBlockingQueue<>(maxPendingReceipts);
+    }
+
+    /**
+     * Envoie chaque demande à tous les appareils de son destinataire.
+     *
+     * @return pour chaque demande, dans l'ordre : {@code null} si l'envoi est
+     * accepté (ou s'il n'y a aucun appareil), sinon l'erreur à l'origine de l'échec.
+     */
+    public List<Exception> dispatch(List<NotificationRequestDto> requests) {
+        Exception[] results = new Exception[requests.size()];
+
+        Set<String> emails = new HashSet<>();
+        for (NotificationRequestDto request : requests) {
+            if (request.getEmail() != null) {
+                emails.add(request.getEmail());
+            }
+        }
+        Map<String, PushRecipientCache.PushRecipient> recipients = recipientCache.resolve(emails);
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        List<Target> targets = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequestDto request = requests.get(i);
+            PushRecipientCache.PushRecipient recipient = recipients.get(request.getEmail());
+            for (String token : recipient != null ? recipient.tokens() : List.<String>of()) {
+                messages.add(toMessage(request, token));
+                targets.add(new Target(i, token));
+            }
+        }
+
+        List<CompletableFuture<List<ExpoPushClient.Ticket>>> batches = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += ExpoPushClient.MAX_MESSAGES_PER_REQUEST) {
+            List<Map<String, Object>> batch = messages.subList(from,
+                    Math.min(from + ExpoPushClient.MAX_MESSAGES_PER_REQUEST, messages.size()));
+            rateLimiter.acquire(batch.size());
+            batches.add(expoClient.send(batch));
+        }
+
+        Set<String> unregistered = new HashSet<>();
+        List<PendingReceipt> sent = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int b = 0; b < batches.size(); b++) {
+            int offset = b * ExpoPushClient.MAX_MESSAGES_PER_REQUEST;
+            List<Target> batchTargets = targets.subList(offset,
+                    Math.min(offset + ExpoPushClient.MAX_MESSAGES_PER_REQUEST, targets.size()));
+
+            List<ExpoPushClient.Ticket> tickets;
+            try {
+                tickets = batches.get(b).join();
+            } catch (Exception e) {
+                Exception cause = e.getCause() instanceof Exception c ? c : e;
+                log.error("Échec d'un lot Expo de {} message(s) : {}", batchTargets.size(), cause.getMessage());
+                for (Target target : batchTargets) {
+                    results[target.requestIndex()] = cause;
+                }
+                continue;
+            }
+
+            for (int i = 0; i < tickets.size(); i++) {
+                ExpoPushClient.Ticket ticket = tickets.get(i);
+                Target target = batchTargets.get(i);
+                if (ticket.ok()) {
+                    if (ticket.id() != null) {
+                        sent.add(new PendingReceipt(ticket.id(), target.token(), now));
+                    }
+                } else if (ExpoPushClient.DEVICE_NOT_REGISTERED.equals(ticket.error())) {
+                    unregistered.add(target.token());
+                } else {
+                    results[target.requestIndex()] = new IllegalStateException(
+                            "Expo a refusé le message : " + ticket.error() + " - " + ticket.message());
+                }
+            }
+        }
+
+        enqueue(sent);
+        pruneTokens(unregistered);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Relit les reçus des tickets assez anciens et supprime les tokens
+     * signalés DeviceNotRegistered. Les reçus non disponibles sont ignorés ;
+     * une lecture en échec est retentée au passage suivant, tant que le reçu
+     * est encore conservé par Expo.
+     */
+    @Scheduled(fixedDelayString = "${mutuelle.push.receipt-check-ms:60000}")
+    public void checkDueReceipts() {
+        long now = System.currentTimeMillis();
+        long dueBefore = now - receiptDelayMs;
+        long expiredBefore = now - receiptRetentionMs;
+        List<PendingReceipt> due = new ArrayList<>();
+        int expired = 0;
+        PendingReceipt head;
+        while ((head = pendingReceipts.peek()) != null && head.sentAtMillis() <= dueBefore) {
+            if (!pendingReceipts.remove(head)) {
+                continue;
+            }
+            if (head.sentAtMillis() <= expiredBefore) {
+                expired++;
+            } else {
+                due.add(head);
+            }
+        }
+        if (expired > 0) {
+            log.warn("{} reçu(s) Expo abandonné(s) : plus conservés par Expo", expired);
+        }
+
+        Set<String> unregistered = new HashSet<>();
+        for (int from = 0; from < due.size(); from += ExpoPushClient.MAX_RECEIPT_IDS_PER_REQUEST) {
+            List<PendingReceipt> chunk = due.subList(from,
+                    Math.min(from + ExpoPushClient.MAX_RECEIPT_IDS_PER_REQUEST, due.size()));
+            Map<String, ExpoPushClient.Receipt> receipts;
+            try {
+                receipts = expoClient.getReceipts(chunk.stream().map(PendingReceipt::ticketId).toList()).join();
+            } catch (Exception e) {
+                log.warn("Lecture des reçus Expo impossible, nouvel essai au prochain passage : {}", e.getMessage());
+                enqueue(chunk);
+                continue;
+            }
+            for (PendingReceipt pending : chunk) {
+                ExpoPushClient.Receipt receipt = receipts.get(pending.ticketId());
+                if (receipt != null && !receipt.ok()) {
+                    if (ExpoPushClient.DEVICE_NOT_REGISTERED.equals(receipt.error())) {
+                        unregistered.add(pending.token());
+                    } else {
+                        log.warn("Reçu Expo en erreur pour {} : {} - {}", pending.token(), receipt.error(), receipt.message());
+                    }
+                }
+            }
+        }
+
+        pruneTokens(unregistered);
+    }
+
+    int pendingReceiptCount() {
+        return pendingReceipts.size();
+    }
+
+    // File pleine : les tickets les plus anciens laissent la place aux nouveaux
+    private void enqueue(List<PendingReceipt> receipts) {
+        int evicted = 0;
+        for (PendingReceipt receipt : receipts) {
+            while (!pendingReceipts.offer(receipt)) {
+                if (pendingReceipts.poll() != null) {
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.warn("File des reçus Expo pleine : {} ticket(s) le(s) plus ancien(s) écarté(s)", evicted);
+        }
+    }
+
+    private void pruneTokens(Set<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        int deleted = pushTokenRepository.deleteByTokenIn(tokens);
+        recipientCache.invalidateTokens(tokens);
+        log.warn("{} token(s) push supprimé(s) (DeviceNotRegistered)", deleted);
+    }
+
+    private static Map<String, Object> toMessage(NotificationRequestDto req, String token) {
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("to", token);
+        msg.put("title", req.getTitle() != null ? req.getTitle() : "Notification");
+        msg.put("body", req.getMessage() != null ? req.getMessage() : "");
+        Map<String, Object> data = req.getPushData() != null ? req.getPushData() : req.getVariables();
+        if (data != null && !data.isEmpty()) {
+            msg.put("data", data);
+        }
+        // Recommandé pour iOS (meilleure délivrabilité)
+        msg.put("priority", "high");
+        msg.put("sound", "default");
+        return msg;
+    }
+}
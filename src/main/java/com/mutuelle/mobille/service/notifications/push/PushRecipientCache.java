@@ -0,0 +1,124 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+import com.mutuelle.mobille.dto.notifications.PushTargetDTO;
+import com.mutuelle.mobille.repository.PushTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache borné (LRU) email → compte et tokens push du destinataire.
+ *
+ * Les emails absents du cache sont lus ensemble en une requête ; un email
+ * sans compte ou sans appareil est aussi mis en cache (liste vide). Une
+ * entrée est invalidée à l'enregistrement d'un token pour ce compte, à la
+ * suppression d'un de ses tokens, et au plus tard après {@code ttl-ms}
+ * (tokens modifiés par une autre instance).
+ */
+@Component
+public class PushRecipientCache {
+
+    public record PushRecipient(Long userId, List<String> tokens) {
+    }
+
+    private record Entry(PushRecipient recipient, long loadedAtMillis) {
+    }
+
+    private static final PushRecipient UNKNOWN = new PushRecipient(null, List.of());
+
+    private final PushTokenRepository pushTokenRepository;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+    // Incrémenté à chaque invalidation : une lecture commencée avant n'est pas mise en cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public PushRecipientCache(PushTokenRepository pushTokenRepository,
+                              @Value("${mutuelle.push.recipient-cache-size:10000}") int maxEntries,
+                              @Value("${mutuelle.push.recipient-cache-ttl-ms:600000}") long ttlMs) {
+        this.pushTokenRepository = pushTokenRepository;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Compte et tokens de chaque email demandé ; au plus une requête pour
+     * l'ensemble des emails absents du cache.
+     */
+    public Map<String, PushRecipient> resolve(Collection<String> emails) {
+        Map<String, PushRecipient> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            for (String email : emails) {
+                Entry entry = entries.get(email);
+                if (entry != null && now - entry.loadedAtMillis() < ttlMs) {
+                    resolved.put(email, entry.recipient());
+                } else {
+                    missing.add(email);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        long loadGeneration = generation.get();
+        Map<String, PushRecipient> loaded = load(missing);
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                loaded.forEach((email, recipient) -> entries.put(email, new Entry(recipient, now)));
+            }
+        }
+        resolved.putAll(loaded);
+        return resolved;
+    }
+
+    /** Nouveau token enregistré pour ce compte. */
+    public void invalidate(String email) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(email);
+        }
+    }
+
+    /** Tokens supprimés : les entrées qui les contiennent sont relues au prochain envoi. */
+    public void invalidateTokens(Collection<String> tokens) {
+        Set<String> removed = new HashSet<>(tokens);
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> entry.recipient().tokens().stream().anyMatch(removed::contains));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Map<String, PushRecipient> load(Set<String> emails) {
+        Map<String, Long> userIds = new HashMap<>();
+        Map<String, List<String>> tokens = new HashMap<>();
+        for (PushTargetDTO target : pushTokenRepository.findPushTargetsByEmailIn(emails)) {
+            userIds.put(target.getEmail(), target.getUserId());
+            List<String> userTokens = tokens.computeIfAbsent(target.getEmail(), e -> new ArrayList<>());
+            if (target.getToken() != null) {
+                userTokens.add(target.getToken());
+            }
+        }
+
+        Map<String, PushRecipient> loaded = new HashMap<>();
+        for (String email : emails) {
+            Long userId = userIds.get(email);
+            loaded.put(email, userId == null ? UNKNOWN : new PushRecipient(userId, List.copyOf(tokens.get(email))));
+        }
+        return loaded;
+    }
+}
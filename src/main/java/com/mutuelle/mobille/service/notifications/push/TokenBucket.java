@@ -0,0 +1,44 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+/**
+ * Limiteur de débit par seau à jetons, partagé entre les threads d'envoi.
+ * Chaque appel réserve ses jetons immédiatement (le solde peut devenir
+ * négatif) puis attend le temps nécessaire pour le rembourser : les appelants
+ * sont servis dans l'ordre et une demande plus grande que la capacité ne
+ * bloque pas indéfiniment.
+ */
+public final class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        if (permitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Débit et capacité doivent être positifs");
+        }
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public void acquire(int permits) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            available -= permits;
+            waitNanos = available < 0 ? (long) (-available / permitsPerNano) : 0;
+        }
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.service.RefreshTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@EnableScheduling
+@RequiredArgsConstructor
+public class AuthSchedules {
+
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Supprime les refresh tokens expirés et ceux des sessions déconnectées
+     * Exécuté tous les jours à 3h15 par défaut
+     */
+    @Scheduled(cron = "${mutuelle.auth.refresh-token-purge-cron:0 15 3 * * *}")
+    public void purgeRefreshTokens() {
+        try {
+            refreshTokenService.purge();
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge des refresh tokens", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mutuelle.mobille.service.schedules;
 
-import com.mutuelle.mobille.service.EmpruntService;
+import com.mutuelle.mobille.service.GlobalAccountLedgerService;
+import com.mutuelle.mobille.service.LedgerCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -13,24 +14,32 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class FinancialSchedules {
 
-    private final EmpruntService empruntService;
+    private final GlobalAccountLedgerService globalAccountLedgerService;
+    private final LedgerCounterService ledgerCounterService;
 
     /**
-     * Vérifie et applique les intérêts trimestriels sur les emprunts en cours
-     * Exécuté tous les jours à 6h00 du matin
+     * Reporte les variations en attente dans le compte global de la mutuelle
+     * Exécuté toutes les 30 secondes par défaut
      */
-//    @Scheduled(cron = "0 0 6 * * ?")
-//    public void processTrimestrialInterests() {
-//        log.info("Début du traitement quotidien des intérêts trimestriels");
-//
-//        try {
-//            empruntService.calculerEtRedistribuerInteretsPenalites();
-//            log.info("Traitement des intérêts trimestriels terminé avec succès");
-//        } catch (Exception e) {
-//            log.error("Erreur lors du calcul / redistribution des intérêts trimestriels", e);
-//            // Option : alerte admin (email, Slack, Sentry, etc.)
-//            // alertService.sendCriticalError("Échec intérêts trimestriels", e);
-//        }
-//    }
+    @Scheduled(fixedDelayString = "${mutuelle.global-account.rollup-delay-ms:30000}")
+    public void rollupGlobalAccount() {
+        try {
+            globalAccountLedgerService.rollup();
+        } catch (Exception e) {
+            log.error("Erreur lors du report des variations du compte global", e);
+        }
+    }
 
-}
\ No newline at end of file
+    /**
+     * Regroupe les lignes des compteurs du grand livre
+     * Exécuté toutes les minutes par défaut
+     */
+    @Scheduled(fixedDelayString = "${mutuelle.ledger-counters.rollup-delay-ms:60000}")
+    public void rollupLedgerCounters() {
+        try {
+            ledgerCounterService.rollup();
+        } catch (Exception e) {
+            log.error("Erreur lors du regroupement des compteurs du grand livre", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.service.LedgerCounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Vérifie les compteurs du grand livre contre la table des transactions
+ * (tâche {@code ledger-counters-verify}). Le verrou de la tâche garantit
+ * qu'une seule instance fait la vérification.
+ * Exécutée tous les jours à 3h30 par défaut
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerCounterVerifyJob implements ScheduledJob {
+
+    private final LedgerCounterService ledgerCounterService;
+
+    @Value("${mutuelle.ledger-counters.verify-enabled:true}")
+    private boolean enabled;
+
+    @Value("${mutuelle.ledger-counters.verify-cron:0 30 3 * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return "ledger-counters-verify";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    @Override
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public void execute(ScheduledJobContext context) {
+        // Transaction propre à la vérification (REPEATABLE_READ), pas celle du contexte
+        context.run("compteurs du grand livre", ledgerCounterService::verifyAgainstLedger);
+    }
+}
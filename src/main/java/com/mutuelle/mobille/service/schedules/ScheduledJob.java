@@ -0,0 +1,30 @@
+package com.mutuelle.mobille.service.schedules;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tâche exécutée par {@link ScheduledJobRunner} : sur son expression cron,
+ * en rattrapage au démarrage, ou à la demande d'un administrateur.
+ */
+public interface ScheduledJob {
+
+    /** Nom unique : clé du verrou et des exécutions enregistrées. */
+    String name();
+
+    /** Expression cron Spring (6 champs). */
+    String cron();
+
+    /** Déclenchement automatique (cron et rattrapage) ; le déclenchement manuel reste possible. */
+    boolean enabled();
+
+    /**
+     * Clé de l'exécution pour le créneau donné : une clé déjà exécutée avec
+     * succès n'est pas rejouée. Par défaut le créneau lui-même ; {@code null}
+     * quand il n'y a rien à traiter.
+     */
+    default String runKey(LocalDateTime slot) {
+        return slot.toString();
+    }
+
+    void execute(ScheduledJobContext context);
+}
@@ -0,0 +1,78 @@
+package com.mutuelle.mobille.service.schedules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Exécution en cours d'une {@link ScheduledJob} : créneau traité et décompte
+ * des éléments. L'échec d'un élément est compté et journalisé sans
+ * interrompre les suivants.
+ *
+ * Le bail du verrou est prolongé avant chaque élément ; s'il a expiré, une
+ * autre instance a pu prendre la tâche et l'exécution est interrompue.
+ */
+@Slf4j
+public class ScheduledJobContext {
+
+    private final String jobName;
+    private final LocalDateTime slot;
+    private final TransactionTemplate itemTransaction;
+    private final BooleanSupplier leaseRenewal;
+
+    private int processed;
+    private int failed;
+    private String lastError;
+
+    ScheduledJobContext(String jobName, LocalDateTime slot, TransactionTemplate itemTransaction,
+                        BooleanSupplier leaseRenewal) {
+        this.jobName = jobName;
+        this.slot = slot;
+        this.itemTransaction = itemTransaction;
+        this.leaseRenewal = leaseRenewal;
+    }
+
+    public LocalDateTime getSlot() {
+        return slot;
+    }
+
+    /**
+     * Traite un élément dans sa propre transaction (REQUIRES_NEW) : validé ou
+     * annulé seul, quel que soit le sort des autres éléments du lot.
+     */
+    public void inOwnTransaction(String item, Runnable action) {
+        run(item, () -> itemTransaction.executeWithoutResult(status -> action.run()));
+    }
+
+    /**
+     * Traite un élément qui gère lui-même sa transaction (par exemple une
+     * méthode {@code @Transactional} avec une isolation particulière).
+     */
+    public void run(String item, Runnable action) {
+        if (!leaseRenewal.getAsBoolean()) {
+            throw new IllegalStateException("Verrou perdu avant " + item + " : bail expiré, exécution abandonnée");
+        }
+        try {
+            action.run();
+            processed++;
+        } catch (RuntimeException e) {
+            failed++;
+            lastError = item + " : " + e.getMessage();
+            log.error("Tâche {} : échec sur {}", jobName, item, e);
+        }
+    }
+
+    int getProcessed() {
+        return processed;
+    }
+
+    int getFailed() {
+        return failed;
+    }
+
+    String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,360 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.dto.schedule.ScheduledJobRunDTO;
+import com.mutuelle.mobille.dto.schedule.ScheduledJobStatusDTO;
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.enums.ScheduledJobTrigger;
+import com.mutuelle.mobille.models.schedule.ScheduledJobLock;
+import com.mutuelle.mobille.models.schedule.ScheduledJobRun;
+import com.mutuelle.mobille.repository.ScheduledJobLockRepository;
+import com.mutuelle.mobille.repository.ScheduledJobRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Exécute les {@link ScheduledJob} : créneaux cron, rattrapage au démarrage
+ * et déclenchements manuels passent tous par le même chemin.
+ *
+ * Une exécution prend d'abord le verrou de la tâche (ligne de
+ * {@code scheduled_job_locks}, bail de {@code mutuelle.jobs.lock-lease-ms},
+ * prolongé entre les éléments traités) : une seule instance l'exécute à la fois. Elle est ignorée si une exécution
+ * réussie existe déjà pour sa clé, sinon elle est enregistrée dans
+ * {@code scheduled_job_runs} et chronométrée dans Micrometer
+ * ({@code mutuelle.jobs.duration}, tags {@code job} et {@code status}).
+ *
+ * Au démarrage, une tâche dont un créneau est passé depuis sa dernière
+ * exécution (dans la limite de {@code mutuelle.jobs.catch-up-window-hours})
+ * est exécutée une fois pour le dernier créneau manqué.
+ */
+@Slf4j
+@Component
+public class ScheduledJobRunner implements SchedulingConfigurer {
+
+    private static final int MESSAGE_MAX_LENGTH = 1000;
+
+    private final Map<String, ScheduledJob> jobs = new LinkedHashMap<>();
+    private final ScheduledJobLockRepository lockRepository;
+    private final ScheduledJobRunRepository runRepository;
+    private final TransactionTemplate itemTransaction;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Duration lease;
+    private final Duration catchUpWindow;
+    private final int retentionDays;
+    private final String owner;
+
+    private volatile ScheduledTaskRegistrar registrar;
+
+    public ScheduledJobRunner(List<ScheduledJob> jobs,
+                              ScheduledJobLockRepository lockRepository,
+                              ScheduledJobRunRepository runRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${mutuelle.jobs.lock-lease-ms:1800000}") long leaseMs,
+                              @Value("${mutuelle.jobs.catch-up-window-hours:168}") long catchUpWindowHours,
+                              @Value("${mutuelle.jobs.retention-days:90}") int retentionDays) {
+        for (ScheduledJob job : jobs) {
+            if (this.jobs.putIfAbsent(job.name(), job) != null) {
+                throw new IllegalStateException("Deux tâches planifiées portent le nom " + job.name());
+            }
+        }
+        this.lockRepository = lockRepository;
+        this.runRepository = runRepository;
+        this.itemTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.catchUpWindow = Duration.ofHours(catchUpWindowHours);
+        this.retentionDays = retentionDays;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        for (ScheduledJob job : jobs.values()) {
+            if (job.enabled()) {
+                registrar.addTriggerTask(() -> runSafely(job), new CronTrigger(job.cron()));
+                log.info("Tâche planifiée {} enregistrée ({})", job.name(), job.cron());
+            }
+        }
+        this.registrar = registrar;
+    }
+
+    /**
+     * Rattrapage lancé sur le planificateur, pour ne pas retarder la fin du
+     * démarrage.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleCatchUp() {
+        // Le planificateur n'est attribué au registre qu'après configureTasks
+        TaskScheduler current = registrar != null ? registrar.getScheduler() : null;
+        if (current != null) {
+            current.schedule(() -> {
+                try {
+                    catchUp();
+                } catch (Exception e) {
+                    log.error("Erreur lors du rattrapage des tâches planifiées", e);
+                }
+            }, Instant.now());
+        }
+    }
+
+    /**
+     * Exécute une fois chaque tâche active dont un créneau a été manqué depuis
+     * sa dernière exécution. Une tâche jamais exécutée n'est pas rattrapée.
+     *
+     * @return les exécutions lancées
+     */
+    public List<ScheduledJobRunDTO> catchUp() {
+        List<ScheduledJobRunDTO> runs = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ScheduledJob job : jobs.values()) {
+            if (!job.enabled()) {
+                continue;
+            }
+            LocalDateTime missed = runRepository.findFirstByJobNameOrderByStartedAtDesc(job.name())
+                    .map(last -> lastSlot(job, later(last.getStartedAt(), now.minus(catchUpWindow)), now))
+                    .orElse(null);
+            if (missed != null) {
+                log.info("Tâche {} : créneau du {} manqué, rattrapage", job.name(), missed);
+                runs.add(execute(job, ScheduledJobTrigger.CATCH_UP, missed));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Déclenchement manuel, y compris d'une tâche dont le déclenchement
+     * automatique est désactivé.
+     */
+    public ScheduledJobRunDTO runNow(String jobName) {
+        ScheduledJob job = jobs.get(jobName);
+        if (job == null) {
+            throw new IllegalArgumentException("Tâche planifiée inconnue : " + jobName);
+        }
+        return execute(job, ScheduledJobTrigger.MANUAL, LocalDateTime.now());
+    }
+
+    public List<ScheduledJobStatusDTO> listJobs() {
+        List<ScheduledJobStatusDTO> statuses = new ArrayList<>();
+        for (ScheduledJob job : jobs.values()) {
+            statuses.add(ScheduledJobStatusDTO.builder()
+                    .name(job.name())
+                    .cron(job.cron())
+                    .enabled(job.enabled())
+                    .lastRun(runRepository.findFirstByJobNameOrderByStartedAtDesc(job.name())
+                            .map(ScheduledJobRunner::toDTO)
+                            .orElse(null))
+                    .build());
+        }
+        return statuses;
+    }
+
+    private void runSafely(ScheduledJob job) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime slot = lastSlot(job, now.minus(catchUpWindow), now);
+            execute(job, ScheduledJobTrigger.SCHEDULED, slot != null ? slot : now);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution de la tâche planifiée {}", job.name(), e);
+        }
+    }
+
+    ScheduledJobRunDTO execute(ScheduledJob job, ScheduledJobTrigger trigger, LocalDateTime slot) {
+        String runKey = job.runKey(slot);
+        if (runKey == null) {
+            return skipped(job, trigger, null, "Rien à traiter");
+        }
+        if (!acquire(job.name())) {
+            return skipped(job, trigger, runKey, "Déjà en cours sur une autre instance");
+        }
+        try {
+            if (runRepository.existsByJobNameAndRunKeyAndStatus(job.name(), runKey, ScheduledJobRunStatus.SUCCEEDED)) {
+                return skipped(job, trigger, runKey, "Déjà exécutée pour " + runKey);
+            }
+            // Verrou détenu : une exécution encore RUNNING a été interrompue
+            runRepository.markInterrupted(job.name(), ScheduledJobRunStatus.RUNNING, ScheduledJobRunStatus.FAILED,
+                    LocalDateTime.now(), "Interrompue (arrêt de l'instance)");
+
+            ScheduledJobRun run = runRepository.save(ScheduledJobRun.builder()
+                    .jobName(job.name())
+                    .runKey(runKey)
+                    .trigger(trigger)
+                    .status(ScheduledJobRunStatus.RUNNING)
+                    .instance(owner)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+
+            ScheduledJobContext context = new ScheduledJobContext(job.name(), slot, itemTransaction, new Lease(job.name()));
+            String error = null;
+            long start = System.nanoTime();
+            try {
+                job.execute(context);
+            } catch (RuntimeException e) {
+                log.error("Tâche {} interrompue par une erreur", job.name(), e);
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+            long durationNanos = System.nanoTime() - start;
+
+            ScheduledJobRunStatus status = error != null ? ScheduledJobRunStatus.FAILED
+                    : context.getFailed() == 0 ? ScheduledJobRunStatus.SUCCEEDED
+                    : context.getProcessed() > 0 ? ScheduledJobRunStatus.PARTIAL
+                    : ScheduledJobRunStatus.FAILED;
+
+            run.setStatus(status);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setDurationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            run.setProcessedCount(context.getProcessed());
+            run.setFailedCount(context.getFailed());
+            run.setMessage(truncate(error != null ? error : context.getLastError()));
+            run = runRepository.save(run);
+
+            record(job.name(), status, durationNanos, context);
+            runRepository.deleteStartedBefore(job.name(), LocalDateTime.now().minusDays(retentionDays));
+
+            log.info("Tâche {} ({}) : {} en {} ms, {} élément(s) traité(s), {} en échec",
+                    job.name(), trigger, status, run.getDurationMs(), context.getProcessed(), context.getFailed());
+            return toDTO(run);
+        } finally {
+            lockRepository.release(job.name(), owner, LocalDateTime.now());
+        }
+    }
+
+    private boolean acquire(String jobName) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+        if (lockRepository.tryAcquire(jobName, owner, now, until) == 1) {
+            return true;
+        }
+        if (lockRepository.existsById(jobName)) {
+            return false;
+        }
+        // Première exécution de la tâche : la ligne est créée déjà verrouillée
+        try {
+            lockRepository.saveAndFlush(ScheduledJobLock.builder()
+                    .jobName(jobName)
+                    .lockedUntil(until)
+                    .lockedBy(owner)
+                    .lockedAt(now)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // créée au même moment par une autre instance
+        }
+    }
+
+    /**
+     * Bail du verrou détenu par une exécution : prolongé dès que la moitié de
+     * sa durée est écoulée, refusé s'il a expiré entre-temps.
+     */
+    private final class Lease implements BooleanSupplier {
+
+        private final String jobName;
+        private LocalDateTime renewedAt = LocalDateTime.now();
+
+        private Lease(String jobName) {
+            this.jobName = jobName;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.isBefore(renewedAt.plus(lease.dividedBy(2)))) {
+                return true;
+            }
+            if (lockRepository.extend(jobName, owner, now, now.plus(lease)) != 1) {
+                log.warn("Tâche {} : verrou expiré ou repris par une autre instance", jobName);
+                return false;
+            }
+            renewedAt = now;
+            return true;
+        }
+    }
+
+    private void record(String jobName, ScheduledJobRunStatus status, long durationNanos, ScheduledJobContext context) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Timer.builder("mutuelle.jobs.duration")
+                .tag("job", jobName)
+                .tag("status", status.name())
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        registry.counter("mutuelle.jobs.items", "job", jobName, "outcome", "processed").increment(context.getProcessed());
+        registry.counter("mutuelle.jobs.items", "job", jobName, "outcome", "failed").increment(context.getFailed());
+    }
+
+    // Dernier créneau cron dans ]from, now], ou null
+    private static LocalDateTime lastSlot(ScheduledJob job, LocalDateTime from, LocalDateTime now) {
+        CronExpression cron = CronExpression.parse(job.cron());
+        LocalDateTime slot = null;
+        for (LocalDateTime next = cron.next(from); next != null && !next.isAfter(now); next = cron.next(next)) {
+            slot = next;
+        }
+        return slot;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MESSAGE_MAX_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MESSAGE_MAX_LENGTH);
+    }
+
+    private static ScheduledJobRunDTO skipped(ScheduledJob job, ScheduledJobTrigger trigger, String runKey, String reason) {
+        log.info("Tâche {} ({}) ignorée : {}", job.name(), trigger, reason);
+        return ScheduledJobRunDTO.builder()
+                .jobName(job.name())
+                .runKey(runKey)
+                .trigger(trigger)
+                .status(ScheduledJobRunStatus.SKIPPED)
+                .message(reason)
+                .build();
+    }
+
+    private static ScheduledJobRunDTO toDTO(ScheduledJobRun run) {
+        return ScheduledJobRunDTO.builder()
+                .jobName(run.getJobName())
+                .runKey(run.getRunKey())
+                .trigger(run.getTrigger())
+                .status(run.getStatus())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .durationMs(run.getDurationMs())
+                .processedCount(run.getProcessedCount())
+                .failedCount(run.getFailedCount())
+                .message(run.getMessage())
+                .build();
+    }
+}
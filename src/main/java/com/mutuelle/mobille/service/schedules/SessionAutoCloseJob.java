@@ -0,0 +1,61 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.models.Session;
+import com.mutuelle.mobille.repository.SessionRepository;
+import com.mutuelle.mobille.service.SessionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clôture les sessions encore en cours {@code max-open-hours} heures après
+ * leur démarrage (tâche {@code session-auto-close}), chacune dans sa propre
+ * transaction : une session dont la clôture échoue (caisse insuffisante)
+ * n'empêche pas la clôture des autres.
+ *
+ * Désactivée par défaut : la clôture d'une session reste une décision de
+ * l'administrateur tant que la règle des 24h n'est pas validée.
+ * Exécutée toutes les heures par défaut
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionAutoCloseJob implements ScheduledJob {
+
+    private final SessionRepository sessionRepository;
+    private final SessionService sessionService;
+
+    @Value("${mutuelle.jobs.session-auto-close.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mutuelle.jobs.session-auto-close.cron:0 0 * * * *}")
+    private String cron;
+
+    @Value("${mutuelle.jobs.session-auto-close.max-open-hours:24}")
+    private long maxOpenHours;
+
+    @Override
+    public String name() {
+        return "session-auto-close";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    @Override
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public void execute(ScheduledJobContext context) {
+        LocalDateTime startedBefore = LocalDateTime.now().minusHours(maxOpenHours);
+        for (Session s : sessionRepository.findInProgressSessionsOlderThan(startedBefore)) {
+            Long id = s.getId();
+            context.inOwnTransaction("session " + id, () -> sessionService.closeSessionIfOpenSince(id, startedBefore));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.service.EmpruntService;
+import com.mutuelle.mobille.service.SessionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Calcul et redistribution des intérêts et pénalités des emprunts en cours
+ * (tâche {@code trimestrial-interests}), au plus une fois par session : la
+ * clé d'exécution est la session en cours, rien n'est fait sans session.
+ *
+ * Désactivée par défaut : la clôture d'une session applique déjà ce calcul,
+ * qui n'est pas idempotent ; l'activer avec la clôture manuelle compterait
+ * les intérêts deux fois sur la même session.
+ * Exécutée tous les jours à 6h00 par défaut
+ */
+@Component
+@RequiredArgsConstructor
+public class TrimestrialInterestJob implements ScheduledJob {
+
+    private final EmpruntService empruntService;
+    private final SessionService sessionService;
+
+    @Value("${mutuelle.jobs.trimestrial-interests.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mutuelle.jobs.trimestrial-interests.cron:0 0 6 * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return "trimestrial-interests";
+    }
+
+    @Override
+    public String cron() {
+        return cron;
+    }
+
+    @Override
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public String runKey(LocalDateTime slot) {
+        return sessionService.findCurrentSession()
+                .map(session -> "session-" + session.getId())
+                .orElse(null);
+    }
+
+    @Override
+    public void execute(ScheduledJobContext context) {
+        context.inOwnTransaction("intérêts des emprunts", empruntService::calculerEtRedistribuerInteretsPenalites);
+    }
+}
@@ -1,11 +1,14 @@
 package com.mutuelle.mobille.utils;
 
+import com.mutuelle.mobille.config.security.TokenRevocationRegistry;
 import com.mutuelle.mobille.models.auth.AuthUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -25,9 +28,24 @@ public class JwtUtils {
     @Value("${jwt.refresh.expiration}")
     private long refreshExpirationMs;
 
+    private final TokenRevocationRegistry revocationRegistry;
+
+    public JwtUtils(TokenRevocationRegistry revocationRegistry) {
+        this.revocationRegistry = revocationRegistry;
+    }
+
+    // Clé et parseur calculés une fois : le secret ne change pas pendant la vie de l'application
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String generateAccessToken(AuthUser user) {
@@ -36,6 +54,7 @@ public class JwtUtils {
                 .claim("userId", user.getId())
                 .claim("type", user.getRole().name())
                 .claim("refId", user.getUserRefId())
+                .claim("ver", revocationRegistry.currentVersion(user.getId()))
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + accessExpirationMs))
                 .signWith(getSigningKey())
@@ -78,10 +97,15 @@ public class JwtUtils {
 
     // --- Parsing et validation ---
     private Jws<Claims> parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
+        return parser.parseSignedClaims(token);
+    }
+
+    /**
+     * Claims d'un token dont la signature et l'expiration ont été vérifiées.
+     * Lève une {@link io.jsonwebtoken.JwtException} si le token est invalide ou expiré.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
     }
 
     public boolean isTokenValid(String token) {
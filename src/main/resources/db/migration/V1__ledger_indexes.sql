@@ -0,0 +1,45 @@
+-- Index composites alignés sur les requêtes de TransactionRepository,
+-- SessionRepository et MemberSessionBilanRepository / MemberExerciceBilanRepository.
+-- Syntaxe commune MySQL / PostgreSQL / H2.
+
+-- ── transactions ─────────────────────────────────────────────────────────────
+
+-- Agrégations session + type + direction (SessionHistory, bilans membres, rollback réouverture)
+CREATE INDEX idx_transactions_session_type_direction
+    ON transactions (session_id, transaction_type, transaction_direction);
+
+-- Filtres par compte membre (bilans, compteurs, historique membre)
+CREATE INDEX idx_transactions_member_session
+    ON transactions (accounts_member_id, session_id);
+
+-- Transactions enfants (redistribution des intérêts)
+CREATE INDEX idx_transactions_parent
+    ON transactions (parent_transaction_id);
+
+-- Sommes par type sur une période
+CREATE INDEX idx_transactions_type_created_at
+    ON transactions (transaction_type, created_at);
+
+-- Filtres par date (liste paginée des transactions)
+CREATE INDEX idx_transactions_created_at
+    ON transactions (created_at);
+
+-- ── sessions ─────────────────────────────────────────────────────────────────
+
+-- Session courante, sessions clôturées depuis une date (pénalités)
+CREATE INDEX idx_sessions_status_start_date
+    ON sessions (status, start_date);
+
+-- Sessions d'un exercice par statut
+CREATE INDEX idx_sessions_exercice_status
+    ON sessions (exercice_id, status);
+
+-- ── bilans ───────────────────────────────────────────────────────────────────
+
+-- Bilans d'une session (l'unicité member_id, session_id couvre déjà la recherche par membre)
+CREATE INDEX idx_member_session_bilans_session
+    ON member_session_bilans (session_id);
+
+-- Bilans d'un exercice
+CREATE INDEX idx_member_exercice_bilans_exercice
+    ON member_exercice_bilans (exercice_id);
@@ -0,0 +1,3 @@
+-- Colonne de verrouillage optimiste de accounts_member (ajoutée par Hibernate, nullable).
+-- Les comptes existants partent de la version 0.
+UPDATE accounts_member SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,14 @@
+-- Index de refresh_tokens alignés sur RefreshTokenRepository.
+-- L'empreinte token_hash a déjà son index unique (créé par Hibernate).
+
+-- Révocation de tous les tokens actifs d'un utilisateur (déconnexion)
+CREATE INDEX idx_refresh_tokens_user_revoked
+    ON refresh_tokens (auth_user_id, revoked);
+
+-- Révocation d'une chaîne de rotation, recherche d'un token actif de la famille (purge)
+CREATE INDEX idx_refresh_tokens_family_revoked
+    ON refresh_tokens (family_id, revoked);
+
+-- Purge des tokens expirés
+CREATE INDEX idx_refresh_tokens_expiry_date
+    ON refresh_tokens (expiry_date);
@@ -0,0 +1,5 @@
+-- Index de ledger_counters aligné sur LedgerCounterRepository.
+
+-- Lecture d'un compteur (portée, identifiant, type) et regroupement de ses lignes
+CREATE INDEX idx_ledger_counters_key
+    ON ledger_counters (scope, scope_id, transaction_type);
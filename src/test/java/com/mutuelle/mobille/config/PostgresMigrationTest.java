@@ -0,0 +1,161 @@
+package com.mutuelle.mobille.config;
+
+import com.mutuelle.mobille.enums.Role;
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.repository.AuthUserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrations propres à PostgreSQL (db/vendor/postgresql), que H2 ne sait pas
+ * exécuter, appliquées comme en production : schéma créé d'abord par
+ * Hibernate, puis baseline et migrations Flyway.
+ *
+ * Nécessite une base PostgreSQL jetable :
+ * {@code MUTUELLE_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/test?user=...&password=...}.
+ * Chaque exécution travaille dans un schéma dédié, supprimé à la fin.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = PostgresMigrationTest.URL_VARIABLE, matches = ".+")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PostgresMigrationTest {
+
+    static final String URL_VARIABLE = "MUTUELLE_TEST_POSTGRES_URL";
+
+    private static final String SCHEMA = "migration_test_" + System.currentTimeMillis();
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import(FlywayConfig.class)
+    static class Config {
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv(URL_VARIABLE));
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> SCHEMA);
+    }
+
+    @AfterAll
+    static void dropSchema() throws Exception {
+        try (Connection connection = DriverManager.getConnection(System.getenv(URL_VARIABLE));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Autowired private DataSource dataSource;
+    @Autowired private Flyway flyway;
+    @Autowired private AuthUserRepository authUserRepository;
+
+    @Test
+    void migrationsApplyToASchemaCreatedByHibernate() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        List<String> versions = jdbc.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        // V5 et V7 peuvent avoir été rejouées par les tests de reprise
+        assertThat(versions).containsExactlyInAnyOrder("0", "1", "2", "3", "4", "5", "6", "7");
+        assertThat(hasTokenColumn(jdbc)).isFalse();
+        assertThat(hasOutboxDueIndex(jdbc)).isTrue();
+    }
+
+    @Test
+    void outboxIndexMigrationToleratesAnExistingIndex() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        // Base où Hibernate a déjà créé l'index (ancienne déclaration sur l'entité)
+        jdbc.update("DELETE FROM flyway_schema_history WHERE version = '7'");
+        assertThat(hasOutboxDueIndex(jdbc)).isTrue();
+
+        Flyway.configure().configuration(flyway.getConfiguration()).outOfOrder(true).load().migrate();
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM flyway_schema_history WHERE version = '7' AND success",
+                Integer.class)).isEqualTo(1);
+        assertThat(hasOutboxDueIndex(jdbc)).isTrue();
+    }
+
+    @Test
+    void refreshTokenHashBackfillsAndDropsALegacyTokenColumn() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        AuthUser user = authUserRepository.save(new AuthUser(null, SCHEMA + "@mutuelle.cm", "hash", Role.MEMBER, "2025", 1L));
+
+        // Table telle qu'avant V5 : valeur en clair, ni empreinte ni famille
+        jdbc.execute("ALTER TABLE refresh_tokens ADD COLUMN token VARCHAR(255)");
+        jdbc.update("INSERT INTO refresh_tokens (token, auth_user_id, expiry_date, revoked) VALUES (?, ?, ?, false)",
+                "jeton-historique", user.getId(), Timestamp.from(Instant.now().plusSeconds(3_600)));
+        jdbc.update("DELETE FROM flyway_schema_history WHERE version = '5'");
+
+        Flyway.configure().configuration(flyway.getConfiguration()).outOfOrder(true).load().migrate();
+
+        Map<String, Object> row = jdbc.queryForMap("SELECT id, token_hash, family_id FROM refresh_tokens");
+        assertThat(row.get("token_hash")).isEqualTo(sha256("jeton-historique"));
+        assertThat(row.get("family_id")).isEqualTo("legacy-" + row.get("id"));
+        assertThat(hasTokenColumn(jdbc)).isFalse();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static boolean hasTokenColumn(JdbcTemplate jdbc) {
+        Integer count = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'refresh_tokens' AND column_name = 'token'
+                """, Integer.class);
+        return count != null && count > 0;
+    }
+
+    private static boolean hasOutboxDueIndex(JdbcTemplate jdbc) {
+        Integer count = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM pg_indexes
+                WHERE schemaname = current_schema() AND tablename = 'notification_outbox'
+                  AND indexname = 'idx_notification_outbox_due'
+                """, Integer.class);
+        return count != null && count > 0;
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.mutuelle.mobille.config.security;
+
+import com.mutuelle.mobille.enums.Role;
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.utils.JwtUtils;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Authentification par token : un token déjà validé est servi depuis le
+ * cache sans parsing ni lecture du compte, jusqu'à son expiration ou à
+ * l'éviction de son utilisateur. En mode claims seuls, le principal vient
+ * du token et la révocation passe par la version de l'utilisateur.
+ */
+class JwtAuthFilterTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthFilterTest.class);
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+    private static final long AUTH_ID = 5L;
+
+    private UserDetailsService userDetailsService;
+    private AuthUser authUser;
+    private JwtAuthenticationCache cache;
+    private TokenRevocationRegistry revocations;
+
+    @BeforeEach
+    void setUp() {
+        authUser = new AuthUser(AUTH_ID, "membre@mutuelle.cm", "hash", Role.MEMBER, "2025", 42L);
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(authUser.getEmail()))
+                .thenAnswer(inv -> new CustomUserDetails(authUser));
+        cache = new JwtAuthenticationCache(100);
+        revocations = new TokenRevocationRegistry(cache);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validatedTokenIsServedFromCache() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        JwtAuthFilter filter = filter(jwtUtils, cache, false);
+        String token = jwtUtils.generateAccessToken(authUser);
+
+        for (int i = 0; i < 3; i++) {
+            Authentication auth = authenticate(filter, token);
+            assertThat(auth).isNotNull();
+            assertThat(auth.getPrincipal()).isInstanceOf(CustomUserDetails.class);
+            assertThat(((CustomUserDetails) auth.getPrincipal()).getUserRefId()).isEqualTo(42L);
+            assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_MEMBER");
+        }
+        verify(userDetailsService, times(1)).loadUserByUsername(authUser.getEmail());
+    }
+
+    @Test
+    void evictedUserIsReloaded() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        JwtAuthFilter filter = filter(jwtUtils, cache, false);
+        String token = jwtUtils.generateAccessToken(authUser);
+
+        authenticate(filter, token);
+        authUser.setPin("9999");
+        cache.evictUser(AUTH_ID);
+        Authentication auth = authenticate(filter, token);
+
+        assertThat(((CustomUserDetails) auth.getPrincipal()).getAuthUser().getPin()).isEqualTo("9999");
+        verify(userDetailsService, times(2)).loadUserByUsername(authUser.getEmail());
+    }
+
+    @Test
+    void expiredOrTamperedTokenIsRejected() throws Exception {
+        JwtUtils expiring = jwtUtils(-1_000);
+        JwtAuthFilter filter = filter(expiring, cache, false);
+
+        assertThat(authenticate(filter, expiring.generateAccessToken(authUser))).isNull();
+
+        String token = jwtUtils(60_000).generateAccessToken(authUser);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThat(authenticate(filter, tampered)).isNull();
+
+        assertThat(cache.size()).isZero();
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void cachedFilterThroughput() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(600_000);
+        String token = jwtUtils.generateAccessToken(authUser);
+        int requests = 20_000;
+
+        // Sans cache : un parsing et une lecture du compte par requête
+        JwtAuthFilter uncached = filter(jwtUtils, new JwtAuthenticationCache(0), false);
+        JwtAuthFilter cached = filter(jwtUtils, cache, false);
+        run(uncached, token, 2_000);
+        run(cached, token, 2_000);
+        clearInvocations(userDetailsService);
+
+        long uncachedNs = run(uncached, token, requests);
+        verify(userDetailsService, times(requests)).loadUserByUsername(authUser.getEmail());
+        clearInvocations(userDetailsService);
+        long cachedNs = run(cached, token, requests);
+        verify(userDetailsService, never()).loadUserByUsername(authUser.getEmail());
+
+        log.info("JwtAuthFilter : {} req/s sans cache, {} req/s avec cache (lecture du compte simulée sans coût)",
+                requests * 1_000_000_000L / uncachedNs, requests * 1_000_000_000L / cachedNs);
+    }
+
+    @Test
+    void claimsOnlyModeNeverLoadsTheAccount() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        JwtAuthFilter filter = filter(jwtUtils, new JwtAuthenticationCache(0), true);
+
+        Authentication auth = authenticate(filter, jwtUtils.generateAccessToken(authUser));
+
+        CustomUserDetails principal = (CustomUserDetails) auth.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(AUTH_ID);
+        assertThat(principal.getEmail()).isEqualTo("membre@mutuelle.cm");
+        assertThat(principal.getRole()).isEqualTo(Role.MEMBER);
+        assertThat(principal.getUserRefId()).isEqualTo(42L);
+        assertThat(principal.getPassword()).isNull();
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_MEMBER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void claimsOnlyModeRejectsRevokedTokens() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        JwtAuthFilter filter = filter(jwtUtils, cache, true);
+        String before = jwtUtils.generateAccessToken(authUser);
+        assertThat(authenticate(filter, before)).isNotNull();
+
+        // Déconnexion : le token en cache comme tout token émis avant est refusé
+        revocations.revoke(AUTH_ID);
+        assertThat(authenticate(filter, before)).isNull();
+
+        String after = jwtUtils.generateAccessToken(authUser);
+        assertThat(authenticate(filter, after)).isNotNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private JwtAuthFilter filter(JwtUtils jwtUtils, JwtAuthenticationCache authenticationCache, boolean claimsOnly) {
+        return new JwtAuthFilter(jwtUtils, userDetailsService, authenticationCache, revocations, claimsOnly);
+    }
+
+    private JwtUtils jwtUtils(long accessExpirationMs) {
+        JwtUtils jwtUtils = new JwtUtils(revocations);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "accessExpirationMs", accessExpirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpirationMs", 600_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    private static Authentication authenticate(JwtAuthFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        FilterChain chain = (req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return seen.get();
+    }
+
+    private static long run(JwtAuthFilter filter, String token, int requests) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            assertThat(authenticate(filter, token)).isNotNull();
+        }
+        return System.nanoTime() - start;
+    }
+}
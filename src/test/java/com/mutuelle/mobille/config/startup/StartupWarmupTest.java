@@ -0,0 +1,66 @@
+package com.mutuelle.mobille.config.startup;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.service.BilanPdfService;
+import com.mutuelle.mobille.service.notifications.mail.EmailTemplateRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Préchauffage : une requête par entité, puis sonde de disponibilité à UP.
+ * Sans serveur web, les routes publiques ne sont pas appelées.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StartupWarmupTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import(FlywayConfig.class)
+    static class Config {
+    }
+
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private Environment environment;
+
+    @Test
+    void readinessIsReportedOnlyOnceWarmupHasRun() {
+        // Instance hors contexte : celle du contexte est préchauffée dès l'ApplicationReadyEvent
+        StaticListableBeanFactory none = new StaticListableBeanFactory();
+        StartupWarmup warmup = new StartupWarmup(emf, none.getBeanProvider(EmailTemplateRenderer.class),
+                none.getBeanProvider(BilanPdfService.class), none.getBeanProvider(MeterRegistry.class), environment);
+        WarmupHealthIndicator healthIndicator = new WarmupHealthIndicator(warmup);
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmup.warmUp();
+
+        assertThat(warmup.isComplete()).isTrue();
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(stats.getQueryExecutionCount()).isEqualTo(emf.getMetamodel().getEntities().size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.mutuelle.mobille.repository;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie via EXPLAIN (H2) que les requêtes chaudes du grand livre utilisent
+ * les index créés par la migration V1 plutôt qu'un parcours complet de table.
+ *
+ * H2 indexe chaque clé étrangère, PostgreSQL non : le schéma de test est créé
+ * sans contraintes de clé étrangère pour que seuls les index V1 soient candidats.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT"
+})
+class LedgerIndexExplainTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import(FlywayConfig.class)
+    static class Config {
+    }
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void sessionMemberAggregationUsesSessionTypeDirectionIndex() {
+        String plan = explain("""
+                SELECT accounts_member_id, transaction_type, transaction_direction, SUM(amount)
+                FROM transactions
+                WHERE session_id = 1 AND accounts_member_id IS NOT NULL
+                GROUP BY accounts_member_id, transaction_type, transaction_direction
+                """);
+        assertUsesIndex(plan, "IDX_TRANSACTIONS_SESSION_TYPE_DIRECTION");
+    }
+
+    @Test
+    void sessionTypeDirectionSumUsesCompositeIndex() {
+        String plan = explain("""
+                SELECT COALESCE(SUM(amount), 0) FROM transactions
+                WHERE session_id = 1 AND transaction_type = 2 AND transaction_direction = 0
+                """);
+        assertUsesIndex(plan, "IDX_TRANSACTIONS_SESSION_TYPE_DIRECTION");
+    }
+
+    @Test
+    void typeAndPeriodSumUsesTypeCreatedAtIndex() {
+        String plan = explain("""
+                SELECT COALESCE(SUM(amount), 0) FROM transactions
+                WHERE transaction_type = 9
+                  AND created_at >= TIMESTAMP '2025-01-01 00:00:00'
+                  AND created_at <= TIMESTAMP '2025-12-31 00:00:00'
+                """);
+        assertUsesIndex(plan, "IDX_TRANSACTIONS_TYPE_CREATED_AT");
+    }
+
+    @Test
+    void childTransactionsLookupUsesParentIndex() {
+        String plan = explain("SELECT id FROM transactions WHERE parent_transaction_id = 1");
+        assertUsesIndex(plan, "IDX_TRANSACTIONS_PARENT");
+    }
+
+    @Test
+    void completedSessionsCountUsesStatusStartDateIndex() {
+        String plan = explain("""
+                SELECT COUNT(*) FROM sessions
+                WHERE status = 'COMPLETED' AND start_date > TIMESTAMP '2025-01-01 00:00:00'
+                """);
+        assertUsesIndex(plan, "IDX_SESSIONS_STATUS_START_DATE");
+    }
+
+    @Test
+    void exerciceSessionsByStatusUsesExerciceStatusIndex() {
+        String plan = explain("SELECT id FROM sessions WHERE exercice_id = 1 AND status = 'PLANNED'");
+        assertUsesIndex(plan, "IDX_SESSIONS_EXERCICE_STATUS");
+    }
+
+    @Test
+    void sessionBilansLookupUsesSessionIndex() {
+        String plan = explain("SELECT member_id FROM member_session_bilans WHERE session_id = 1");
+        assertUsesIndex(plan, "IDX_MEMBER_SESSION_BILANS_SESSION");
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertThat(plan)
+                .doesNotContainIgnoringCase("tableScan")
+                .containsIgnoringCase(indexName);
+    }
+}
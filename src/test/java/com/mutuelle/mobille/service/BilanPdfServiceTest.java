@@ -0,0 +1,277 @@
+package com.mutuelle.mobille.service;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.dto.bilan.MemberExerciceBilanDTO;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.models.bilan.MemberExerciceBilan;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Synthèse PDF de tous les membres écrite au fil de la lecture : les bilans
+ * sont lus par pages (une requête par page, sans requête par membre) et le
+ * contexte de persistance, partagé ici comme avec l'open-in-view, ne garde
+ * pas les pages déjà écrites. Même lecture pour l'archive ZIP des bilans
+ * individuels, rendus en parallèle et abandonnés si l'écriture échoue.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BilanPdfServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({BilanService.class, BilanPdfService.class, BilanZipExportService.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BilanPdfServiceTest.class);
+    private static final int MEMBERS = 1_000;
+    private static final int PAGE_SIZE = 200;
+
+    @Autowired private TestEntityManager em;
+    @SpyBean private BilanPdfService bilanPdfService;
+    @Autowired private BilanZipExportService bilanZipExportService;
+    @Autowired private BilanService bilanService;
+    @Autowired private EntityManagerFactory emf;
+
+    private Exercice exercice;
+
+    @BeforeEach
+    void generateBilans() {
+        exercice = new Exercice();
+        exercice.setName("Exercice 2025");
+        exercice.setStatus(StatusExercice.COMPLETED);
+        exercice.setStartDate(LocalDateTime.now().minusMonths(12));
+        em.persist(exercice);
+
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = persistMember(i);
+            em.persist(MemberExerciceBilan.builder()
+                    .member(member)
+                    .exercice(exercice)
+                    .totalSolidaritePaid(BigDecimal.valueOf(1_000 + i))
+                    .totalEpargneDeposited(BigDecimal.valueOf(50_000))
+                    .build());
+            if (i % 100 == 99) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        exercice = em.find(Exercice.class, exercice.getId());
+    }
+
+    @Test
+    void exerciceSummaryIsWrittenPageByPage() throws Exception {
+        Session session = em.getEntityManager().unwrap(Session.class);
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        int[] maxManagedEntities = new int[1];
+        long[] maxUsedHeap = new long[1];
+        Runtime runtime = Runtime.getRuntime();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                pdf.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                pdf.write(b, off, len);
+                maxManagedEntities[0] = Math.max(maxManagedEntities[0], session.getStatistics().getEntityCount());
+                maxUsedHeap[0] = Math.max(maxUsedHeap[0], runtime.totalMemory() - runtime.freeMemory());
+            }
+        };
+
+        long start = System.nanoTime();
+        bilanPdfService.writeAllMembersExercicePdf(exercice.getId(), out);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long queries = stats.getPrepareStatementCount();
+
+        log.info("Synthèse exercice : {} membres, {} octets en {} ms, {} requête(s), "
+                        + "au plus {} entité(s) gérée(s), tas utilisé au plus {} Mo",
+                MEMBERS, pdf.size(), elapsedMs, queries, maxManagedEntities[0], maxUsedHeap[0] / (1024 * 1024));
+
+        // Une requête par page de 200, plus celle qui constate la fin
+        assertThat(queries).isEqualTo(MEMBERS / PAGE_SIZE + 1);
+        // L'exercice reste géré ; bilans et membres des pages écrites sont détachés
+        assertThat(maxManagedEntities[0]).isLessThanOrEqualTo(1);
+
+        PdfReader reader = new PdfReader(pdf.toByteArray());
+        try {
+            assertThat(reader.getNumberOfPages()).isGreaterThan(1);
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            assertThat(extractor.getTextFromPage(1)).contains("EXERCICE : Exercice 2025").contains("Nom0 Prenom0");
+            assertThat(extractor.getTextFromPage(reader.getNumberOfPages())).contains("Nom" + (MEMBERS - 1));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void byteArrayExportMatchesStreamedRows() throws Exception {
+        byte[] pdf = bilanPdfService.generateAllMembersExercicePdf(exercice.getId());
+
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(extractor.getTextFromPage(page)).append('\n');
+            }
+            // Membres présents avec leur solidarité, en-tête du tableau répété sur chaque page
+            for (int i = 0; i < MEMBERS; i += 97) {
+                assertThat(text).contains("Nom" + i + " Prenom" + i + String.format("%,.0f", BigDecimal.valueOf(1_000 + i)));
+            }
+            assertThat(text.toString().split("Membre Solidarité", -1)).hasSize(reader.getNumberOfPages() + 1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void emptyExerciceFailsBeforeWriting() {
+        Exercice empty = new Exercice();
+        empty.setName("Exercice vide");
+        empty.setStatus(StatusExercice.IN_PROGRESS);
+        empty.setStartDate(LocalDateTime.now());
+        em.persist(empty);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> bilanPdfService.writeAllMembersExercicePdf(empty.getId(), out))
+                .hasMessage("Aucun bilan disponible pour cet exercice");
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void exerciceZipHoldsOnePdfPerMemberInOrder() throws Exception {
+        // Référence : rendu séquentiel des mêmes bilans
+        long start = System.nanoTime();
+        for (var dto : bilanService.getAllMemberBilansByExercice(exercice.getId())) {
+            bilanPdfService.buildMemberExercicePdf(dto);
+        }
+        long sequentialMs = (System.nanoTime() - start) / 1_000_000;
+        em.clear();
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        start = System.nanoTime();
+        bilanZipExportService.writeMemberExerciceBilansZip(exercice.getId(), zip);
+        long zipMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Archive exercice : {} bilans, {} octets en {} ms ({} ms en rendu séquentiel, {} processeur(s))",
+                MEMBERS, zip.size(), zipMs, sequentialMs, Runtime.getRuntime().availableProcessors());
+
+        int entries = 0;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            for (ZipEntry entry; (entry = in.getNextEntry()) != null; entries++) {
+                assertThat(entry.getName()).startsWith("bilan-").endsWith("-Nom" + entries + "-Prenom" + entries + ".pdf");
+                byte[] pdf = in.readAllBytes();
+                if (entries % 250 == 0) {
+                    PdfReader reader = new PdfReader(pdf);
+                    try {
+                        assertThat(new PdfTextExtractor(reader).getTextFromPage(1))
+                                .contains("Nom" + entries).contains("Exercice 2025");
+                    } finally {
+                        reader.close();
+                    }
+                } else {
+                    assertThat(new String(pdf, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+                }
+            }
+        }
+        assertThat(entries).isEqualTo(MEMBERS);
+    }
+
+    @Test
+    void interruptedZipAbandonsPendingRenders() {
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Client déconnecté");
+            }
+        };
+
+        assertThatThrownBy(() -> bilanZipExportService.writeMemberExerciceBilansZip(exercice.getId(), disconnected))
+                .hasMessage("Client déconnecté");
+        assertThat(bilanZipExportService.awaitRenderingIdle(10_000)).isTrue();
+
+        // La page suivante (membres 100 à 199) était déjà lancée : elle n'est pas rendue jusqu'au bout
+        List<String> rendered = mockingDetails(bilanPdfService).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("buildMemberExercicePdf"))
+                .map(invocation -> invocation.<MemberExerciceBilanDTO>getArgument(0).getMemberLastname())
+                .toList();
+        assertThat(rendered.stream().filter(name -> Integer.parseInt(name.substring("Nom".length())) >= 100))
+                .hasSizeLessThan(100);
+    }
+
+    @Test
+    void emptyExerciceZipFailsBeforeWriting() {
+        Exercice empty = new Exercice();
+        empty.setName("Exercice vide");
+        empty.setStatus(StatusExercice.IN_PROGRESS);
+        empty.setStartDate(LocalDateTime.now());
+        em.persist(empty);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> bilanZipExportService.writeMemberExerciceBilansZip(empty.getId(), out))
+                .hasMessage("Aucun bilan disponible pour cet exercice");
+        assertThat(out.size()).isZero();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private Member persistMember(int i) {
+        Member m = new Member();
+        m.setFirstname("Prenom" + i);
+        m.setLastname("Nom" + i);
+        m.setPhone("69" + String.format("%07d", i));
+
+        AccountMember account = new AccountMember();
+        account.setMember(m);
+        account.setSavingAmount(BigDecimal.ZERO);
+        m.setAccountMember(account);
+
+        return em.persist(m);
+    }
+}
@@ -0,0 +1,225 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.enums.TransactionDirection;
+import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.Session;
+import com.mutuelle.mobille.models.Transaction;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.models.bilan.MemberExerciceBilan;
+import com.mutuelle.mobille.models.bilan.MemberSessionBilan;
+import com.mutuelle.mobille.repository.MemberExerciceBilanRepository;
+import com.mutuelle.mobille.repository.MemberSessionBilanRepository;
+import com.mutuelle.mobille.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare les bilans produits par l'agrégation groupée avec les sommes
+ * calculées membre par membre (ancienne méthode : une requête SUM par
+ * membre / type / direction) sur un jeu de données généré.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class BilanServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({BilanService.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionDirection[] DIRECTIONS = TransactionDirection.values();
+
+    @Autowired private TestEntityManager em;
+    @Autowired private BilanService bilanService;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MemberSessionBilanRepository memberSessionBilanRepository;
+    @Autowired private MemberExerciceBilanRepository memberExerciceBilanRepository;
+
+    private final Random random = new Random(42);
+
+    private Exercice exercice;
+    private List<Session> sessions;
+    private List<Member> members;
+
+    @BeforeEach
+    void generateLedger() {
+        exercice = persistExercice("Exercice courant");
+        Exercice other = persistExercice("Autre exercice");
+
+        sessions = List.of(
+                persistSession("S1", exercice),
+                persistSession("S2", exercice),
+                persistSession("S3", exercice));
+        Session otherSession = persistSession("S-autre", other);
+
+        members = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            members.add(persistMember(i));
+        }
+
+        List<Session> allSessions = new ArrayList<>(sessions);
+        allSessions.add(otherSession);
+
+        for (int i = 0; i < 1500; i++) {
+            Session session = allSessions.get(random.nextInt(allSessions.size()));
+            // ~10 % des transactions sont globales (sans compte membre)
+            AccountMember account = random.nextInt(10) == 0
+                    ? null
+                    : members.get(random.nextInt(members.size())).getAccountMember();
+
+            Transaction tx = new Transaction();
+            tx.setSession(session);
+            tx.setAccountMember(account);
+            tx.setTransactionType(TYPES[random.nextInt(TYPES.length)]);
+            tx.setTransactionDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            tx.setAmount(BigDecimal.valueOf(random.nextInt(100_000), 2));
+            em.persist(tx);
+        }
+        em.flush();
+    }
+
+    @Test
+    void sessionBilansMatchPerMemberSums() {
+        Session session = sessions.get(1);
+        List<AccountMember> accounts = members.stream().map(Member::getAccountMember).toList();
+
+        bilanService.createMemberSessionBilans(session, accounts);
+        em.flush();
+
+        Map<Long, MemberSessionBilan> bilans = memberSessionBilanRepository.findBySessionId(session.getId()).stream()
+                .collect(Collectors.toMap(b -> b.getMember().getId(), Function.identity()));
+        assertThat(bilans).hasSize(members.size());
+
+        for (Member member : members) {
+            Long sid = session.getId();
+            Long aid = member.getAccountMember().getId();
+            MemberSessionBilan b = bilans.get(member.getId());
+
+            assertSame(b.getSolidaritePaid(),      legacySession(sid, aid, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT));
+            assertSame(b.getEpargneDeposited(),    legacySession(sid, aid, TransactionType.EPARGNE,        TransactionDirection.CREDIT));
+            assertSame(b.getEpargneWithdrawn(),    legacySession(sid, aid, TransactionType.EPARGNE,        TransactionDirection.DEBIT));
+            assertSame(b.getRegistrationPaid(),    legacySession(sid, aid, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT));
+            assertSame(b.getRenfoulementPaid(),    legacySession(sid, aid, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT));
+            assertSame(b.getRemboursementAmount(), legacySession(sid, aid, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT));
+            assertSame(b.getEmpruntAmount(),       legacySession(sid, aid, TransactionType.EMPRUNT,        TransactionDirection.DEBIT));
+            assertSame(b.getInteretAmount(),       legacySession(sid, aid, TransactionType.INTERET,        TransactionDirection.DEBIT));
+            assertSame(b.getAssistanceReceived(),  legacySession(sid, aid, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT));
+        }
+    }
+
+    @Test
+    void exerciceBilansMatchPerMemberSums() {
+        BigDecimal renfoulementUnitaire = new BigDecimal("1250.00");
+
+        bilanService.createMemberExerciceBilans(exercice, members, sessions, renfoulementUnitaire);
+        em.flush();
+
+        Map<Long, MemberExerciceBilan> bilans = memberExerciceBilanRepository.findByExerciceId(exercice.getId()).stream()
+                .collect(Collectors.toMap(b -> b.getMember().getId(), Function.identity()));
+        assertThat(bilans).hasSize(members.size());
+
+        for (Member member : members) {
+            Long eid = exercice.getId();
+            AccountMember compte = member.getAccountMember();
+            Long aid = compte.getId();
+            MemberExerciceBilan b = bilans.get(member.getId());
+
+            assertSame(b.getTotalSolidaritePaid(),      legacyExercice(eid, aid, TransactionType.SOLIDARITE,     TransactionDirection.CREDIT));
+            assertSame(b.getTotalEpargneDeposited(),    legacyExercice(eid, aid, TransactionType.EPARGNE,        TransactionDirection.CREDIT));
+            assertSame(b.getTotalEpargneWithdrawn(),    legacyExercice(eid, aid, TransactionType.EPARGNE,        TransactionDirection.DEBIT));
+            assertSame(b.getTotalRegistrationPaid(),    legacyExercice(eid, aid, TransactionType.INSCRIPTION,    TransactionDirection.CREDIT));
+            assertSame(b.getTotalRenfoulementPaid(),    legacyExercice(eid, aid, TransactionType.RENFOULEMENT,   TransactionDirection.CREDIT));
+            assertSame(b.getTotalRemboursementAmount(), legacyExercice(eid, aid, TransactionType.REMBOURSSEMENT, TransactionDirection.CREDIT));
+            assertSame(b.getTotalEmpruntAmount(),       legacyExercice(eid, aid, TransactionType.EMPRUNT,        TransactionDirection.DEBIT));
+            assertSame(b.getTotalInteretAmount(),       legacyExercice(eid, aid, TransactionType.INTERET,        TransactionDirection.DEBIT));
+            assertSame(b.getTotalAssistanceReceived(),  legacyExercice(eid, aid, TransactionType.ASSISTANCE,     TransactionDirection.DEBIT));
+
+            assertThat(b.getSessionsCount()).isEqualTo(sessions.size());
+            assertSame(b.getRenfoulementDistributed(), renfoulementUnitaire);
+            assertSame(b.getSnapshotSavingAmount(), compte.getSavingAmount());
+        }
+    }
+
+    @Test
+    void existingBilansAreNotRebuilt() {
+        bilanService.createMemberExerciceBilans(exercice, members, sessions, BigDecimal.ZERO);
+        em.flush();
+        bilanService.createMemberExerciceBilans(exercice, members, sessions, BigDecimal.ZERO);
+        em.flush();
+
+        assertThat(memberExerciceBilanRepository.findByExerciceId(exercice.getId())).hasSize(members.size());
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private BigDecimal legacySession(Long sessionId, Long accountMemberId, TransactionType type, TransactionDirection direction) {
+        return transactionRepository.sumBySessionAndAccountMemberAndTypeAndDirection(sessionId, accountMemberId, type, direction);
+    }
+
+    private BigDecimal legacyExercice(Long exerciceId, Long accountMemberId, TransactionType type, TransactionDirection direction) {
+        return transactionRepository.sumByExerciceAndAccountMemberAndTypeAndDirection(exerciceId, accountMemberId, type, direction);
+    }
+
+    private static void assertSame(BigDecimal actual, BigDecimal expected) {
+        assertThat(actual).isEqualByComparingTo(expected);
+    }
+
+    private Exercice persistExercice(String name) {
+        Exercice ex = new Exercice();
+        ex.setName(name);
+        ex.setStatus(StatusExercice.IN_PROGRESS);
+        ex.setStartDate(LocalDateTime.now().minusMonths(6));
+        return em.persist(ex);
+    }
+
+    private Session persistSession(String name, Exercice ex) {
+        Session s = new Session();
+        s.setName(name);
+        s.setExercice(ex);
+        s.setStatus(StatusSession.COMPLETED);
+        s.setStartDate(LocalDateTime.now().minusMonths(1));
+        return em.persist(s);
+    }
+
+    private Member persistMember(int i) {
+        Member m = new Member();
+        m.setFirstname("Prenom" + i);
+        m.setLastname("Nom" + i);
+        m.setPhone("6900000" + String.format("%02d", i));
+
+        AccountMember account = new AccountMember();
+        account.setMember(m);
+        account.setSavingAmount(BigDecimal.valueOf(random.nextInt(500_000), 2));
+        m.setAccountMember(account);
+
+        return em.persist(m);
+    }
+}
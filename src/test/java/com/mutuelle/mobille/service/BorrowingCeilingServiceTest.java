@@ -0,0 +1,168 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.config.startup.StartupDataConfig;
+import com.mutuelle.mobille.models.BorrowingCeilingInterval;
+import com.mutuelle.mobille.repository.BorrowingCeilingIntervalRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare la table des plafonds en mémoire avec l'ancien calcul (lecture des
+ * intervalles en base puis parcours linéaire) : mêmes résultats, et
+ * micro-benchmark du nombre de requêtes et du temps par appel.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowingCeilingServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({BorrowingCeilingService.class, FlywayConfig.class, StartupDataConfig.class})
+    static class Config {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowingCeilingServiceTest.class);
+    private static final int CALLS = 2_000;
+
+    @Autowired private BorrowingCeilingService borrowingCeilingService;
+    @Autowired private BorrowingCeilingIntervalRepository repository;
+    @Autowired private EntityManagerFactory emf;
+
+    @Test
+    void tableMatchesLinearScan() {
+        List<BorrowingCeilingInterval> intervals = repository.findAllByOrderByMinEpargneAsc();
+        List<BigDecimal> epargnes = epargnes(10_000);
+
+        List<BigDecimal> plafonds = borrowingCeilingService.calculerPlafonds(epargnes);
+
+        assertThat(plafonds).hasSameSizeAs(epargnes);
+        for (int i = 0; i < epargnes.size(); i++) {
+            BigDecimal expected = legacyPlafond(epargnes.get(i), intervals);
+            assertThat(plafonds.get(i)).isEqualByComparingTo(expected);
+            assertThat(borrowingCeilingService.calculerPlafond(epargnes.get(i))).isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void boundsAndGaps() {
+        assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("500000"))).isEqualByComparingTo("2000000");
+        assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("500001"))).isEqualByComparingTo("2000004");
+        // Entre 500 000 et 500 001 : aucun intervalle, comme l'ancien calcul
+        assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("500000.50"))).isEqualByComparingTo("0");
+        assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("-1"))).isEqualByComparingTo("0");
+        assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("3000000"))).isEqualByComparingTo("4500000");
+    }
+
+    @Test
+    void replaceIntervalsRebuildsTableAfterCommit() {
+        List<BorrowingCeilingInterval> defaults = repository.findAllByOrderByMinEpargneAsc();
+        try {
+            borrowingCeilingService.replaceIntervals(List.of(BorrowingCeilingInterval.builder()
+                    .minEpargne(BigDecimal.ZERO)
+                    .multiplier(BigDecimal.TEN)
+                    .build()));
+
+            assertThat(borrowingCeilingService.getAllIntervalsOrdered()).hasSize(1);
+            assertThat(borrowingCeilingService.calculerPlafond(new BigDecimal("3000000")))
+                    .isEqualByComparingTo("30000000");
+        } finally {
+            borrowingCeilingService.replaceIntervals(defaults.stream().map(BorrowingCeilingServiceTest::copy).toList());
+        }
+        assertThat(borrowingCeilingService.getAllIntervalsOrdered()).hasSize(defaults.size());
+    }
+
+    @Test
+    void benchmarkLegacyVersusTable() {
+        List<BigDecimal> epargnes = epargnes(CALLS);
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        long start = System.nanoTime();
+        List<BigDecimal> legacy = new ArrayList<>(CALLS);
+        for (BigDecimal epargne : epargnes) {
+            legacy.add(legacyPlafond(epargne, repository.findAllByOrderByMinEpargneAsc()));
+        }
+        long legacyNanos = System.nanoTime() - start;
+        long legacyStatements = stats.getPrepareStatementCount();
+
+        stats.clear();
+        start = System.nanoTime();
+        List<BigDecimal> table = new ArrayList<>(CALLS);
+        for (BigDecimal epargne : epargnes) {
+            table.add(borrowingCeilingService.calculerPlafond(epargne));
+        }
+        long tableNanos = System.nanoTime() - start;
+        long tableStatements = stats.getPrepareStatementCount();
+
+        log.info("Plafonds ({} appels) : ancien {} µs/appel, {} requête(s) ; table {} µs/appel, {} requête(s)",
+                CALLS,
+                String.format("%.2f", legacyNanos / 1_000.0 / CALLS), legacyStatements,
+                String.format("%.3f", tableNanos / 1_000.0 / CALLS), tableStatements);
+
+        assertThat(legacyStatements).isEqualTo(CALLS);
+        assertThat(tableStatements).isZero();
+        for (int i = 0; i < CALLS; i++) {
+            assertThat(table.get(i)).isEqualByComparingTo(legacy.get(i));
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /** Ancien calcul de {@code BorrowingCeilingService.calculerPlafond}. */
+    private static BigDecimal legacyPlafond(BigDecimal epargne, List<BorrowingCeilingInterval> intervals) {
+        for (BorrowingCeilingInterval interval : intervals) {
+            if (epargne.compareTo(interval.getMinEpargne()) >= 0 &&
+                    (interval.getMaxEpargne() == null || epargne.compareTo(interval.getMaxEpargne()) <= 0)) {
+                BigDecimal plafond = epargne.multiply(interval.getMultiplier());
+                if (interval.getMaxPlafond() != null) {
+                    plafond = plafond.min(interval.getMaxPlafond());
+                }
+                return plafond;
+            }
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static List<BigDecimal> epargnes(int count) {
+        Random random = new Random(42);
+        List<BigDecimal> epargnes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            epargnes.add(BigDecimal.valueOf(random.nextInt(300_000_000), 2));
+        }
+        return epargnes;
+    }
+
+    private static BorrowingCeilingInterval copy(BorrowingCeilingInterval interval) {
+        return BorrowingCeilingInterval.builder()
+                .minEpargne(interval.getMinEpargne())
+                .maxEpargne(interval.getMaxEpargne())
+                .multiplier(interval.getMultiplier())
+                .maxPlafond(interval.getMaxPlafond())
+                .build();
+    }
+}
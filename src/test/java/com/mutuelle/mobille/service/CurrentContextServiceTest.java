@@ -0,0 +1,124 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.security.CustomUserDetails;
+import com.mutuelle.mobille.dto.CurrentContextResponseDTO;
+import com.mutuelle.mobille.dto.member.MemberResponseDTO;
+import com.mutuelle.mobille.enums.Role;
+import com.mutuelle.mobille.mapper.AdminMapper;
+import com.mutuelle.mobille.models.MutuelleConfig;
+import com.mutuelle.mobille.repository.AdminRepository;
+import com.mutuelle.mobille.repository.MemberRepository;
+import com.mutuelle.mobille.service.context.ContextSection;
+import com.mutuelle.mobille.service.context.ContextSectionCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sections partagées du contexte servies depuis le cache, sections du
+ * membre connecté calculées en parallèle.
+ */
+class CurrentContextServiceTest {
+
+    private static final Long MEMBER_ID = 7L;
+
+    private final SessionService sessionService = mock(SessionService.class);
+    private final ExerciceService exerciceService = mock(ExerciceService.class);
+    private final AssistanceService assistanceService = mock(AssistanceService.class);
+    private final MutuelleConfigService mutuelleConfigService = mock(MutuelleConfigService.class);
+    private final MemberService memberService = mock(MemberService.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final ContextSectionCache sectionCache = new ContextSectionCache(60_000);
+
+    private CurrentContextService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CurrentContextService(sessionService, exerciceService, assistanceService,
+                mutuelleConfigService, mock(BorrowingCeilingService.class), memberService,
+                mock(AdminMapper.class), mock(AdminRepository.class), transactionService,
+                mock(AccountService.class), memberRepository, sectionCache, 4);
+
+        when(sessionService.findCurrentSession()).thenReturn(Optional.empty());
+        when(exerciceService.findCurrentExercice()).thenReturn(Optional.empty());
+        when(mutuelleConfigService.getCurrentConfig()).thenReturn(new MutuelleConfig());
+        when(assistanceService.getAllTypeAssistances()).thenReturn(List.of());
+        when(memberRepository.count()).thenReturn(12L);
+
+        CustomUserDetails member = new CustomUserDetails(1L, "awa@mutuelle.cm", Role.MEMBER, MEMBER_ID);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(member, null, member.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        service.shutdown();
+    }
+
+    @Test
+    void sharedSectionsAreLoadedOnceUntilInvalidated() {
+        service.buildCurrentContext();
+        CurrentContextResponseDTO context = service.buildCurrentContext();
+
+        assertThat(context.getTotalMembers()).isEqualTo(12L);
+        verify(sessionService, times(1)).findCurrentSession();
+        verify(mutuelleConfigService, times(1)).getCurrentConfig();
+        verify(assistanceService, times(1)).getAllTypeAssistances();
+        verify(memberRepository, times(1)).count();
+
+        sectionCache.invalidate(ContextSection.MEMBER_COUNT);
+        service.buildCurrentContext();
+
+        verify(memberRepository, times(2)).count();
+        verify(mutuelleConfigService, times(1)).getCurrentConfig();
+    }
+
+    @Test
+    void memberSectionsRunConcurrently() {
+        // Chaque requête attend les deux autres : elles n'aboutissent que si elles tournent en même temps
+        CountDownLatch started = new CountDownLatch(3);
+        MemberResponseDTO profile = mock(MemberResponseDTO.class);
+        when(memberService.getMemberById(MEMBER_ID)).thenAnswer(inv -> awaitOthers(started) ? profile : null);
+        when(assistanceService.countAssistancesByMember(MEMBER_ID)).thenAnswer(inv -> awaitOthers(started) ? 2L : null);
+        when(transactionService.countTransactionsByMemberId(MEMBER_ID)).thenAnswer(inv -> awaitOthers(started) ? 5L : null);
+
+        CurrentContextResponseDTO context = service.buildCurrentContext();
+
+        assertThat(context.isMember()).isTrue();
+        assertThat(context.getMemberProfile()).isSameAs(profile);
+        assertThat(context.getMemberTotalAssistances()).isEqualTo(2L);
+        assertThat(context.getMemberTotalTransactions()).isEqualTo(5L);
+    }
+
+    @Test
+    void failureOfAMemberSectionIsRethrownUnwrapped() {
+        when(memberService.getMemberById(MEMBER_ID)).thenThrow(new IllegalArgumentException("Membre non trouvé"));
+
+        assertThatThrownBy(() -> service.buildCurrentContext())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Membre non trouvé");
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static boolean awaitOthers(CountDownLatch started) throws InterruptedException {
+        started.countDown();
+        return started.await(5, TimeUnit.SECONDS);
+    }
+}
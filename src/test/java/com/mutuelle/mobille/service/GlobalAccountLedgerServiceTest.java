@@ -0,0 +1,181 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.models.account.AccountMutuelle;
+import com.mutuelle.mobille.repository.AccountMemberRepository;
+import com.mutuelle.mobille.repository.AccountMutuelleDeltaRepository;
+import com.mutuelle.mobille.repository.AccountMutuelleRepository;
+import com.mutuelle.mobille.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dépôts concurrents sur le compte global via le journal de variations,
+ * avec des reports exécutés en parallèle : les soldes doivent rester exacts.
+ * Sans transaction de test englobante pour que chaque thread valide réellement.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GlobalAccountLedgerServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({GlobalAccountLedgerService.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS_PER_THREAD = 100;
+
+    @Autowired private GlobalAccountLedgerService ledger;
+    @Autowired private AccountMutuelleRepository globalRepo;
+    @Autowired private AccountMutuelleDeltaRepository deltaRepo;
+    @Autowired private AccountMemberRepository accountMemberRepository;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void resetGlobalAccount() {
+        deltaRepo.deleteAll();
+        // Même ligne d'un test à l'autre : le service conserve l'identifiant résolu
+        AccountMutuelle global = globalRepo.findAll().stream()
+                .findFirst()
+                .orElseGet(() -> AccountMutuelle.builder().isActive(true).build());
+        global.setSavingAmount(new BigDecimal("1000.00"));
+        global.setSolidarityAmount(BigDecimal.ZERO);
+        global.setRegistrationAmount(BigDecimal.ZERO);
+        global.setBorrowAmount(BigDecimal.ZERO);
+        globalRepo.save(global);
+    }
+
+    @Test
+    void concurrentDepositsStayExact() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // Reports en continu pendant les dépôts
+            Future<?> roller = pool.submit(() -> {
+                while (writing.get()) {
+                    ledger.rollup();
+                }
+            });
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                        ledger.record(new BigDecimal("1.25"), new BigDecimal("0.50"), null, null);
+                    }
+                }));
+            }
+            for (Future<?> w : writers) {
+                w.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            roller.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int deposits = THREADS * DEPOSITS_PER_THREAD;
+        BigDecimal expectedSaving = new BigDecimal("1000.00").add(new BigDecimal("1.25").multiply(BigDecimal.valueOf(deposits)));
+        BigDecimal expectedSolidarity = new BigDecimal("0.50").multiply(BigDecimal.valueOf(deposits));
+
+        // Lecture avant le dernier report : ligne + variations restantes
+        AccountMutuelle snapshot = ledger.current();
+        assertThat(snapshot.getSavingAmount()).isEqualByComparingTo(expectedSaving);
+        assertThat(snapshot.getSolidarityAmount()).isEqualByComparingTo(expectedSolidarity);
+
+        ledger.rollup();
+
+        AccountMutuelle global = globalRepo.findAll().get(0);
+        assertThat(global.getSavingAmount()).isEqualByComparingTo(expectedSaving);
+        assertThat(global.getSolidarityAmount()).isEqualByComparingTo(expectedSolidarity);
+        assertThat(deltaRepo.count()).isZero();
+    }
+
+    @Test
+    void withdrawalsAndBorrowsAreNetted() {
+        ledger.record(new BigDecimal("-300.00"), null, null, new BigDecimal("300.00"));
+        ledger.record(new BigDecimal("100.00"), null, null, new BigDecimal("-100.00"));
+        ledger.record(null, null, new BigDecimal("25.00"), null);
+        ledger.record(BigDecimal.ZERO, null, null, null);
+
+        assertThat(deltaRepo.count()).isEqualTo(3);
+
+        AccountMutuelle snapshot = ledger.current();
+        assertThat(snapshot.getSavingAmount()).isEqualByComparingTo("800.00");
+        assertThat(snapshot.getBorrowAmount()).isEqualByComparingTo("200.00");
+        assertThat(snapshot.getRegistrationAmount()).isEqualByComparingTo("25.00");
+
+        assertThat(ledger.rollup()).isEqualTo(3);
+        assertThat(globalRepo.findAll().get(0).getSavingAmount()).isEqualByComparingTo("800.00");
+    }
+
+    @Test
+    void rollupToleratesNullLegacyAmounts() {
+        AccountMutuelle global = globalRepo.findAll().get(0);
+        jdbc.update("UPDATE accounts_mutuelle SET registration_amount = NULL, borrow_amount = NULL WHERE id = ?", global.getId());
+        ledger.record(null, null, new BigDecimal("25.00"), new BigDecimal("10.00"));
+
+        assertThat(ledger.rollup()).isEqualTo(1);
+
+        AccountMutuelle rolled = globalRepo.findAll().get(0);
+        assertThat(rolled.getRegistrationAmount()).isEqualByComparingTo("25.00");
+        assertThat(rolled.getBorrowAmount()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void staleMemberAccountUpdateIsRejected() {
+        Member member = new Member();
+        member.setFirstname("Prenom");
+        member.setLastname("Nom");
+        member.setPhone("690000001");
+        AccountMember account = new AccountMember();
+        account.setMember(member);
+        account.setSavingAmount(BigDecimal.ZERO);
+        member.setAccountMember(account);
+        Long accountId = memberRepository.save(member).getAccountMember().getId();
+
+        AccountMember first = accountMemberRepository.findById(accountId).orElseThrow();
+        AccountMember stale = accountMemberRepository.findById(accountId).orElseThrow();
+
+        first.setSavingAmount(new BigDecimal("10.00"));
+        accountMemberRepository.save(first);
+
+        stale.setSavingAmount(new BigDecimal("20.00"));
+        assertThatThrownBy(() -> accountMemberRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(accountMemberRepository.findById(accountId).orElseThrow().getSavingAmount())
+                .isEqualByComparingTo("10.00");
+    }
+}
@@ -0,0 +1,124 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.config.startup.StartupDataConfig;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.models.account.AccountMutuelle;
+import com.mutuelle.mobille.repository.MemberRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Micro-benchmark : nombre de requêtes SQL par lecture du compte global et par paiement,
+ * mesuré avec les statistiques Hibernate. Chaque appel valide sa propre transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GlobalAccountQueryCountTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({AccountService.class, GlobalAccountLedgerService.class, FlywayConfig.class, StartupDataConfig.class})
+    static class Config {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalAccountQueryCountTest.class);
+    private static final int PAYMENTS = 200;
+
+    @MockBean private AuthService authService;
+
+    @Autowired private AccountService accountService;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private EntityManagerFactory emf;
+
+    private Long memberId;
+
+    @BeforeEach
+    void createMember() {
+        Member member = new Member();
+        member.setFirstname("Prenom");
+        member.setLastname("Nom");
+        member.setPhone("6900" + System.nanoTime() % 100_000);
+        AccountMember account = new AccountMember();
+        account.setMember(member);
+        account.setSavingAmount(BigDecimal.ZERO);
+        member.setAccountMember(account);
+        memberId = memberRepository.save(member).getId();
+    }
+
+    @Test
+    void globalAccountLookupIsOneQuery() {
+        long queries = countStatements(() -> accountService.getMutuelleGlobalAccount());
+
+        log.info("Lecture du compte global : {} requête(s)", queries);
+        assertThat(queries).isEqualTo(1);
+    }
+
+    @Test
+    void paymentQueryCount() {
+        long queries = countStatements(() -> {
+            for (int i = 0; i < PAYMENTS; i++) {
+                accountService.addSaving(memberId, new BigDecimal("10.00"));
+            }
+        });
+
+        double perPayment = (double) queries / PAYMENTS;
+        log.info("addSaving : {} requêtes pour {} paiements ({} par paiement)", queries, PAYMENTS, perPayment);
+        // compte membre (lecture + mise à jour) + une variation globale ; le compte global n'est plus lu.
+        // S'y ajoute un appel de séquence par bloc de 50 identifiants.
+        assertThat(perPayment).isLessThanOrEqualTo(3.05);
+    }
+
+    @Test
+    void snapshotIsServedFromMemoryBetweenWrites() {
+        AccountMutuelle before = accountService.getMutuelleGlobalAccountSnapshot();
+
+        long cachedReads = countStatements(() -> {
+            for (int i = 0; i < 100; i++) {
+                accountService.getMutuelleGlobalAccountSnapshot();
+            }
+        });
+        assertThat(cachedReads).isZero();
+
+        accountService.addSaving(memberId, new BigDecimal("25.00"));
+
+        long[] reloaded = new long[1];
+        AccountMutuelle[] after = new AccountMutuelle[1];
+        reloaded[0] = countStatements(() -> after[0] = accountService.getMutuelleGlobalAccountSnapshot());
+
+        assertThat(reloaded[0]).isEqualTo(1);
+        assertThat(after[0].getSavingAmount())
+                .isEqualByComparingTo(before.getSavingAmount().add(new BigDecimal("25.00")));
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        action.run();
+        return stats.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,235 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.enums.TransactionDirection;
+import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.Session;
+import com.mutuelle.mobille.models.Transaction;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.repository.ExerciceRepository;
+import com.mutuelle.mobille.repository.LedgerCounterRepository;
+import com.mutuelle.mobille.repository.MemberRepository;
+import com.mutuelle.mobille.repository.SessionRepository;
+import com.mutuelle.mobille.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compteurs du grand livre écrits avec les transactions qu'ils comptent,
+ * regroupés sans perte et corrigés depuis la table des transactions.
+ * Chaque appel valide sa propre transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerCounterServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({LedgerCounterService.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerCounterServiceTest.class);
+
+    @Autowired private LedgerCounterService counterService;
+    @Autowired private LedgerCounterRepository counterRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private SessionRepository sessionRepository;
+    @Autowired private ExerciceRepository exerciceRepository;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory emf;
+
+    private Session session;
+    private AccountMember first;
+    private AccountMember second;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        counterRepository.deleteAllInBatch();
+
+        Exercice exercice = new Exercice();
+        exercice.setName("Exercice");
+        exercice.setStatus(StatusExercice.IN_PROGRESS);
+        exercice.setStartDate(LocalDateTime.now().minusMonths(2));
+        exercice = exerciceRepository.save(exercice);
+
+        Session s = new Session();
+        s.setName("S1");
+        s.setExercice(exercice);
+        s.setStatus(StatusSession.IN_PROGRESS);
+        s.setStartDate(LocalDateTime.now().minusDays(1));
+        session = sessionRepository.save(s);
+
+        first = memberRepository.save(member("Awa")).getAccountMember();
+        second = memberRepository.save(member("Paul")).getAccountMember();
+    }
+
+    @Test
+    void transactionsAreCountedOnceCommittedWithOneRowPerCounter() {
+        inTransaction(() -> transactionRepository.saveAll(transactions(200)));
+
+        assertThat(counterService.countAllGlobal()).isEqualTo(200);
+        assertThat(counterService.countGlobal(TransactionType.ASSISTANCE))
+                .isEqualTo(countLedger(TransactionType.ASSISTANCE));
+        assertThat(counterService.amountGlobal(TransactionType.ASSISTANCE))
+                .isEqualByComparingTo(transactionRepository.sumAmountByType(TransactionType.ASSISTANCE));
+        assertThat(counterService.countOfSession(session.getId(), TransactionType.EPARGNE))
+                .isEqualTo(countLedger(TransactionType.EPARGNE));
+        assertThat(counterService.countAllOfAccount(first.getId()))
+                .isEqualTo(transactionRepository.countByAccountMemberId(first.getId()));
+        assertThat(counterService.countAllOfMember(second.getMember().getId()))
+                .isEqualTo(transactionRepository.countByMemberId(second.getMember().getId()));
+        // 2 types × (global + session), EPARGNE × 2 comptes, ASSISTANCE × 1 compte
+        assertThat(counterRepository.count()).isEqualTo(7);
+    }
+
+    @Test
+    void rolledBackTransactionsAreNotCounted() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            transactionRepository.saveAll(transactions(10));
+            status.setRollbackOnly();
+        });
+
+        assertThat(counterService.countAllGlobal()).isZero();
+        assertThat(counterRepository.count()).isZero();
+    }
+
+    @Test
+    void deletionsAreSubtractedAndRollupKeepsTheTotals() {
+        inTransaction(() -> transactionRepository.saveAll(transactions(40)));
+        inTransaction(() -> transactionRepository.saveAll(transactions(40)));
+        inTransaction(() -> transactionRepository.deleteAll(
+                transactionRepository.findAll().stream()
+                        .filter(t -> t.getTransactionType() == TransactionType.ASSISTANCE)
+                        .limit(5)
+                        .toList()));
+        long before = counterService.countAllGlobal();
+
+        int folded = counterService.rollup();
+
+        assertThat(before).isEqualTo(75);
+        // 7 compteurs écrits deux fois, plus 3 lignes de suppression (global, session, compte ASSISTANCE)
+        assertThat(folded).isEqualTo(17);
+        assertThat(counterRepository.count()).isEqualTo(7);
+        assertThat(counterService.countAllGlobal()).isEqualTo(75);
+        assertThat(counterService.amountGlobal(TransactionType.ASSISTANCE))
+                .isEqualByComparingTo(transactionRepository.sumAmountByType(TransactionType.ASSISTANCE));
+        assertThat(counterService.rollup()).isZero();
+    }
+
+    @Test
+    void verificationRestoresCountersFromTheLedger() {
+        inTransaction(() -> transactionRepository.saveAll(transactions(60)));
+        counterRepository.deleteAllInBatch();
+
+        int corrected = counterService.verifyAgainstLedger();
+
+        assertThat(corrected).isEqualTo(7);
+        assertThat(counterService.countAllGlobal()).isEqualTo(60);
+        assertThat(counterService.countAllOfAccount(first.getId()))
+                .isEqualTo(transactionRepository.countByAccountMemberId(first.getId()));
+        assertThat(counterService.verifyAgainstLedger()).isZero();
+    }
+
+    @Test
+    void counterReadDoesNotScanTheLedger() {
+        inTransaction(() -> transactionRepository.saveAll(transactions(5_000)));
+        counterService.rollup();
+        Statistics stats = statistics();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            transactionRepository.countTotalTransactions();
+            transactionRepository.sumAmountByType(TransactionType.ASSISTANCE);
+        }
+        long ledgerNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            counterService.countAllGlobal();
+            counterService.amountGlobal(TransactionType.ASSISTANCE);
+        }
+        long counterNanos = System.nanoTime() - start;
+
+        log.info("Totaux globaux ×200 sur 5000 transactions : grand livre {} ms, compteurs {} ms",
+                ledgerNanos / 1_000_000, counterNanos / 1_000_000);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(800);
+        assertThat(counterService.countAllGlobal()).isEqualTo(5_000);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boolean assistance = i % 4 == 0;
+            transactions.add(Transaction.builder()
+                    .transactionType(assistance ? TransactionType.ASSISTANCE : TransactionType.EPARGNE)
+                    .transactionDirection(assistance ? TransactionDirection.DEBIT : TransactionDirection.CREDIT)
+                    .amount(new BigDecimal(1_000 + i))
+                    .description("Test")
+                    .accountMember(i % 2 == 0 ? first : second)
+                    .session(session)
+                    .build());
+        }
+        return transactions;
+    }
+
+    private long countLedger(TransactionType type) {
+        return transactionRepository.findAll().stream().filter(t -> t.getTransactionType() == type).count();
+    }
+
+    private static Member member(String firstname) {
+        Member member = new Member();
+        member.setFirstname(firstname);
+        member.setLastname("Test");
+        AccountMember account = new AccountMember();
+        account.setMember(member);
+        account.setSavingAmount(BigDecimal.ZERO);
+        member.setAccountMember(account);
+        return member;
+    }
+
+    private Statistics statistics() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+}
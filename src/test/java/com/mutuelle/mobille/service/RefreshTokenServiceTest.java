@@ -0,0 +1,158 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.enums.Role;
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.models.auth.RefreshToken;
+import com.mutuelle.mobille.repository.AuthUserRepository;
+import com.mutuelle.mobille.repository.RefreshTokenRepository;
+import com.mutuelle.mobille.utils.JwtUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refresh tokens stockés par empreinte, rotation en chaîne avec détection
+ * du rejeu, révocation en une requête et purge par lots. Chaque appel
+ * valide sa propre transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "mutuelle.auth.refresh-token-purge-batch-size=3"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({RefreshTokenService.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    @MockBean private JwtUtils jwtUtils;
+
+    @Autowired private RefreshTokenService refreshTokenService;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private AuthUserRepository authUserRepository;
+    @Autowired private EntityManagerFactory emf;
+
+    private AuthUser user;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtils.getRefreshExpirationMs()).thenReturn(3_600_000L);
+        refreshTokenRepository.deleteAll();
+        user = authUserRepository.save(new AuthUser(null, UUID.randomUUID() + "@mutuelle.cm", "hash", Role.MEMBER, "2025", 1L));
+    }
+
+    @Test
+    void onlyTheHashIsStored() {
+        String value = refreshTokenService.issue(user);
+
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        assertThat(stored.getTokenHash()).hasSize(64).isEqualTo(RefreshTokenService.hash(value)).isNotEqualTo(value);
+        assertThat(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(value))).isPresent();
+    }
+
+    @Test
+    void rotationRevokesThePresentedTokenAndChainsTheNewOne() {
+        String first = refreshTokenService.issue(user);
+
+        RefreshTokenService.IssuedToken next = refreshTokenService.rotate(first);
+
+        assertThat(next.value()).isNotEqualTo(first);
+        assertThat(next.authUser().getId()).isEqualTo(user.getId());
+        RefreshToken parent = stored(first);
+        RefreshToken child = stored(next.value());
+        assertThat(parent.isRevoked()).isTrue();
+        assertThat(child.isRevoked()).isFalse();
+        assertThat(child.getParentId()).isEqualTo(parent.getId());
+        assertThat(child.getFamilyId()).isEqualTo(parent.getFamilyId());
+    }
+
+    @Test
+    void replayingARotatedTokenRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).value();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).hasMessage("Refresh token déjà révoqué");
+
+        assertThat(stored(second).isRevoked()).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).hasMessage("Refresh token déjà révoqué");
+    }
+
+    @Test
+    void revokingAllTokensOfAUserIsOneStatement() {
+        for (int i = 0; i < 5; i++) {
+            refreshTokenService.issue(user);
+        }
+        Statistics stats = statistics();
+
+        int revoked = refreshTokenService.revokeAll(user.getId());
+
+        assertThat(revoked).isEqualTo(5);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(refreshTokenRepository.findAll()).allMatch(RefreshToken::isRevoked);
+    }
+
+    @Test
+    void purgeDeletesExpiredTokensAndLoggedOutFamiliesInBatches() {
+        // Famille active : le token remplacé est gardé pour détecter son rejeu
+        String rotated = refreshTokenService.issue(user);
+        String active = refreshTokenService.rotate(rotated).value();
+        // Famille déconnectée
+        refreshTokenService.revoke(refreshTokenService.issue(user));
+        // Tokens expirés
+        for (int i = 0; i < 7; i++) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .tokenHash(RefreshTokenService.hash("expire-" + i))
+                    .familyId(UUID.randomUUID().toString())
+                    .authUser(user)
+                    .expiryDate(Instant.now().minusSeconds(60))
+                    .build());
+        }
+        Statistics stats = statistics();
+
+        int deleted = refreshTokenService.purge();
+
+        assertThat(deleted).isEqualTo(8);
+        // Lots de 3 : 3 + 3 + 2, une sélection et une suppression par lot
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(6);
+        List<Long> remaining = refreshTokenRepository.findAll().stream().map(RefreshToken::getId).toList();
+        assertThat(remaining).containsExactlyInAnyOrder(stored(rotated).getId(), stored(active).getId());
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private RefreshToken stored(String value) {
+        return refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(value)).orElseThrow();
+    }
+
+    private Statistics statistics() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+}
@@ -0,0 +1,130 @@
+package com.mutuelle.mobille.service;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.config.startup.StartupDataConfig;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.enums.TransactionType;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.ExerciceHistory;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.Session;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Micro-benchmark : requêtes SQL émises par l'attribution du renfoulement
+ * à 5 000 membres, avec séquences par blocs et batching JDBC.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true"
+})
+class RenfoulementBatchTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({ExerciceService.class, AccountService.class, GlobalAccountLedgerService.class,
+            BilanService.class, FlywayConfig.class, StartupDataConfig.class})
+    static class Config {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RenfoulementBatchTest.class);
+    private static final int MEMBERS = 5_000;
+
+    @MockBean private AuthService authService;
+    @MockBean private MemberService memberService;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ExerciceService exerciceService;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private EntityManagerFactory emf;
+
+    @Test
+    void renfoulementForFiveThousandMembersIsBatched() {
+        Long exerciceId = persistClosedExercice(new BigDecimal("500000.00"));
+        for (int i = 0; i < MEMBERS; i++) {
+            persistMember(i);
+        }
+        em.flush();
+        em.clear();
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        exerciceService.calculateAndAssignRenfoulementForExercice(em.find(Exercice.class, exerciceId));
+        em.flush();
+
+        long statements = stats.getPrepareStatementCount();
+        log.info("Renfoulement {} membres : {} requêtes préparées, {} inserts, {} mises à jour d'entités",
+                MEMBERS, statements, stats.getEntityInsertCount(), stats.getEntityUpdateCount());
+
+        // 5 000 inserts + 5 000 mises à jour regroupés par lots de 50, + lectures et blocs de séquence
+        assertThat(stats.getEntityInsertCount()).isEqualTo(MEMBERS + 1);
+        assertThat(statements).isLessThan(MEMBERS / 10);
+        assertThat(transactionRepository.count()).isEqualTo(MEMBERS);
+        assertThat(transactionRepository.findAll().stream()
+                .allMatch(t -> t.getTransactionType() == TransactionType.RENFOULEMENT)).isTrue();
+    }
+
+    private Long persistClosedExercice(BigDecimal totalAssistances) {
+        Exercice ex = new Exercice();
+        ex.setName("Exercice clos");
+        ex.setStatus(StatusExercice.COMPLETED);
+        ex.setStartDate(LocalDateTime.now().minusYears(1));
+        em.persist(ex);
+
+        Session s = new Session();
+        s.setName("S1");
+        s.setExercice(ex);
+        s.setStatus(StatusSession.COMPLETED);
+        s.setStartDate(LocalDateTime.now().minusMonths(1));
+        em.persist(s);
+        ex.getSessions().add(s);
+
+        ExerciceHistory history = new ExerciceHistory();
+        history.setExercice(ex);
+        history.setTotalAssistanceAmount(totalAssistances);
+        em.persist(history);
+        ex.setHistory(history);
+        return ex.getId();
+    }
+
+    private void persistMember(int i) {
+        Member m = new Member();
+        m.setFirstname("Prenom" + i);
+        m.setLastname("Nom" + i);
+        m.setPhone(String.format("69%07d", i));
+
+        AccountMember account = new AccountMember();
+        account.setMember(m);
+        account.setSavingAmount(BigDecimal.ZERO);
+        m.setAccountMember(account);
+        em.persist(m);
+    }
+}
@@ -0,0 +1,161 @@
+package com.mutuelle.mobille.service.bilan;
+
+import com.mutuelle.mobille.controller.BilanController;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.enums.StatusSession;
+import com.mutuelle.mobille.repository.ExerciceHistoryRepository;
+import com.mutuelle.mobille.repository.SessionHistoryRepository;
+import com.mutuelle.mobille.service.BilanPdfService;
+import com.mutuelle.mobille.service.BilanService;
+import com.mutuelle.mobille.service.BilanZipExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * PDF de bilans clôturés mis en cache sur disque par version : généré une
+ * fois, régénéré quand la version change (réouverture puis nouvelle
+ * clôture), et revalidé par ETag sans être retéléchargé.
+ */
+class BilanPdfCacheTest {
+
+    private static final long SESSION_ID = 7L;
+    private static final long MEMBER_ID = 42L;
+
+    @TempDir
+    Path dir;
+
+    private SessionHistoryRepository sessionHistoryRepository;
+    private ExerciceHistoryRepository exerciceHistoryRepository;
+    private BilanPdfCache cache;
+    private final AtomicInteger generated = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        sessionHistoryRepository = mock(SessionHistoryRepository.class);
+        exerciceHistoryRepository = mock(ExerciceHistoryRepository.class);
+        cache = new BilanPdfCache(sessionHistoryRepository, exerciceHistoryRepository, dir.toString());
+        completedSession(100L);
+    }
+
+    @Test
+    void pdfIsGeneratedOncePerVersion() {
+        BilanPdfCache.Key key = memberKey();
+
+        assertThat(cache.getBytes(key, this::generate)).isEqualTo(pdf(1));
+        assertThat(cache.getBytes(memberKey(), this::generate)).isEqualTo(pdf(1));
+        assertThat(generated).hasValue(1);
+
+        // Réouverte puis clôturée à nouveau : nouvel historique, nouvelle version
+        completedSession(101L);
+        BilanPdfCache.Key reclosed = memberKey();
+
+        assertThat(reclosed.etag()).isNotEqualTo(key.etag());
+        assertThat(cache.getBytes(reclosed, this::generate)).isEqualTo(pdf(2));
+        assertThat(generated).hasValue(2);
+    }
+
+    @Test
+    void openSessionIsNotCached() {
+        when(sessionHistoryRepository.findIdBySessionIdAndSessionStatus(SESSION_ID, StatusSession.COMPLETED))
+                .thenReturn(Optional.empty());
+        when(exerciceHistoryRepository.findIdByExerciceIdAndExerciceStatus(3L, StatusExercice.COMPLETED))
+                .thenReturn(Optional.empty());
+
+        assertThat(cache.sessionKey(SESSION_ID, BilanPdfCache.Report.MEMBER, MEMBER_ID)).isEmpty();
+        assertThat(cache.exerciceKey(3L, BilanPdfCache.Report.MUTUELLE, null)).isEmpty();
+    }
+
+    @Test
+    void reopeningSessionDeletesItsFiles() {
+        cache.getBytes(memberKey(), this::generate);
+        Path allMembers = cache.getFile(cache.sessionKey(SESSION_ID, BilanPdfCache.Report.ALL_MEMBERS, null).orElseThrow(),
+                out -> out.write(pdf(99)));
+        assertThat(allMembers).exists();
+
+        cache.invalidateSession(SESSION_ID);
+
+        assertThat(allMembers).doesNotExist();
+        cache.getBytes(memberKey(), this::generate);
+        assertThat(generated).hasValue(2);
+    }
+
+    @Test
+    void failedGenerationLeavesNothingInCache() throws Exception {
+        BilanPdfCache.Key key = cache.sessionKey(SESSION_ID, BilanPdfCache.Report.ALL_MEMBERS, null).orElseThrow();
+
+        assertThatThrownBy(() -> cache.getFile(key, out -> {
+            out.write("%PDF-".getBytes(StandardCharsets.US_ASCII));
+            throw new RuntimeException("Erreur génération PDF synthèse membres session");
+        })).hasMessageContaining("Erreur génération PDF");
+
+        try (var files = Files.walk(dir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void matchingEtagAnswersNotModifiedWithoutGenerating() throws Exception {
+        BilanPdfService pdfService = mock(BilanPdfService.class);
+        when(pdfService.generateMemberSessionBilanPdf(MEMBER_ID, SESSION_ID)).thenAnswer(inv -> generate());
+        MockMvc mvc = MockMvcBuilders
+                .standaloneSetup(new BilanController(mock(BilanService.class), pdfService, cache,
+                        mock(BilanZipExportService.class)))
+                .build();
+        String url = "/api/bilan/membre/" + MEMBER_ID + "/session/" + SESSION_ID + "/pdf";
+
+        MvcResult first = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo(memberKey().etag());
+        assertThat(first.getResponse().getContentAsByteArray()).isEqualTo(pdf(1));
+
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(pdf(1)));
+
+        verify(pdfService, times(1)).generateMemberSessionBilanPdf(eq(MEMBER_ID), eq(SESSION_ID));
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void completedSession(long historyId) {
+        when(sessionHistoryRepository.findIdBySessionIdAndSessionStatus(SESSION_ID, StatusSession.COMPLETED))
+                .thenReturn(Optional.of(historyId));
+    }
+
+    private BilanPdfCache.Key memberKey() {
+        return cache.sessionKey(SESSION_ID, BilanPdfCache.Report.MEMBER, MEMBER_ID).orElseThrow();
+    }
+
+    private byte[] generate() {
+        return pdf(generated.incrementAndGet());
+    }
+
+    private static byte[] pdf(int n) {
+        return ("%PDF-1.4 bilan " + n).getBytes(StandardCharsets.US_ASCII);
+    }
+}
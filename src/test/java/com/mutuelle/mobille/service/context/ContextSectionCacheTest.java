@@ -0,0 +1,131 @@
+package com.mutuelle.mobille.service.context;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.TypeAssistance;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.repository.MemberRepository;
+import com.mutuelle.mobille.repository.TypeAssistanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les écritures d'entités invalident les sections qui en dépendent, et une
+ * valeur lue avant le commit n'est pas gardée en cache. Chaque appel de
+ * repository valide sa propre transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContextSectionCacheTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({ContextSectionCache.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    @Autowired private ContextSectionCache cache;
+    @Autowired private TypeAssistanceRepository typeAssistanceRepository;
+    @Autowired private MemberRepository memberRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        for (ContextSection section : ContextSection.values()) {
+            cache.invalidate(section);
+        }
+    }
+
+    @Test
+    void cachedSectionIsLoadedOnce() {
+        load(ContextSection.CONFIG);
+        load(ContextSection.CONFIG);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void insertingAnAssistanceTypeInvalidatesOnlyItsSection() {
+        load(ContextSection.ASSISTANCE_TYPES);
+        load(ContextSection.CONFIG);
+
+        typeAssistanceRepository.save(typeAssistance());
+
+        load(ContextSection.ASSISTANCE_TYPES);
+        load(ContextSection.CONFIG);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void memberUpdateKeepsTheMemberCount() {
+        Long memberId = memberRepository.save(member()).getId();
+        load(ContextSection.MEMBER_COUNT);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(memberId).orElseThrow().setPhone("690000000"));
+        load(ContextSection.MEMBER_COUNT);
+        assertThat(loads).hasValue(1);
+
+        memberRepository.deleteById(memberId);
+        load(ContextSection.MEMBER_COUNT);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void valueReadBeforeCommitIsNotKept() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            typeAssistanceRepository.save(typeAssistance());
+            // Lecture concurrente de l'état pas encore validé
+            load(ContextSection.ASSISTANCE_TYPES);
+        });
+
+        load(ContextSection.ASSISTANCE_TYPES);
+        assertThat(loads).hasValue(2);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void load(ContextSection section) {
+        cache.get(section, loads::incrementAndGet);
+    }
+
+    private static Member member() {
+        Member member = new Member();
+        member.setFirstname("Awa");
+        member.setLastname("Nguema");
+        AccountMember account = new AccountMember();
+        account.setMember(member);
+        account.setSavingAmount(BigDecimal.ZERO);
+        member.setAccountMember(account);
+        return member;
+    }
+
+    private static TypeAssistance typeAssistance() {
+        TypeAssistance type = new TypeAssistance();
+        type.setName("Naissance " + UUID.randomUUID());
+        type.setAmount(new BigDecimal("50000.00"));
+        return type;
+    }
+}
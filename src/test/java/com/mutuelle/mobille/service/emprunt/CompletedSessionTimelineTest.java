@@ -0,0 +1,49 @@
+package com.mutuelle.mobille.service.emprunt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La recherche dichotomique doit rendre le même résultat que
+ * {@code COUNT(s) WHERE s.startDate > :afterDate} (comparaison stricte, dates nulles ignorées).
+ */
+class CompletedSessionTimelineTest {
+
+    private static final LocalDateTime ORIGINE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    void countsMatchLinearScan() {
+        Random random = new Random(11);
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Doublons volontaires : plusieurs sessions le même jour
+            dates.add(ORIGINE.plusDays(random.nextInt(400)));
+        }
+        dates.add(null);
+
+        CompletedSessionTimeline timeline = CompletedSessionTimeline.of(dates);
+
+        for (int d = -5; d < 410; d++) {
+            LocalDateTime borrowStart = ORIGINE.plusDays(d);
+            long attendu = dates.stream().filter(x -> x != null && x.isAfter(borrowStart)).count();
+            assertThat(timeline.countStartedAfter(borrowStart)).as("jour %d", d).isEqualTo(attendu);
+        }
+    }
+
+    @Test
+    void emptyTimelineAndNullDate() {
+        CompletedSessionTimeline vide = CompletedSessionTimeline.of(List.of());
+        assertThat(vide.countStartedAfter(ORIGINE)).isZero();
+
+        CompletedSessionTimeline timeline = CompletedSessionTimeline.of(List.of(ORIGINE, ORIGINE.plusDays(1)));
+        assertThat(timeline.countStartedAfter(null)).isZero();
+        assertThat(timeline.countStartedAfter(ORIGINE)).isEqualTo(1);
+        assertThat(timeline.countStartedAfter(ORIGINE.minusSeconds(1))).isEqualTo(2);
+    }
+}
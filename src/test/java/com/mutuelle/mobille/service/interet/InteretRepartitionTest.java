@@ -0,0 +1,71 @@
+package com.mutuelle.mobille.service.interet;
+
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.util.MoneyUtil;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare la répartition en mémoire avec l'ancienne boucle de InteretService
+ * (part = interet * epargne / total, échelle 4 HALF_UP, puis arrondi au multiple de 25).
+ */
+class InteretRepartitionTest {
+
+    private final Random random = new Random(7);
+
+    @Test
+    void matchesLegacyPerSaverLoop() {
+        for (int run = 0; run < 200; run++) {
+            List<AccountMember> epargnants = randomSavers(1 + random.nextInt(300));
+            BigDecimal interetTotal = BigDecimal.valueOf(random.nextInt(5_000_000), 2);
+
+            InteretRepartition repartition = InteretRepartition.calculer(epargnants, interetTotal);
+
+            BigDecimal totalEpargne = epargnants.stream()
+                    .map(AccountMember::getSavingAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal totalDistribue = BigDecimal.ZERO;
+
+            assertThat(repartition.getParts()).hasSize(epargnants.size());
+            for (int i = 0; i < epargnants.size(); i++) {
+                AccountMember compte = epargnants.get(i);
+                BigDecimal attendu = MoneyUtil.floorToNearest25(interetTotal.multiply(compte.getSavingAmount())
+                        .divide(totalEpargne, 4, BigDecimal.ROUND_HALF_UP));
+
+                InteretRepartition.Part part = repartition.getParts().get(i);
+                assertThat(part.compte()).isSameAs(compte);
+                assertThat(part.montant()).isEqualByComparingTo(attendu);
+                totalDistribue = totalDistribue.add(attendu);
+            }
+
+            assertThat(repartition.getTotalDistribue()).isEqualByComparingTo(totalDistribue);
+            assertThat(repartition.getReliquat()).isEqualByComparingTo(interetTotal.subtract(totalDistribue));
+            assertThat(repartition.getReliquat().signum()).isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    void zeroSavingsLeavesEverythingAsReliquat() {
+        InteretRepartition repartition = InteretRepartition.calculer(List.of(), new BigDecimal("1000.00"));
+
+        assertThat(repartition.getParts()).isEmpty();
+        assertThat(repartition.getTotalDistribue()).isEqualByComparingTo("0");
+        assertThat(repartition.getReliquat()).isEqualByComparingTo("1000.00");
+    }
+
+    private List<AccountMember> randomSavers(int n) {
+        List<AccountMember> comptes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            AccountMember compte = new AccountMember();
+            compte.setSavingAmount(BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2));
+            comptes.add(compte);
+        }
+        return comptes;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mutuelle.mobille.service.notifications;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.enums.Role;
+import com.mutuelle.mobille.enums.TemplateMailsName;
+import com.mutuelle.mobille.models.Member;
+import com.mutuelle.mobille.models.PushToken;
+import com.mutuelle.mobille.models.account.AccountMember;
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.service.AdminService;
+import com.mutuelle.mobille.service.notifications.config.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Résolution des destinataires en une requête : membres actifs avec compte
+ * actif et compte d'authentification MEMBER, canal PUSH seulement si un token
+ * est enregistré.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SessionNotificationHelperTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({SessionNotificationHelper.class, FlywayConfig.class})
+    static class Config {
+    }
+
+    private static final int MEMBERS = 300;
+
+    @MockBean private NotificationService notificationService;
+    @MockBean private AdminService adminService;
+
+    @Autowired private SessionNotificationHelper helper;
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory emf;
+
+    private final List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void generateMembers() {
+        for (int i = 0; i < MEMBERS; i++) {
+            Member m = new Member();
+            m.setFirstname("Prenom" + i);
+            m.setLastname("Nom" + i);
+            m.setPhone("69" + String.format("%07d", i));
+            m.setActive(i % 10 != 1);                // membre inactif
+
+            AccountMember account = new AccountMember();
+            account.setMember(m);
+            account.setSavingAmount(BigDecimal.ZERO);
+            account.setActive(i % 10 != 2);          // compte inactif
+            m.setAccountMember(account);
+            em.persist(m);
+            members.add(m);
+
+            if (i % 10 == 3) continue;               // pas de compte d'authentification
+            AuthUser user = new AuthUser();
+            // email vide (blancs de longueur variable : la colonne est unique)
+            user.setEmail(i % 10 == 4 ? " ".repeat(i / 10 + 1) : "membre" + i + "@mutuelle.test");
+            user.setPasswordHash("x");
+            user.setRole(Role.MEMBER);
+            user.setUserRefId(m.getId());
+            em.persist(user);
+
+            if (i % 2 == 0) {
+                PushToken token = new PushToken();
+                token.setToken("ExponentPushToken[" + i + "]");
+                token.setUser(user);
+                em.persist(token);
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void broadcastResolvesRecipientsInOneQuery() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        helper.notifyAllActiveMembers("Titre", TemplateMailsName.SESSION_STARTED, Map.of(), "msg");
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        Map<String, NotificationRequestDto> sent = captureSent();
+        // 10 membres sur chaque dizaine, moins : inactif, compte inactif, sans auth, email vide
+        assertThat(sent).hasSize(MEMBERS / 10 * 6);
+
+        for (int i = 0; i < MEMBERS; i++) {
+            NotificationRequestDto request = sent.get("membre" + i + "@mutuelle.test");
+            int kind = i % 10;
+            if (kind >= 1 && kind <= 4) {
+                assertThat(request).isNull();
+                continue;
+            }
+            assertThat(request).isNotNull();
+            assertThat(request.getVariables()).containsEntry("memberId", members.get(i).getId());
+            assertThat(request.getChannels()).isEqualTo(i % 2 == 0
+                    ? Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH)
+                    : Set.of(NotificationChannel.EMAIL));
+        }
+    }
+
+    @Test
+    void notifyMembersKeepsOnlyActiveMembers() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        // Membres 0 (actif) et 1 (inactif) et 2 (compte inactif, mais ciblé explicitement)
+        helper.notifyMembers(members.subList(0, 3), "Titre", TemplateMailsName.ASSISTANCE_GRANTED, null, null);
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(captureSent().keySet())
+                .containsExactlyInAnyOrder("membre0@mutuelle.test", "membre2@mutuelle.test");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, NotificationRequestDto> captureSent() {
+        ArgumentCaptor<List<NotificationRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, atLeastOnce()).sendNotifications(captor.capture());
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(NotificationRequestDto::getEmail, Function.identity()));
+    }
+}
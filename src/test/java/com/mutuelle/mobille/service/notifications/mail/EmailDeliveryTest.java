@@ -0,0 +1,273 @@
+package com.mutuelle.mobille.service.notifications.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.enums.TemplateMailsName;
+import com.mutuelle.mobille.service.notifications.config.EmailNotificationSender;
+import com.mutuelle.mobille.service.notifications.config.EmailService;
+import jakarta.mail.internet.MimeMessage;
+import nz.net.ultraq.thymeleaf.layoutdialect.LayoutDialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Envoi des emails contre un serveur SMTP local (GreenMail) : connexions
+ * réutilisées, rendu mis en cache quand le modèle n'affiche aucune variable
+ * propre au destinataire, repli en texte brut sans modèle, et débit pour
+ * 5 000 membres comparé à l'ancien envoi (un rendu et une connexion par email).
+ */
+class EmailDeliveryTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDeliveryTest.class);
+    private static final int RECIPIENTS = 5_000;
+    private static final int THREADS = 4;
+    private static final int BATCH = 50;
+    private static final int LEGACY_SAMPLE = 1_000;
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private JavaMailSenderImpl mailSender;
+    private SpringTemplateEngine templateEngine;
+    private EmailTemplateRenderer renderer;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.addDialect(new LayoutDialect());
+
+        renderer = new EmailTemplateRenderer(templateEngine, 256);
+        renderer.precompile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (emailService != null) {
+            emailService.close();
+        }
+    }
+
+    @Test
+    void broadcastReusesConnectionsAndRendersOnlyOnce() throws Exception {
+        emailService = new EmailService(mailSender, THREADS, 30_000, 0);
+        EmailNotificationSender sender = new EmailNotificationSender(emailService, renderer, BATCH);
+
+        List<NotificationRequestDto> requests = sessionEndedBroadcast();
+        long start = System.nanoTime();
+        List<Exception> results = sendInBatches(requests, sender::sendAll);
+        long pooledMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).hasSize(RECIPIENTS).containsOnlyNulls();
+        assertThat(greenMail.waitForIncomingEmail(10_000, RECIPIENTS)).isTrue();
+        assertThat(emailService.openedConnections()).isLessThanOrEqualTo(THREADS);
+        // Un rendu, plus au plus un par thread arrivé avant que le premier soit en cache
+        assertThat(renderer.renderCount()).isBetween(1L, (long) THREADS);
+        assertThat(renderer.cacheHits() + renderer.renderCount()).isEqualTo(RECIPIENTS);
+
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(GreenMailUtil.getBody(received)).contains("Session 2025");
+
+        // Ancien envoi sur un échantillon : GreenMail sérialise le stockage, 5 000 emails prendraient plus d'une minute
+        greenMail.purgeEmailFromAllMailboxes();
+        List<NotificationRequestDto> sample = requests.subList(0, LEGACY_SAMPLE);
+        start = System.nanoTime();
+        List<Exception> legacy = sendInBatches(sample, this::legacySend);
+        long legacyMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(legacy).containsOnlyNulls();
+        assertThat(greenMail.waitForIncomingEmail(10_000, LEGACY_SAMPLE)).isTrue();
+
+        log.info("Emails ({} threads) : pool {} emails en {} ms ({} emails/s, {} rendu(s), {} connexion(s)) ; "
+                        + "ancien {} emails en {} ms ({} emails/s, un rendu et une connexion par email)",
+                THREADS,
+                RECIPIENTS, pooledMs, RECIPIENTS * 1_000L / Math.max(1, pooledMs),
+                renderer.renderCount(), emailService.openedConnections(),
+                LEGACY_SAMPLE, legacyMs, LEGACY_SAMPLE * 1_000L / Math.max(1, legacyMs));
+    }
+
+    @Test
+    void recipientSpecificVariablesAreRenderedPerRecipient() throws Exception {
+        emailService = new EmailService(mailSender, 1, 30_000, 0);
+        EmailNotificationSender sender = new EmailNotificationSender(emailService, renderer, BATCH);
+
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(NotificationRequestDto.builder()
+                    .email("m" + i + "@mutuelle.test")
+                    .title("Plafond dépassé")
+                    .templateName(TemplateMailsName.PLAFOND_DEPASSE_MEMBER)
+                    // memberName est affiché, memberId ne l'est pas
+                    .variables(Map.of("memberName", "Membre " + (i % 5), "memberId", (long) i,
+                            "soldeActuel", new BigDecimal("1000"),
+                            "plafondActuel", new BigDecimal("2000"),
+                            "montantEquivalent", new BigDecimal("2500")))
+                    .build());
+        }
+
+        assertThat(sender.sendAll(requests)).containsOnlyNulls();
+        assertThat(renderer.renderCount()).isEqualTo(5);
+        assertThat(greenMail.waitForIncomingEmail(5_000, 10)).isTrue();
+        assertThat(greenMail.getReceivedMessages())
+                .anyMatch(message -> GreenMailUtil.getBody(message).contains("Membre 3"));
+        assertThat(emailService.openedConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void missingTemplateFallsBackToPlainText() throws Exception {
+        emailService = new EmailService(mailSender, 1, 30_000, 0);
+        EmailNotificationSender sender = new EmailNotificationSender(emailService, renderer, BATCH);
+
+        sender.send(NotificationRequestDto.builder()
+                .email("membre@mutuelle.test")
+                .title("Début de session")
+                .message("La session Janvier est ouverte")
+                .templateName(TemplateMailsName.SESSION_STARTED)
+                .build());
+
+        assertThat(greenMail.waitForIncomingEmail(5_000, 1)).isTrue();
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(received.getSubject()).isEqualTo("Début de session");
+        assertThat(GreenMailUtil.getBody(received)).contains("La session Janvier est ouverte");
+        assertThat(renderer.renderCount()).isZero();
+    }
+
+    @Test
+    void connectionIsReplacedAfterMaxMessages() {
+        emailService = new EmailService(mailSender, 1, 30_000, 3);
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(plainMessage("m" + i + "@mutuelle.test"));
+        }
+
+        assertThat(emailService.sendAll(messages)).containsOnlyNulls();
+        assertThat(emailService.sendAll(List.of(plainMessage("x@mutuelle.test")))).containsOnlyNulls();
+
+        // 3 + 3 + 3 + 1 puis 1 sur la dernière connexion, toujours ouverte
+        assertThat(emailService.openedConnections()).isEqualTo(4);
+        assertThat(greenMail.waitForIncomingEmail(5_000, 11)).isTrue();
+    }
+
+    @Test
+    void unreachableServerFailsEveryMessage() {
+        mailSender.setPort(1);
+        emailService = new EmailService(mailSender, 1, 30_000, 0);
+
+        List<Exception> results = emailService.sendAll(List.of(
+                plainMessage("a@mutuelle.test"), plainMessage("b@mutuelle.test")));
+
+        assertThat(results).hasSize(2).doesNotContainNull();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private interface BatchSender {
+        List<Exception> send(List<NotificationRequestDto> batch) throws Exception;
+    }
+
+    /** Lots de 50 répartis sur 4 threads, comme le worker de l'outbox. */
+    private static List<Exception> sendInBatches(List<NotificationRequestDto> requests, BatchSender sender)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<Exception>>> futures = new ArrayList<>();
+            for (int from = 0; from < requests.size(); from += BATCH) {
+                List<NotificationRequestDto> batch = requests.subList(from, Math.min(from + BATCH, requests.size()));
+                futures.add(pool.submit(() -> sender.send(batch)));
+            }
+            List<Exception> results = new ArrayList<>(requests.size());
+            for (Future<List<Exception>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Ancien EmailNotificationSender : un rendu Thymeleaf et un JavaMailSenderImpl.send par email. */
+    private List<Exception> legacySend(List<NotificationRequestDto> batch) {
+        List<Exception> results = new ArrayList<>();
+        for (NotificationRequestDto req : batch) {
+            try {
+                Context context = new Context();
+                req.getVariables().forEach(context::setVariable);
+                context.setVariable("title", req.getTitle());
+                context.setVariable("message", req.getMessage());
+                String html = templateEngine.process("email/" + req.getTemplateName(), context);
+
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+                helper.setTo(req.getEmail());
+                helper.setSubject(req.getTitle());
+                helper.setText(html, true);
+                mailSender.send(message);
+                results.add(null);
+            } catch (Exception e) {
+                results.add(e);
+            }
+        }
+        return results;
+    }
+
+    private static List<NotificationRequestDto> sessionEndedBroadcast() {
+        List<NotificationRequestDto> requests = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("sessionName", "Session 2025");
+            variables.put("endDate", "31/12/2025");
+            variables.put("totalAgapes", new BigDecimal("250000"));
+            variables.put("agapePerMember", new BigDecimal("5000"));
+            // Ajoutées par SessionNotificationHelper, absentes du modèle
+            variables.put("memberId", (long) i);
+            variables.put("firstName", "Prenom" + i);
+            variables.put("lastName", "Nom" + i);
+            requests.add(NotificationRequestDto.builder()
+                    .email("membre" + i + "@mutuelle.test")
+                    .title("Fin de session")
+                    .message("La session est clôturée")
+                    .templateName(TemplateMailsName.SESSION_ENDED)
+                    .variables(variables)
+                    .build());
+        }
+        return requests;
+    }
+
+    private MimeMessage plainMessage(String to) {
+        try {
+            return emailService.createSimpleMessage(to, "Test", "Bonjour");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mutuelle.mobille.service.notifications.outbox;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.enums.NotificationChannel;
+import com.mutuelle.mobille.enums.NotificationOutboxStatus;
+import com.mutuelle.mobille.enums.TemplateMailsName;
+import com.mutuelle.mobille.models.notification.NotificationOutbox;
+import com.mutuelle.mobille.repository.NotificationOutboxRepository;
+import com.mutuelle.mobille.service.notifications.config.NotificationSender;
+import com.mutuelle.mobille.service.notifications.config.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox des notifications : écriture transactionnelle, envoi par le worker,
+ * nouveaux essais, abandon, limite de concurrence par canal et reprise des
+ * réservations expirées. Le worker n'est pas démarré ; chaque test appelle
+ * {@code pollOnce()} lui-même.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "mutuelle.notifications.outbox.enabled=false",
+        "mutuelle.notifications.outbox.max-attempts=3",
+        "mutuelle.notifications.outbox.backoff-initial-ms=0",
+        "mutuelle.notifications.outbox.email-concurrency=2",
+        "mutuelle.notifications.outbox.lock-timeout-ms=1000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({NotificationService.class, NotificationOutboxService.class, NotificationOutboxWorker.class,
+            FlywayConfig.class})
+    static class Config {
+
+        @Bean
+        FakeSender emailSender() {
+            return new FakeSender(NotificationChannel.EMAIL);
+        }
+
+        @Bean
+        FakeSender pushSender() {
+            return new FakeSender(NotificationChannel.PUSH);
+        }
+    }
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private NotificationOutboxWorker worker;
+    @Autowired private NotificationOutboxRepository repository;
+    @Autowired private FakeSender emailSender;
+    @Autowired private FakeSender pushSender;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void reset() {
+        repository.deleteAllInBatch();
+        emailSender.reset();
+        pushSender.reset();
+    }
+
+    @AfterEach
+    void stopWorker() {
+        worker.stop();
+    }
+
+    @Test
+    void rolledBackTransactionWritesNothing() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            notificationService.sendNotification(request("annule@mutuelle.test", Set.of(NotificationChannel.EMAIL)));
+            status.setRollbackOnly();
+        });
+        assertThat(repository.count()).isZero();
+
+        tx.executeWithoutResult(status ->
+                notificationService.sendNotification(request("valide@mutuelle.test",
+                        Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH))));
+        assertThat(repository.findAll())
+                .extracting(NotificationOutbox::getChannel)
+                .containsExactlyInAnyOrder(NotificationChannel.EMAIL, NotificationChannel.PUSH);
+    }
+
+    @Test
+    void independentAlertSurvivesRollback() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationService.sendNotificationIndependently(request("admin@mutuelle.test", Set.of(NotificationChannel.EMAIL)));
+            status.setRollbackOnly();
+        });
+        assertThat(repository.countByStatus(NotificationOutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    @Test
+    void workerDeliversWithOriginalVariableTypes() {
+        notificationService.sendNotification(request("membre@mutuelle.test",
+                Set.of(NotificationChannel.EMAIL, NotificationChannel.PUSH)));
+
+        drainUntil(() -> repository.countByStatus(NotificationOutboxStatus.SENT) == 2);
+
+        NotificationRequestDto delivered = emailSender.delivered.peek();
+        assertThat(delivered).isNotNull();
+        assertThat(delivered.getTemplateName()).isEqualTo(TemplateMailsName.SESSION_STARTED);
+        assertThat(delivered.getVariables().get("montant")).isEqualTo(new BigDecimal("1500.50"));
+        assertThat(delivered.getVariables().get("date")).isInstanceOf(LocalDateTime.class);
+        assertThat(delivered.getVariables().get("canal")).isEqualTo("PUSH");
+        assertThat(pushSender.delivered).hasSize(1);
+    }
+
+    @Test
+    void failuresAreRetriedThenDeadLettered() {
+        emailSender.failuresLeft.set(2);
+        notificationService.sendNotification(request("retry@mutuelle.test", Set.of(NotificationChannel.EMAIL)));
+
+        drainUntil(() -> repository.countByStatus(NotificationOutboxStatus.SENT) == 1);
+        NotificationOutbox sent = repository.findAll().get(0);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(emailSender.delivered).hasSize(1);
+
+        emailSender.failuresLeft.set(Integer.MAX_VALUE);
+        notificationService.sendNotification(request("dead@mutuelle.test", Set.of(NotificationChannel.EMAIL)));
+
+        drainUntil(() -> repository.countByStatus(NotificationOutboxStatus.DEAD) == 1);
+        NotificationOutbox dead = repository.findAll().stream()
+                .filter(o -> o.getStatus() == NotificationOutboxStatus.DEAD)
+                .findFirst().orElseThrow();
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(dead.getLastError()).contains("panne SMTP simulée");
+    }
+
+    @Test
+    void channelConcurrencyIsBounded() {
+        emailSender.delayMs = 20;
+        notificationService.sendNotifications(IntStream.range(0, 30)
+                .mapToObj(i -> request("m" + i + "@mutuelle.test", Set.of(NotificationChannel.EMAIL)))
+                .toList());
+
+        drainUntil(() -> repository.countByStatus(NotificationOutboxStatus.SENT) == 30);
+
+        assertThat(emailSender.delivered).hasSize(30);
+        assertThat(emailSender.maxInFlight.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void staleReservationsAreReleased() {
+        NotificationOutbox stuck = NotificationOutbox.builder()
+                .channel(NotificationChannel.EMAIL)
+                .status(NotificationOutboxStatus.PROCESSING)
+                .email("stuck@mutuelle.test")
+                .title("Bloquée")
+                .lockedAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+        repository.save(stuck);
+
+        drainUntil(() -> repository.countByStatus(NotificationOutboxStatus.SENT) == 1);
+        assertThat(emailSender.delivered).extracting(NotificationRequestDto::getEmail)
+                .containsExactly("stuck@mutuelle.test");
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void drainUntil(java.util.function.BooleanSupplier done) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!done.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("délai d'attente de l'outbox dépassé").isLessThan(deadline);
+            worker.pollOnce();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static NotificationRequestDto request(String email, Set<NotificationChannel> channels) {
+        return NotificationRequestDto.builder()
+                .email(email)
+                .title("Début de session")
+                .message("La session est ouverte")
+                .templateName(TemplateMailsName.SESSION_STARTED)
+                .variables(Map.of(
+                        "montant", new BigDecimal("1500.50"),
+                        "date", LocalDateTime.now(),
+                        "canal", NotificationChannel.PUSH))
+                .channels(channels)
+                .build();
+    }
+
+    static class FakeSender implements NotificationSender {
+
+        private final NotificationChannel channel;
+        final ConcurrentLinkedQueue<NotificationRequestDto> delivered = new ConcurrentLinkedQueue<>();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile long delayMs;
+
+        FakeSender(NotificationChannel channel) {
+            this.channel = channel;
+        }
+
+        void reset() {
+            delivered.clear();
+            failuresLeft.set(0);
+            inFlight.set(0);
+            maxInFlight.set(0);
+            delayMs = 0;
+        }
+
+        @Override
+        public NotificationChannel getChannel() {
+            return channel;
+        }
+
+        @Override
+        public void send(NotificationRequestDto request) {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+                if (failuresLeft.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                    throw new IllegalStateException("panne SMTP simulée");
+                }
+                delivered.add(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
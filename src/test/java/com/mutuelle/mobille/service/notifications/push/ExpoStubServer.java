@@ -0,0 +1,121 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serveur Expo local pour les tests : mêmes routes et même format de réponse
+ * que {@code exp.host}, avec des tokens configurables pour simuler les
+ * erreurs (appareil désinscrit à l'envoi ou au reçu, lot refusé, reçus
+ * indisponibles).
+ */
+class ExpoStubServer implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    /** Taille de chaque lot reçu, dans l'ordre d'arrivée. */
+    final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /** Tokens refusés dès l'envoi (ticket DeviceNotRegistered). */
+    final Set<String> unregisteredAtSend = ConcurrentHashMap.newKeySet();
+    /** Tokens acceptés à l'envoi mais signalés dans le reçu. */
+    final Set<String> unregisteredAtReceipt = ConcurrentHashMap.newKeySet();
+    /** Un lot contenant l'un de ces tokens reçoit une erreur HTTP 500. */
+    final Set<String> failingBatchTokens = ConcurrentHashMap.newKeySet();
+    /** Nombre de demandes de reçus ; toutes échouent (HTTP 503) tant que le drapeau est levé. */
+    final AtomicInteger receiptRequests = new AtomicInteger();
+    volatile boolean receiptsUnavailable;
+    volatile long latencyMs;
+
+    ExpoStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/--/api/v2/push/send", this::handleSend);
+        server.createContext("/--/api/v2/push/getReceipts", this::handleReceipts);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleSend(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            JsonNode messages = mapper.readTree(exchange.getRequestBody());
+            batchSizes.add(messages.size());
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            List<Map<String, Object>> data = new ArrayList<>();
+            for (JsonNode message : messages) {
+                String token = message.path("to").asText();
+                if (failingBatchTokens.contains(token)) {
+                    respond(exchange, 500, Map.of("errors", List.of(Map.of("code", "INTERNAL_SERVER_ERROR"))));
+                    return;
+                }
+                if (unregisteredAtSend.contains(token)) {
+                    data.add(Map.of("status", "error", "message", token + " n'est pas enregistré",
+                            "details", Map.of("error", "DeviceNotRegistered")));
+                } else {
+                    data.add(Map.of("status", "ok", "id", "ticket-" + token));
+                }
+            }
+            respond(exchange, 200, Map.of("data", data));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void handleReceipts(HttpExchange exchange) throws IOException {
+        receiptRequests.incrementAndGet();
+        if (receiptsUnavailable) {
+            respond(exchange, 503, Map.of("errors", List.of(Map.of("code", "SERVICE_UNAVAILABLE"))));
+            return;
+        }
+        JsonNode ids = mapper.readTree(exchange.getRequestBody()).path("ids");
+        Map<String, Object> data = new HashMap<>();
+        for (JsonNode id : ids) {
+            String token = id.asText().substring("ticket-".length());
+            data.put(id.asText(), unregisteredAtReceipt.contains(token)
+                    ? Map.of("status", "error", "details", Map.of("error", "DeviceNotRegistered"))
+                    : Map.of("status", "ok"));
+        }
+        respond(exchange, 200, Map.of("data", data));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,310 @@
+package com.mutuelle.mobille.service.notifications.push;
+
+import com.mutuelle.mobille.dto.notifications.NotificationRequestDto;
+import com.mutuelle.mobille.dto.notifications.PushTargetDTO;
+import com.mutuelle.mobille.models.PushToken;
+import com.mutuelle.mobille.models.auth.AuthUser;
+import com.mutuelle.mobille.repository.PushTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispatcher push contre le serveur Expo local : regroupement en lots de 100
+ * tous destinataires confondus, envois parallèles, cache des destinataires,
+ * suppression des tokens désinscrits (ticket et reçu), échec d'un lot,
+ * limitation de débit, bornes de la file des reçus.
+ */
+class PushDispatcherTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PushDispatcherTest.class);
+
+    private ExpoStubServer expo;
+    private PushTokenRepository repository;
+    private PushRecipientCache recipientCache;
+    private final List<ExpoPushClient> clients = new ArrayList<>();
+    private final Map<String, List<PushToken>> tokensByEmail = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        expo = new ExpoStubServer();
+        repository = mock(PushTokenRepository.class);
+        when(repository.findPushTargetsByEmailIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            List<PushTargetDTO> targets = new ArrayList<>();
+            for (String email : emails) {
+                List<PushToken> tokens = tokensByEmail.get(email);
+                if (tokens == null) {
+                    continue;
+                }
+                if (tokens.isEmpty()) {
+                    targets.add(new PushTargetDTO(userId(email), email, null));
+                }
+                tokens.forEach(t -> targets.add(new PushTargetDTO(userId(email), email, t.getToken())));
+            }
+            return targets;
+        });
+        when(repository.deleteByTokenIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(ExpoPushClient::shutdown);
+        expo.close();
+    }
+
+    @Test
+    void broadcastIsBatchedAcrossUsers() {
+        expo.latencyMs = 50;
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            requests.add(request(registerUser("m" + i + "@mutuelle.test", 1)));
+        }
+        PushDispatcher dispatcher = dispatcher(10_000, 900_000);
+
+        long start = System.nanoTime();
+        List<Exception> results = dispatcher.dispatch(requests);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Push vers 2000 appareils : {} lot(s), {} ms, {} lot(s) simultané(s) au plus",
+                expo.batchSizes.size(), elapsedMs, expo.maxInFlight.get());
+
+        assertThat(results).hasSize(2_000).containsOnlyNulls();
+        assertThat(expo.batchSizes).hasSize(20).allMatch(size -> size == 100);
+        assertThat(expo.maxInFlight.get()).isGreaterThan(1);
+        assertThat(dispatcher.pendingReceiptCount()).isEqualTo(2_000);
+        // 20 lots × 50 ms en série dépasseraient la seconde
+        assertThat(elapsedMs).isLessThan(1_000);
+    }
+
+    @Test
+    void usersWithSeveralDevicesShareBatches() {
+        List<NotificationRequestDto> requests = List.of(
+                request(registerUser("a@mutuelle.test", 3)),
+                request(registerUser("b@mutuelle.test", 0)),
+                request(registerUser("c@mutuelle.test", 2)));
+
+        List<Exception> results = dispatcher(10_000, 900_000).dispatch(requests);
+
+        assertThat(results).containsOnlyNulls();
+        assertThat(expo.batchSizes).containsExactly(5);
+        verify(repository, times(1)).findPushTargetsByEmailIn(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unregisteredDevicesArePrunedFromTickets() {
+        registerUser("a@mutuelle.test", 2);
+        expo.unregisteredAtSend.add("a@mutuelle.test#0");
+
+        List<Exception> results = dispatcher(10_000, 900_000).dispatch(List.of(request("a@mutuelle.test")));
+
+        assertThat(results).containsOnlyNulls();
+        ArgumentCaptor<Collection<String>> pruned = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).deleteByTokenIn(pruned.capture());
+        assertThat(pruned.getValue()).containsExactly("a@mutuelle.test#0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unregisteredDevicesArePrunedFromReceipts() {
+        registerUser("a@mutuelle.test", 2);
+        expo.unregisteredAtReceipt.add("a@mutuelle.test#1");
+        PushDispatcher dispatcher = dispatcher(10_000, 0);
+
+        dispatcher.dispatch(List.of(request("a@mutuelle.test")));
+        verify(repository, never()).deleteByTokenIn(anyCollection());
+
+        dispatcher.checkDueReceipts();
+
+        ArgumentCaptor<Collection<String>> pruned = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).deleteByTokenIn(pruned.capture());
+        assertThat(pruned.getValue()).containsExactly("a@mutuelle.test#1");
+        assertThat(dispatcher.pendingReceiptCount()).isZero();
+    }
+
+    @Test
+    void unavailableReceiptsAreRetriedUntilExpoDropsThem() throws InterruptedException {
+        registerUser("a@mutuelle.test", 2);
+        expo.receiptsUnavailable = true;
+        PushDispatcher dispatcher = dispatcher(10_000, 0, 300, 1_000);
+
+        dispatcher.dispatch(List.of(request("a@mutuelle.test")));
+        dispatcher.checkDueReceipts();
+
+        // Échec de lecture : les tickets restent en file pour le passage suivant
+        assertThat(expo.receiptRequests.get()).isEqualTo(1);
+        assertThat(dispatcher.pendingReceiptCount()).isEqualTo(2);
+
+        Thread.sleep(400);
+        dispatcher.checkDueReceipts();
+
+        // Au-delà de la conservation Expo : abandonnés sans nouvel appel
+        assertThat(expo.receiptRequests.get()).isEqualTo(1);
+        assertThat(dispatcher.pendingReceiptCount()).isZero();
+    }
+
+    @Test
+    void pendingReceiptsAreBounded() {
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            requests.add(request(registerUser("m" + i + "@mutuelle.test", 1)));
+        }
+        PushDispatcher dispatcher = dispatcher(10_000, 900_000, 86_400_000, 100);
+
+        dispatcher.dispatch(requests);
+
+        assertThat(dispatcher.pendingReceiptCount()).isEqualTo(100);
+    }
+
+    @Test
+    void recipientsAreCachedAcrossDispatches() {
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            requests.add(request(registerUser("m" + i + "@mutuelle.test", i % 3)));
+        }
+        requests.add(request("inconnu@mutuelle.test"));
+        PushDispatcher dispatcher = dispatcher(10_000, 900_000);
+
+        for (int round = 0; round < 5; round++) {
+            assertThat(dispatcher.dispatch(requests)).containsOnlyNulls();
+        }
+
+        // Une seule lecture pour les 5 envois, destinataires sans appareil ou inconnus compris
+        verify(repository, times(1)).findPushTargetsByEmailIn(anyCollection());
+        assertThat(recipientCache.size()).isEqualTo(301);
+        assertThat(expo.batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(5 * 300);
+    }
+
+    @Test
+    void registeredTokenInvalidatesRecipient() {
+        registerUser("a@mutuelle.test", 1);
+        PushDispatcher dispatcher = dispatcher(10_000, 900_000);
+        dispatcher.dispatch(List.of(request("a@mutuelle.test")));
+
+        registerUser("a@mutuelle.test", 2);
+        recipientCache.invalidate("a@mutuelle.test");
+        dispatcher.dispatch(List.of(request("a@mutuelle.test")));
+
+        verify(repository, times(2)).findPushTargetsByEmailIn(anyCollection());
+        assertThat(expo.batchSizes).containsExactly(1, 2);
+    }
+
+    @Test
+    void prunedTokenInvalidatesRecipient() {
+        registerUser("a@mutuelle.test", 2);
+        registerUser("b@mutuelle.test", 1);
+        expo.unregisteredAtSend.add("a@mutuelle.test#0");
+        PushDispatcher dispatcher = dispatcher(10_000, 900_000);
+
+        dispatcher.dispatch(List.of(request("a@mutuelle.test"), request("b@mutuelle.test")));
+        assertThat(recipientCache.size()).isEqualTo(1);
+
+        tokensByEmail.get("a@mutuelle.test").remove(0);
+        expo.batchSizes.clear();
+        dispatcher.dispatch(List.of(request("a@mutuelle.test"), request("b@mutuelle.test")));
+
+        // Seul a@ est relu, sans le token supprimé
+        verify(repository, times(2)).findPushTargetsByEmailIn(anyCollection());
+        assertThat(expo.batchSizes).containsExactly(2);
+    }
+
+    @Test
+    void failedBatchFailsOnlyItsRequests() {
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            requests.add(request(registerUser("m" + i + "@mutuelle.test", 1)));
+        }
+        // m120 est dans le second lot (messages 100 à 149)
+        expo.failingBatchTokens.add("m120@mutuelle.test#0");
+
+        List<Exception> results = dispatcher(10_000, 900_000).dispatch(requests);
+
+        assertThat(results.subList(0, 100)).containsOnlyNulls();
+        assertThat(results.subList(100, 150)).doesNotContainNull();
+        assertThat(results.get(120)).hasMessageContaining("500");
+    }
+
+    @Test
+    void rateLimitIsApplied() {
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(request(registerUser("m" + i + "@mutuelle.test", 1)));
+        }
+
+        // 200 messages/s, seau initial de 200 : les 300 suivants attendent ≈ 1,5 s
+        long start = System.nanoTime();
+        dispatcher(200, 900_000).dispatch(requests);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void tokenBucketWaitsForRefill() {
+        TokenBucket bucket = new TokenBucket(1_000, 100);
+        bucket.acquire(100);  // capacité initiale, sans attente
+
+        long start = System.nanoTime();
+        bucket.acquire(100);
+        bucket.acquire(100);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isBetween(150L, 1_000L);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private PushDispatcher dispatcher(double ratePerSecond, long receiptDelayMs) {
+        return dispatcher(ratePerSecond, receiptDelayMs, 86_400_000, 100_000);
+    }
+
+    private PushDispatcher dispatcher(double ratePerSecond, long receiptDelayMs,
+                                      long receiptRetentionMs, int maxPendingReceipts) {
+        ExpoPushClient client = new ExpoPushClient(Jackson2ObjectMapperBuilder.json().build(), expo.baseUrl(), "", 8);
+        clients.add(client);
+        recipientCache = new PushRecipientCache(repository, 10_000, 600_000);
+        return new PushDispatcher(repository, recipientCache, client, ratePerSecond, receiptDelayMs,
+                receiptRetentionMs, maxPendingReceipts);
+    }
+
+    private static Long userId(String email) {
+        return (long) email.hashCode();
+    }
+
+    private String registerUser(String email, int devices) {
+        AuthUser user = new AuthUser();
+        user.setEmail(email);
+        List<PushToken> tokens = new ArrayList<>();
+        for (int d = 0; d < devices; d++) {
+            PushToken token = new PushToken();
+            token.setUser(user);
+            token.setToken(email + "#" + d);
+            tokens.add(token);
+        }
+        tokensByEmail.put(email, tokens);
+        return email;
+    }
+
+    private static NotificationRequestDto request(String email) {
+        return NotificationRequestDto.builder()
+                .email(email)
+                .title("Début de session")
+                .message("La session est ouverte")
+                .variables(Map.of("startDate", LocalDateTime.now()))
+                .build();
+    }
+}
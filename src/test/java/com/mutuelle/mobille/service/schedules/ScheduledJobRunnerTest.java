@@ -0,0 +1,319 @@
+package com.mutuelle.mobille.service.schedules;
+
+import com.mutuelle.mobille.config.FlywayConfig;
+import com.mutuelle.mobille.dto.schedule.ScheduledJobRunDTO;
+import com.mutuelle.mobille.enums.ScheduledJobRunStatus;
+import com.mutuelle.mobille.enums.ScheduledJobTrigger;
+import com.mutuelle.mobille.enums.StatusExercice;
+import com.mutuelle.mobille.models.Exercice;
+import com.mutuelle.mobille.models.schedule.ScheduledJobLock;
+import com.mutuelle.mobille.models.schedule.ScheduledJobRun;
+import com.mutuelle.mobille.repository.ExerciceRepository;
+import com.mutuelle.mobille.repository.ScheduledJobLockRepository;
+import com.mutuelle.mobille.repository.ScheduledJobRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verrou en base prolongé pendant l'exécution, exécutions enregistrées et
+ * idempotentes, une transaction par élément et rattrapage des créneaux manqués.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "mutuelle.jobs.lock-lease-ms=2000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduledJobRunnerTest {
+
+    @Configuration
+    @EntityScan("com.mutuelle.mobille.models")
+    @EnableJpaRepositories("com.mutuelle.mobille.repository")
+    @Import({ScheduledJobRunner.class, FlywayConfig.class})
+    static class Config {
+
+        @Bean
+        BlockingJob blockingJob() {
+            return new BlockingJob();
+        }
+
+        @Bean
+        LeaseJob leaseJob() {
+            return new LeaseJob();
+        }
+
+        @Bean
+        ExerciceBatchJob exerciceBatchJob(ExerciceRepository exerciceRepository) {
+            return new ExerciceBatchJob(exerciceRepository);
+        }
+    }
+
+    @Autowired private ScheduledJobRunner runner;
+    @Autowired private BlockingJob blockingJob;
+    @Autowired private LeaseJob leaseJob;
+    @Autowired private ExerciceRepository exerciceRepository;
+    @Autowired private ScheduledJobRunRepository runRepository;
+    @Autowired private ScheduledJobLockRepository lockRepository;
+
+    @BeforeEach
+    void setUp() {
+        runRepository.deleteAllInBatch();
+        lockRepository.deleteAllInBatch();
+        exerciceRepository.deleteAllInBatch();
+        blockingJob.reset();
+    }
+
+    @Test
+    void onlyOneConcurrentRunHoldsTheLock() throws Exception {
+        blockingJob.release = new CountDownLatch(1);
+        CompletableFuture<ScheduledJobRunDTO> first = CompletableFuture.supplyAsync(() -> runner.runNow(BlockingJob.NAME));
+        assertThat(blockingJob.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ScheduledJobRunDTO second = runner.runNow(BlockingJob.NAME);
+        blockingJob.release.countDown();
+
+        assertThat(second.getStatus()).isEqualTo(ScheduledJobRunStatus.SKIPPED);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(ScheduledJobRunStatus.SUCCEEDED);
+        assertThat(blockingJob.executions.get()).isEqualTo(1);
+        // Verrou rendu : l'exécution suivante passe
+        assertThat(runner.runNow(BlockingJob.NAME).getStatus()).isEqualTo(ScheduledJobRunStatus.SUCCEEDED);
+    }
+
+    @Test
+    void theLeaseIsExtendedBetweenItems() {
+        AtomicInteger takenByOther = new AtomicInteger();
+        // 3 × 800 ms au-delà du bail de 2 s : il n'est pas repris tant que les éléments avancent
+        leaseJob.body = context -> {
+            for (int i = 1; i <= 3; i++) {
+                context.run("élément " + i, () -> {
+                    sleep(800);
+                    takenByOther.addAndGet(lockRepository.tryAcquire(LeaseJob.NAME, "autre-instance",
+                            LocalDateTime.now(), LocalDateTime.now().plusMinutes(1)));
+                });
+            }
+        };
+
+        ScheduledJobRunDTO run = runner.runNow(LeaseJob.NAME);
+
+        assertThat(run.getStatus()).isEqualTo(ScheduledJobRunStatus.SUCCEEDED);
+        assertThat(run.getProcessedCount()).isEqualTo(3);
+        assertThat(takenByOther.get()).isZero();
+    }
+
+    @Test
+    void aRunStopsOnceItsLeaseHasExpired() {
+        AtomicInteger executed = new AtomicInteger();
+        leaseJob.body = context -> {
+            context.run("élément lent", () -> {
+                sleep(2_200);
+                executed.incrementAndGet();
+                // Bail expiré : une autre instance prend la tâche
+                assertThat(lockRepository.tryAcquire(LeaseJob.NAME, "autre-instance",
+                        LocalDateTime.now(), LocalDateTime.now().plusMinutes(1))).isEqualTo(1);
+            });
+            context.run("élément suivant", executed::incrementAndGet);
+        };
+
+        ScheduledJobRunDTO run = runner.runNow(LeaseJob.NAME);
+
+        assertThat(run.getStatus()).isEqualTo(ScheduledJobRunStatus.FAILED);
+        assertThat(run.getMessage()).contains("Verrou perdu avant élément suivant");
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(lockRepository.findById(LeaseJob.NAME)).get()
+                .extracting(ScheduledJobLock::getLockedBy).isEqualTo("autre-instance");
+    }
+
+    @Test
+    void aSucceededKeyIsNotRunAgain() {
+        blockingJob.fixedKey = "session-1";
+
+        ScheduledJobRunDTO first = runner.runNow(BlockingJob.NAME);
+        ScheduledJobRunDTO second = runner.runNow(BlockingJob.NAME);
+
+        assertThat(first.getStatus()).isEqualTo(ScheduledJobRunStatus.SUCCEEDED);
+        assertThat(first.getDurationMs()).isNotNull();
+        assertThat(second.getStatus()).isEqualTo(ScheduledJobRunStatus.SKIPPED);
+        assertThat(blockingJob.executions.get()).isEqualTo(1);
+        assertThat(runRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void eachItemCommitsInItsOwnTransaction() {
+        ScheduledJobRunDTO run = runner.runNow(ExerciceBatchJob.NAME);
+
+        assertThat(run.getStatus()).isEqualTo(ScheduledJobRunStatus.PARTIAL);
+        assertThat(run.getProcessedCount()).isEqualTo(2);
+        assertThat(run.getFailedCount()).isEqualTo(1);
+        assertThat(run.getMessage()).contains("exercice 2");
+        assertThat(exerciceRepository.findAll()).extracting(Exercice::getName)
+                .containsExactlyInAnyOrder("Exercice 1", "Exercice 3");
+    }
+
+    @Test
+    void aMissedSlotIsCaughtUpOnce() {
+        // Tâche quotidienne exécutée pour la dernière fois il y a trois jours
+        runRepository.save(ScheduledJobRun.builder()
+                .jobName(BlockingJob.NAME)
+                .runKey("ancien")
+                .trigger(ScheduledJobTrigger.SCHEDULED)
+                .status(ScheduledJobRunStatus.SUCCEEDED)
+                .startedAt(LocalDateTime.now().minusDays(3))
+                .build());
+
+        List<ScheduledJobRunDTO> caughtUp = runner.catchUp();
+
+        assertThat(caughtUp).hasSize(1);
+        assertThat(caughtUp.get(0).getTrigger()).isEqualTo(ScheduledJobTrigger.CATCH_UP);
+        assertThat(caughtUp.get(0).getStatus()).isEqualTo(ScheduledJobRunStatus.SUCCEEDED);
+        assertThat(runner.catchUp()).isEmpty();
+        assertThat(blockingJob.executions.get()).isEqualTo(1);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class LeaseJob implements ScheduledJob {
+
+        static final String NAME = "test-lease";
+
+        volatile Consumer<ScheduledJobContext> body = context -> { };
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public String cron() {
+            return "0 0 6 * * *";
+        }
+
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        @Override
+        public void execute(ScheduledJobContext context) {
+            body.accept(context);
+        }
+    }
+
+    static class BlockingJob implements ScheduledJob {
+
+        static final String NAME = "test-blocking";
+
+        final AtomicInteger executions = new AtomicInteger();
+        volatile CountDownLatch started;
+        volatile CountDownLatch release;
+        volatile String fixedKey;
+
+        void reset() {
+            executions.set(0);
+            started = new CountDownLatch(1);
+            release = null;
+            fixedKey = null;
+        }
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public String cron() {
+            return "0 0 4 * * *";
+        }
+
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public String runKey(LocalDateTime slot) {
+            return fixedKey != null ? fixedKey : slot.toString();
+        }
+
+        @Override
+        public void execute(ScheduledJobContext context) {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                if (release != null && !release.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Tâche jamais libérée");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static class ExerciceBatchJob implements ScheduledJob {
+
+        static final String NAME = "test-batch";
+
+        private final ExerciceRepository exerciceRepository;
+
+        ExerciceBatchJob(ExerciceRepository exerciceRepository) {
+            this.exerciceRepository = exerciceRepository;
+        }
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public String cron() {
+            return "0 0 5 * * *";
+        }
+
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        @Override
+        public void execute(ScheduledJobContext context) {
+            for (int i = 1; i <= 3; i++) {
+                int index = i;
+                context.inOwnTransaction("exercice " + index, () -> {
+                    Exercice exercice = new Exercice();
+                    exercice.setName("Exercice " + index);
+                    exercice.setStatus(StatusExercice.PLANNED);
+                    exerciceRepository.save(exercice);
+                    if (index == 2) {
+                        throw new IllegalStateException("Échec simulé");
+                    }
+                });
+            }
+        }
+    }
+}